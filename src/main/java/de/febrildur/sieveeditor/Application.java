@@ -10,6 +10,7 @@ import java.awt.Font;
 import java.awt.event.KeyEvent;
 import java.io.IOException;
 import java.lang.reflect.InaccessibleObjectException;
+import java.util.List;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -24,11 +25,13 @@ import javax.swing.JPanel;
 import javax.swing.JSplitPane;
 import javax.swing.KeyStroke;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 
 import com.formdev.flatlaf.FlatLightLaf;
 import com.formdev.flatlaf.util.UIScale;
 
 import org.fife.ui.rsyntaxtextarea.AbstractTokenMakerFactory;
+import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
 import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
 import org.fife.ui.rsyntaxtextarea.TokenMakerFactory;
 import org.fife.ui.rtextarea.RTextScrollPane;
@@ -39,14 +42,22 @@ import com.fluffypeople.managesieve.SieveScript;
 import de.febrildur.sieveeditor.actions.ActionActivateDeactivateScript;
 import de.febrildur.sieveeditor.actions.ActionCheckScript;
 import de.febrildur.sieveeditor.actions.ActionConnect;
+import de.febrildur.sieveeditor.actions.ActionFormatScript;
 import de.febrildur.sieveeditor.actions.ActionOpenLocalScript;
 import de.febrildur.sieveeditor.actions.ActionReplace;
+import de.febrildur.sieveeditor.actions.ActionRollbackDeployment;
 import de.febrildur.sieveeditor.actions.ActionSaveLocalScript;
 import de.febrildur.sieveeditor.actions.ActionSaveScript;
 import de.febrildur.sieveeditor.actions.ActionSaveScriptAs;
+import de.febrildur.sieveeditor.actions.ActionShowChanges;
 import de.febrildur.sieveeditor.actions.InsertMenuBuilder;
 import de.febrildur.sieveeditor.system.ConnectAndListScripts;
 import de.febrildur.sieveeditor.system.PropertiesSieve;
+import de.febrildur.sieveeditor.system.ProtocolTrace;
+import de.febrildur.sieveeditor.system.ScriptCache;
+import de.febrildur.sieveeditor.system.ScriptChangeWatcher;
+import de.febrildur.sieveeditor.system.ScriptDeployment;
+import de.febrildur.sieveeditor.system.SieveKeywordSet;
 import de.febrildur.sieveeditor.system.SieveTokenMaker;
 
 public class Application extends JFrame {
@@ -56,13 +67,22 @@ public class Application extends JFrame {
 	private ConnectAndListScripts server;
 	private PropertiesSieve prop;
 	private RSyntaxTextArea textArea;
+	private SieveTokenMaker tokenMaker; // Highlights the keywords of the connected server
+	private de.febrildur.sieveeditor.ui.OccurrenceHighlighter occurrenceHighlighter;
+	private de.febrildur.sieveeditor.system.SieveCompletionProvider completionProvider;
 	private de.febrildur.sieveeditor.ui.RuleNavigatorPanel ruleNavigator;
-	private javax.swing.Timer parserDebounceTimer;
+	private de.febrildur.sieveeditor.parser.IncrementalRuleParser ruleParser;
+	private de.febrildur.sieveeditor.ui.RuleNavigatorUpdater navigatorUpdater;
 	private de.febrildur.sieveeditor.ui.SearchPanel searchPanel;
 	private JSplitPane mainSplitPane; // Horizontal split between editor and navigator
 	private boolean userHasManuallyResizedDivider = false; // Track if user manually resized
 	private boolean isAdjustingDividerProgrammatically = false; // Flag to prevent false positives
 	private SieveScript script;
+	private ScriptCache scriptCache;
+	private boolean showingCachedScript = false; // Read-only cache view until revalidated
+	private String loadedBody; // Body as last loaded from or saved to the server
+	private ScriptChangeWatcher changeWatcher;
+	private ScriptDeployment lastDeployment; // Kept for one-click rollback
 
 	private AbstractAction actionConnect = new ActionConnect(this);
 	private AbstractAction actionDisconnect = new AbstractAction("Disconnect") {
@@ -77,8 +97,12 @@ public class Application extends JFrame {
 				} catch (IOException | ParseException ex) {
 					// Ignore logout errors
 				}
+				stopChangeWatcher();
 				server = null;
 				script = null;
+				loadedBody = null;
+				lastDeployment = null;
+				leaveCachedView();
 				textArea.setText("");
 				ruleNavigator.clear(); // Clear the navigator panel
 				setTitle("Sieve Editor");
@@ -91,7 +115,10 @@ public class Application extends JFrame {
 	private AbstractAction actionCheckScript = new ActionCheckScript(this);
 	private AbstractAction actionSaveScript = new ActionSaveScript(this);
 	private AbstractAction actionSaveScriptAs = new ActionSaveScriptAs(this);
+	private AbstractAction actionRollbackDeployment = new ActionRollbackDeployment(this);
+	private AbstractAction actionShowChanges = new ActionShowChanges(this);
 	private AbstractAction actionReplace = new ActionReplace(this);
+	private AbstractAction actionFormatScript = new ActionFormatScript(this);
 	private AbstractAction actionOpenLocal = new ActionOpenLocalScript(this);
 	private AbstractAction actionSaveLocal = new ActionSaveLocalScript(this);
 	private AbstractAction actionQuit = new AbstractAction("Quit") {
@@ -151,14 +178,17 @@ public class Application extends JFrame {
 		sieve.addSeparator();
 		sieve.add(new JMenuItem(actionActivateDeactivateScript));
 		sieve.add(new JMenuItem(actionCheckScript));
+		sieve.add(new JMenuItem(actionShowChanges));
 		sieve.add(new JMenuItem(actionSaveScript));
 		sieve.add(new JMenuItem(actionSaveScriptAs));
+		sieve.add(new JMenuItem(actionRollbackDeployment));
 
 		// Edit menu
 		JMenu edit = new JMenu("Edit");
 		menu.add(edit);
 
 		edit.add(new JMenuItem(actionReplace));
+		edit.add(new JMenuItem(actionFormatScript));
 
 		// Insert menu - templates
 		InsertMenuBuilder insertMenuBuilder = new InsertMenuBuilder(this);
@@ -168,6 +198,12 @@ public class Application extends JFrame {
 		JMenu help = new JMenu("Help");
 		menu.add(help);
 
+		JMenuItem traceItem = new JMenuItem("Protocol Trace...");
+		traceItem.addActionListener(e -> de.febrildur.sieveeditor.ui.ProtocolTraceDialog.showTraceDialog(this,
+			server != null ? server.getProtocolTrace() : ProtocolTrace.getGlobal()));
+		help.add(traceItem);
+		help.addSeparator();
+
 		JMenuItem aboutItem = new JMenuItem("About SieveEditor...");
 		aboutItem.addActionListener(e -> de.febrildur.sieveeditor.ui.AboutDialog.showAboutDialog(this));
 		help.add(aboutItem);
@@ -178,10 +214,17 @@ public class Application extends JFrame {
 
 		AbstractTokenMakerFactory atmf = (AbstractTokenMakerFactory) TokenMakerFactory.getDefaultInstance();
 		atmf.putMapping("text/sieve", SieveTokenMaker.class.getCanonicalName());
+		org.fife.ui.rsyntaxtextarea.folding.FoldParserManager.get()
+			.addFoldParserMapping("text/sieve", new de.febrildur.sieveeditor.system.SieveFoldParser());
 
 		textArea = new RSyntaxTextArea(20, 60);
 		textArea.setSyntaxEditingStyle("text/sieve");
+		// Our own instance, so the keyword set can follow the connected server
+		tokenMaker = new SieveTokenMaker();
+		((RSyntaxDocument) textArea.getDocument()).setSyntaxStyle(tokenMaker);
 		textArea.setCodeFoldingEnabled(true);
+		// Marks the other uses of the name at the caret, looked up in a background index
+		occurrenceHighlighter = new de.febrildur.sieveeditor.ui.OccurrenceHighlighter(textArea);
 
 		// Set a properly scaled monospace font for the editor
 		// Base size 13pt scales with FlatLaf's UIScale for HiDPI displays
@@ -195,6 +238,28 @@ public class Application extends JFrame {
 		int gutterFontSize = UIScale.scale(15);
 		sp.getGutter().setLineNumberFont(new Font(Font.MONOSPACED, Font.PLAIN, gutterFontSize));
 
+		// Syntax errors are checked locally off the EDT and shown as squiggles and gutter icons
+		textArea.setParserDelay(300);
+		de.febrildur.sieveeditor.system.SieveSyntaxParser syntaxParser =
+			new de.febrildur.sieveeditor.system.SieveSyntaxParser(textArea);
+		textArea.addParser(syntaxParser);
+		new de.febrildur.sieveeditor.ui.ParserNoticeIcons(textArea, sp.getGutter());
+
+		// Completes keywords, and folders and headers of the last checked script
+		completionProvider = new de.febrildur.sieveeditor.system.SieveCompletionProvider();
+		syntaxParser.setScriptListener(script -> {
+			completionProvider.updateScript(script);
+			// Lint the same tree instead of copying and parsing the text again
+			if (navigatorUpdater != null) {
+				navigatorUpdater.lint(script);
+			}
+		});
+		org.fife.ui.autocomplete.AutoCompletion autoCompletion =
+			new org.fife.ui.autocomplete.AutoCompletion(completionProvider);
+		autoCompletion.setAutoActivationEnabled(true);
+		autoCompletion.setAutoCompleteSingleChoices(false); // Don't insert while typing
+		autoCompletion.install(textArea);
+
 		// Register global keyboard shortcuts using WHEN_IN_FOCUSED_WINDOW scope
 		// This ensures keystrokes work even when focus is in the text editor
 		registerGlobalKeystroke(actionOpenLocal);
@@ -207,6 +272,7 @@ public class Application extends JFrame {
 		registerGlobalKeystroke(actionSaveScript);
 		registerGlobalKeystroke(actionSaveScriptAs);
 		registerGlobalKeystroke(actionReplace);
+		registerGlobalKeystroke(actionFormatScript);
 
 		// Create search panel (docked above navigator)
 		searchPanel = new de.febrildur.sieveeditor.ui.SearchPanel();
@@ -278,6 +344,8 @@ public class Application extends JFrame {
 		});
 
 		updateStatus();
+
+		showCachedScript();
 	}
 
 	/**
@@ -395,11 +463,227 @@ public class Application extends JFrame {
 	}
 
 	public void setScript(SieveScript script) throws IOException, ParseException {
+		String body = server.getScript(script);
 		this.script = script;
-		textArea.setText(server.getScript(script));
+		this.loadedBody = body;
+		leaveCachedView();
+		textArea.setText(body);
+		updateRuleNavigator();
+		watchForServerChanges(script.getName(), body);
+
+		ScriptCache cache = getScriptCache();
+		cache.putBody(script.getName(), body);
+		cache.saveQuietly();
+	}
+
+	/**
+	 * Gets the script cache of the current profile, switching caches when the
+	 * profile has changed.
+	 *
+	 * @return the script cache
+	 */
+	private ScriptCache getScriptCache() {
+		if (scriptCache == null || !scriptCache.getCacheFile().getFileName().toString()
+				.equals(prop.getProfileName() + ".cache")) {
+			scriptCache = new ScriptCache(prop);
+			scriptCache.load();
+		}
+		return scriptCache;
+	}
+
+	/**
+	 * Shows the last script of the current profile from the disk cache right
+	 * away, read-only, and revalidates it against the server in the background.
+	 * Fresh content replaces the cached text only if it differs.
+	 */
+	private void showCachedScript() {
+		ScriptCache cache = getScriptCache();
+		String name = cache.getLastScriptName();
+		String body = name != null ? cache.getBody(name) : null;
+		if (body == null) {
+			return;
+		}
+
+		showingCachedScript = true;
+		textArea.setText(body);
+		textArea.setCaretPosition(0);
+		textArea.setEditable(false);
+		setTitle("Sieve Editor - " + name + " (cached, read-only)");
+		updateRuleNavigator();
+
+		if (prop.getServer().isEmpty() || prop.getPassword().isEmpty()) {
+			// Nothing to revalidate with; the user has to connect manually
+			return;
+		}
+
+		PropertiesSieve profile = prop;
+		new SwingWorker<SieveScript, Void>() {
+			private final ConnectAndListScripts connection = new ConnectAndListScripts();
+			private List<SieveScript> scripts;
+
+			@Override
+			protected SieveScript doInBackground() throws Exception {
+				// No certificate dialogs from a background thread: strict validation only
+				connection.connect(profile.getServer(), profile.getPort(), profile.getUsername(),
+					profile.getPassword(), false);
+				scripts = connection.getListScripts();
+				for (SieveScript candidate : scripts) {
+					if (candidate.getName().equals(name)) {
+						connection.getScript(candidate);
+						return candidate;
+					}
+				}
+				return null;
+			}
+
+			@Override
+			protected void done() {
+				SieveScript fresh;
+				try {
+					fresh = get();
+				} catch (Exception e) {
+					LOGGER.log(Level.INFO, "Could not revalidate cached script: {0}", e.getMessage());
+					// Listing or loading may fail after the login succeeded
+					closeConnection();
+					if (showingCachedScript) {
+						setTitle("Sieve Editor - " + name + " (cached, offline)");
+					}
+					return;
+				}
+
+				if (!showingCachedScript || server != null || prop != profile) {
+					// The user connected or opened something else in the meantime
+					closeConnection();
+					return;
+				}
+
+				connection.setParentComponent(Application.this);
+				server = connection;
+				cache.updateList(scripts);
+				cache.saveQuietly();
+				if (fresh == null) {
+					// Keep the last copy visible, but there is nothing left to edit or save to
+					setTitle("Sieve Editor - " + name + " (deleted on server, read-only)");
+					updateStatus();
+					JOptionPane.showMessageDialog(Application.this,
+						"The script \"" + name + "\" no longer exists on the server.\n"
+							+ "The cached copy is shown read-only. Load a script to continue editing.",
+						"Script Deleted", JOptionPane.INFORMATION_MESSAGE);
+					return;
+				}
+
+				script = fresh;
+				leaveCachedView();
+				if (!fresh.getBody().equals(textArea.getText())) {
+					textArea.setText(fresh.getBody());
+					textArea.setCaretPosition(0);
+					updateRuleNavigator();
+				}
+				loadedBody = fresh.getBody();
+				watchForServerChanges(fresh.getName(), loadedBody);
+				setTitle("Sieve Editor");
+				updateStatus();
+
+				cache.putBody(fresh.getName(), fresh.getBody());
+				cache.saveQuietly();
+			}
+
+			private void closeConnection() {
+				if (!connection.isLoggedIn()) {
+					return;
+				}
+				try {
+					connection.logout();
+				} catch (IOException | ParseException | RuntimeException e) {
+					// Ignore logout errors; logout() stops the keep-alive timer first
+				}
+			}
+		}.execute();
+	}
+
+	/**
+	 * Starts background detection of changes made to the open script by other
+	 * clients. The watcher is bound to the current server connection.
+	 *
+	 * @param name the script name
+	 * @param body the body as loaded from or saved to the server
+	 */
+	private void watchForServerChanges(String name, String body) {
+		if (changeWatcher == null || changeWatcher.getServer() != server) {
+			stopChangeWatcher();
+			changeWatcher = new ScriptChangeWatcher(server);
+			changeWatcher.setListener((changedName, state) -> SwingUtilities.invokeLater(() -> {
+				if (script != null && script.getName().equals(changedName)) {
+					String what = state == ScriptChangeWatcher.State.DELETED ? "deleted" : "changed";
+					setTitle("Sieve Editor - " + changedName + " (" + what + " on server)");
+				}
+			}));
+		}
+		changeWatcher.watch(name, body);
+		setTitle("Sieve Editor");
+	}
+
+	private void stopChangeWatcher() {
+		if (changeWatcher != null) {
+			changeWatcher.shutdown();
+			changeWatcher = null;
+		}
+	}
+
+	/**
+	 * Gets the watcher for external changes to the open script.
+	 *
+	 * @return the watcher, or null if no server script is open
+	 */
+	public ScriptChangeWatcher getChangeWatcher() {
+		return changeWatcher;
+	}
+
+	/**
+	 * Gets the body of the open script as last loaded from or saved to the server.
+	 *
+	 * @return the loaded body, or null if no server script is open
+	 */
+	public String getLoadedBody() {
+		return loadedBody;
+	}
+
+	/**
+	 * Replaces the editor content with the result of merging in a changed
+	 * server copy. The server copy becomes the new base, so the following
+	 * save no longer counts as overwriting it.
+	 *
+	 * @param mergedText the merged script
+	 * @param serverBody the server body the merge was made against
+	 */
+	public void applyMergedScript(String mergedText, String serverBody) {
+		// One undo step for the whole merge
+		textArea.beginAtomicEdit();
+		try {
+			int caret = Math.min(textArea.getCaretPosition(), mergedText.length());
+			textArea.setText(mergedText);
+			textArea.setCaretPosition(caret);
+		} finally {
+			textArea.endAtomicEdit();
+		}
+		loadedBody = serverBody;
+		if (script != null) {
+			watchForServerChanges(script.getName(), serverBody);
+		}
 		updateRuleNavigator();
 	}
 
+	/**
+	 * Makes the editor writable again after showing cached content.
+	 */
+	private void leaveCachedView() {
+		if (showingCachedScript) {
+			showingCachedScript = false;
+			textArea.setEditable(true);
+			setTitle("Sieve Editor");
+		}
+	}
+
 	/**
 	 * Loads a local script file for editing (offline mode).
 	 *
@@ -412,25 +696,71 @@ public class Application extends JFrame {
 	 * @param filename The filename for display in title bar
 	 */
 	public void loadLocalScript(String content, String filename) {
+		leaveCachedView();
+		stopChangeWatcher();
 		textArea.setText(content);
 		script = null;
+		loadedBody = null;
 		setTitle("Sieve Editor - " + filename + " (Local)");
 		updateStatus();
 		updateRuleNavigator();
 	}
 
+	/**
+	 * Saves the open script under its name. The caller has already checked
+	 * the script with the server, so the deployment doesn't check it again.
+	 */
 	public void save() {
-		save(script.getName());
+		save(script.getName(), false);
 	}
 
 	public void save(String name) {
+		save(name, true);
+	}
+
+	private void save(String name, boolean verify) {
 		try {
-			server.putScript(name, textArea.getText());
+			String body = textArea.getText();
+			// Upload under a temporary name, then swap in and activate
+			ScriptDeployment deployment = new ScriptDeployment(server).add(name, body).activate(name);
+			if (!verify) {
+				deployment.verified();
+			}
+			deployment.deploy();
+			lastDeployment = deployment;
+			if (script != null && script.getName().equals(name)) {
+				loadedBody = body;
+				watchForServerChanges(name, body);
+			}
+			ScriptCache cache = getScriptCache();
+			cache.putBody(name, body);
+			cache.saveQuietly();
 		} catch (IOException | ParseException e) {
 			JOptionPane.showMessageDialog(this, e.getClass().getName() + ": " + e.getMessage());
 		}
 	}
 
+	/**
+	 * Gets the last deployment made by saving, for rollback.
+	 *
+	 * @return the last deployment, or null if nothing was saved on this connection
+	 */
+	public ScriptDeployment getLastDeployment() {
+		return lastDeployment;
+	}
+
+	/**
+	 * Reloads the open script from the server, e.g. after a rollback.
+	 *
+	 * @throws IOException if the script cannot be loaded
+	 * @throws ParseException if the server response is malformed
+	 */
+	public void reloadScript() throws IOException, ParseException {
+		if (server != null && script != null) {
+			setScript(script);
+		}
+	}
+
 	public String getScriptText() {
 		return textArea.getText();
 	}
@@ -454,8 +784,28 @@ public class Application extends JFrame {
 
 		actionCheckScript.setEnabled(server != null);
 		actionSaveScript.setEnabled(server != null && script != null);
+		actionShowChanges.setEnabled(server != null && script != null);
 		actionSaveScriptAs.setEnabled(server != null);
+		actionRollbackDeployment.setEnabled(server != null && lastDeployment != null && lastDeployment.canRollback());
 		actionQuit.setEnabled(true);
+		updateKeywordHighlighting();
+		if (completionProvider != null) {
+			completionProvider.setServerExtensions(server != null ? server.getSieveExtensions() : null);
+		}
+	}
+
+	/**
+	 * Highlights keywords of extensions the connected server lacks as errors.
+	 */
+	private void updateKeywordHighlighting() {
+		if (tokenMaker == null) {
+			return;
+		}
+		SieveKeywordSet keywords = SieveKeywordSet.forServer(server != null ? server.getSieveExtensions() : null);
+		if (!keywords.equals(tokenMaker.getKeywordSet())) {
+			tokenMaker.setKeywordSet(keywords);
+			textArea.repaint();
+		}
 	}
 
 	/**
@@ -504,68 +854,74 @@ public class Application extends JFrame {
 
 	/**
 	 * Updates the rule navigator with the current script content.
-	 * Auto-sizes the navigator width on first load only.
+	 * Large scripts are scanned in the background and shown when done.
 	 */
 	public void updateRuleNavigator() {
 		if (ruleNavigator != null) {
-			ruleNavigator.updateRules(getScriptText());
-
-			// Auto-size navigator width based on content (only on first load)
-			if (!ruleNavigator.isWidthAutoSized()) {
-				// Use SwingUtilities.invokeLater to ensure layout is complete
-				SwingUtilities.invokeLater(() -> {
-					if (mainSplitPane != null && mainSplitPane.getWidth() > 0) {
-						int recommendedWidth = ruleNavigator.getRecommendedWidth();
-						// Set divider location from right edge
-						isAdjustingDividerProgrammatically = true;
-						try {
-							mainSplitPane.setDividerLocation(mainSplitPane.getWidth() - recommendedWidth - mainSplitPane.getDividerSize());
-							ruleNavigator.markWidthAutoSized();
-						} finally {
-							isAdjustingDividerProgrammatically = false;
-						}
+			navigatorUpdater.refreshNow();
+		}
+	}
+
+	/**
+	 * Shows parsed rules in the navigator.
+	 * Auto-sizes the navigator width on first load only.
+	 */
+	private void showRules(de.febrildur.sieveeditor.parser.SieveRuleParser.ParseResult result) {
+		ruleNavigator.showRules(result);
+
+		// Auto-size navigator width based on content (only on first load)
+		if (!ruleNavigator.isWidthAutoSized()) {
+			// Use SwingUtilities.invokeLater to ensure layout is complete
+			SwingUtilities.invokeLater(() -> {
+				if (mainSplitPane != null && mainSplitPane.getWidth() > 0) {
+					int recommendedWidth = ruleNavigator.getRecommendedWidth();
+					// Set divider location from right edge
+					isAdjustingDividerProgrammatically = true;
+					try {
+						mainSplitPane.setDividerLocation(mainSplitPane.getWidth() - recommendedWidth - mainSplitPane.getDividerSize());
+						ruleNavigator.markWidthAutoSized();
+					} finally {
+						isAdjustingDividerProgrammatically = false;
 					}
-				});
-			}
+				}
+			});
 		}
 	}
 
 
 	/**
 	 * Sets up debounced auto-update of the rule navigator when text changes.
-	 * Uses a 500ms delay to avoid parsing on every keystroke.
+	 * The delay adapts to the measured parse cost of the script.
 	 */
 	private void setupNavigatorAutoUpdate() {
-		// Create debounce timer (500ms delay)
-		parserDebounceTimer = new javax.swing.Timer(500, e -> {
-			// Update navigator with current text
-			updateRuleNavigator();
-		});
-		parserDebounceTimer.setRepeats(false); // Only fire once after delay
-
-		// Add document listener to textArea
+		// Rules are kept current per edit; large edits are rescanned off the EDT
+		ruleParser = new de.febrildur.sieveeditor.parser.IncrementalRuleParser(textArea.getDocument());
+		navigatorUpdater = new de.febrildur.sieveeditor.ui.RuleNavigatorUpdater(
+			textArea.getDocument(), ruleParser, this::showRules);
+		// Lint findings join the rule warnings; server extensions are known once connected
+		navigatorUpdater.setLintEngine(de.febrildur.sieveeditor.parser.lint.LintEngine.withDefaultRules(),
+			() -> server != null ? server.getSieveExtensions() : null);
+
+		// Editing keeps server change detection at its fastest poll rate
 		textArea.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
 			@Override
 			public void insertUpdate(javax.swing.event.DocumentEvent e) {
-				scheduleNavigatorUpdate();
+				userActivity();
 			}
 
 			@Override
 			public void removeUpdate(javax.swing.event.DocumentEvent e) {
-				scheduleNavigatorUpdate();
+				userActivity();
 			}
 
 			@Override
 			public void changedUpdate(javax.swing.event.DocumentEvent e) {
-				scheduleNavigatorUpdate();
+				// Attribute changes are not edits
 			}
 
-			private void scheduleNavigatorUpdate() {
-				// Restart the timer on each change (debounce)
-				if (parserDebounceTimer.isRunning()) {
-					parserDebounceTimer.restart();
-				} else {
-					parserDebounceTimer.start();
+			private void userActivity() {
+				if (changeWatcher != null) {
+					changeWatcher.userActivity();
 				}
 			}
 		});
@@ -0,0 +1,84 @@
+package de.febrildur.sieveeditor.actions;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.awt.event.ActionEvent;
+
+import javax.swing.AbstractAction;
+import javax.swing.JOptionPane;
+
+import org.fife.ui.rtextarea.RTextArea;
+
+import de.febrildur.sieveeditor.Application;
+import de.febrildur.sieveeditor.parser.SieveFormatter;
+
+/**
+ * Action to reformat the script in the editor with {@link SieveFormatter}.
+ *
+ * <p>The change is applied as one edit, so a single undo restores the
+ * script as it was.
+ */
+public class ActionFormatScript extends AbstractAction {
+
+	private final Application parentFrame;
+
+	public ActionFormatScript(Application parentFrame) {
+		putValue(NAME, "Format Script");
+		putValue(ACCELERATOR_KEY, javax.swing.KeyStroke.getKeyStroke(
+			java.awt.event.KeyEvent.VK_F, java.awt.event.KeyEvent.CTRL_DOWN_MASK | java.awt.event.KeyEvent.SHIFT_DOWN_MASK));
+		this.parentFrame = parentFrame;
+	}
+
+	@Override
+	public void actionPerformed(ActionEvent e) {
+		RTextArea textArea = parentFrame.getScriptArea();
+		String formatted;
+		try {
+			formatted = SieveFormatter.format(textArea.getText());
+		} catch (IllegalArgumentException ex) {
+			JOptionPane.showMessageDialog(parentFrame,
+				"The script has syntax errors and can't be formatted.\n" + ex.getMessage(),
+				"Format Script", JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+		apply(textArea, formatted);
+	}
+
+	/**
+	 * Replaces the text of an editor as one undoable edit. Only the part
+	 * between the unchanged start and end is replaced, so folds, markers
+	 * and highlights outside it stay where they are. The caret stays on its
+	 * line.
+	 *
+	 * @param textArea the editor
+	 * @param formatted the new text
+	 */
+	static void apply(RTextArea textArea, String formatted) {
+		String text = textArea.getText();
+		if (text.equals(formatted)) {
+			return;
+		}
+		int prefix = 0;
+		int max = Math.min(text.length(), formatted.length());
+		while (prefix < max && text.charAt(prefix) == formatted.charAt(prefix)) {
+			prefix++;
+		}
+		int suffix = 0;
+		while (suffix < max - prefix
+				&& text.charAt(text.length() - 1 - suffix) == formatted.charAt(formatted.length() - 1 - suffix)) {
+			suffix++;
+		}
+
+		int caretLine = textArea.getCaretLineNumber();
+		textArea.beginAtomicEdit();
+		try {
+			textArea.replaceRange(formatted.substring(prefix, formatted.length() - suffix),
+				prefix, text.length() - suffix);
+		} finally {
+			textArea.endAtomicEdit();
+		}
+		int line = Math.min(caretLine, textArea.getLineCount() - 1);
+		textArea.setCaretPosition(textArea.getDocument().getDefaultRootElement().getElement(line).getStartOffset());
+	}
+}
@@ -0,0 +1,62 @@
+package de.febrildur.sieveeditor.actions;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.util.stream.Collectors;
+
+import javax.swing.AbstractAction;
+import javax.swing.JOptionPane;
+
+import com.fluffypeople.managesieve.ParseException;
+
+import de.febrildur.sieveeditor.Application;
+import de.febrildur.sieveeditor.system.ScriptDeployment;
+
+/**
+ * Restores the scripts replaced by the last save, including which script was active.
+ */
+public class ActionRollbackDeployment extends AbstractAction {
+
+	private Application parentFrame;
+
+	public ActionRollbackDeployment(Application parentFrame) {
+		putValue(NAME, "Roll Back Last Save");
+		putValue(SHORT_DESCRIPTION, "Restore the previous server version of the last saved script");
+		this.parentFrame = parentFrame;
+	}
+
+	@Override
+	public void actionPerformed(ActionEvent e) {
+		ScriptDeployment deployment = parentFrame.getLastDeployment();
+		if (deployment == null || !deployment.canRollback()) {
+			return;
+		}
+
+		String names = deployment.getDeployed().stream()
+			.map(ScriptDeployment.Entry::name)
+			.collect(Collectors.joining(", "));
+		int choice = JOptionPane.showConfirmDialog(
+			parentFrame,
+			"Restore the previous version of: " + names + "?\n\n"
+				+ "The versions saved last will be discarded.",
+			"Roll Back Last Save",
+			JOptionPane.OK_CANCEL_OPTION,
+			JOptionPane.WARNING_MESSAGE
+		);
+		if (choice != JOptionPane.OK_OPTION) {
+			return;
+		}
+
+		try {
+			deployment.rollback();
+			parentFrame.reloadScript();
+			JOptionPane.showMessageDialog(parentFrame, "Previous version restored.");
+		} catch (IOException | ParseException ex) {
+			JOptionPane.showMessageDialog(parentFrame, ex.getClass().getName() + ": " + ex.getMessage());
+		}
+		parentFrame.updateStatus();
+	}
+}
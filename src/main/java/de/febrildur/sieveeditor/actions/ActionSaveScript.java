@@ -11,6 +11,9 @@ import javax.swing.AbstractAction;
 import javax.swing.JOptionPane;
 
 import de.febrildur.sieveeditor.Application;
+import de.febrildur.sieveeditor.system.ScriptChangeWatcher;
+import de.febrildur.sieveeditor.ui.MergeDialog;
+import de.febrildur.sieveeditor.util.ThreeWayMerge;
 
 public class ActionSaveScript extends AbstractAction {
 
@@ -25,6 +28,11 @@ public class ActionSaveScript extends AbstractAction {
 
 	@Override
 	public void actionPerformed(ActionEvent e) {
+		// Don't silently overwrite changes made by another client
+		if (!confirmServerCopyUnchanged()) {
+			return;
+		}
+
 		// Validate script before saving
 		if (!validateBeforeSave()) {
 			return; // User cancelled or validation failed
@@ -35,6 +43,77 @@ public class ActionSaveScript extends AbstractAction {
 		JOptionPane.showMessageDialog(parentFrame, "Script saved.");
 	}
 
+	/**
+	 * Checks whether the server copy was changed by someone else since it was
+	 * loaded and, if so, asks the user whether to overwrite it.
+	 *
+	 * @return true if save should proceed, false if user cancelled
+	 */
+	private boolean confirmServerCopyUnchanged() {
+		ScriptChangeWatcher watcher = parentFrame.getChangeWatcher();
+		if (watcher == null) {
+			return true;
+		}
+
+		ScriptChangeWatcher.State state;
+		try {
+			state = watcher.poll();
+		} catch (java.io.IOException | com.fluffypeople.managesieve.ParseException e) {
+			// Can't tell - fall back to the last background result
+			state = watcher.getState();
+		}
+		if (state == ScriptChangeWatcher.State.UNCHANGED) {
+			return true;
+		}
+
+		String serverBody = watcher.getServerBody();
+		boolean canMerge = state == ScriptChangeWatcher.State.CHANGED
+			&& serverBody != null && parentFrame.getLoadedBody() != null;
+
+		String what = state == ScriptChangeWatcher.State.DELETED
+			? "was deleted on the server"
+			: "was changed on the server by another client";
+		Object[] options = canMerge
+			? new Object[]{"Merge...", "Overwrite", "Cancel"}
+			: new Object[]{"Overwrite", "Cancel"};
+		int choice = JOptionPane.showOptionDialog(
+			parentFrame,
+			"The script \"" + watcher.getScriptName() + "\" " + what + " since you opened it.\n\n"
+				+ "Saving will overwrite those changes.",
+			"Script Changed on Server",
+			JOptionPane.YES_NO_CANCEL_OPTION,
+			JOptionPane.WARNING_MESSAGE,
+			null,
+			options,
+			options[options.length - 1] // Default to "Cancel"
+		);
+
+		if (!canMerge) {
+			return choice == 0;
+		}
+		if (choice == 0) {
+			return mergeServerChanges(serverBody);
+		}
+		return choice == 1;
+	}
+
+	/**
+	 * Merges the server copy into the editor buffer and lets the user review the result.
+	 *
+	 * @param serverBody the current server body
+	 * @return true if the merged script should be saved
+	 */
+	private boolean mergeServerChanges(String serverBody) {
+		ThreeWayMerge.MergeResult merge = ThreeWayMerge.merge(
+			parentFrame.getLoadedBody(), parentFrame.getScriptText(), serverBody);
+		String merged = MergeDialog.showMergeDialog(parentFrame, merge);
+		if (merged == null) {
+			return false;
+		}
+		parentFrame.applyMergedScript(merged, serverBody);
+		return true;
+	}
+
 	/**
 	 * Validates the script before saving and asks user for confirmation if errors found.
 	 *
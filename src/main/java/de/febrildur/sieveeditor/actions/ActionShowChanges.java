@@ -0,0 +1,63 @@
+package de.febrildur.sieveeditor.actions;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.event.ActionEvent;
+
+import javax.swing.AbstractAction;
+import javax.swing.JOptionPane;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+
+import com.formdev.flatlaf.util.UIScale;
+
+import de.febrildur.sieveeditor.Application;
+import de.febrildur.sieveeditor.util.ScriptDiff;
+
+/**
+ * Action to show which rules the editor changed compared to the script as
+ * loaded from the server, before saving over it.
+ */
+public class ActionShowChanges extends AbstractAction {
+
+	private final Application parentFrame;
+
+	public ActionShowChanges(Application parentFrame) {
+		putValue(NAME, "Show Changes...");
+		this.parentFrame = parentFrame;
+	}
+
+	@Override
+	public void actionPerformed(ActionEvent e) {
+		String loaded = parentFrame.getLoadedBody();
+		if (loaded == null) {
+			JOptionPane.showMessageDialog(parentFrame, "No script was loaded from the server.",
+				"Show Changes", JOptionPane.INFORMATION_MESSAGE);
+			return;
+		}
+		ScriptDiff diff;
+		try {
+			diff = ScriptDiff.compare(loaded, parentFrame.getScriptText());
+		} catch (IllegalArgumentException ex) {
+			JOptionPane.showMessageDialog(parentFrame,
+				"The script has syntax errors, so its rules can't be compared.\n" + ex.getMessage(),
+				"Show Changes", JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+		if (diff.isEmpty()) {
+			JOptionPane.showMessageDialog(parentFrame, "The rules are the same as on the server.",
+				"Show Changes", JOptionPane.INFORMATION_MESSAGE);
+			return;
+		}
+		JTextArea report = new JTextArea(diff.getReport());
+		report.setEditable(false);
+		report.setFont(new Font(Font.MONOSPACED, Font.PLAIN, UIScale.scale(12)));
+		JScrollPane scrollPane = new JScrollPane(report);
+		scrollPane.setPreferredSize(new Dimension(UIScale.scale(700), UIScale.scale(400)));
+		JOptionPane.showMessageDialog(parentFrame, scrollPane, "Changes Compared to Server",
+			JOptionPane.PLAIN_MESSAGE);
+	}
+}
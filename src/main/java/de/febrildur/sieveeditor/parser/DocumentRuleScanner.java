@@ -0,0 +1,217 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.Segment;
+
+/**
+ * Finds rule comments without copying the script text.
+ *
+ * <p>Reading the editor with {@code getText()} and splitting it into lines
+ * copies the whole script twice before a single line is matched. This
+ * scanner instead reads each line of a {@link Document} into a reused
+ * {@link Segment}, which points straight into the document's buffer, or
+ * matches each line of a {@link CharSequence} in place by its offsets.
+ * Strings are only created for rule comments: each rule keeps a trimmed
+ * copy of its comment line and its fields. Other lines are not copied.
+ *
+ * <p>Alongside the rules every scan builds a {@link RuleIndex}, which is
+ * used to check the numbering and is available from the result.
+ */
+public class DocumentRuleScanner {
+
+	/**
+	 * Texts at least this long are scanned in parallel. Below it, splitting
+	 * and merging costs more than it saves; see RuleScanBenchmark.
+	 */
+	public static final int PARALLEL_THRESHOLD = 512 * 1024;
+
+	private static final int CHUNK_SIZE = 128 * 1024;
+
+	private static final int CANCEL_CHECK_LINES = 1024;
+
+	private final Segment segment = new Segment();
+	private final RuleCommentMatcher matcher = new RuleCommentMatcher();
+
+	/**
+	 * Scans a whole document under its read lock.
+	 *
+	 * @param document the document
+	 * @return the rules and warnings, equal to parsing the document text
+	 */
+	public static SieveRuleParser.ParseResult scan(Document document) {
+		List<SieveRule> rules = new ArrayList<>();
+		List<SieveWarning> warnings = new ArrayList<>();
+		RuleIndex index = new RuleIndex();
+		DocumentRuleScanner scanner = new DocumentRuleScanner();
+		document.render(() -> {
+			Element root = document.getDefaultRootElement();
+			for (int line = 0; line < root.getElementCount(); line++) {
+				Element element = root.getElement(line);
+				SieveRule rule = scanner.scanLine(document, element, line + 1, warnings);
+				if (rule != null) {
+					rules.add(rule);
+					index.add(rule.getRuleNumber(), line + 1, element.getStartOffset());
+				}
+			}
+		});
+		warnings.addAll(index.validate());
+		return new SieveRuleParser.ParseResult(rules, warnings, index);
+	}
+
+	/**
+	 * Scans text split at "\n" or "\r\n", like
+	 * {@link SieveRuleParser#parseRules(String)}.
+	 *
+	 * @param text the script text
+	 * @return the rules and warnings
+	 */
+	public static SieveRuleParser.ParseResult scan(CharSequence text) {
+		return scan(text, () -> false);
+	}
+
+	/**
+	 * Scans text and gives up early once cancelled, for use on a background
+	 * thread against a snapshot of the editor text. Texts of at least
+	 * {@link #PARALLEL_THRESHOLD} characters are scanned in parallel.
+	 *
+	 * @param text the script text
+	 * @param cancelled checked every {@value #CANCEL_CHECK_LINES} lines
+	 * @return the rules and warnings, or null if cancelled
+	 */
+	public static SieveRuleParser.ParseResult scan(CharSequence text, BooleanSupplier cancelled) {
+		if (text.length() >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+			return scanParallel(text, cancelled, CHUNK_SIZE);
+		}
+		return scanSequential(text, cancelled);
+	}
+
+	static SieveRuleParser.ParseResult scanSequential(CharSequence text, BooleanSupplier cancelled) {
+		Chunk chunk = scanChunk(text, 0, text.length(), true, cancelled);
+		if (chunk == null) {
+			return null;
+		}
+		List<SieveWarning> warnings = new ArrayList<>(chunk.warnings);
+		warnings.addAll(chunk.index.validate());
+		return new SieveRuleParser.ParseResult(chunk.rules, warnings, chunk.index);
+	}
+
+	/**
+	 * Splits the text into line-aligned chunks, scans them on the ForkJoin
+	 * common pool and merges the results. The result is identical to
+	 * {@link #scanSequential}.
+	 */
+	static SieveRuleParser.ParseResult scanParallel(CharSequence text, BooleanSupplier cancelled, int chunkSize) {
+		int length = text.length();
+		List<int[]> bounds = new ArrayList<>();
+		int from = 0;
+		while (from < length) {
+			int to = Math.min(length, from + chunkSize);
+			while (to < length && text.charAt(to - 1) != '\n') {
+				to++;
+			}
+			bounds.add(new int[]{from, to});
+			from = to;
+		}
+		if (bounds.isEmpty()) {
+			bounds.add(new int[]{0, 0});
+		}
+		int last = bounds.size() - 1;
+
+		List<Chunk> chunks = IntStream.rangeClosed(0, last).parallel()
+			.mapToObj(i -> scanChunk(text, bounds.get(i)[0], bounds.get(i)[1], i == last, cancelled))
+			.toList();
+		if (chunks.contains(null)) {
+			return null;
+		}
+
+		// Chunks number their lines from 1; shift them by the lines before
+		List<SieveRule> rules = new ArrayList<>();
+		List<SieveWarning> warnings = new ArrayList<>();
+		RuleIndex index = new RuleIndex(chunks.stream().mapToInt(chunk -> chunk.index.size()).sum());
+		int lineOffset = 0;
+		for (Chunk chunk : chunks) {
+			for (SieveRule rule : chunk.rules) {
+				rules.add(rule.withLineNumber(rule.getLineNumber() + lineOffset));
+			}
+			for (SieveWarning warning : chunk.warnings) {
+				warnings.add(new SieveWarning(warning.getSeverity(), warning.getMessage(),
+					warning.getLineNumbers().get(0) + lineOffset));
+			}
+			// Chunk offsets are already absolute
+			index.addAll(chunk.index, lineOffset, 0);
+			lineOffset += chunk.lineCount;
+		}
+		warnings.addAll(index.validate());
+		return new SieveRuleParser.ParseResult(rules, warnings, index);
+	}
+
+	/**
+	 * Rules of one chunk, with line numbers counted from the chunk start.
+	 */
+	private record Chunk(List<SieveRule> rules, List<SieveWarning> warnings, RuleIndex index, int lineCount) {
+	}
+
+	/**
+	 * Scans the lines in {@code [from, to)}. Only the last chunk includes the
+	 * empty line after a trailing newline.
+	 */
+	private static Chunk scanChunk(CharSequence text, int from, int to, boolean last, BooleanSupplier cancelled) {
+		List<SieveRule> rules = new ArrayList<>();
+		List<SieveWarning> warnings = new ArrayList<>();
+		RuleIndex index = new RuleIndex();
+		RuleCommentMatcher matcher = new RuleCommentMatcher();
+		int lineStart = from;
+		int lineNumber = 1;
+		while (lineStart < to || (last && lineStart == to)) {
+			if (lineNumber % CANCEL_CHECK_LINES == 0 && cancelled.getAsBoolean()) {
+				return null;
+			}
+			int lineEnd = lineStart;
+			while (lineEnd < to && text.charAt(lineEnd) != '\n') {
+				lineEnd++;
+			}
+			int contentEnd = lineEnd > lineStart && text.charAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+			SieveRule rule = SieveRuleParser.parseLine(matcher, text, lineStart, contentEnd, lineNumber, warnings);
+			if (rule != null) {
+				rules.add(rule);
+				index.add(rule.getRuleNumber(), lineNumber, lineStart);
+			}
+			lineStart = lineEnd + 1;
+			lineNumber++;
+		}
+		return new Chunk(rules, warnings, index, lineNumber - 1);
+	}
+
+	/**
+	 * Scans one line element of a document. The caller must hold the
+	 * document's read lock or be the thread that modifies it.
+	 *
+	 * @param document the document
+	 * @param line a child of the document's default root element
+	 * @param lineNumber the 1-based number of the line
+	 * @param warnings receives an error for a rule comment with an unusable ID
+	 * @return the rule, or null if the line isn't a valid rule comment
+	 */
+	public SieveRule scanLine(Document document, Element line, int lineNumber, List<SieveWarning> warnings) {
+		int start = line.getStartOffset();
+		// Line elements include the newline; the last one ends past the text
+		int end = Math.min(line.getEndOffset() - 1, document.getLength());
+		try {
+			document.getText(start, Math.max(0, end - start), segment);
+		} catch (BadLocationException e) {
+			return null;
+		}
+		return SieveRuleParser.parseLine(matcher, segment, 0, segment.length(), lineNumber, warnings);
+	}
+}
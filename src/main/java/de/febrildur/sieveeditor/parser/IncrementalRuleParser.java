@@ -0,0 +1,260 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+
+/**
+ * Keeps the rules of a document up to date as it is edited.
+ *
+ * <p>{@link SieveRuleParser#parseRules(String)} reparses the whole script,
+ * so its cost grows with the script. This parser remembers which lines hold
+ * rule comments and, for each {@link DocumentEvent}, rescans only the lines
+ * the edit replaced. Rules below the edit are shifted, not reparsed.
+ * Typing inside a line that is not a rule comment changes nothing, and
+ * {@link #getResult()} then returns the same result object as before.
+ *
+ * <p>The results equal those of {@code parseRules} on the document text.
+ * Like all document listeners, this must only see edits made on one thread
+ * (normally the EDT).
+ *
+ * <p>Edits replacing more than {@link #MAX_INCREMENTAL_LINES} lines, such as
+ * loading a script, are not scanned in the listener. The parser becomes
+ * {@linkplain #isStale() stale} instead, so the caller can scan a snapshot
+ * in the background and hand the result back with {@link #adopt}.
+ */
+public class IncrementalRuleParser implements DocumentListener {
+
+	/**
+	 * A rule comment line. The rule may carry a stale line number until the
+	 * next {@link #getResult()}; {@code line} is always current.
+	 */
+	private static final class Entry {
+		int line; // 0-based
+		SieveRule rule; // null for a rule comment with an unusable ID
+		SieveWarning warning;
+
+		Entry(int line, SieveRule rule, SieveWarning warning) {
+			this.line = line;
+			this.rule = rule;
+			this.warning = warning;
+		}
+	}
+
+	/** Largest edit, in lines, that is scanned directly in the listener. */
+	public static final int MAX_INCREMENTAL_LINES = 2000;
+
+	private final Document document;
+	private final List<Entry> entries = new ArrayList<>();
+	private final DocumentRuleScanner scanner = new DocumentRuleScanner();
+	private SieveRuleParser.ParseResult result;
+	private boolean stale = false;
+	private long scannedLineCount = 0;
+
+	/**
+	 * Scans the document and starts listening to it.
+	 *
+	 * @param document the document to follow
+	 */
+	public IncrementalRuleParser(Document document) {
+		this.document = document;
+		rescan();
+		document.addDocumentListener(this);
+	}
+
+	/**
+	 * Stops listening to the document.
+	 */
+	public void dispose() {
+		document.removeDocumentListener(this);
+	}
+
+	/**
+	 * Gets the rules and warnings of the current document text.
+	 *
+	 * @return the parse result; the same instance as long as no rule changed.
+	 *         Null while {@linkplain #isStale() stale}.
+	 */
+	public SieveRuleParser.ParseResult getResult() {
+		if (result == null && !stale) {
+			List<SieveRule> rules = new ArrayList<>(entries.size());
+			List<SieveWarning> warnings = new ArrayList<>();
+			RuleIndex index = new RuleIndex(entries.size());
+			Element root = document.getDefaultRootElement();
+			for (Entry entry : entries) {
+				if (entry.rule != null) {
+					entry.rule = entry.rule.withLineNumber(entry.line + 1);
+					rules.add(entry.rule);
+					index.add(entry.rule.getRuleNumber(), entry.line + 1, root.getElement(entry.line).getStartOffset());
+				} else {
+					// Rebuilt so the line is current
+					warnings.add(new SieveWarning(entry.warning.getSeverity(), entry.warning.getMessage(), entry.line + 1));
+				}
+			}
+			warnings.addAll(index.validate());
+			result = new SieveRuleParser.ParseResult(rules, warnings, index);
+		}
+		return result;
+	}
+
+	/**
+	 * Discards all state and scans the whole document again.
+	 */
+	public void rescan() {
+		entries.clear();
+		result = null;
+		stale = false;
+		document.render(() -> {
+			Element root = document.getDefaultRootElement();
+			scanLines(root, 0, root.getElementCount(), 0);
+		});
+	}
+
+	/**
+	 * Checks whether a large edit left the parser without results.
+	 *
+	 * @return true until {@link #adopt} or {@link #rescan()} is called
+	 */
+	public boolean isStale() {
+		return stale;
+	}
+
+	/**
+	 * Takes over a full scan of the current document text, made while the
+	 * parser was stale. Must be called on the editing thread, and only if
+	 * the document has not changed since the scanned snapshot was taken.
+	 *
+	 * @param scanned the result of scanning the document text
+	 */
+	public void adopt(SieveRuleParser.ParseResult scanned) {
+		entries.clear();
+		for (SieveRule rule : scanned.getRules()) {
+			entries.add(new Entry(rule.getLineNumber() - 1, rule, null));
+		}
+		for (SieveWarning warning : scanned.getWarnings()) {
+			if (SieveRuleParser.INVALID_UNIQUE_ID.equals(warning.getMessage())) {
+				int line = warning.getLineNumbers().get(0) - 1;
+				entries.add(lowerBound(line), new Entry(line, null, warning));
+			}
+		}
+		result = scanned;
+		stale = false;
+	}
+
+	@Override
+	public void insertUpdate(DocumentEvent e) {
+		update(e);
+	}
+
+	@Override
+	public void removeUpdate(DocumentEvent e) {
+		update(e);
+	}
+
+	@Override
+	public void changedUpdate(DocumentEvent e) {
+		// Attribute changes don't affect the text
+	}
+
+	/**
+	 * Replaces the entries of the lines touched by an edit.
+	 */
+	private void update(DocumentEvent e) {
+		if (stale) {
+			return;
+		}
+		Element root = document.getDefaultRootElement();
+		DocumentEvent.ElementChange change = e.getChange(root);
+		int first;
+		int removed;
+		int added;
+		if (change != null) {
+			// Lines were split or joined: the change names the replaced lines
+			first = change.getIndex();
+			removed = change.getChildrenRemoved().length;
+			added = change.getChildrenAdded().length;
+		} else {
+			// Edit within one line
+			first = root.getElementIndex(e.getOffset());
+			removed = 1;
+			added = 1;
+		}
+
+		if (added > MAX_INCREMENTAL_LINES) {
+			entries.clear();
+			result = null;
+			stale = true;
+			return;
+		}
+
+		int from = lowerBound(first);
+		int to = lowerBound(first + removed);
+		boolean changed = to > from;
+		entries.subList(from, to).clear();
+
+		int delta = added - removed;
+		if (delta != 0) {
+			for (int i = from; i < entries.size(); i++) {
+				entries.get(i).line += delta;
+			}
+			changed |= from < entries.size();
+		}
+
+		changed |= scanLines(root, first, first + added, from) > 0;
+		if (changed) {
+			result = null;
+		}
+	}
+
+	/**
+	 * Gets the number of lines scanned since the parser was created, for tests.
+	 */
+	long getScannedLineCount() {
+		return scannedLineCount;
+	}
+
+	/**
+	 * Scans lines {@code [firstLine, endLine)} and inserts entries for rule
+	 * comments at {@code index}.
+	 *
+	 * @return the number of entries inserted
+	 */
+	private int scanLines(Element root, int firstLine, int endLine, int index) {
+		List<Entry> found = new ArrayList<>();
+		List<SieveWarning> warnings = new ArrayList<>(0);
+		for (int line = firstLine; line < endLine; line++) {
+			SieveRule rule = scanner.scanLine(document, root.getElement(line), line + 1, warnings);
+			if (rule != null || !warnings.isEmpty()) {
+				found.add(new Entry(line, rule, warnings.isEmpty() ? null : warnings.get(0)));
+				warnings.clear();
+			}
+		}
+		entries.addAll(index, found);
+		scannedLineCount += endLine - firstLine;
+		return found.size();
+	}
+
+	/**
+	 * Finds the index of the first entry at or below a line.
+	 */
+	private int lowerBound(int line) {
+		int low = 0;
+		int high = entries.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (entries.get(mid).line < line) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
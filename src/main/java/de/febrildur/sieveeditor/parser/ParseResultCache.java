@@ -0,0 +1,130 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache of rule parse results keyed by a 64-bit content hash.
+ *
+ * <p>Switching back to a script, undoing a large change or reloading an
+ * unchanged script produces text that was parsed moments ago. With this
+ * cache such a repeat costs one pass to hash the text and a map lookup.
+ * Entries also remember the text length, so a hash collision would also
+ * need equal lengths to return a wrong result.
+ *
+ * <p>Cached results are shared and must not be modified by callers.
+ * The cache is thread-safe.
+ */
+public class ParseResultCache {
+
+	/** Number of results kept by default. */
+	public static final int DEFAULT_CAPACITY = 16;
+
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private record Entry(int length, SieveRuleParser.ParseResult result) {
+	}
+
+	private final Map<Long, Entry> entries;
+	private final int capacity;
+	private long hits = 0;
+	private long misses = 0;
+
+	public ParseResultCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a cache.
+	 *
+	 * @param capacity the number of results to keep
+	 */
+	public ParseResultCache(int capacity) {
+		this.capacity = capacity;
+		this.entries = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+				return size() > ParseResultCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Gets the cached result for a text or parses and caches it.
+	 *
+	 * @param text the script text
+	 * @param parser parses the text on a miss; may return null (e.g. when
+	 *        cancelled), which is not cached
+	 * @return the result, or null if the parser returned null
+	 */
+	public SieveRuleParser.ParseResult get(CharSequence text, Function<CharSequence, SieveRuleParser.ParseResult> parser) {
+		long key = hash(text);
+		SieveRuleParser.ParseResult cached = lookup(key, text.length());
+		if (cached != null) {
+			return cached;
+		}
+		// Parse outside the lock; a concurrent miss for the same text just parses twice
+		SieveRuleParser.ParseResult result = parser.apply(text);
+		if (result != null) {
+			synchronized (this) {
+				entries.put(key, new Entry(text.length(), result));
+			}
+		}
+		return result;
+	}
+
+	private synchronized SieveRuleParser.ParseResult lookup(long key, int length) {
+		Entry entry = entries.get(key);
+		if (entry != null && entry.length() == length) {
+			hits++;
+			return entry.result();
+		}
+		misses++;
+		return null;
+	}
+
+	/**
+	 * Computes the 64-bit FNV-1a hash of the characters of a text.
+	 *
+	 * @param text the text
+	 * @return the hash
+	 */
+	public static long hash(CharSequence text) {
+		long hash = FNV_OFFSET;
+		for (int i = 0, n = text.length(); i < n; i++) {
+			hash ^= text.charAt(i);
+			hash *= FNV_PRIME;
+		}
+		return hash;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Removes all entries and resets the counters.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		hits = 0;
+		misses = 0;
+	}
+}
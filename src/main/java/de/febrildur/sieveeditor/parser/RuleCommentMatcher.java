@@ -0,0 +1,269 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+/**
+ * Recognizes rule comments in linear time.
+ *
+ * <p>This replaces the regular expression
+ * <pre>
+ * ^\s*##\s*Flag:\s*([^|]*)\|\s*UniqueId:\s*(\d+)\s*\|\s*Rulename:\s*([^|]*)
+ *     (?:\|\s*LastModified:\s*([^|]+))?(?:\|\s*ModifiedBy:\s*([^|\s]+))?\s*$
+ * </pre>
+ * (case-insensitive) and accepts exactly the same lines with the same
+ * fields. The overlapping {@code \s*} and {@code [^|]*} of the expression
+ * make a backtracking engine retry many splits on long lines that almost
+ * match. Here each field ends at the next {@code '|'}, so the line is
+ * scanned left to right and at most four times after the rule name, once
+ * for each combination of the two optional metadata fields.
+ *
+ * <p>A matcher can be reused for many lines but is not thread-safe.
+ */
+public class RuleCommentMatcher {
+
+	private CharSequence text;
+	private int end;
+
+	private int flagStart;
+	private int flagEnd;
+	private long id;
+	private int nameStart;
+	private int nameEnd;
+	private int lastModifiedStart;
+	private int lastModifiedEnd;
+	private int modifiedByStart;
+	private int modifiedByEnd;
+
+	/**
+	 * Matches a whole line.
+	 *
+	 * @param line the line without line terminator
+	 * @return true if the line is a rule comment
+	 */
+	public boolean matches(CharSequence line) {
+		return matches(line, 0, line.length());
+	}
+
+	/**
+	 * Matches the line in {@code [start, end)} of a text.
+	 *
+	 * @param text the text containing the line
+	 * @param start the start of the line
+	 * @param end the end of the line
+	 * @return true if the line is a rule comment; the fields are only valid then
+	 */
+	public boolean matches(CharSequence text, int start, int end) {
+		this.text = text;
+		this.end = end;
+
+		// ##\s*Flag:\s*([^|]*)\|
+		int i = skipWhitespace(start);
+		if (i + 1 >= end || text.charAt(i) != '#' || text.charAt(i + 1) != '#') {
+			return false;
+		}
+		i = keyword(skipWhitespace(i + 2), "flag:");
+		if (i < 0) {
+			return false;
+		}
+		flagStart = skipWhitespace(i);
+		flagEnd = nextBar(flagStart);
+		if (flagEnd == end) {
+			return false;
+		}
+
+		// \s*UniqueId:\s*(\d+)\s*\|
+		i = keyword(skipWhitespace(flagEnd + 1), "uniqueid:");
+		if (i < 0) {
+			return false;
+		}
+		i = skipWhitespace(i);
+		int digits = i;
+		id = 0;
+		while (i < end && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+			// Saturate so overlong IDs stay detectable without overflowing
+			id = Math.min(id * 10 + (text.charAt(i) - '0'), Integer.MAX_VALUE + 1L);
+			i++;
+		}
+		if (i == digits) {
+			return false;
+		}
+		i = skipWhitespace(i);
+		if (i == end || text.charAt(i) != '|') {
+			return false;
+		}
+
+		// \s*Rulename:\s*([^|]*)
+		i = keyword(skipWhitespace(i + 1), "rulename:");
+		if (i < 0) {
+			return false;
+		}
+		nameStart = skipWhitespace(i);
+		nameEnd = nextBar(nameStart);
+
+		// The optional fields, tried in the order the expression would try them
+		return (lastModified(nameEnd) && (modifiedBy(lastModifiedEnd) || (noModifiedBy() && atEnd(lastModifiedEnd))))
+			|| (noLastModified() && (modifiedBy(nameEnd) || (noModifiedBy() && atEnd(nameEnd))));
+	}
+
+	/**
+	 * Matches {@code \|\s*LastModified:\s*([^|]+)} at a position.
+	 */
+	private boolean lastModified(int i) {
+		if (i == end || text.charAt(i) != '|') {
+			return false;
+		}
+		int keywordEnd = keyword(skipWhitespace(i + 1), "lastmodified:");
+		if (keywordEnd < 0) {
+			return false;
+		}
+		int valueStart = skipWhitespace(keywordEnd);
+		int valueEnd = nextBar(valueStart);
+		if (valueStart == valueEnd) {
+			// The value needs a character; only whitespace given back by \s* can be one
+			if (valueStart == keywordEnd) {
+				return false;
+			}
+			valueStart--;
+		}
+		lastModifiedStart = valueStart;
+		lastModifiedEnd = valueEnd;
+		return true;
+	}
+
+	/**
+	 * Matches {@code \|\s*ModifiedBy:\s*([^|\s]+)\s*$} at a position.
+	 */
+	private boolean modifiedBy(int i) {
+		if (i == end || text.charAt(i) != '|') {
+			return false;
+		}
+		int keywordEnd = keyword(skipWhitespace(i + 1), "modifiedby:");
+		if (keywordEnd < 0) {
+			return false;
+		}
+		int valueStart = skipWhitespace(keywordEnd);
+		int valueEnd = valueStart;
+		while (valueEnd < end && text.charAt(valueEnd) != '|' && !isWhitespace(text.charAt(valueEnd))) {
+			valueEnd++;
+		}
+		if (valueEnd == valueStart || !atEnd(valueEnd)) {
+			return false;
+		}
+		modifiedByStart = valueStart;
+		modifiedByEnd = valueEnd;
+		return true;
+	}
+
+	private boolean noLastModified() {
+		lastModifiedStart = -1;
+		return true;
+	}
+
+	private boolean noModifiedBy() {
+		modifiedByStart = -1;
+		return true;
+	}
+
+	/**
+	 * Matches {@code \s*$} up to the end of the line.
+	 */
+	private boolean atEnd(int i) {
+		return skipWhitespace(i) == end;
+	}
+
+	/**
+	 * Matches an ASCII keyword case-insensitively.
+	 *
+	 * @param keyword the keyword in lower case
+	 * @return the position after the keyword, or -1 if it isn't there
+	 */
+	private int keyword(int i, String keyword) {
+		if (end - i < keyword.length()) {
+			return -1;
+		}
+		for (int k = 0; k < keyword.length(); k++) {
+			char c = text.charAt(i + k);
+			char expected = keyword.charAt(k);
+			if (c != expected && !(expected >= 'a' && expected <= 'z' && c == expected - 32)) {
+				return -1;
+			}
+		}
+		return i + keyword.length();
+	}
+
+	private int skipWhitespace(int i) {
+		while (i < end && isWhitespace(text.charAt(i))) {
+			i++;
+		}
+		return i;
+	}
+
+	private int nextBar(int i) {
+		while (i < end && text.charAt(i) != '|') {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Checks for the characters of {@code \s}.
+	 */
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
+	/**
+	 * Checks whether the UniqueId fits into an int.
+	 *
+	 * @return false for IDs beyond int range
+	 */
+	public boolean hasValidId() {
+		return id <= Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Gets the UniqueId.
+	 *
+	 * @return the ID; only meaningful if {@link #hasValidId()}
+	 */
+	public int getId() {
+		return (int) id;
+	}
+
+	/**
+	 * Gets the Flag field content, untrimmed like the regex group.
+	 *
+	 * @return the flag, possibly empty
+	 */
+	public String getFlag() {
+		return text.subSequence(flagStart, flagEnd).toString();
+	}
+
+	/**
+	 * Gets the rule name, which may have trailing whitespace.
+	 *
+	 * @return the rule name, possibly empty
+	 */
+	public String getRuleName() {
+		return text.subSequence(nameStart, nameEnd).toString();
+	}
+
+	/**
+	 * Gets the LastModified timestamp.
+	 *
+	 * @return the timestamp, or null if absent
+	 */
+	public String getLastModified() {
+		return lastModifiedStart < 0 ? null : text.subSequence(lastModifiedStart, lastModifiedEnd).toString();
+	}
+
+	/**
+	 * Gets the ModifiedBy address.
+	 *
+	 * @return the address, or null if absent
+	 */
+	public String getModifiedBy() {
+		return modifiedByStart < 0 ? null : text.subSequence(modifiedByStart, modifiedByEnd).toString();
+	}
+}
@@ -0,0 +1,194 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compact index of the rule comments of a script.
+ *
+ * <p>The UniqueId, line number and source offset of each rule are kept in
+ * parallel {@code int} arrays, in line order. Checking the numbering then
+ * needs no boxed Integers and no per-ID lists: duplicates and gaps are
+ * found by sorting primitive copies of the arrays. Even for scripts with
+ * tens of thousands of rules this allocates a handful of arrays.
+ */
+public class RuleIndex {
+
+	/** Offset recorded for rules whose position in the text is unknown. */
+	public static final int UNKNOWN_OFFSET = -1;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private int[] ids;
+	private int[] lines;
+	private int[] offsets;
+	private int size = 0;
+
+	public RuleIndex() {
+		this(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty index.
+	 *
+	 * @param capacity the number of rules to make room for
+	 */
+	public RuleIndex(int capacity) {
+		int initial = Math.max(1, capacity);
+		ids = new int[initial];
+		lines = new int[initial];
+		offsets = new int[initial];
+	}
+
+	/**
+	 * Indexes parsed rules whose source offsets are not known.
+	 *
+	 * @param rules the rules in line order
+	 * @return the index
+	 */
+	public static RuleIndex of(List<SieveRule> rules) {
+		RuleIndex index = new RuleIndex(rules.size());
+		for (SieveRule rule : rules) {
+			index.add(rule.getRuleNumber(), rule.getLineNumber(), UNKNOWN_OFFSET);
+		}
+		return index;
+	}
+
+	/**
+	 * Appends a rule. Rules must be added in line order.
+	 *
+	 * @param id the UniqueId
+	 * @param line the 1-based line number
+	 * @param offset the offset of the line start, or {@link #UNKNOWN_OFFSET}
+	 */
+	public void add(int id, int line, int offset) {
+		if (size == ids.length) {
+			int capacity = size + (size >> 1) + 1;
+			ids = Arrays.copyOf(ids, capacity);
+			lines = Arrays.copyOf(lines, capacity);
+			offsets = Arrays.copyOf(offsets, capacity);
+		}
+		ids[size] = id;
+		lines[size] = line;
+		offsets[size] = offset;
+		size++;
+	}
+
+	/**
+	 * Appends all rules of another index, e.g. of the next chunk of a script.
+	 *
+	 * @param other the index to append
+	 * @param lineShift added to each line number
+	 * @param offsetShift added to each known offset
+	 */
+	public void addAll(RuleIndex other, int lineShift, int offsetShift) {
+		for (int i = 0; i < other.size; i++) {
+			int offset = other.offsets[i];
+			add(other.ids[i], other.lines[i] + lineShift, offset == UNKNOWN_OFFSET ? offset : offset + offsetShift);
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getId(int i) {
+		return ids[checkIndex(i)];
+	}
+
+	public int getLine(int i) {
+		return lines[checkIndex(i)];
+	}
+
+	public int getOffset(int i) {
+		return offsets[checkIndex(i)];
+	}
+
+	/**
+	 * Finds the rule at a line.
+	 *
+	 * @param line the 1-based line number
+	 * @return the position of the rule in the index, or -1 if none is at that line
+	 */
+	public int indexOfLine(int line) {
+		int found = Arrays.binarySearch(lines, 0, size, line);
+		return found >= 0 ? found : -1;
+	}
+
+	/**
+	 * Checks the numbering for duplicates and gaps.
+	 *
+	 * @return the warnings: duplicates by ascending ID, then gaps
+	 */
+	public List<SieveWarning> validate() {
+		List<SieveWarning> warnings = new ArrayList<>();
+		if (size == 0) {
+			return warnings;
+		}
+		detectDuplicates(warnings);
+		detectNumberingGaps(warnings);
+		return warnings;
+	}
+
+	/**
+	 * Sorts (id, line) pairs packed into longs, so equal IDs end up next to
+	 * each other with their lines in ascending order.
+	 */
+	private void detectDuplicates(List<SieveWarning> warnings) {
+		long[] pairs = new long[size];
+		for (int i = 0; i < size; i++) {
+			pairs[i] = ((long) ids[i] << 32) | (lines[i] & 0xFFFFFFFFL);
+		}
+		Arrays.sort(pairs);
+
+		int start = 0;
+		while (start < size) {
+			int id = (int) (pairs[start] >> 32);
+			int end = start + 1;
+			while (end < size && (int) (pairs[end] >> 32) == id) {
+				end++;
+			}
+			if (end - start > 1) {
+				List<Integer> duplicateLines = new ArrayList<>(end - start);
+				for (int i = start; i < end; i++) {
+					duplicateLines.add((int) pairs[i]);
+				}
+				warnings.add(new SieveWarning(SieveWarning.Severity.ERROR, "Duplicate UniqueId " + id, duplicateLines));
+			}
+			start = end;
+		}
+	}
+
+	private void detectNumberingGaps(List<SieveWarning> warnings) {
+		int[] sorted = Arrays.copyOf(ids, size);
+		Arrays.sort(sorted);
+
+		long expectedNext = 1;
+		for (int i = 0; i < size; i++) {
+			int number = sorted[i];
+			if (i > 0 && number == sorted[i - 1]) {
+				continue;
+			}
+			if (number > expectedNext) {
+				// Gap detected - this is a quality WARNING, not an ERROR
+				String message;
+				if (number - expectedNext == 1) {
+					message = "Missing UniqueId " + expectedNext;
+				} else {
+					message = "Missing UniqueIds " + expectedNext + " to " + (number - 1);
+				}
+				warnings.add(new SieveWarning(SieveWarning.Severity.WARNING, message));
+			}
+			expectedNext = (long) number + 1;
+		}
+	}
+
+	private int checkIndex(int i) {
+		return Objects.checkIndex(i, size);
+	}
+}
@@ -0,0 +1,440 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import de.febrildur.sieveeditor.parser.ast.ArgumentNode;
+import de.febrildur.sieveeditor.parser.ast.BlockNode;
+import de.febrildur.sieveeditor.parser.ast.CommandNode;
+import de.febrildur.sieveeditor.parser.ast.CommentNode;
+import de.febrildur.sieveeditor.parser.ast.Node;
+import de.febrildur.sieveeditor.parser.ast.ScriptNode;
+import de.febrildur.sieveeditor.parser.ast.StringArgument;
+import de.febrildur.sieveeditor.parser.ast.StringListArgument;
+import de.febrildur.sieveeditor.parser.ast.TagArgument;
+import de.febrildur.sieveeditor.parser.ast.TestNode;
+
+/**
+ * Pretty-prints a Sieve script in one canonical layout.
+ *
+ * <p>The formatter walks the syntax tree once and appends the output as it
+ * goes. Each command gets its own line, except that {@code elsif} and
+ * {@code else} follow the closing brace before them, and blocks are
+ * indented by four spaces. Names are written in lower case. Tags come in a fixed order
+ * before the positional arguments: other tags first, then the comparator,
+ * the address part and the match type. String lists and test lists that
+ * don't fit in {@value #MAX_WIDTH} columns are wrapped and aligned after
+ * their opening bracket.
+ *
+ * <p>Strings, numbers and comments are copied from the source unchanged, so
+ * escapes, {@code text:} literals and rule comments stay intact. Comments
+ * stay on their own line or at the end of the line they were on. At most
+ * one blank line is kept between commands. A command with a comment inside
+ * its arguments is copied as written.
+ *
+ * <p>Scripts with syntax errors are not formatted: their tree misses parts
+ * of the text.
+ */
+public final class SieveFormatter {
+
+	/** Width up to which lists are kept on one line. */
+	public static final int MAX_WIDTH = 100;
+
+	private static final String INDENT = "    ";
+
+	private static final Set<String> ADDRESS_PARTS = Set.of("all", "localpart", "domain", "user", "detail");
+	private static final Set<String> MATCH_TYPES = Set.of("is", "contains", "matches", "regex", "value", "count",
+		"list");
+	/** Tags followed by a parameter of their own. */
+	private static final Set<String> WITH_PARAMETER = Set.of("comparator", "value", "count", "flags", "days",
+		"seconds", "subject", "from", "addresses", "handle", "index", "zone", "specialuse", "header", "uniqueid",
+		"content", "importance", "options", "message", "fcc");
+	/** Tags known to stand alone; the order of unknown tags is kept. */
+	private static final Set<String> WITHOUT_PARAMETER = Set.of("is", "contains", "matches", "regex", "list",
+		"all", "localpart", "domain", "user", "detail", "over", "under", "copy", "create", "mime", "anychild",
+		"type", "subtype", "contenttype", "raw", "text", "last", "originalzone", "percent");
+
+	private final CharSequence source;
+	private final Appendable out;
+	private final List<CommentNode> comments;
+	private int nextComment = 0;
+
+	private int depth = 0;
+	private int column = 0;
+	/** Source offset up to which the script has been written. */
+	private int lastEnd = 0;
+	/** Whether the output line holds code or a comment and may get a trailing comment. */
+	private boolean lineOpen = false;
+	/** Whether nothing was written yet in the current block or script. */
+	private boolean atBlockStart = true;
+
+	private SieveFormatter(ScriptNode script, CharSequence source, Appendable out) {
+		this.source = source;
+		this.out = out;
+		this.comments = script.getComments();
+	}
+
+	/**
+	 * Formats a script.
+	 *
+	 * @param source the script text
+	 * @return the formatted script
+	 * @throws IllegalArgumentException if the script has syntax errors
+	 */
+	public static String format(CharSequence source) {
+		ScriptNode script = SieveParser.parse(source);
+		StringBuilder out = new StringBuilder(source.length() + source.length() / 8);
+		try {
+			format(script, source, out);
+		} catch (IOException e) {
+			// Can't happen: a StringBuilder doesn't throw
+			throw new UncheckedIOException(e);
+		}
+		return out.toString();
+	}
+
+	/**
+	 * Formats a parsed script, appending the output as it is produced.
+	 *
+	 * @param script the syntax tree of the source
+	 * @param source the script text
+	 * @param out receives the formatted script
+	 * @throws IOException if appending fails
+	 * @throws IllegalArgumentException if the script has syntax errors
+	 */
+	public static void format(ScriptNode script, CharSequence source, Appendable out) throws IOException {
+		if (script.hasErrors()) {
+			SyntaxError first = script.getErrors().get(0);
+			throw new IllegalArgumentException("Line " + first.getLine() + ": " + first.getMessage());
+		}
+		SieveFormatter formatter = new SieveFormatter(script, source, out);
+		formatter.commands(script.getCommands());
+		formatter.comments(source.length());
+		if (formatter.lineOpen) {
+			formatter.newline();
+		}
+	}
+
+	private void commands(List<CommandNode> commands) throws IOException {
+		CommandNode previous = null;
+		for (CommandNode command : commands) {
+			if ((command.is("elsif") || command.is("else")) && previous != null && previous.getBlock() != null
+					&& !hasCommentBefore(command.getStart())) {
+				write(" "); // "} elsif" and "} else" share a line
+			} else {
+				comments(command.getStart());
+				startLine(command.getStart(), true);
+			}
+			previous = command;
+			BlockNode block = command.getBlock();
+			int headEnd = block != null ? block.getStart() : command.getEnd();
+			if (hasCommentBefore(headEnd)) {
+				verbatimHead(command.getStart(), headEnd);
+			} else {
+				head(command);
+				if (block == null) {
+					write(";");
+				}
+			}
+			if (block != null) {
+				write(column == 0 ? indent() + "{" : " {");
+				lineOpen = true;
+				lastEnd = block.getStart() + 1;
+				atBlockStart = true;
+				depth++;
+				commands(block.getCommands());
+				comments(block.getEnd() - 1);
+				depth--;
+				startLine(block.getEnd() - 1, false);
+				write("}");
+			}
+			lineOpen = true;
+			lastEnd = command.getEnd();
+		}
+	}
+
+	private boolean hasCommentBefore(int offset) {
+		return nextComment < comments.size() && comments.get(nextComment).getStart() < offset;
+	}
+
+	/**
+	 * Copies the head of a command as written, so the comments in it stay
+	 * where they are.
+	 */
+	private void verbatimHead(int start, int end) throws IOException {
+		int trimmed = end;
+		while (trimmed > start && Character.isWhitespace(source.charAt(trimmed - 1))) {
+			trimmed--;
+		}
+		CommentNode last = null;
+		while (nextComment < comments.size() && comments.get(nextComment).getStart() < end) {
+			last = comments.get(nextComment++);
+		}
+		verbatim(source.subSequence(start, trimmed).toString());
+		if (last != null && !last.isBracket() && last.getEnd() == trimmed) {
+			newline(); // A brace after a hash comment would become part of it
+		}
+	}
+
+	/**
+	 * Writes the comments before a source offset, each on its own line or at
+	 * the end of the line it followed in the source.
+	 */
+	private void comments(int before) throws IOException {
+		while (nextComment < comments.size() && comments.get(nextComment).getStart() < before) {
+			CommentNode comment = comments.get(nextComment++);
+			String text = source.subSequence(comment.getStart(), comment.getEnd()).toString();
+			if (lineOpen && newlines(lastEnd, comment.getStart()) == 0 && text.indexOf('\n') < 0) {
+				write(" ");
+				write(text);
+			} else {
+				startLine(comment.getStart(), true);
+				verbatim(text);
+			}
+			lineOpen = true;
+			lastEnd = comment.getEnd();
+		}
+	}
+
+	/**
+	 * Ends the open line and indents a new one, after a blank line if the
+	 * source had one before {@code start}.
+	 */
+	private void startLine(int start, boolean keepBlank) throws IOException {
+		if (lineOpen) {
+			newline();
+		}
+		if (keepBlank && !atBlockStart && newlines(lastEnd, start) >= 2) {
+			newline();
+		}
+		atBlockStart = false;
+		write(indent());
+	}
+
+	private void head(CommandNode command) throws IOException {
+		write(command.getName().toLowerCase(Locale.ROOT));
+		arguments(command.getArguments());
+		tests(command.getTests());
+	}
+
+	private void test(TestNode test) throws IOException {
+		write(test.getName().toLowerCase(Locale.ROOT));
+		arguments(test.getArguments());
+		tests(test.getTests());
+	}
+
+	private void tests(List<TestNode> tests) throws IOException {
+		if (tests.isEmpty()) {
+			return;
+		}
+		write(" ");
+		if (!isParenthesized(tests)) {
+			test(tests.get(0));
+			return;
+		}
+		write("(");
+		int align = column;
+		boolean wrap = tests.size() > 1 && column + width(tests) > MAX_WIDTH;
+		for (int i = 0; i < tests.size(); i++) {
+			if (i > 0) {
+				write(",");
+				if (wrap) {
+					newline();
+					write(" ".repeat(align));
+				} else {
+					write(" ");
+				}
+			}
+			test(tests.get(i));
+		}
+		write(")");
+	}
+
+	/**
+	 * Checks whether tests were written as a list. The tree doesn't tell
+	 * {@code not (true)} from {@code not true}, so the source is asked.
+	 */
+	private boolean isParenthesized(List<TestNode> tests) {
+		int i = tests.get(0).getStart() - 1;
+		while (i >= 0 && Character.isWhitespace(source.charAt(i))) {
+			i--;
+		}
+		return i >= 0 && source.charAt(i) == '(';
+	}
+
+	private void arguments(List<ArgumentNode> arguments) throws IOException {
+		for (ArgumentNode argument : canonicalOrder(arguments)) {
+			write(" ");
+			argument(argument);
+		}
+	}
+
+	private void argument(ArgumentNode argument) throws IOException {
+		if (argument instanceof TagArgument tag) {
+			write(":" + tag.getName().toLowerCase(Locale.ROOT));
+		} else if (argument instanceof StringListArgument list) {
+			list(list);
+		} else if (argument instanceof StringArgument string && string.isMultiline()) {
+			verbatim(text(argument));
+			write(indent()); // The literal ends with a line break
+		} else {
+			write(text(argument));
+		}
+	}
+
+	/**
+	 * Writes a string list, filling lines up to {@link #MAX_WIDTH} and
+	 * aligning wrapped strings after the bracket.
+	 */
+	private void list(StringListArgument list) throws IOException {
+		write("[");
+		int align = column;
+		List<StringArgument> strings = list.getStrings();
+		for (int i = 0; i < strings.size(); i++) {
+			StringArgument string = strings.get(i);
+			if (i > 0) {
+				write(",");
+				// The string needs room for itself and the ',' or ']' after it
+				if (column + 1 + width(string) + 1 > MAX_WIDTH) {
+					newline();
+					write(" ".repeat(align));
+				} else {
+					write(" ");
+				}
+			}
+			argument(string);
+		}
+		write("]");
+	}
+
+	/**
+	 * Puts the leading tags in canonical order, each with its parameter.
+	 * The order is kept if a tag is unknown, since its parameter isn't.
+	 *
+	 * @param arguments the arguments of a command or test
+	 * @return the arguments in canonical order
+	 */
+	public static List<ArgumentNode> canonicalOrder(List<ArgumentNode> arguments) {
+		List<ArgumentNode> other = new ArrayList<>();
+		List<ArgumentNode> comparator = new ArrayList<>();
+		List<ArgumentNode> addressPart = new ArrayList<>();
+		List<ArgumentNode> matchType = new ArrayList<>();
+		int i = 0;
+		while (i < arguments.size() && arguments.get(i) instanceof TagArgument tag) {
+			String name = tag.getName().toLowerCase(Locale.ROOT);
+			int size;
+			if (WITH_PARAMETER.contains(name)) {
+				if (i + 1 >= arguments.size() || arguments.get(i + 1) instanceof TagArgument) {
+					return arguments;
+				}
+				size = 2;
+			} else if (WITHOUT_PARAMETER.contains(name)) {
+				size = 1;
+			} else {
+				return arguments;
+			}
+			List<ArgumentNode> group;
+			if (name.equals("comparator")) {
+				group = comparator;
+			} else if (ADDRESS_PARTS.contains(name)) {
+				group = addressPart;
+			} else if (MATCH_TYPES.contains(name)) {
+				group = matchType;
+			} else {
+				group = other;
+			}
+			group.addAll(arguments.subList(i, i + size));
+			i += size;
+		}
+		List<ArgumentNode> ordered = new ArrayList<>(arguments.size());
+		ordered.addAll(other);
+		ordered.addAll(comparator);
+		ordered.addAll(addressPart);
+		ordered.addAll(matchType);
+		ordered.addAll(arguments.subList(i, arguments.size()));
+		return ordered;
+	}
+
+	/**
+	 * Gets the width of a node written on one line.
+	 */
+	private int width(Node node) {
+		if (node instanceof TagArgument tag) {
+			return 1 + tag.getName().length();
+		} else if (node instanceof StringListArgument list) {
+			int width = 2 + 2 * (list.getStrings().size() - 1);
+			for (StringArgument string : list.getStrings()) {
+				width += width(string);
+			}
+			return width;
+		} else if (node instanceof StringArgument string && string.isMultiline()) {
+			return MAX_WIDTH;
+		} else if (node instanceof TestNode test) {
+			int width = test.getName().length();
+			for (ArgumentNode argument : test.getArguments()) {
+				width += 1 + width(argument);
+			}
+			if (!test.getTests().isEmpty()) {
+				width += 1 + (isParenthesized(test.getTests()) ? width(test.getTests()) : width(test.getTests().get(0)));
+			}
+			return width;
+		}
+		return node.getEnd() - node.getStart();
+	}
+
+	/**
+	 * Gets the width of a parenthesized test list written on one line.
+	 */
+	private int width(List<TestNode> tests) {
+		int width = 2 + 2 * (tests.size() - 1);
+		for (TestNode test : tests) {
+			width += width(test);
+		}
+		return width;
+	}
+
+	private String text(Node node) {
+		return source.subSequence(node.getStart(), node.getEnd()).toString();
+	}
+
+	private int newlines(int from, int to) {
+		int count = 0;
+		for (int i = from; i < to; i++) {
+			if (source.charAt(i) == '\n') {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private String indent() {
+		return INDENT.repeat(depth);
+	}
+
+	private void write(String text) throws IOException {
+		out.append(text);
+		column += text.length();
+	}
+
+	/**
+	 * Writes text that may span lines.
+	 */
+	private void verbatim(String text) throws IOException {
+		out.append(text);
+		int lineBreak = text.lastIndexOf('\n');
+		column = lineBreak < 0 ? column + text.length() : text.length() - lineBreak - 1;
+	}
+
+	private void newline() throws IOException {
+		out.append('\n');
+		column = 0;
+		lineOpen = false;
+	}
+}
@@ -0,0 +1,286 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.febrildur.sieveeditor.parser.SieveToken.Type;
+
+/**
+ * Single-pass lexer for Sieve scripts (RFC 5228, section 8.1).
+ *
+ * <p>Reads the text character by character without regular expressions or
+ * backtracking. Lexical errors such as an unterminated string are returned
+ * as {@link Type#ERROR} tokens so the caller can report them and go on.
+ */
+public class SieveLexer {
+
+	private final CharSequence text;
+	private final int length;
+	private int pos = 0;
+	private int line = 1;
+
+	public SieveLexer(CharSequence text) {
+		this.text = text;
+		this.length = text.length();
+	}
+
+	/**
+	 * Splits a whole script into tokens.
+	 *
+	 * @param text the script text
+	 * @return all tokens including comments, ending with {@link Type#EOF}
+	 */
+	public static List<SieveToken> tokenize(CharSequence text) {
+		SieveLexer lexer = new SieveLexer(text);
+		List<SieveToken> tokens = new ArrayList<>();
+		SieveToken token;
+		do {
+			token = lexer.next();
+			tokens.add(token);
+		} while (token.getType() != Type.EOF);
+		return tokens;
+	}
+
+	/**
+	 * Reads the next token.
+	 *
+	 * @return the next token, {@link Type#EOF} once the text is exhausted
+	 */
+	public SieveToken next() {
+		skipWhitespace();
+		int start = pos;
+		int startLine = line;
+		if (pos >= length) {
+			return new SieveToken(Type.EOF, null, start, start, startLine);
+		}
+
+		char c = text.charAt(pos);
+		switch (c) {
+			case ';':
+				return single(Type.SEMICOLON);
+			case ',':
+				return single(Type.COMMA);
+			case '(':
+				return single(Type.LEFT_PAREN);
+			case ')':
+				return single(Type.RIGHT_PAREN);
+			case '[':
+				return single(Type.LEFT_BRACKET);
+			case ']':
+				return single(Type.RIGHT_BRACKET);
+			case '{':
+				return single(Type.LEFT_BRACE);
+			case '}':
+				return single(Type.RIGHT_BRACE);
+			case '"':
+				return quotedString(start, startLine);
+			case '#':
+				return hashComment(start, startLine);
+			case '/':
+				if (pos + 1 < length && text.charAt(pos + 1) == '*') {
+					return bracketComment(start, startLine);
+				}
+				break;
+			case ':':
+				return tag(start, startLine);
+			default:
+				if (isDigit(c)) {
+					return number(start, startLine);
+				}
+				if (isIdentifierStart(c)) {
+					return identifier(start, startLine);
+				}
+		}
+		pos++;
+		return new SieveToken(Type.ERROR, "Unexpected character '" + c + "'", start, pos, startLine);
+	}
+
+	private SieveToken single(Type type) {
+		int start = pos++;
+		return new SieveToken(type, null, start, pos, line);
+	}
+
+	private void skipWhitespace() {
+		while (pos < length) {
+			char c = text.charAt(pos);
+			if (c == '\n') {
+				line++;
+			} else if (c != ' ' && c != '\t' && c != '\r') {
+				return;
+			}
+			pos++;
+		}
+	}
+
+	private SieveToken identifier(int start, int startLine) {
+		pos++;
+		while (pos < length && isIdentifierPart(text.charAt(pos))) {
+			pos++;
+		}
+		if (pos < length && text.charAt(pos) == ':' && pos - start == 4 && regionIsText(start)) {
+			pos++;
+			return multilineString(start, startLine);
+		}
+		return new SieveToken(Type.IDENTIFIER, slice(start, pos), start, pos, startLine);
+	}
+
+	private boolean regionIsText(int start) {
+		return (text.charAt(start) | 0x20) == 't'
+			&& (text.charAt(start + 1) | 0x20) == 'e'
+			&& (text.charAt(start + 2) | 0x20) == 'x'
+			&& (text.charAt(start + 3) | 0x20) == 't';
+	}
+
+	private SieveToken tag(int start, int startLine) {
+		pos++;
+		if (pos >= length || !isIdentifierStart(text.charAt(pos))) {
+			return new SieveToken(Type.ERROR, "Expected tag name after ':'", start, pos, startLine);
+		}
+		while (pos < length && isIdentifierPart(text.charAt(pos))) {
+			pos++;
+		}
+		return new SieveToken(Type.TAG, slice(start + 1, pos), start, pos, startLine);
+	}
+
+	private SieveToken number(int start, int startLine) {
+		while (pos < length && isDigit(text.charAt(pos))) {
+			pos++;
+		}
+		if (pos < length) {
+			char q = (char) (text.charAt(pos) | 0x20);
+			if (q == 'k' || q == 'm' || q == 'g') {
+				pos++;
+			}
+		}
+		return new SieveToken(Type.NUMBER, slice(start, pos), start, pos, startLine);
+	}
+
+	private SieveToken quotedString(int start, int startLine) {
+		pos++;
+		StringBuilder value = null;
+		int runStart = pos;
+		while (pos < length) {
+			char c = text.charAt(pos);
+			if (c == '"') {
+				String result = value == null
+					? slice(runStart, pos)
+					: value.append(text, runStart, pos).toString();
+				pos++;
+				return new SieveToken(Type.STRING, result, start, pos, startLine);
+			}
+			if (c == '\\' && pos + 1 < length) {
+				// Only \" and \\ are defined; any other escaped character stands for itself
+				if (value == null) {
+					value = new StringBuilder();
+				}
+				value.append(text, runStart, pos);
+				pos++;
+				runStart = pos;
+				if (text.charAt(pos) == '\n') {
+					line++;
+				}
+			} else if (c == '\n') {
+				line++;
+			}
+			pos++;
+		}
+		return new SieveToken(Type.ERROR, "Unterminated string", start, pos, startLine);
+	}
+
+	/**
+	 * Reads a "text:" literal; {@code pos} is just past the colon. The literal
+	 * ends at a line holding a single dot, and a leading dot on any other line
+	 * is dot-stuffing that is removed from the value.
+	 */
+	private SieveToken multilineString(int start, int startLine) {
+		while (pos < length && (text.charAt(pos) == ' ' || text.charAt(pos) == '\t')) {
+			pos++;
+		}
+		if (pos < length && text.charAt(pos) == '#') {
+			while (pos < length && text.charAt(pos) != '\n') {
+				pos++;
+			}
+		} else if (pos < length && text.charAt(pos) == '\r') {
+			pos++;
+		}
+		if (pos >= length || text.charAt(pos) != '\n') {
+			return new SieveToken(Type.ERROR, "Expected line break after 'text:'", start, pos, startLine);
+		}
+		pos++;
+		line++;
+
+		StringBuilder value = new StringBuilder();
+		while (pos < length) {
+			int lineStart = pos;
+			int lineEnd = lineStart;
+			while (lineEnd < length && text.charAt(lineEnd) != '\n') {
+				lineEnd++;
+			}
+			int contentEnd = lineEnd > lineStart && text.charAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+			int next = lineEnd < length ? lineEnd + 1 : lineEnd;
+
+			if (contentEnd - lineStart == 1 && text.charAt(lineStart) == '.') {
+				pos = next;
+				if (lineEnd < length) {
+					line++;
+				}
+				return new SieveToken(Type.MULTILINE_STRING, value.toString(), start, pos, startLine);
+			}
+			int copyFrom = lineStart < contentEnd && text.charAt(lineStart) == '.' ? lineStart + 1 : lineStart;
+			value.append(text, copyFrom, next);
+			pos = next;
+			if (lineEnd < length) {
+				line++;
+			}
+		}
+		return new SieveToken(Type.ERROR, "Unterminated 'text:' block, expected a line with a single '.'",
+			start, pos, startLine);
+	}
+
+	private SieveToken hashComment(int start, int startLine) {
+		while (pos < length && text.charAt(pos) != '\n') {
+			pos++;
+		}
+		int end = pos > start && text.charAt(pos - 1) == '\r' ? pos - 1 : pos;
+		return new SieveToken(Type.HASH_COMMENT, slice(start + 1, end), start, end, startLine);
+	}
+
+	private SieveToken bracketComment(int start, int startLine) {
+		pos += 2;
+		while (pos + 1 < length) {
+			char c = text.charAt(pos);
+			if (c == '*' && text.charAt(pos + 1) == '/') {
+				pos += 2;
+				return new SieveToken(Type.BRACKET_COMMENT, slice(start + 2, pos - 2), start, pos, startLine);
+			}
+			if (c == '\n') {
+				line++;
+			}
+			pos++;
+		}
+		if (pos < length && text.charAt(pos) == '\n') {
+			line++;
+		}
+		pos = length;
+		return new SieveToken(Type.ERROR, "Unterminated comment", start, pos, startLine);
+	}
+
+	private String slice(int from, int to) {
+		return text.subSequence(from, to).toString();
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isIdentifierStart(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+	}
+
+	private static boolean isIdentifierPart(char c) {
+		return isIdentifierStart(c) || isDigit(c);
+	}
+}
@@ -0,0 +1,350 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.febrildur.sieveeditor.parser.SieveToken.Type;
+import de.febrildur.sieveeditor.parser.ast.ArgumentNode;
+import de.febrildur.sieveeditor.parser.ast.BlockNode;
+import de.febrildur.sieveeditor.parser.ast.CommandNode;
+import de.febrildur.sieveeditor.parser.ast.CommentNode;
+import de.febrildur.sieveeditor.parser.ast.NumberArgument;
+import de.febrildur.sieveeditor.parser.ast.ScriptNode;
+import de.febrildur.sieveeditor.parser.ast.StringArgument;
+import de.febrildur.sieveeditor.parser.ast.StringListArgument;
+import de.febrildur.sieveeditor.parser.ast.TagArgument;
+import de.febrildur.sieveeditor.parser.ast.TestNode;
+
+/**
+ * Recursive-descent parser for the Sieve grammar of RFC 5228, section 8.2:
+ * <pre>
+ * commands    = *command
+ * command     = identifier arguments (";" / block)
+ * block       = "{" commands "}"
+ * arguments   = *argument [ test / test-list ]
+ * argument    = string-list / number / tag
+ * test        = identifier arguments
+ * test-list   = "(" test *("," test) ")"
+ * string-list = "[" string *("," string) "]" / string
+ * </pre>
+ *
+ * <p>The grammar is generic, so extensions parse without knowing them. The
+ * parser never throws on bad input: errors are collected in
+ * {@link ScriptNode#getErrors()} and parsing resumes after the next ';' or
+ * at the enclosing '}', so a single typo doesn't hide the rest of the script.
+ */
+public class SieveParser {
+
+	private final SieveLexer lexer;
+	private final int length;
+	private final List<CommentNode> comments = new ArrayList<>();
+	private final List<SyntaxError> errors = new ArrayList<>();
+
+	private SieveToken current;
+	private SieveToken previous;
+
+	private SieveParser(CharSequence text) {
+		this.lexer = new SieveLexer(text);
+		this.length = text.length();
+		this.current = fetch();
+	}
+
+	/**
+	 * Parses a script.
+	 *
+	 * @param text the script text
+	 * @return the syntax tree, with any syntax errors attached
+	 */
+	public static ScriptNode parse(CharSequence text) {
+		return new SieveParser(text != null ? text : "").parseScript();
+	}
+
+	private ScriptNode parseScript() {
+		List<CommandNode> commands = new ArrayList<>();
+		while (current.getType() != Type.EOF) {
+			parseCommands(commands, true);
+			if (current.getType() == Type.RIGHT_BRACE) {
+				error("Unexpected '}' without matching '{'", current);
+				advance();
+			}
+		}
+		return new ScriptNode(commands, comments, errors, length);
+	}
+
+	/**
+	 * Parses commands until '}' or the end of the script.
+	 */
+	private void parseCommands(List<CommandNode> commands, boolean topLevel) {
+		boolean requireAllowed = topLevel;
+		CommandNode last = null;
+		while (current.getType() != Type.EOF && current.getType() != Type.RIGHT_BRACE) {
+			CommandNode command = parseCommand();
+			if (command == null) {
+				last = null;
+				continue;
+			}
+			if (command.is("require")) {
+				if (!requireAllowed) {
+					error("'require' must come before all other commands", command);
+				}
+			} else {
+				requireAllowed = false;
+			}
+			if ((command.is("elsif") || command.is("else"))
+					&& (last == null || !(last.is("if") || last.is("elsif")))) {
+				error("'" + command.getName() + "' must follow 'if' or 'elsif'", command);
+			}
+			commands.add(command);
+			last = command;
+		}
+	}
+
+	private CommandNode parseCommand() {
+		if (current.getType() != Type.IDENTIFIER) {
+			error("Expected a command but found " + describe(current), current);
+			recover();
+			return null;
+		}
+		SieveToken name = advance();
+		List<ArgumentNode> arguments = parseArguments();
+		List<TestNode> tests = parseTests();
+
+		BlockNode block = null;
+		int end;
+		if (current.getType() == Type.SEMICOLON) {
+			end = advance().getEnd();
+		} else if (current.getType() == Type.LEFT_BRACE) {
+			block = parseBlock();
+			end = block.getEnd();
+		} else {
+			end = previous.getEnd();
+			error("Expected ';' or '{' after '" + name.getValue() + "' but found " + describe(current), current);
+			recover();
+		}
+		return new CommandNode(name.getValue(), arguments, tests, block, name.getStart(), end, name.getLine());
+	}
+
+	private BlockNode parseBlock() {
+		SieveToken open = advance();
+		List<CommandNode> commands = new ArrayList<>();
+		parseCommands(commands, false);
+		int end;
+		if (current.getType() == Type.RIGHT_BRACE) {
+			end = advance().getEnd();
+		} else {
+			end = previous.getEnd();
+			error("Missing '}' for block opened on line " + open.getLine(), open);
+		}
+		return new BlockNode(commands, open.getStart(), end, open.getLine());
+	}
+
+	private List<ArgumentNode> parseArguments() {
+		List<ArgumentNode> arguments = new ArrayList<>();
+		while (true) {
+			switch (current.getType()) {
+				case STRING, MULTILINE_STRING -> arguments.add(parseString());
+				case LEFT_BRACKET -> arguments.add(parseStringList());
+				case NUMBER -> arguments.add(parseNumber());
+				case TAG -> {
+					SieveToken tag = advance();
+					arguments.add(new TagArgument(tag.getValue(), tag.getStart(), tag.getEnd(), tag.getLine()));
+				}
+				default -> {
+					return arguments;
+				}
+			}
+		}
+	}
+
+	private StringArgument parseString() {
+		SieveToken token = advance();
+		return new StringArgument(token.getValue(), token.getType() == Type.MULTILINE_STRING,
+			token.getStart(), token.getEnd(), token.getLine());
+	}
+
+	private StringListArgument parseStringList() {
+		SieveToken open = advance();
+		List<StringArgument> strings = new ArrayList<>();
+		while (true) {
+			if (current.getType() == Type.STRING || current.getType() == Type.MULTILINE_STRING) {
+				strings.add(parseString());
+			} else {
+				error("Expected a string in list but found " + describe(current), current);
+				break;
+			}
+			if (current.getType() == Type.COMMA) {
+				advance();
+			} else if (current.getType() == Type.RIGHT_BRACKET) {
+				break;
+			} else {
+				error("Expected ',' or ']' in string list but found " + describe(current), current);
+				break;
+			}
+		}
+		int end = previous.getEnd();
+		if (current.getType() == Type.RIGHT_BRACKET) {
+			end = advance().getEnd();
+		}
+		return new StringListArgument(strings, open.getStart(), end, open.getLine());
+	}
+
+	private NumberArgument parseNumber() {
+		SieveToken token = advance();
+		String text = token.getValue();
+		char last = Character.toUpperCase(text.charAt(text.length() - 1));
+		char quantifier = 0;
+		int shift = 0;
+		switch (last) {
+			case 'K' -> shift = 10;
+			case 'M' -> shift = 20;
+			case 'G' -> shift = 30;
+			default -> {
+				// plain number
+			}
+		}
+		String digits = text;
+		if (shift > 0) {
+			quantifier = last;
+			digits = text.substring(0, text.length() - 1);
+		}
+		long value;
+		try {
+			value = Long.parseLong(digits);
+			if (value > (Long.MAX_VALUE >> shift)) {
+				throw new NumberFormatException();
+			}
+			value <<= shift;
+		} catch (NumberFormatException e) {
+			error("Number " + text + " is too large", token);
+			value = Long.MAX_VALUE;
+		}
+		return new NumberArgument(value, quantifier, token.getStart(), token.getEnd(), token.getLine());
+	}
+
+	/**
+	 * Parses the optional test or parenthesized test list after the arguments.
+	 */
+	private List<TestNode> parseTests() {
+		if (current.getType() == Type.IDENTIFIER) {
+			return List.of(parseTest());
+		}
+		if (current.getType() != Type.LEFT_PAREN) {
+			return List.of();
+		}
+		advance();
+		List<TestNode> tests = new ArrayList<>();
+		while (true) {
+			if (current.getType() != Type.IDENTIFIER) {
+				error("Expected a test but found " + describe(current), current);
+				break;
+			}
+			tests.add(parseTest());
+			if (current.getType() == Type.COMMA) {
+				advance();
+			} else {
+				break;
+			}
+		}
+		if (current.getType() == Type.RIGHT_PAREN) {
+			advance();
+		} else {
+			error("Expected ')' after test list but found " + describe(current), current);
+		}
+		return tests;
+	}
+
+	private TestNode parseTest() {
+		SieveToken name = advance();
+		List<ArgumentNode> arguments = parseArguments();
+		List<TestNode> tests = parseTests();
+		return new TestNode(name.getValue(), arguments, tests, name.getStart(), previous.getEnd(), name.getLine());
+	}
+
+	/**
+	 * Skips to just after the next ';' or to the '}' closing the current
+	 * block. Blocks met on the way are skipped as a whole.
+	 */
+	private void recover() {
+		int depth = 0;
+		while (current.getType() != Type.EOF) {
+			switch (current.getType()) {
+				case SEMICOLON -> {
+					advance();
+					if (depth == 0) {
+						return;
+					}
+				}
+				case LEFT_BRACE -> {
+					depth++;
+					advance();
+				}
+				case RIGHT_BRACE -> {
+					if (depth == 0) {
+						return;
+					}
+					depth--;
+					advance();
+					if (depth == 0) {
+						return;
+					}
+				}
+				default -> advance();
+			}
+		}
+	}
+
+	private SieveToken advance() {
+		previous = current;
+		current = fetch();
+		return previous;
+	}
+
+	/**
+	 * Gets the next significant token, collecting comments and lexical
+	 * errors on the way.
+	 */
+	private SieveToken fetch() {
+		while (true) {
+			SieveToken token = lexer.next();
+			switch (token.getType()) {
+				case HASH_COMMENT, BRACKET_COMMENT -> comments.add(new CommentNode(token.getValue(),
+					token.getType() == Type.BRACKET_COMMENT, token.getStart(), token.getEnd(), token.getLine()));
+				case ERROR -> errors.add(new SyntaxError(token.getValue(),
+					token.getStart(), token.getEnd(), token.getLine()));
+				default -> {
+					return token;
+				}
+			}
+		}
+	}
+
+	private void error(String message, SieveToken at) {
+		errors.add(new SyntaxError(message, at.getStart(), at.getEnd(), at.getLine()));
+	}
+
+	private void error(String message, CommandNode at) {
+		errors.add(new SyntaxError(message, at.getStart(), at.getEnd(), at.getLine()));
+	}
+
+	private static String describe(SieveToken token) {
+		return switch (token.getType()) {
+			case EOF -> "end of script";
+			case IDENTIFIER -> "'" + token.getValue() + "'";
+			case TAG -> "':" + token.getValue() + "'";
+			case NUMBER -> "number " + token.getValue();
+			case STRING, MULTILINE_STRING -> "a string";
+			case SEMICOLON -> "';'";
+			case COMMA -> "','";
+			case LEFT_PAREN -> "'('";
+			case RIGHT_PAREN -> "')'";
+			case LEFT_BRACKET -> "'['";
+			case RIGHT_BRACKET -> "']'";
+			case LEFT_BRACE -> "'{'";
+			case RIGHT_BRACE -> "'}'";
+			default -> token.getType().toString();
+		};
+	}
+}
@@ -84,6 +84,20 @@ public class SieveRule {
 		return flag;
 	}
 
+	/**
+	 * Creates a copy of this rule at another line, e.g. after lines were
+	 * inserted above it.
+	 *
+	 * @param newLineNumber the new 1-based line number
+	 * @return this rule if the line is unchanged, otherwise a moved copy
+	 */
+	public SieveRule withLineNumber(int newLineNumber) {
+		if (newLineNumber == lineNumber) {
+			return this;
+		}
+		return new SieveRule(ruleNumber, label, newLineNumber, comment, lastModified, modifiedBy, flag);
+	}
+
 	/**
 	 * Checks if this rule has vacation metadata.
 	 *
@@ -5,8 +5,6 @@ package de.febrildur.sieveeditor.parser;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Parser for extracting Sieve filter rules from script text.
@@ -17,35 +15,18 @@ import java.util.regex.Pattern;
  * ## Flag: |UniqueId:2 |Rulename: Another Rule
  * </pre>
  *
+ * <p>The Flag field may be empty, whitespace between the components is
+ * flexible and the keywords are matched case-insensitively. Vacation rules
+ * may carry trailing {@code |LastModified:} and {@code |ModifiedBy:}
+ * fields, which are captured for tooltips. Lines are recognized by a
+ * {@link RuleCommentMatcher} in linear time.
+ *
  * <p>It also detects numbering inconsistencies (duplicates, gaps).
  */
 public class SieveRuleParser {
 
-	/**
-	 * Pattern to match rule comments: ## Flag: [content]|UniqueId:N|Rulename: Description
-	 * Captures:
-	 *   - group 1 = Flag field content (optional)
-	 *   - group 2 = unique ID number
-	 *   - group 3 = rule name (without metadata)
-	 *   - group 4 = LastModified timestamp (optional, vacation rules only)
-	 *   - group 5 = ModifiedBy IP address (optional, vacation rules only)
-	 *
-	 * Made robust to handle:
-	 * - Optional Flag field content (e.g., 'syscategory', 'vacation', or empty)
-	 * - Variable whitespace between components
-	 * - Optional trailing metadata fields (LastModified, ModifiedBy) - captured for tooltips
-	 * - Optional trailing whitespace
-	 * - Windows and Unix line endings
-	 *
-	 * Example formats supported:
-	 * - Basic: ## Flag: |UniqueId:1|Rulename: My Rule
-	 * - With Flag: ## Flag: vacation|UniqueId:2|Rulename: Out of Office
-	 * - With metadata: ## Flag: vacation|UniqueId:2|Rulename: Abwesenheit|LastModified: 2025-12-18T13:54:27Z|ModifiedBy: 111.111.111.111
-	 */
-	private static final Pattern RULE_PATTERN = Pattern.compile(
-		"^\\s*##\\s*Flag:\\s*([^|]*)\\|\\s*UniqueId:\\s*(\\d+)\\s*\\|\\s*Rulename:\\s*([^|]*)(?:\\|\\s*LastModified:\\s*([^|]+))?(?:\\|\\s*ModifiedBy:\\s*([^|\\s]+))?\\s*$",
-		Pattern.CASE_INSENSITIVE
-	);
+	/** Message of the error reported for a rule comment whose ID is not a valid number. */
+	public static final String INVALID_UNIQUE_ID = "Invalid UniqueId";
 
 	/**
 	 * Result of parsing a Sieve script.
@@ -53,10 +34,21 @@ public class SieveRuleParser {
 	public static class ParseResult {
 		private final List<SieveRule> rules;
 		private final List<SieveWarning> warnings;
+		private RuleIndex index;
 
 		public ParseResult(List<SieveRule> rules, List<SieveWarning> warnings) {
+			this(rules, warnings, null);
+		}
+
+		/**
+		 * Creates a result with an index built while scanning.
+		 *
+		 * @param index the index of the rules, or null to build it on demand
+		 */
+		public ParseResult(List<SieveRule> rules, List<SieveWarning> warnings, RuleIndex index) {
 			this.rules = rules;
 			this.warnings = warnings;
+			this.index = index;
 		}
 
 		public List<SieveRule> getRules() {
@@ -70,6 +62,19 @@ public class SieveRuleParser {
 		public boolean hasWarnings() {
 			return !warnings.isEmpty();
 		}
+
+		/**
+		 * Gets the compact index of the rules. Source offsets are only known
+		 * if the result came from scanning text.
+		 *
+		 * @return the index
+		 */
+		public synchronized RuleIndex getIndex() {
+			if (index == null) {
+				index = RuleIndex.of(rules);
+			}
+			return index;
+		}
 	}
 
 	/**
@@ -79,94 +84,77 @@ public class SieveRuleParser {
 	 * @return ParseResult containing rules and any warnings
 	 */
 	public static ParseResult parseRules(String scriptText) {
-		List<SieveRule> rules = new ArrayList<>();
-		List<SieveWarning> warnings = new ArrayList<>();
-		java.util.Map<Integer, List<Integer>> ruleNumberToLines = new java.util.HashMap<>();
-
 		if (scriptText == null || scriptText.isEmpty()) {
-			return new ParseResult(rules, warnings);
-		}
-
-		// Handle both Unix (\n) and Windows (\r\n) line endings
-		String[] lines = scriptText.split("\\r?\\n");
-		for (int i = 0; i < lines.length; i++) {
-			String line = lines[i];
-			int lineNumber = i + 1; // 1-based line numbers
-
-			Matcher matcher = RULE_PATTERN.matcher(line);
-			if (matcher.matches()) {
-				try {
-					String flag = matcher.group(1);          // Optional Flag field content
-					int ruleNumber = Integer.parseInt(matcher.group(2));
-					String ruleName = matcher.group(3).trim();
-					String lastModified = matcher.group(4); // Optional vacation metadata
-					String modifiedBy = matcher.group(5);   // Optional vacation metadata
-
-					// Track all line numbers for each rule number
-					ruleNumberToLines.computeIfAbsent(ruleNumber, k -> new ArrayList<>()).add(lineNumber);
-
-					rules.add(new SieveRule(ruleNumber, ruleName, lineNumber, line.trim(), lastModified, modifiedBy, flag));
-				} catch (NumberFormatException e) {
-					// Shouldn't happen due to regex, but be defensive
-					warnings.add(new SieveWarning(
-						SieveWarning.Severity.ERROR,
-						"Invalid UniqueId",
-						lineNumber
-					));
-				}
-			}
+			return new ParseResult(new ArrayList<>(), new ArrayList<>());
 		}
 
-		// Check for duplicate rule numbers (ERROR severity)
-		for (java.util.Map.Entry<Integer, List<Integer>> entry : ruleNumberToLines.entrySet()) {
-			int ruleNumber = entry.getKey();
-			List<Integer> linesList = entry.getValue();
-			if (linesList.size() > 1) {
-				warnings.add(new SieveWarning(
-					SieveWarning.Severity.ERROR,
-					"Duplicate UniqueId " + ruleNumber,
-					linesList
-				));
-			}
-		}
+		// Handles both Unix (\n) and Windows (\r\n) line endings
+		return DocumentRuleScanner.scan(scriptText);
+	}
 
-		// Check for gaps in numbering (WARNING severity)
-		if (!rules.isEmpty()) {
-			detectNumberingGaps(rules, warnings);
-		}
+	/**
+	 * Parses a single line.
+	 *
+	 * @param line the line text without line terminator
+	 * @param lineNumber the 1-based line number to record in the rule
+	 * @param warnings receives an error if the line is a rule comment with an unusable ID
+	 * @return the rule, or null if the line is not a valid rule comment
+	 */
+	public static SieveRule parseLine(CharSequence line, int lineNumber, List<SieveWarning> warnings) {
+		return parseLine(line, 0, line.length(), lineNumber, warnings);
+	}
 
-		return new ParseResult(rules, warnings);
+	/**
+	 * Parses the line in {@code [start, end)} of a text without copying the
+	 * whole line first. Only a rule comment is copied: the rule keeps its
+	 * trimmed comment line and its fields as Strings.
+	 *
+	 * @param text the text containing the line
+	 * @param start the start of the line
+	 * @param end the end of the line, excluding the line terminator
+	 * @param lineNumber the 1-based line number to record in the rule
+	 * @param warnings receives an error if the line is a rule comment with an unusable ID
+	 * @return the rule, or null if the line is not a valid rule comment
+	 */
+	public static SieveRule parseLine(CharSequence text, int start, int end, int lineNumber, List<SieveWarning> warnings) {
+		return parseLine(new RuleCommentMatcher(), text, start, end, lineNumber, warnings);
 	}
 
 	/**
-	 * Detects gaps in rule numbering sequence.
+	 * Parses a line with a reused matcher, so scanning a script doesn't
+	 * allocate a matcher per line.
 	 */
-	private static void detectNumberingGaps(List<SieveRule> rules, List<SieveWarning> warnings) {
-		// Sort by rule number to check sequence
-		List<Integer> numbers = rules.stream()
-			.map(SieveRule::getRuleNumber)
-			.sorted()
-			.distinct()
-			.toList();
-
-		if (numbers.isEmpty()) {
-			return;
+	static SieveRule parseLine(RuleCommentMatcher matcher, CharSequence text, int start, int end, int lineNumber,
+			List<SieveWarning> warnings) {
+		if (!matcher.matches(text, start, end)) {
+			return null;
 		}
-
-		int expectedNext = 1;
-		for (int number : numbers) {
-			if (number > expectedNext) {
-				// Gap detected - this is a quality WARNING, not an ERROR
-				String message;
-				if (number - expectedNext == 1) {
-					message = "Missing UniqueId " + expectedNext;
-				} else {
-					message = "Missing UniqueIds " + expectedNext + " to " + (number - 1);
-				}
-				warnings.add(new SieveWarning(SieveWarning.Severity.WARNING, message));
-			}
-			expectedNext = number + 1;
+		if (!matcher.hasValidId()) {
+			// Only possible for IDs beyond int range
+			warnings.add(new SieveWarning(
+				SieveWarning.Severity.ERROR,
+				INVALID_UNIQUE_ID,
+				lineNumber
+			));
+			return null;
 		}
+		String flag = matcher.getFlag();                 // Optional Flag field content
+		String ruleName = matcher.getRuleName().trim();
+		String lastModified = matcher.getLastModified(); // Optional vacation metadata
+		String modifiedBy = matcher.getModifiedBy();     // Optional vacation metadata
+		// A copy of just the line, so cached results and rules don't keep the whole script alive
+		String comment = text.subSequence(start, end).toString().trim();
+		return new SieveRule(matcher.getId(), ruleName, lineNumber, comment, lastModified, modifiedBy, flag);
+	}
+
+	/**
+	 * Checks the numbering of parsed rules for duplicates and gaps.
+	 *
+	 * @param rules the rules in line order
+	 * @return the warnings, duplicates first
+	 */
+	public static List<SieveWarning> validate(List<SieveRule> rules) {
+		return RuleIndex.of(rules).validate();
 	}
 
 	/**
@@ -0,0 +1,80 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+/**
+ * A lexical token of a Sieve script (RFC 5228, section 8.1).
+ */
+public final class SieveToken {
+
+	public enum Type {
+		IDENTIFIER,
+		TAG,              // ":contains" - value is the name without the colon
+		NUMBER,           // value is the digits plus optional K/M/G quantifier
+		STRING,           // "quoted" - value has escapes resolved
+		MULTILINE_STRING, // text: ... . - value has dot-stuffing removed
+		HASH_COMMENT,     // # ... up to the end of the line
+		BRACKET_COMMENT,  // /* ... */
+		SEMICOLON,
+		COMMA,
+		LEFT_PAREN,
+		RIGHT_PAREN,
+		LEFT_BRACKET,
+		RIGHT_BRACKET,
+		LEFT_BRACE,
+		RIGHT_BRACE,
+		ERROR,            // value is the error message
+		EOF
+	}
+
+	private final Type type;
+	private final String value;
+	private final int start;
+	private final int end;
+	private final int line;
+
+	public SieveToken(Type type, String value, int start, int end, int line) {
+		this.type = type;
+		this.value = value;
+		this.start = start;
+		this.end = end;
+		this.line = line;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Gets the decoded value: identifier or tag name, number text, string
+	 * content, comment text or error message. Null for punctuation.
+	 */
+	public String getValue() {
+		return value;
+	}
+
+	/** Offset of the first character. */
+	public int getStart() {
+		return start;
+	}
+
+	/** Offset just past the last character. */
+	public int getEnd() {
+		return end;
+	}
+
+	/** 1-based line of the first character. */
+	public int getLine() {
+		return line;
+	}
+
+	public boolean isComment() {
+		return type == Type.HASH_COMMENT || type == Type.BRACKET_COMMENT;
+	}
+
+	@Override
+	public String toString() {
+		return type + (value != null ? "(" + value + ")" : "") + "@" + start;
+	}
+}
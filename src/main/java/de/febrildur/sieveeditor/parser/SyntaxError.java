@@ -0,0 +1,46 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+/**
+ * A syntax error found by {@link SieveParser}, with the offending source range.
+ */
+public class SyntaxError {
+
+	private final String message;
+	private final int start;
+	private final int end;
+	private final int line;
+
+	public SyntaxError(String message, int start, int end, int line) {
+		this.message = message;
+		this.start = start;
+		this.end = end;
+		this.line = line;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	/** Offset of the first offending character. */
+	public int getStart() {
+		return start;
+	}
+
+	/** Offset just past the offending range. */
+	public int getEnd() {
+		return end;
+	}
+
+	/** 1-based line of the error. */
+	public int getLine() {
+		return line;
+	}
+
+	@Override
+	public String toString() {
+		return "line " + line + ": " + message;
+	}
+}
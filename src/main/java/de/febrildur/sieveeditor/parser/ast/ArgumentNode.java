@@ -0,0 +1,25 @@
+package de.febrildur.sieveeditor.parser.ast;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.List;
+
+/**
+ * A positional or tagged argument of a command or test.
+ */
+public abstract class ArgumentNode extends Node {
+
+	protected ArgumentNode(int start, int end, int line) {
+		super(start, end, line);
+	}
+
+	/**
+	 * Gets the string values of this argument.
+	 *
+	 * @return the strings of a string or string list, empty otherwise
+	 */
+	public List<String> getStringValues() {
+		return List.of();
+	}
+}
@@ -0,0 +1,28 @@
+package de.febrildur.sieveeditor.parser.ast;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.List;
+
+/**
+ * A braced block of commands. Offsets include the braces.
+ */
+public class BlockNode extends Node {
+
+	private final List<CommandNode> commands;
+
+	public BlockNode(List<CommandNode> commands, int start, int end, int line) {
+		super(start, end, line);
+		this.commands = List.copyOf(commands);
+	}
+
+	public List<CommandNode> getCommands() {
+		return commands;
+	}
+
+	@Override
+	public List<CommandNode> getChildren() {
+		return commands;
+	}
+}
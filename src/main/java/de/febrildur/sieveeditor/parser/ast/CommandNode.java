@@ -0,0 +1,82 @@
+package de.febrildur.sieveeditor.parser.ast;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A command, e.g. {@code require "fileinto";}, {@code fileinto "Spam";} or a
+ * control command like if, elsif and else with its block.
+ */
+public class CommandNode extends Node {
+
+	private final String name;
+	private final List<ArgumentNode> arguments;
+	private final List<TestNode> tests;
+	private final BlockNode block;
+
+	public CommandNode(String name, List<ArgumentNode> arguments, List<TestNode> tests, BlockNode block,
+			int start, int end, int line) {
+		super(start, end, line);
+		this.name = name;
+		this.arguments = List.copyOf(arguments);
+		this.tests = List.copyOf(tests);
+		this.block = block;
+	}
+
+	/** The command name as written; Sieve identifiers are case-insensitive. */
+	public String getName() {
+		return name;
+	}
+
+	public boolean is(String identifier) {
+		return name.equalsIgnoreCase(identifier);
+	}
+
+	public List<ArgumentNode> getArguments() {
+		return arguments;
+	}
+
+	/**
+	 * Gets the tests; a single test for if and elsif, empty for most actions.
+	 */
+	public List<TestNode> getTests() {
+		return tests;
+	}
+
+	/**
+	 * Gets the first test.
+	 *
+	 * @return the test, or null if the command has none
+	 */
+	public TestNode getTest() {
+		return tests.isEmpty() ? null : tests.get(0);
+	}
+
+	/**
+	 * Gets the block.
+	 *
+	 * @return the block, or null if the command ends with ';'
+	 */
+	public BlockNode getBlock() {
+		return block;
+	}
+
+	@Override
+	public List<Node> getChildren() {
+		List<Node> children = new ArrayList<>(arguments.size() + tests.size() + 1);
+		children.addAll(arguments);
+		children.addAll(tests);
+		if (block != null) {
+			children.add(block);
+		}
+		return children;
+	}
+
+	@Override
+	public String toString() {
+		return name + arguments + (tests.isEmpty() ? "" : tests.toString()) + (block != null ? " {...}" : ";");
+	}
+}
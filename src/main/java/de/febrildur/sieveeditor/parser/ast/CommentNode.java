@@ -0,0 +1,29 @@
+package de.febrildur.sieveeditor.parser.ast;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+/**
+ * A hash comment or a bracket comment.
+ */
+public class CommentNode extends Node {
+
+	private final String text;
+	private final boolean bracket;
+
+	public CommentNode(String text, boolean bracket, int start, int end, int line) {
+		super(start, end, line);
+		this.text = text;
+		this.bracket = bracket;
+	}
+
+	/** The comment text without "#" or "/*" and "*&#47;". */
+	public String getText() {
+		return text;
+	}
+
+	/** True for a bracket comment, false for a hash comment. */
+	public boolean isBracket() {
+		return bracket;
+	}
+}
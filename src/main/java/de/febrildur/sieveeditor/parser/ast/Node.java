@@ -0,0 +1,59 @@
+package de.febrildur.sieveeditor.parser.ast;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Base class of all syntax tree nodes. Offsets refer to the parsed text.
+ */
+public abstract class Node {
+
+	private final int start;
+	private final int end;
+	private final int line;
+
+	protected Node(int start, int end, int line) {
+		this.start = start;
+		this.end = end;
+		this.line = line;
+	}
+
+	/** Offset of the first character. */
+	public int getStart() {
+		return start;
+	}
+
+	/** Offset just past the last character. */
+	public int getEnd() {
+		return end;
+	}
+
+	/** 1-based line of the first character. */
+	public int getLine() {
+		return line;
+	}
+
+	/**
+	 * Gets the direct children in source order.
+	 *
+	 * @return the children, empty for leaves
+	 */
+	public List<? extends Node> getChildren() {
+		return List.of();
+	}
+
+	/**
+	 * Visits this node and all its descendants in source order.
+	 *
+	 * @param visitor called for each node, parents before children
+	 */
+	public void walk(Consumer<? super Node> visitor) {
+		visitor.accept(this);
+		for (Node child : getChildren()) {
+			child.walk(visitor);
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package de.febrildur.sieveeditor.parser.ast;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+/**
+ * A number with an optional K, M or G quantifier.
+ */
+public class NumberArgument extends ArgumentNode {
+
+	private final long value;
+	private final char quantifier;
+
+	public NumberArgument(long value, char quantifier, int start, int end, int line) {
+		super(start, end, line);
+		this.value = value;
+		this.quantifier = quantifier;
+	}
+
+	/** The value with the quantifier applied, e.g. 2K is 2048. */
+	public long getValue() {
+		return value;
+	}
+
+	/** The upper-case quantifier, or 0 if there is none. */
+	public char getQuantifier() {
+		return quantifier;
+	}
+
+	@Override
+	public String toString() {
+		return Long.toString(value);
+	}
+}
@@ -0,0 +1,71 @@
+package de.febrildur.sieveeditor.parser.ast;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.febrildur.sieveeditor.parser.SyntaxError;
+
+/**
+ * Root of a parsed script: the top-level commands plus all comments and
+ * syntax errors found while parsing.
+ */
+public class ScriptNode extends Node {
+
+	private final List<CommandNode> commands;
+	private final List<CommentNode> comments;
+	private final List<SyntaxError> errors;
+
+	public ScriptNode(List<CommandNode> commands, List<CommentNode> comments, List<SyntaxError> errors,
+			int length) {
+		super(0, length, 1);
+		this.commands = List.copyOf(commands);
+		this.comments = List.copyOf(comments);
+		this.errors = List.copyOf(errors);
+	}
+
+	public List<CommandNode> getCommands() {
+		return commands;
+	}
+
+	/**
+	 * Gets all comments of the script, including those inside blocks, in
+	 * source order. Comments are not part of {@link #getChildren()}.
+	 */
+	public List<CommentNode> getComments() {
+		return comments;
+	}
+
+	public List<SyntaxError> getErrors() {
+		return errors;
+	}
+
+	public boolean hasErrors() {
+		return !errors.isEmpty();
+	}
+
+	/**
+	 * Gets the extensions named by the require commands.
+	 *
+	 * @return the capability names in order of appearance, without duplicates
+	 */
+	public Set<String> getRequiredExtensions() {
+		Set<String> extensions = new LinkedHashSet<>();
+		for (CommandNode command : commands) {
+			if (command.is("require")) {
+				for (ArgumentNode argument : command.getArguments()) {
+					extensions.addAll(argument.getStringValues());
+				}
+			}
+		}
+		return extensions;
+	}
+
+	@Override
+	public List<CommandNode> getChildren() {
+		return commands;
+	}
+}
@@ -0,0 +1,40 @@
+package de.febrildur.sieveeditor.parser.ast;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.List;
+
+/**
+ * A quoted string or a "text:" multi-line literal.
+ */
+public class StringArgument extends ArgumentNode {
+
+	private final String value;
+	private final boolean multiline;
+
+	public StringArgument(String value, boolean multiline, int start, int end, int line) {
+		super(start, end, line);
+		this.value = value;
+		this.multiline = multiline;
+	}
+
+	/** The string with escapes and dot-stuffing removed. */
+	public String getValue() {
+		return value;
+	}
+
+	public boolean isMultiline() {
+		return multiline;
+	}
+
+	@Override
+	public List<String> getStringValues() {
+		return List.of(value);
+	}
+
+	@Override
+	public String toString() {
+		return "\"" + value + "\"";
+	}
+}
@@ -0,0 +1,38 @@
+package de.febrildur.sieveeditor.parser.ast;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.List;
+
+/**
+ * A bracketed string list such as ["From", "Sender"].
+ */
+public class StringListArgument extends ArgumentNode {
+
+	private final List<StringArgument> strings;
+
+	public StringListArgument(List<StringArgument> strings, int start, int end, int line) {
+		super(start, end, line);
+		this.strings = List.copyOf(strings);
+	}
+
+	public List<StringArgument> getStrings() {
+		return strings;
+	}
+
+	@Override
+	public List<String> getStringValues() {
+		return strings.stream().map(StringArgument::getValue).toList();
+	}
+
+	@Override
+	public List<StringArgument> getChildren() {
+		return strings;
+	}
+
+	@Override
+	public String toString() {
+		return strings.toString();
+	}
+}
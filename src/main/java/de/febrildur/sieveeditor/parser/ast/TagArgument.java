@@ -0,0 +1,27 @@
+package de.febrildur.sieveeditor.parser.ast;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+/**
+ * A tagged argument such as :contains or :over.
+ */
+public class TagArgument extends ArgumentNode {
+
+	private final String name;
+
+	public TagArgument(String name, int start, int end, int line) {
+		super(start, end, line);
+		this.name = name;
+	}
+
+	/** The tag name without the leading colon. */
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String toString() {
+		return ":" + name;
+	}
+}
@@ -0,0 +1,55 @@
+package de.febrildur.sieveeditor.parser.ast;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A test such as {@code header :contains "subject" "spam"}. Tests like
+ * allof, anyof and not hold nested tests.
+ */
+public class TestNode extends Node {
+
+	private final String name;
+	private final List<ArgumentNode> arguments;
+	private final List<TestNode> tests;
+
+	public TestNode(String name, List<ArgumentNode> arguments, List<TestNode> tests, int start, int end, int line) {
+		super(start, end, line);
+		this.name = name;
+		this.arguments = List.copyOf(arguments);
+		this.tests = List.copyOf(tests);
+	}
+
+	/** The test name as written; Sieve identifiers are case-insensitive. */
+	public String getName() {
+		return name;
+	}
+
+	public boolean is(String identifier) {
+		return name.equalsIgnoreCase(identifier);
+	}
+
+	public List<ArgumentNode> getArguments() {
+		return arguments;
+	}
+
+	public List<TestNode> getTests() {
+		return tests;
+	}
+
+	@Override
+	public List<Node> getChildren() {
+		List<Node> children = new ArrayList<>(arguments.size() + tests.size());
+		children.addAll(arguments);
+		children.addAll(tests);
+		return children;
+	}
+
+	@Override
+	public String toString() {
+		return name + arguments + (tests.isEmpty() ? "" : tests.toString());
+	}
+}
@@ -0,0 +1,106 @@
+package de.febrildur.sieveeditor.parser.lint;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import de.febrildur.sieveeditor.parser.SieveWarning;
+import de.febrildur.sieveeditor.parser.ast.ArgumentNode;
+import de.febrildur.sieveeditor.parser.ast.CommandNode;
+import de.febrildur.sieveeditor.parser.ast.NumberArgument;
+import de.febrildur.sieveeditor.parser.ast.StringArgument;
+import de.febrildur.sieveeditor.parser.ast.StringListArgument;
+import de.febrildur.sieveeditor.parser.ast.TagArgument;
+import de.febrildur.sieveeditor.parser.ast.TestNode;
+
+/**
+ * Reports conditions that repeat an earlier one: an elsif testing the
+ * same as its if or a previous elsif can never run, and a test listed twice
+ * in anyof or allof is redundant. Identifiers and tags are compared
+ * case-insensitively, strings exactly.
+ */
+public class DuplicateConditionRule implements LintRule {
+
+	@Override
+	public String getId() {
+		return "duplicate-condition";
+	}
+
+	@Override
+	public List<SieveWarning> check(LintContext context) {
+		List<SieveWarning> warnings = new ArrayList<>();
+		for (List<CommandNode> commands : context.getCommandLists()) {
+			Map<String, Integer> chain = new HashMap<>();
+			for (CommandNode command : commands) {
+				if (command.is("if")) {
+					chain.clear();
+				} else if (!command.is("elsif")) {
+					continue;
+				}
+				TestNode test = command.getTest();
+				if (test == null) {
+					continue;
+				}
+				Integer earlier = chain.putIfAbsent(canonical(test), command.getLine());
+				if (earlier != null) {
+					warnings.add(new SieveWarning(SieveWarning.Severity.WARNING,
+						"Condition repeats line " + earlier + ", branch never runs", command.getLine()));
+				}
+			}
+		}
+		context.getScript().walk(node -> {
+			if (node instanceof TestNode test && (test.is("anyof") || test.is("allof"))) {
+				Map<String, Integer> seen = new HashMap<>();
+				for (TestNode nested : test.getTests()) {
+					if (seen.putIfAbsent(canonical(nested), nested.getLine()) != null) {
+						warnings.add(new SieveWarning(SieveWarning.Severity.WARNING,
+							"Duplicate test in " + test.getName().toLowerCase(Locale.ROOT), nested.getLine()));
+					}
+				}
+			}
+		});
+		warnings.sort((a, b) -> Integer.compare(a.getLineNumbers().get(0), b.getLineNumbers().get(0)));
+		return warnings;
+	}
+
+	/**
+	 * Renders a test so that equivalent spellings give equal strings.
+	 */
+	static String canonical(TestNode test) {
+		StringBuilder text = new StringBuilder();
+		appendTest(test, text);
+		return text.toString();
+	}
+
+	private static void appendTest(TestNode test, StringBuilder text) {
+		text.append(test.getName().toLowerCase(Locale.ROOT));
+		for (ArgumentNode argument : test.getArguments()) {
+			text.append(' ');
+			if (argument instanceof TagArgument tag) {
+				text.append(':').append(tag.getName().toLowerCase(Locale.ROOT));
+			} else if (argument instanceof NumberArgument number) {
+				text.append(number.getValue());
+			} else if (argument instanceof StringArgument || argument instanceof StringListArgument) {
+				text.append('[');
+				for (String value : argument.getStringValues()) {
+					// Length-prefixed so no value can imitate a separator
+					text.append(value.length()).append(':').append(value);
+				}
+				text.append(']');
+			}
+		}
+		if (!test.getTests().isEmpty()) {
+			text.append('(');
+			for (TestNode nested : test.getTests()) {
+				appendTest(nested, text);
+				text.append(',');
+			}
+			text.append(')');
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package de.febrildur.sieveeditor.parser.lint;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import de.febrildur.sieveeditor.parser.ast.BlockNode;
+import de.febrildur.sieveeditor.parser.ast.CommandNode;
+import de.febrildur.sieveeditor.parser.ast.ScriptNode;
+
+/**
+ * What a {@link LintRule} gets to see: the syntax tree, which is immutable
+ * and shared by all rules, and the extensions the server supports.
+ */
+public class LintContext {
+
+	private final ScriptNode script;
+	private final Predicate<String> serverExtensions;
+	private final List<List<CommandNode>> commandLists = new ArrayList<>();
+
+	/**
+	 * Creates a context.
+	 *
+	 * @param script the parsed script
+	 * @param serverExtensions tells whether the server supports an
+	 *        extension; null if that isn't known, e.g. while offline
+	 */
+	public LintContext(ScriptNode script, Predicate<String> serverExtensions) {
+		this.script = script;
+		this.serverExtensions = serverExtensions;
+		commandLists.add(script.getCommands());
+		script.walk(node -> {
+			if (node instanceof BlockNode block) {
+				commandLists.add(block.getCommands());
+			}
+		});
+	}
+
+	public ScriptNode getScript() {
+		return script;
+	}
+
+	/**
+	 * Gets every sequence of commands: the top level and each block.
+	 *
+	 * @return the command lists, top level first, then blocks in source order
+	 */
+	public List<List<CommandNode>> getCommandLists() {
+		return commandLists;
+	}
+
+	/**
+	 * Checks whether the server capabilities are known.
+	 *
+	 * @return true if {@link #isSupportedByServer} can answer
+	 */
+	public boolean hasServerExtensions() {
+		return serverExtensions != null;
+	}
+
+	/**
+	 * Checks whether the server announced an extension.
+	 *
+	 * @param extension the capability name, e.g. "fileinto"
+	 * @return true if supported, or if the capabilities aren't known
+	 */
+	public boolean isSupportedByServer(String extension) {
+		return serverExtensions == null || serverExtensions.test(extension);
+	}
+}
@@ -0,0 +1,125 @@
+package de.febrildur.sieveeditor.parser.lint;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.febrildur.sieveeditor.parser.SieveParser;
+import de.febrildur.sieveeditor.parser.SieveWarning;
+import de.febrildur.sieveeditor.parser.ast.ScriptNode;
+
+/**
+ * Runs {@link LintRule}s over a parsed script.
+ *
+ * <p>The syntax tree is immutable, so the rules share it and run in
+ * parallel on the ForkJoin common pool. Each rule is timed, and a rule that
+ * throws is logged and skipped instead of failing the whole run. The
+ * findings are merged in rule order, so a report doesn't depend on which
+ * rule finished first.
+ */
+public class LintEngine {
+
+	private static final Logger LOGGER = Logger.getLogger(LintEngine.class.getName());
+
+	private final List<LintRule> rules;
+
+	/**
+	 * Creates an engine with the given rules.
+	 *
+	 * @param rules the rules, in the order their findings are reported
+	 */
+	public LintEngine(List<LintRule> rules) {
+		this.rules = List.copyOf(rules);
+	}
+
+	/**
+	 * Creates an engine with the built-in rules followed by those provided
+	 * through {@link ServiceLoader}.
+	 *
+	 * @return the engine
+	 */
+	public static LintEngine withDefaultRules() {
+		List<LintRule> rules = new ArrayList<>(builtInRules());
+		for (LintRule rule : ServiceLoader.load(LintRule.class)) {
+			rules.add(rule);
+		}
+		return new LintEngine(rules);
+	}
+
+	/**
+	 * Gets the rules that ship with the editor.
+	 *
+	 * @return new instances of the built-in rules
+	 */
+	public static List<LintRule> builtInRules() {
+		return List.of(
+			new MissingRequireRule(),
+			new UnknownExtensionRule(),
+			new UnreachableCodeRule(),
+			new DuplicateConditionRule()
+		);
+	}
+
+	public List<LintRule> getRules() {
+		return rules;
+	}
+
+	/**
+	 * Parses and checks a script.
+	 *
+	 * @param text the script text
+	 * @param serverExtensions the server's extensions, or null if unknown
+	 * @return the report
+	 */
+	public LintReport lint(CharSequence text, Predicate<String> serverExtensions) {
+		return lint(SieveParser.parse(text), serverExtensions);
+	}
+
+	/**
+	 * Checks a parsed script.
+	 *
+	 * @param script the syntax tree
+	 * @param serverExtensions the server's extensions, or null if unknown
+	 * @return the report
+	 */
+	public LintReport lint(ScriptNode script, Predicate<String> serverExtensions) {
+		LintContext context = new LintContext(script, serverExtensions);
+		List<Outcome> outcomes = rules.parallelStream()
+			.map(rule -> run(rule, context))
+			.toList();
+
+		List<SieveWarning> warnings = new ArrayList<>();
+		Map<String, Long> timings = new LinkedHashMap<>();
+		for (Outcome outcome : outcomes) {
+			warnings.addAll(outcome.warnings());
+			timings.merge(outcome.ruleId(), outcome.nanos(), Long::sum);
+		}
+		return new LintReport(warnings, timings);
+	}
+
+	private record Outcome(String ruleId, List<SieveWarning> warnings, long nanos) {
+	}
+
+	private static Outcome run(LintRule rule, LintContext context) {
+		long started = System.nanoTime();
+		List<SieveWarning> warnings;
+		try {
+			warnings = rule.check(context);
+		} catch (RuntimeException e) {
+			LOGGER.log(Level.WARNING, "Lint rule " + rule.getId() + " failed", e);
+			warnings = List.of();
+		}
+		long nanos = System.nanoTime() - started;
+		LOGGER.log(Level.FINE, "Lint rule {0}: {1} findings in {2} us",
+			new Object[]{rule.getId(), warnings.size(), nanos / 1000});
+		return new Outcome(rule.getId(), warnings, nanos);
+	}
+}
@@ -0,0 +1,71 @@
+package de.febrildur.sieveeditor.parser.lint;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import de.febrildur.sieveeditor.parser.SieveRuleParser;
+import de.febrildur.sieveeditor.parser.SieveWarning;
+
+/**
+ * Findings of a lint run and how long each rule took.
+ */
+public class LintReport {
+
+	private final List<SieveWarning> warnings;
+	private final Map<String, Long> timings;
+
+	/**
+	 * Creates a report.
+	 *
+	 * @param warnings the findings, grouped by rule in rule order
+	 * @param timings nanoseconds per rule id, in rule order
+	 */
+	public LintReport(List<SieveWarning> warnings, Map<String, Long> timings) {
+		this.warnings = List.copyOf(warnings);
+		this.timings = timings;
+	}
+
+	public List<SieveWarning> getWarnings() {
+		return warnings;
+	}
+
+	/**
+	 * Gets the time each rule took.
+	 *
+	 * @return nanoseconds per rule id, in rule order
+	 */
+	public Map<String, Long> getTimings() {
+		return timings;
+	}
+
+	/**
+	 * Adds the findings to the warnings of a rule comment parse, errors
+	 * before warnings as the navigator lists them.
+	 *
+	 * @param result the parse result, which is not modified
+	 * @return a result with the same rules and the combined warnings
+	 */
+	public SieveRuleParser.ParseResult mergeInto(SieveRuleParser.ParseResult result) {
+		if (warnings.isEmpty()) {
+			return result;
+		}
+		List<SieveWarning> merged = new ArrayList<>(result.getWarnings().size() + warnings.size());
+		for (SieveWarning.Severity severity : SieveWarning.Severity.values()) {
+			for (SieveWarning warning : result.getWarnings()) {
+				if (warning.getSeverity() == severity) {
+					merged.add(warning);
+				}
+			}
+			for (SieveWarning warning : warnings) {
+				if (warning.getSeverity() == severity) {
+					merged.add(warning);
+				}
+			}
+		}
+		return new SieveRuleParser.ParseResult(result.getRules(), merged, result.getIndex());
+	}
+}
@@ -0,0 +1,35 @@
+package de.febrildur.sieveeditor.parser.lint;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.List;
+
+import de.febrildur.sieveeditor.parser.SieveWarning;
+
+/**
+ * A semantic check of a parsed script.
+ *
+ * <p>Rules are run concurrently by the {@link LintEngine}, all against the
+ * same syntax tree, so they must not keep state between calls. Besides the
+ * built-in rules, implementations listed in
+ * {@code META-INF/services/de.febrildur.sieveeditor.parser.lint.LintRule}
+ * are found through {@link java.util.ServiceLoader}.
+ */
+public interface LintRule {
+
+	/**
+	 * Gets a short, stable identifier, e.g. for timings and logs.
+	 *
+	 * @return the identifier
+	 */
+	String getId();
+
+	/**
+	 * Checks a script.
+	 *
+	 * @param context the script and what is known about the server
+	 * @return the findings, in source order; empty if there are none
+	 */
+	List<SieveWarning> check(LintContext context);
+}
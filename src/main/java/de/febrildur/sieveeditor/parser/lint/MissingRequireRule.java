@@ -0,0 +1,120 @@
+package de.febrildur.sieveeditor.parser.lint;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import de.febrildur.sieveeditor.parser.SieveWarning;
+import de.febrildur.sieveeditor.parser.ast.ArgumentNode;
+import de.febrildur.sieveeditor.parser.ast.CommandNode;
+import de.febrildur.sieveeditor.parser.ast.StringArgument;
+import de.febrildur.sieveeditor.parser.ast.TagArgument;
+import de.febrildur.sieveeditor.parser.ast.TestNode;
+
+/**
+ * Reports extensions that are used without being required, such as
+ * {@code fileinto} without {@code require "fileinto";}. Servers reject
+ * such scripts. Code guarded by {@code if ihave "x"} may use x without
+ * requiring it.
+ */
+public class MissingRequireRule implements LintRule {
+
+	@Override
+	public String getId() {
+		return "missing-require";
+	}
+
+	@Override
+	public List<SieveWarning> check(LintContext context) {
+		Set<String> required = new HashSet<>();
+		for (String extension : context.getScript().getRequiredExtensions()) {
+			String name = extension.toLowerCase(Locale.ROOT);
+			required.add(name);
+			String implied = SieveExtensions.impliedBy(name);
+			if (implied != null) {
+				required.add(implied);
+			}
+		}
+
+		Map<String, List<Integer>> missing = new LinkedHashMap<>();
+		visitCommands(context.getScript().getCommands(), required, missing);
+
+		List<SieveWarning> warnings = new ArrayList<>();
+		missing.forEach((extension, lines) -> warnings.add(
+			new SieveWarning(SieveWarning.Severity.ERROR, "Missing require \"" + extension + "\"", lines)));
+		return warnings;
+	}
+
+	private void visitCommands(List<CommandNode> commands, Set<String> available, Map<String, List<Integer>> missing) {
+		for (CommandNode command : commands) {
+			if (command.is("require")) {
+				continue;
+			}
+			use(SieveExtensions.forCommand(command.getName()), command.getLine(), available, missing);
+			visitArguments(command.getArguments(), available, missing);
+			for (TestNode test : command.getTests()) {
+				visitTest(test, available, missing);
+			}
+			if (command.getBlock() != null) {
+				visitCommands(command.getBlock().getCommands(), withIhave(command, available), missing);
+			}
+		}
+	}
+
+	private void visitTest(TestNode test, Set<String> available, Map<String, List<Integer>> missing) {
+		use(SieveExtensions.forTest(test.getName()), test.getLine(), available, missing);
+		visitArguments(test.getArguments(), available, missing);
+		for (TestNode nested : test.getTests()) {
+			visitTest(nested, available, missing);
+		}
+	}
+
+	private void visitArguments(List<ArgumentNode> arguments, Set<String> available, Map<String, List<Integer>> missing) {
+		for (int i = 0; i < arguments.size(); i++) {
+			if (arguments.get(i) instanceof TagArgument tag) {
+				use(SieveExtensions.forTag(tag.getName()), tag.getLine(), available, missing);
+				if (tag.getName().equalsIgnoreCase("comparator") && i + 1 < arguments.size()
+						&& arguments.get(i + 1) instanceof StringArgument comparator) {
+					String extension = "comparator-" + comparator.getValue().toLowerCase(Locale.ROOT);
+					if (!SieveExtensions.isAlwaysAvailable(extension)) {
+						use(extension, comparator.getLine(), available, missing);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the extensions tested by {@code if ihave} to those available in its block.
+	 */
+	private static Set<String> withIhave(CommandNode command, Set<String> available) {
+		TestNode test = command.getTest();
+		if (test == null || !test.is("ihave") || !(command.is("if") || command.is("elsif"))) {
+			return available;
+		}
+		Set<String> extended = new HashSet<>(available);
+		for (ArgumentNode argument : test.getArguments()) {
+			for (String extension : argument.getStringValues()) {
+				extended.add(extension.toLowerCase(Locale.ROOT));
+			}
+		}
+		return extended;
+	}
+
+	private static void use(String extension, int line, Set<String> available, Map<String, List<Integer>> missing) {
+		if (extension == null || available.contains(extension)) {
+			return;
+		}
+		List<Integer> lines = missing.computeIfAbsent(extension, k -> new ArrayList<>());
+		if (lines.isEmpty() || lines.get(lines.size() - 1) != line) {
+			lines.add(line);
+		}
+	}
+}
@@ -0,0 +1,198 @@
+package de.febrildur.sieveeditor.parser.lint;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Which extension provides which command, test and tag.
+ *
+ * <p>Only the names are mapped; a tag like {@code :value} belongs to the
+ * relational extension wherever it appears. Names of the base language
+ * (RFC 5228) are not listed.
+ */
+public final class SieveExtensions {
+
+	private static final Map<String, String> COMMANDS = Map.ofEntries(
+		Map.entry("fileinto", "fileinto"),
+		Map.entry("reject", "reject"),
+		Map.entry("ereject", "ereject"),
+		Map.entry("vacation", "vacation"),
+		Map.entry("setflag", "imap4flags"),
+		Map.entry("addflag", "imap4flags"),
+		Map.entry("removeflag", "imap4flags"),
+		Map.entry("set", "variables"),
+		Map.entry("include", "include"),
+		Map.entry("return", "include"),
+		Map.entry("global", "include"),
+		Map.entry("notify", "enotify"),
+		Map.entry("addheader", "editheader"),
+		Map.entry("deleteheader", "editheader"),
+		Map.entry("foreverypart", "foreverypart"),
+		Map.entry("break", "foreverypart"),
+		Map.entry("replace", "replace"),
+		Map.entry("enclose", "enclose"),
+		Map.entry("extracttext", "extracttext"),
+		Map.entry("convert", "convert")
+	);
+
+	private static final Map<String, String> TESTS = Map.ofEntries(
+		Map.entry("envelope", "envelope"),
+		Map.entry("body", "body"),
+		Map.entry("hasflag", "imap4flags"),
+		Map.entry("string", "variables"),
+		Map.entry("date", "date"),
+		Map.entry("currentdate", "date"),
+		Map.entry("spamtest", "spamtest"),
+		Map.entry("virustest", "virustest"),
+		Map.entry("mailboxexists", "mailbox"),
+		Map.entry("metadata", "mboxmetadata"),
+		Map.entry("metadataexists", "mboxmetadata"),
+		Map.entry("servermetadata", "servermetadata"),
+		Map.entry("servermetadataexists", "servermetadata"),
+		Map.entry("environment", "environment"),
+		Map.entry("ihave", "ihave"),
+		Map.entry("duplicate", "duplicate"),
+		Map.entry("valid_notify_method", "enotify"),
+		Map.entry("notify_method_capability", "enotify"),
+		Map.entry("convert", "convert")
+	);
+
+	private static final Map<String, String> TAGS = Map.ofEntries(
+		Map.entry("copy", "copy"),
+		Map.entry("regex", "regex"),
+		Map.entry("value", "relational"),
+		Map.entry("count", "relational"),
+		Map.entry("flags", "imap4flags"),
+		Map.entry("create", "mailbox"),
+		Map.entry("user", "subaddress"),
+		Map.entry("detail", "subaddress"),
+		Map.entry("index", "index"),
+		Map.entry("last", "index"),
+		Map.entry("specialuse", "special-use"),
+		Map.entry("seconds", "vacation-seconds")
+	);
+
+	/** Extensions that also provide everything of another one. */
+	private static final Map<String, String> IMPLIES = Map.of(
+		"spamtestplus", "spamtest",
+		"ereject", "reject"
+	);
+
+	/** Comparators every implementation has, RFC 5228 section 2.7.3. */
+	private static final Set<String> ALWAYS_AVAILABLE = Set.of(
+		"comparator-i;octet",
+		"comparator-i;ascii-casemap"
+	);
+
+	/** Comparators of the comparator-* capabilities, RFC 4790. */
+	private static final Set<String> COMPARATORS = Set.of(
+		"i;octet",
+		"i;ascii-casemap",
+		"i;ascii-numeric"
+	);
+
+	private SieveExtensions() {
+	}
+
+	/**
+	 * Gets the names of all extensions known here.
+	 *
+	 * @return the capability names in alphabetical order
+	 */
+	public static Set<String> names() {
+		Set<String> names = new TreeSet<>();
+		names.addAll(COMMANDS.values());
+		names.addAll(TESTS.values());
+		names.addAll(TAGS.values());
+		names.addAll(IMPLIES.keySet());
+		for (String comparator : COMPARATORS) {
+			names.add("comparator-" + comparator);
+		}
+		return names;
+	}
+
+	/**
+	 * Gets the names of the comparators known here.
+	 *
+	 * @return the comparator names, e.g. {@code i;ascii-casemap}
+	 */
+	public static Set<String> comparators() {
+		return new TreeSet<>(COMPARATORS);
+	}
+
+	/**
+	 * Gets the extension that defines a command.
+	 *
+	 * @param name the command name in any case
+	 * @return the extension, or null for base commands and unknown names
+	 */
+	public static String forCommand(String name) {
+		return COMMANDS.get(name.toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Gets the extension that defines a test.
+	 *
+	 * @param name the test name in any case
+	 * @return the extension, or null for base tests and unknown names
+	 */
+	public static String forTest(String name) {
+		return TESTS.get(name.toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Gets the extension that defines a tag.
+	 *
+	 * @param name the tag name without colon, in any case
+	 * @return the extension, or null for base tags and unknown names
+	 */
+	public static String forTag(String name) {
+		return TAGS.get(name.toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Gets the extension that another one includes.
+	 *
+	 * @param extension the required extension
+	 * @return the included extension, or null
+	 */
+	public static String impliedBy(String extension) {
+		return IMPLIES.get(extension.toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Checks whether a server provides an extension, itself or through an
+	 * extension that includes it.
+	 *
+	 * @param extension the capability name
+	 * @param serverExtensions the extensions the server announced
+	 * @return true if provided
+	 */
+	public static boolean isProvided(String extension, Predicate<String> serverExtensions) {
+		if (serverExtensions.test(extension)) {
+			return true;
+		}
+		for (Map.Entry<String, String> implied : IMPLIES.entrySet()) {
+			if (implied.getValue().equals(extension) && serverExtensions.test(implied.getKey())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether an extension may be required on every server.
+	 *
+	 * @param extension the capability name
+	 * @return true for the mandatory comparators
+	 */
+	public static boolean isAlwaysAvailable(String extension) {
+		return ALWAYS_AVAILABLE.contains(extension.toLowerCase(Locale.ROOT));
+	}
+}
@@ -0,0 +1,45 @@
+package de.febrildur.sieveeditor.parser.lint;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.febrildur.sieveeditor.parser.SieveWarning;
+import de.febrildur.sieveeditor.parser.ast.ArgumentNode;
+import de.febrildur.sieveeditor.parser.ast.CommandNode;
+
+/**
+ * Reports required extensions the server didn't announce. Only runs while
+ * the server capabilities are known.
+ */
+public class UnknownExtensionRule implements LintRule {
+
+	@Override
+	public String getId() {
+		return "unknown-extension";
+	}
+
+	@Override
+	public List<SieveWarning> check(LintContext context) {
+		List<SieveWarning> warnings = new ArrayList<>();
+		if (!context.hasServerExtensions()) {
+			return warnings;
+		}
+		for (CommandNode command : context.getScript().getCommands()) {
+			if (!command.is("require")) {
+				continue;
+			}
+			for (ArgumentNode argument : command.getArguments()) {
+				for (String extension : argument.getStringValues()) {
+					if (!SieveExtensions.isAlwaysAvailable(extension) && !context.isSupportedByServer(extension)) {
+						warnings.add(new SieveWarning(SieveWarning.Severity.ERROR,
+							"Extension \"" + extension + "\" is not supported by the server", argument.getLine()));
+					}
+				}
+			}
+		}
+		return warnings;
+	}
+}
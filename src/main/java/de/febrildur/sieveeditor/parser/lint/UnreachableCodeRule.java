@@ -0,0 +1,39 @@
+package de.febrildur.sieveeditor.parser.lint;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.febrildur.sieveeditor.parser.SieveWarning;
+import de.febrildur.sieveeditor.parser.ast.CommandNode;
+
+/**
+ * Reports commands that follow an unconditional {@code stop} (or
+ * {@code return} of the include extension) in the same block.
+ */
+public class UnreachableCodeRule implements LintRule {
+
+	@Override
+	public String getId() {
+		return "unreachable-code";
+	}
+
+	@Override
+	public List<SieveWarning> check(LintContext context) {
+		List<SieveWarning> warnings = new ArrayList<>();
+		for (List<CommandNode> commands : context.getCommandLists()) {
+			for (int i = 0; i < commands.size() - 1; i++) {
+				CommandNode command = commands.get(i);
+				if (command.is("stop") || command.is("return")) {
+					warnings.add(new SieveWarning(SieveWarning.Severity.WARNING,
+						"Unreachable code after " + command.getName(), commands.get(i + 1).getLine()));
+					break;
+				}
+			}
+		}
+		warnings.sort((a, b) -> Integer.compare(a.getLineNumbers().get(0), b.getLineNumbers().get(0)));
+		return warnings;
+	}
+}
@@ -70,6 +70,17 @@ public class AppDirectoryService {
 		return profilesDir;
 	}
 
+	/**
+	 * Gets the directory for the per-profile script cache.
+	 *
+	 * @return Path to cache directory (inside user data dir)
+	 */
+	public static Path getScriptCacheDir() {
+		Path cacheDir = getUserDataDir().resolve("cache");
+		ensureDirectoryExists(cacheDir, "700");
+		return cacheDir;
+	}
+
 	/**
 	 * Gets the config directory for storing application settings.
 	 *
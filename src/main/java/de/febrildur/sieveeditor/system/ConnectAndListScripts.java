@@ -18,6 +18,8 @@ import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -29,12 +31,16 @@ import javax.net.ssl.X509TrustManager;
 import com.fluffypeople.managesieve.ManageSieveClient;
 import com.fluffypeople.managesieve.ManageSieveResponse;
 import com.fluffypeople.managesieve.ParseException;
+import com.fluffypeople.managesieve.ServerCapabilities;
 import com.fluffypeople.managesieve.SieveScript;
 
 public class ConnectAndListScripts {
 
 	private final SieveConnectionFactory connectionFactory;
+	private final ProtocolTrace trace;
 	private ManageSieveClient client;
+	private volatile Predicate<String> sieveExtensions; // Null until logged in
+	private volatile boolean renameSupported;
 	private java.util.Timer keepAliveTimer;
 	private static long KEEP_ALIVE_INTERVAL_MS = 5 * 60 * 1000; // 5 minutes
 	private boolean keepAliveEnabled = true;
@@ -53,7 +59,71 @@ public class ConnectAndListScripts {
 	}
 
 	public ConnectAndListScripts(SieveConnectionFactory factory) {
+		this(factory, ProtocolTrace.getGlobal());
+	}
+
+	public ConnectAndListScripts(SieveConnectionFactory factory, ProtocolTrace trace) {
 		this.connectionFactory = factory;
+		this.trace = trace;
+	}
+
+	/**
+	 * A single ManageSieve command, sent through {@link #send}.
+	 */
+	@FunctionalInterface
+	private interface SieveCommand {
+		ManageSieveResponse send() throws IOException, ParseException;
+	}
+
+	/**
+	 * Outcome of a traced command. {@code ok} is evaluated exactly once per response.
+	 */
+	private record Reply(ManageSieveResponse response, boolean ok) {
+		String message() {
+			return response != null ? response.getMessage() : null;
+		}
+	}
+
+	private Reply send(String command, String argument, int requestSize, SieveCommand call)
+			throws IOException, ParseException {
+		return send(command, argument, requestSize, () -> 0, call);
+	}
+
+	/**
+	 * Sends a command and records it in the protocol trace.
+	 * Callers must only pass non-secret arguments; script bodies are reduced to their size.
+	 */
+	private Reply send(String command, String argument, int requestSize, IntSupplier responseSize,
+			SieveCommand call) throws IOException, ParseException {
+		long start = System.nanoTime();
+		try {
+			ManageSieveResponse resp = call.send();
+			boolean ok = resp != null && resp.isOk();
+			if (ok) {
+				trace.record(command, argument, requestSize, responseSize.getAsInt(), start, "OK", null);
+			} else {
+				trace.record(command, argument, requestSize, 0, start, "NO", resp != null ? resp.getMessage() : null);
+			}
+			return new Reply(resp, ok);
+		} catch (IOException | ParseException | RuntimeException e) {
+			trace.record(command, argument, requestSize, 0, start, e.getClass().getSimpleName(), e.getMessage());
+			LOGGER.log(Level.WARNING, "ManageSieve command {0} failed: {1}",
+				new Object[]{command, e.getMessage()});
+			// The full trace is dumped once when the user sees the failure
+			if (LOGGER.isLoggable(Level.FINE)) {
+				LOGGER.log(Level.FINE, "Recent ManageSieve exchanges:\n{0}", trace.dump());
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Gets the protocol trace this connection records into.
+	 *
+	 * @return the trace buffer
+	 */
+	public ProtocolTrace getProtocolTrace() {
+		return trace;
 	}
 
 	/**
@@ -84,7 +154,7 @@ public class ConnectAndListScripts {
 	 * @throws IOException if connection fails
 	 * @throws ParseException if protocol parsing fails
 	 */
-	public void connect(String server, int port, String username, String password,
+	public synchronized void connect(String server, int port, String username, String password,
 			boolean allowInteractiveCertValidation) throws IOException, ParseException {
 		// Store connection parameters for auto-reconnect
 		this.lastServer = server;
@@ -94,10 +164,11 @@ public class ConnectAndListScripts {
 		this.allowInteractiveCertValidation = allowInteractiveCertValidation;
 
 		client = connectionFactory.create();
-		ManageSieveResponse resp = client.connect(server, port);
-		if (!resp.isOk()) {
+		ManageSieveClient newClient = client;
+		Reply reply = send("CONNECT", server + ":" + port, 0, () -> newClient.connect(server, port));
+		if (!reply.ok()) {
 			client = null;
-			throw new IOException("Can't connect to server: " + resp.getMessage());
+			throw new IOException("Can't connect to server: " + reply.message());
 		}
 
 		// Use interactive SSL factory that prompts user for unknown certificates
@@ -109,81 +180,155 @@ public class ConnectAndListScripts {
 			sslFactory = getSecureSSLSocketFactory(null);
 		}
 
-		resp = client.starttls(sslFactory, false);
-		if (!resp.isOk()) {
+		reply = send("STARTTLS", null, 0, () -> newClient.starttls(sslFactory, false));
+		if (!reply.ok()) {
 			client = null;
-			throw new IOException("Can't start SSL:" + resp.getMessage());
+			throw new IOException("Can't start SSL:" + reply.message());
 		}
 
-		resp = client.authenticate(username, password);
-		if (!resp.isOk()) {
+		// Only the user name is traced, never the password
+		reply = send("AUTHENTICATE", username, 0, () -> newClient.authenticate(username, password));
+		if (!reply.ok()) {
 			client = null;
-			throw new IOException("Could not authenticate: " + resp.getMessage());
+			throw new IOException("Could not authenticate: " + reply.message());
 		}
 
 		LOGGER.log(Level.INFO, "Successfully connected to ManageSieve server: {0}:{1}",
 			new Object[]{server, port});
 
+		// Kept outside the lock so the editor can ask while a command runs
+		ServerCapabilities capabilities = newClient.getCapabilities();
+		sieveExtensions = capabilities != null ? capabilities::hasSieveExtension : null;
+		// RFC 5804: servers announcing VERSION support RENAMESCRIPT, older ones may not
+		renameSupported = capabilities != null && capabilities.getVersion() != null;
+
 		// Start keep-alive timer to prevent connection timeout
 		startKeepAlive();
 	}
 
-	public void putScript(String scriptName, String scriptBody) throws IOException, ParseException {
+	public synchronized void putScript(String scriptName, String scriptBody) throws IOException, ParseException {
 		ensureConnection();
-		ManageSieveResponse resp = client.putscript(scriptName, scriptBody);
-		if (!resp.isOk()) {
-			throw new IOException("Can't upload script to server: " + resp.getMessage());
+		Reply reply = send("PUTSCRIPT", scriptName, lengthOf(scriptBody), () -> client.putscript(scriptName, scriptBody));
+		if (!reply.ok()) {
+			throw new IOException("Can't upload script to server: " + reply.message());
 		}
 
-		resp = client.setactive(scriptName);
-		if (!resp.isOk()) {
-			throw new IOException("Can't set script [" + scriptName + "] to active: " + resp.getMessage());
+		reply = send("SETACTIVE", scriptName, 0, () -> client.setactive(scriptName));
+		if (!reply.ok()) {
+			throw new IOException("Can't set script [" + scriptName + "] to active: " + reply.message());
 		}
 	}
 
-	public List<SieveScript> getListScripts() throws IOException, ParseException {
+	/**
+	 * Uploads a script without changing which script is active.
+	 *
+	 * @param scriptName the script name
+	 * @param scriptBody the script body
+	 * @throws IOException if the server rejects the script
+	 * @throws ParseException if the server response is malformed
+	 */
+	public synchronized void uploadScript(String scriptName, String scriptBody) throws IOException, ParseException {
+		ensureConnection();
+		Reply reply = send("PUTSCRIPT", scriptName, lengthOf(scriptBody), () -> client.putscript(scriptName, scriptBody));
+		if (!reply.ok()) {
+			throw new IOException("Can't upload script [" + scriptName + "] to server: " + reply.message());
+		}
+	}
+
+	public synchronized List<SieveScript> getListScripts() throws IOException, ParseException {
 		ensureConnection();
 		List<SieveScript> scripts = new ArrayList<>();
-		ManageSieveResponse resp = client.listscripts(scripts);
-		if (!resp.isOk()) {
+		Reply reply = send("LISTSCRIPTS", null, 0, () -> client.listscripts(scripts));
+		if (!reply.ok()) {
 			throw new IOException("Can't get script list from server.");
 		}
 		return scripts;
 	}
 
-	public void logout() throws IOException, ParseException {
+	public synchronized void logout() throws IOException, ParseException {
 		// Stop keep-alive timer before logout
 		stopKeepAlive();
 
-		ManageSieveResponse resp = client.logout();
-		if (!resp.isOk()) {
-			throw new IOException("Can't logout: " + resp.getMessage());
+		Reply reply = send("LOGOUT", null, 0, () -> client.logout());
+		if (!reply.ok()) {
+			throw new IOException("Can't logout: " + reply.message());
 		}
 		client = null;
+		sieveExtensions = null;
+		renameSupported = false;
 		// Clear connection state to prevent auto-reconnect after explicit logout
 		clearConnectionState();
 		LOGGER.log(Level.INFO, "Logged out from ManageSieve server");
 	}
 
-	public String getScript(SieveScript ss) throws IOException, ParseException {
+	public synchronized String getScript(SieveScript ss) throws IOException, ParseException {
 		ensureConnection();
-		ManageSieveResponse resp = client.getScript(ss);
-		if (!resp.isOk()) {
-			throw new IOException("Could not get body of script [" + ss.getName() + "]: " + resp.getMessage());
+		Reply reply = send("GETSCRIPT", ss.getName(), 0, () -> lengthOf(ss.getBody()), () -> client.getScript(ss));
+		if (!reply.ok()) {
+			throw new IOException("Could not get body of script [" + ss.getName() + "]: " + reply.message());
 		}
 		return ss.getBody();
 	}
 
-	public String checkScript(String script) throws IOException, ParseException {
+	public synchronized String checkScript(String script) throws IOException, ParseException {
 		ensureConnection();
-		ManageSieveResponse resp = client.checkscript(script);
-		return resp.getMessage();
+		Reply reply = send("CHECKSCRIPT", null, lengthOf(script), () -> client.checkscript(script));
+		return reply.message();
+	}
+
+	/**
+	 * Validates a script on the server without storing it.
+	 *
+	 * @param script the script body
+	 * @throws IOException with the server's error message if the script is invalid
+	 * @throws ParseException if the server response is malformed
+	 */
+	public synchronized void verifyScript(String script) throws IOException, ParseException {
+		ensureConnection();
+		Reply reply = send("CHECKSCRIPT", null, lengthOf(script), () -> client.checkscript(script));
+		if (!reply.ok()) {
+			throw new IOException(reply.message());
+		}
+	}
+
+	private static int lengthOf(String body) {
+		return body != null ? body.length() : 0;
+	}
+
+	/**
+	 * Gets the Sieve extensions the server announced at login. Doesn't
+	 * block, so it may be called from any thread.
+	 *
+	 * @return a test for capability names, or null if not known
+	 */
+	public Predicate<String> getSieveExtensions() {
+		return sieveExtensions;
+	}
+
+	/**
+	 * Checks whether the server supports RENAMESCRIPT, as announced at login.
+	 * Doesn't block, so it may be called from any thread.
+	 *
+	 * @return true if scripts can be renamed on the server
+	 */
+	public boolean supportsRenameScript() {
+		return renameSupported;
 	}
 
 	public boolean isLoggedIn() {
 		return client != null;
 	}
 
+	/**
+	 * Checks whether the current session is still open, without attempting
+	 * to reconnect. Background tasks use this to avoid triggering auto-reconnect.
+	 *
+	 * @return true if logged in and the socket is connected
+	 */
+	public synchronized boolean isConnected() {
+		return client != null && client.isConnected();
+	}
+
 	/**
 	 * Ensures the connection is alive and attempts auto-reconnect if needed.
 	 * This method checks if the client is connected and attempts to reconnect
@@ -225,6 +370,7 @@ public class ConnectAndListScripts {
 				LOGGER.log(Level.INFO, "Auto-reconnect successful");
 			} catch (IOException | ParseException e) {
 				LOGGER.log(Level.SEVERE, "Auto-reconnect failed", e);
+				LOGGER.log(Level.WARNING, "Recent ManageSieve exchanges:\n{0}", trace.dump());
 				// Clear stored credentials to prevent repeated failed attempts
 				clearConnectionState();
 				throw new IOException("Connection lost and auto-reconnect failed: " + e.getMessage(), e);
@@ -261,12 +407,17 @@ public class ConnectAndListScripts {
 			@Override
 			public void run() {
 				try {
-					if (client != null && client.isConnected()) {
-						client.noop("keep-alive");
-						LOGGER.log(Level.FINE, "Keep-alive NOOP sent successfully");
+					// Never interleave with a command sent from another thread
+					synchronized (ConnectAndListScripts.this) {
+						ManageSieveClient current = client;
+						if (current != null && current.isConnected()) {
+							send("NOOP", null, 0, () -> current.noop("keep-alive"));
+							LOGGER.log(Level.FINE, "Keep-alive NOOP sent successfully");
+						}
 					}
 				} catch (Exception e) {
-					LOGGER.log(Level.WARNING, "Keep-alive NOOP failed: {0}", e.getMessage());
+					// send() has already logged the failure
+					LOGGER.log(Level.FINE, "Keep-alive NOOP failed: {0}", e.getMessage());
 					// Don't stop timer - ensureConnection() will handle reconnect on next operation
 				}
 			}
@@ -443,35 +594,35 @@ public class ConnectAndListScripts {
 		}
 	}
 
-	public void activateScript(String script) throws IOException, ParseException {
+	public synchronized void activateScript(String script) throws IOException, ParseException {
 		ensureConnection();
-		ManageSieveResponse resp = client.setactive(script);
-		if (!resp.isOk()) {
-			throw new IOException(resp.getMessage());
+		Reply reply = send("SETACTIVE", script, 0, () -> client.setactive(script));
+		if (!reply.ok()) {
+			throw new IOException(reply.message());
 		}
 	}
 
-	public void deactivateScript() throws IOException, ParseException {
+	public synchronized void deactivateScript() throws IOException, ParseException {
 		ensureConnection();
-		ManageSieveResponse resp = client.setactive("");
-		if (!resp.isOk()) {
-			throw new IOException(resp.getMessage());
+		Reply reply = send("SETACTIVE", "", 0, () -> client.setactive(""));
+		if (!reply.ok()) {
+			throw new IOException(reply.message());
 		}
 	}
 
-	public void rename(String script, String newName) throws IOException, ParseException {
+	public synchronized void rename(String script, String newName) throws IOException, ParseException {
 		ensureConnection();
-		ManageSieveResponse resp = client.renamescript(script, newName);
-		if (!resp.isOk()) {
-			throw new IOException(resp.getMessage());
+		Reply reply = send("RENAMESCRIPT", script + " -> " + newName, 0, () -> client.renamescript(script, newName));
+		if (!reply.ok()) {
+			throw new IOException(reply.message());
 		}
 	}
 
-	public void deleteScript(String scriptName) throws IOException, ParseException {
+	public synchronized void deleteScript(String scriptName) throws IOException, ParseException {
 		ensureConnection();
-		ManageSieveResponse resp = client.deletescript(scriptName);
-		if (!resp.isOk()) {
-			throw new IOException(resp.getMessage());
+		Reply reply = send("DELETESCRIPT", scriptName, 0, () -> client.deletescript(scriptName));
+		if (!reply.ok()) {
+			throw new IOException(reply.message());
 		}
 	}
 }
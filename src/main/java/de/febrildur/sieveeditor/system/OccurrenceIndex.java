@@ -0,0 +1,182 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import javax.swing.text.Segment;
+
+import org.fife.ui.rsyntaxtextarea.Token;
+import org.fife.ui.rsyntaxtextarea.TokenTypes;
+
+/**
+ * Offsets of all identifiers and quoted strings of a script, by lexeme.
+ *
+ * <p>An index is built once from a snapshot of the text with a
+ * {@link SieveTokenMaker}, so strings and comments spanning lines are
+ * tokenized as in the editor. Finding all uses of a folder or header name
+ * is then a hash lookup instead of a scan of the whole script. The index
+ * is immutable; after an edit a new one is built from the new text.
+ */
+public final class OccurrenceIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private final Map<String, int[]> offsets;
+    private final int length;
+
+    private OccurrenceIndex(Map<String, int[]> offsets, int length) {
+        this.offsets = offsets;
+        this.length = length;
+    }
+
+    /**
+     * Indexes a script.
+     *
+     * @param text the script
+     * @return the index
+     */
+    public static OccurrenceIndex build(String text) {
+        return build(text, () -> false);
+    }
+
+    /**
+     * Indexes a script unless cancelled.
+     *
+     * @param text the script
+     * @param cancelled checked after each line
+     * @return the index, or null if cancelled
+     */
+    public static OccurrenceIndex build(String text, BooleanSupplier cancelled) {
+        SieveTokenMaker tokenMaker = new SieveTokenMaker(0);
+        char[] array = text.toCharArray();
+        Segment line = new Segment();
+        Map<String, Postings> postings = new HashMap<>();
+        int startType = TokenTypes.NULL;
+        int lineStart = 0;
+        while (lineStart <= array.length) {
+            if (cancelled.getAsBoolean()) {
+                return null;
+            }
+            int lineEnd = lineStart;
+            while (lineEnd < array.length && array[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            line.array = array;
+            line.offset = lineStart;
+            line.count = lineEnd - lineStart;
+            // The lines of a text: literal are string content, even if quoted
+            boolean content = startType == SieveTokenMaker.INTERNAL_TEXT_LITERAL;
+            Token last = null;
+            for (Token t = tokenMaker.getTokenList(line, startType, lineStart); t != null; t = t.getNextToken()) {
+                if (!content && isIndexed(t)) {
+                    postings.computeIfAbsent(t.getLexeme(), k -> new Postings()).add(t.getOffset());
+                }
+                last = t;
+            }
+            startType = last != null ? last.getType() : TokenTypes.NULL;
+            lineStart = lineEnd + 1;
+        }
+
+        Map<String, int[]> offsets = new HashMap<>(postings.size() * 4 / 3 + 1);
+        for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+            offsets.put(entry.getKey(), entry.getValue().toArray());
+        }
+        return new OccurrenceIndex(offsets, array.length);
+    }
+
+    /**
+     * Checks whether a token is one the index records: an identifier, or a
+     * string quoted on both ends. Parts of strings spanning lines are not
+     * recorded, and neither are the lines of {@code text:} literals, which
+     * the token alone doesn't tell apart.
+     *
+     * @param token the token
+     * @return true if uses of the token can be looked up
+     */
+    public static boolean isIndexed(Token token) {
+        char[] array = token.getTextArray();
+        int start = token.getTextOffset();
+        int count = token.length();
+        switch (token.getType()) {
+            case TokenTypes.IDENTIFIER:
+                return count > 0 && (Character.isLetter(array[start]) || array[start] == '_');
+            case TokenTypes.LITERAL_STRING_DOUBLE_QUOTE:
+                return count >= 2 && array[start] == '"' && array[start + count - 1] == '"'
+                        && !isEscaped(array, start + 1, start + count - 1);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Checks whether the character at {@code end} is escaped by a backslash.
+     */
+    private static boolean isEscaped(char[] array, int start, int end) {
+        int backslashes = 0;
+        for (int i = end - 1; i >= start && array[i] == '\\'; i--) {
+            backslashes++;
+        }
+        return backslashes % 2 == 1;
+    }
+
+    /**
+     * Finds the uses of a lexeme.
+     *
+     * @param lexeme the identifier, or the string including its quotes
+     * @return the start offsets in ascending order, possibly empty
+     */
+    public int[] find(String lexeme) {
+        int[] found = offsets.get(lexeme);
+        return found == null ? NONE : found.clone();
+    }
+
+    /**
+     * Counts the uses of a lexeme.
+     *
+     * @param lexeme the identifier, or the string including its quotes
+     * @return the number of uses
+     */
+    public int count(String lexeme) {
+        int[] found = offsets.get(lexeme);
+        return found == null ? 0 : found.length;
+    }
+
+    /**
+     * Gets the number of distinct lexemes.
+     */
+    public int size() {
+        return offsets.size();
+    }
+
+    /**
+     * Gets the length of the indexed text.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Offsets of one lexeme, growing while the text is indexed.
+     */
+    private static final class Postings {
+
+        private int[] offsets = new int[2];
+        private int size = 0;
+
+        void add(int offset) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            offsets[size++] = offset;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(offsets, size);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Case-insensitive prefix tree from words to values.
+ *
+ * <p>A lookup walks one node per character of the prefix and then collects
+ * the values below it, so its cost depends on the prefix and the number of
+ * matches, not on the number of words. Each node keeps its children in a
+ * sorted array, so matches come out in alphabetical order without sorting.
+ * Words can be added and removed one at a time; nodes left without values
+ * below them are removed again.
+ *
+ * <p>Not thread-safe.
+ *
+ * @param <V> the type of the values
+ */
+final class PrefixTrie<V> {
+
+    private final Node<V> root = new Node<>();
+
+    /**
+     * Adds a value under a word. A word can have several values.
+     *
+     * @param word the word in any case
+     * @param value the value
+     */
+    void add(String word, V value) {
+        Node<V> node = root;
+        node.size++;
+        for (int i = 0; i < word.length(); i++) {
+            node = node.childOrCreate(toLower(word.charAt(i)));
+            node.size++;
+        }
+        if (node.values == null) {
+            node.values = new ArrayList<>(1);
+        }
+        node.values.add(value);
+    }
+
+    /**
+     * Removes a value from a word.
+     *
+     * @param word the word in any case
+     * @param value the value
+     * @return true if the word had the value
+     */
+    boolean remove(String word, V value) {
+        Node<V> node = root;
+        for (int i = 0; i < word.length() && node != null; i++) {
+            node = node.child(toLower(word.charAt(i)));
+        }
+        if (node == null || node.values == null || !node.values.remove(value)) {
+            return false;
+        }
+        if (node.values.isEmpty()) {
+            node.values = null;
+        }
+        // Walk down again, dropping the first node that is left empty
+        node = root;
+        node.size--;
+        for (int i = 0; i < word.length(); i++) {
+            char c = toLower(word.charAt(i));
+            Node<V> child = node.child(c);
+            if (--child.size == 0) {
+                node.removeChild(c);
+                break;
+            }
+            node = child;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the values of all words starting with a prefix.
+     *
+     * @param prefix the prefix in any case; empty for all words
+     * @param limit the maximum number of values
+     * @return the values in alphabetical order of their words
+     */
+    List<V> find(String prefix, int limit) {
+        Node<V> node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(toLower(prefix.charAt(i)));
+        }
+        List<V> found = new ArrayList<>(node == null ? 0 : Math.min(node.size, limit));
+        if (node != null) {
+            collect(node, found, limit);
+        }
+        return found;
+    }
+
+    /**
+     * Gets the number of values.
+     */
+    int size() {
+        return root.size;
+    }
+
+    private static <V> void collect(Node<V> node, List<V> found, int limit) {
+        if (node.values != null) {
+            for (V value : node.values) {
+                if (found.size() == limit) {
+                    return;
+                }
+                found.add(value);
+            }
+        }
+        for (int i = 0; i < node.childCount && found.size() < limit; i++) {
+            collect(node.children[i], found, limit);
+        }
+    }
+
+    private static char toLower(char c) {
+        return Character.toLowerCase(c);
+    }
+
+    /**
+     * A node with its children sorted by character.
+     */
+    private static final class Node<V> {
+
+        private static final char[] NO_KEYS = new char[0];
+
+        private char[] keys = NO_KEYS;
+        private Node<V>[] children;
+        private int childCount = 0;
+        /** Values of the word ending here, or null if none. */
+        private List<V> values;
+        /** Number of values here and below. */
+        private int size = 0;
+
+        Node<V> child(char c) {
+            int i = Arrays.binarySearch(keys, 0, childCount, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        @SuppressWarnings("unchecked")
+        Node<V> childOrCreate(char c) {
+            int i = Arrays.binarySearch(keys, 0, childCount, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int at = -i - 1;
+            if (childCount == keys.length) {
+                int capacity = Math.max(2, childCount * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = children == null ? (Node<V>[]) new Node<?>[capacity] : Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, at, keys, at + 1, childCount - at);
+            System.arraycopy(children, at, children, at + 1, childCount - at);
+            Node<V> child = new Node<>();
+            keys[at] = c;
+            children[at] = child;
+            childCount++;
+            return child;
+        }
+
+        void removeChild(char c) {
+            int i = Arrays.binarySearch(keys, 0, childCount, c);
+            System.arraycopy(keys, i + 1, keys, i, childCount - i - 1);
+            System.arraycopy(children, i + 1, children, i, childCount - i - 1);
+            childCount--;
+            children[childCount] = null;
+        }
+    }
+}
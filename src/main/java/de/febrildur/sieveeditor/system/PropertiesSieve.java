@@ -268,6 +268,20 @@ public class PropertiesSieve {
 		}
 	}
 
+	public String getProfileName() {
+		return profileName;
+	}
+
+	/**
+	 * Gets the encryptor keyed with the master key, so other per-profile
+	 * files (e.g. {@link ScriptCache}) can be protected the same way.
+	 *
+	 * @return the configured encryptor
+	 */
+	StandardPBEStringEncryptor getEncryptor() {
+		return encryptor;
+	}
+
 	public String getServer() {
 		return server;
 	}
@@ -0,0 +1,175 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Always-on, fixed-size ring buffer of recent ManageSieve commands and responses.
+ *
+ * <p>Unlike verbose logging this is cheap enough to leave enabled permanently:
+ * all slots are preallocated as parallel primitive arrays, so recording an
+ * exchange only overwrites the oldest slot and never allocates. The buffer is
+ * meant to be dumped after the fact (Help menu or on error) to diagnose slow
+ * saves and reconnects.
+ *
+ * <p>Only metadata is recorded. Passwords are never passed in, and script
+ * bodies are reduced to their size:
+ * <pre>
+ * 21:14:03.512  PUTSCRIPT     "main"  req=1832  OK  41.2 ms
+ * </pre>
+ */
+public class ProtocolTrace {
+
+	/** Default number of exchanges kept in the buffer. */
+	public static final int DEFAULT_CAPACITY = 256;
+
+	/** Maximum length of a server message kept per entry. */
+	private static final int MAX_MESSAGE_LENGTH = 120;
+
+	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+
+	private static final ProtocolTrace GLOBAL = new ProtocolTrace(DEFAULT_CAPACITY);
+
+	private final int capacity;
+	private final long[] timestamps;      // wall clock, epoch millis
+	private final long[] durations;       // nanoseconds
+	private final String[] commands;
+	private final String[] arguments;     // script name or user name, never secrets
+	private final int[] requestSizes;     // characters sent (bodies only)
+	private final int[] responseSizes;    // characters received (bodies only)
+	private final String[] statuses;
+	private final String[] messages;
+	private long recorded = 0;            // total number of entries ever recorded
+
+	/**
+	 * Creates a trace buffer with the given number of slots.
+	 *
+	 * @param capacity number of exchanges to keep (must be positive)
+	 */
+	public ProtocolTrace(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+		this.capacity = capacity;
+		this.timestamps = new long[capacity];
+		this.durations = new long[capacity];
+		this.commands = new String[capacity];
+		this.arguments = new String[capacity];
+		this.requestSizes = new int[capacity];
+		this.responseSizes = new int[capacity];
+		this.statuses = new String[capacity];
+		this.messages = new String[capacity];
+	}
+
+	/**
+	 * Gets the application-wide trace shared by all connections, so the history
+	 * survives reconnects and profile switches.
+	 *
+	 * @return the global trace buffer
+	 */
+	public static ProtocolTrace getGlobal() {
+		return GLOBAL;
+	}
+
+	/**
+	 * Records a completed exchange.
+	 *
+	 * @param command the ManageSieve command (e.g. "PUTSCRIPT")
+	 * @param argument non-secret argument such as a script name, or null
+	 * @param requestSize characters of payload sent (script body), 0 if none
+	 * @param responseSize characters of payload received (script body), 0 if none
+	 * @param startNanos {@link System#nanoTime()} taken before the command was sent
+	 * @param status "OK", "NO" or the name of the exception that aborted the command
+	 * @param message the server's response text, may be null
+	 */
+	public synchronized void record(String command, String argument, int requestSize, int responseSize,
+			long startNanos, String status, String message) {
+		int slot = (int) (recorded % capacity);
+		timestamps[slot] = System.currentTimeMillis();
+		durations[slot] = System.nanoTime() - startNanos;
+		commands[slot] = command;
+		arguments[slot] = argument;
+		requestSizes[slot] = requestSize;
+		responseSizes[slot] = responseSize;
+		statuses[slot] = status;
+		messages[slot] = message;
+		recorded++;
+	}
+
+	/**
+	 * Gets the number of entries currently held in the buffer.
+	 *
+	 * @return number of entries (at most the capacity)
+	 */
+	public synchronized int size() {
+		return (int) Math.min(recorded, capacity);
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Discards all recorded entries.
+	 */
+	public synchronized void clear() {
+		recorded = 0;
+		Arrays.fill(commands, null);
+		Arrays.fill(arguments, null);
+		Arrays.fill(statuses, null);
+		Arrays.fill(messages, null);
+	}
+
+	/**
+	 * Formats the buffer as text, oldest entry first.
+	 * Strings are only built here, never on the recording path.
+	 *
+	 * @return human-readable dump, one exchange per line
+	 */
+	public synchronized String dump() {
+		int size = size();
+		StringBuilder sb = new StringBuilder(size * 80 + 64);
+		sb.append("ManageSieve protocol trace (").append(size).append(" of ")
+			.append(recorded).append(" exchanges)\n");
+
+		long first = recorded - size;
+		for (long n = first; n < recorded; n++) {
+			int slot = (int) (n % capacity);
+			LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamps[slot]), ZoneId.systemDefault());
+			sb.append(TIME_FORMAT.format(time)).append("  ");
+			sb.append(String.format("%-13s", commands[slot]));
+			if (arguments[slot] != null) {
+				sb.append(" \"").append(arguments[slot]).append('"');
+			}
+			if (requestSizes[slot] > 0) {
+				sb.append("  req=").append(requestSizes[slot]);
+			}
+			if (responseSizes[slot] > 0) {
+				sb.append("  resp=").append(responseSizes[slot]);
+			}
+			sb.append("  ").append(statuses[slot]);
+			sb.append(String.format(Locale.ROOT, "  %.1f ms", durations[slot] / 1_000_000.0));
+			String message = messages[slot];
+			if (message != null && !message.isEmpty()) {
+				if (message.length() > MAX_MESSAGE_LENGTH) {
+					message = message.substring(0, MAX_MESSAGE_LENGTH) + "...";
+				}
+				sb.append("  ").append(message.replace('\n', ' ').replace('\r', ' '));
+			}
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public String toString() {
+		return dump();
+	}
+}
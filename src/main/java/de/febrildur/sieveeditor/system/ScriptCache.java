@@ -0,0 +1,183 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.jasypt.exceptions.EncryptionOperationNotPossibleException;
+
+import com.fluffypeople.managesieve.SieveScript;
+
+/**
+ * Last opened script of one profile, persisted so the editor can show it
+ * immediately on startup (stale-while-revalidate).
+ *
+ * <p>Only that one script is kept: the editor shows nothing else from the
+ * cache, so the names and bodies of the other scripts are not stored.
+ *
+ * <p>The whole cache file is encrypted with the profile's master-key encryptor,
+ * so script contents and names are protected like the stored password.
+ * Cached content is only ever shown read-only; the server stays the source of truth.
+ */
+public class ScriptCache {
+
+	private static final Logger LOGGER = Logger.getLogger(ScriptCache.class.getName());
+	private static final String FILE_SUFFIX = ".cache";
+
+	private final Path cacheFile;
+	private final StandardPBEStringEncryptor encryptor;
+
+	private String lastScriptName;
+	private String lastBody;
+
+	/**
+	 * Creates the cache for a profile, stored in {@link AppDirectoryService#getScriptCacheDir()}.
+	 *
+	 * @param profile the profile whose scripts are cached
+	 */
+	public ScriptCache(PropertiesSieve profile) {
+		this(AppDirectoryService.getScriptCacheDir().resolve(profile.getProfileName() + FILE_SUFFIX),
+			profile.getEncryptor());
+	}
+
+	ScriptCache(Path cacheFile, StandardPBEStringEncryptor encryptor) {
+		this.cacheFile = cacheFile;
+		this.encryptor = encryptor;
+	}
+
+	/**
+	 * Loads the cache from disk, replacing the in-memory state.
+	 * A missing, corrupt or undecryptable file simply yields an empty cache.
+	 *
+	 * @return true if cached content was loaded
+	 */
+	public synchronized boolean load() {
+		clear();
+		if (!Files.exists(cacheFile)) {
+			return false;
+		}
+
+		try {
+			String encrypted = Files.readString(cacheFile, StandardCharsets.UTF_8);
+			Properties props = new Properties();
+			props.load(new StringReader(encryptor.decrypt(encrypted.trim())));
+
+			String name = props.getProperty("last");
+			String body = props.getProperty("body");
+			if (name == null || body == null) {
+				return false;
+			}
+			lastScriptName = name;
+			lastBody = body;
+			return true;
+		} catch (IOException | EncryptionOperationNotPossibleException e) {
+			// Encrypted with an older master key or damaged - just start cold
+			LOGGER.log(Level.WARNING, "Ignoring unreadable script cache: " + cacheFile, e);
+			return false;
+		}
+	}
+
+	/**
+	 * Writes the cache to disk. The file is replaced atomically where the
+	 * file system allows it, so a crash never leaves a half-written cache.
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	public synchronized void save() throws IOException {
+		Properties props = new Properties();
+		if (lastScriptName != null) {
+			props.setProperty("last", lastScriptName);
+			props.setProperty("body", lastBody);
+		}
+
+		StringWriter plain = new StringWriter();
+		props.store(plain, null);
+
+		Path tmp = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+		Files.writeString(tmp, encryptor.encrypt(plain.toString()), StandardCharsets.UTF_8);
+		AppDirectoryService.setSecureFilePermissions(tmp);
+		try {
+			Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Saves the cache, logging instead of failing. The cache is an optimisation,
+	 * so a write error must never interrupt the user.
+	 */
+	public void saveQuietly() {
+		try {
+			save();
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Failed to write script cache: " + cacheFile, e);
+		}
+	}
+
+	/**
+	 * Drops the cached script if it no longer exists on the server.
+	 *
+	 * @param list the script list as returned by the server
+	 */
+	public synchronized void updateList(List<SieveScript> list) {
+		for (SieveScript script : list) {
+			if (script.getName().equals(lastScriptName)) {
+				return;
+			}
+		}
+		clear();
+	}
+
+	/**
+	 * Stores a script as the last opened one, replacing the cached script.
+	 *
+	 * @param name the script name
+	 * @param body the script body
+	 */
+	public synchronized void putBody(String name, String body) {
+		lastScriptName = name;
+		lastBody = body;
+	}
+
+	/**
+	 * Gets the cached body of a script.
+	 *
+	 * @param name the script name
+	 * @return the body, or null if the script is not the cached one
+	 */
+	public synchronized String getBody(String name) {
+		return name != null && name.equals(lastScriptName) ? lastBody : null;
+	}
+
+	/**
+	 * Gets the script that was open when the cache was last written.
+	 *
+	 * @return the script name, or null if none
+	 */
+	public synchronized String getLastScriptName() {
+		return lastScriptName;
+	}
+
+	public Path getCacheFile() {
+		return cacheFile;
+	}
+
+	private void clear() {
+		lastScriptName = null;
+		lastBody = null;
+	}
+}
@@ -0,0 +1,274 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.fluffypeople.managesieve.ParseException;
+import com.fluffypeople.managesieve.SieveScript;
+
+/**
+ * Detects changes made to the open script by other clients (e.g. a webmail
+ * filter UI), so a save does not silently overwrite them.
+ *
+ * <p>The watcher periodically lists the scripts and fetches the open script
+ * over the existing session, comparing a content hash against the body that
+ * was loaded. Polling starts at {@link #MIN_INTERVAL_MS} and doubles up to
+ * {@link #MAX_INTERVAL_MS} while the user is idle; any editing activity
+ * resets it. It never reconnects on its own: if the session is down, the
+ * poll is skipped.
+ */
+public class ScriptChangeWatcher {
+
+	private static final Logger LOGGER = Logger.getLogger(ScriptChangeWatcher.class.getName());
+
+	/** Poll interval while the user is actively editing. */
+	static final long MIN_INTERVAL_MS = 30_000;
+
+	/** Upper bound for the backed-off poll interval. */
+	static final long MAX_INTERVAL_MS = 10 * 60_000;
+
+	/** Time without activity after which polling starts to back off. */
+	static final long IDLE_THRESHOLD_MS = 2 * 60_000;
+
+	/**
+	 * State of the server copy relative to the loaded body.
+	 */
+	public enum State {
+		UNCHANGED,
+		CHANGED,
+		DELETED
+	}
+
+	/**
+	 * Notified on the watcher thread when the server copy starts to differ.
+	 */
+	@FunctionalInterface
+	public interface Listener {
+		void serverCopyChanged(String scriptName, State state);
+	}
+
+	private final ConnectAndListScripts server;
+	private final ScheduledExecutorService executor;
+	private final LongSupplier clock;
+	private final boolean ownsExecutor;
+
+	private Listener listener;
+	private String scriptName;
+	private byte[] loadedHash;
+	private State state = State.UNCHANGED;
+	private String serverBody;
+	private long intervalMs = MIN_INTERVAL_MS;
+	private long lastActivity;
+	private ScheduledFuture<?> pending;
+
+	public ScriptChangeWatcher(ConnectAndListScripts server) {
+		this(server, Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "ManageSieve-ChangeWatcher");
+			t.setDaemon(true);
+			return t;
+		}), System::currentTimeMillis, true);
+	}
+
+	ScriptChangeWatcher(ConnectAndListScripts server, ScheduledExecutorService executor, LongSupplier clock) {
+		this(server, executor, clock, false);
+	}
+
+	private ScriptChangeWatcher(ConnectAndListScripts server, ScheduledExecutorService executor,
+			LongSupplier clock, boolean ownsExecutor) {
+		this.server = server;
+		this.executor = executor;
+		this.clock = clock;
+		this.ownsExecutor = ownsExecutor;
+		this.lastActivity = clock.getAsLong();
+	}
+
+	public ConnectAndListScripts getServer() {
+		return server;
+	}
+
+	public synchronized void setListener(Listener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Starts watching a script. Replaces any previously watched script and
+	 * resets the change state.
+	 *
+	 * @param name the script name on the server
+	 * @param loadedBody the body as loaded from (or last saved to) the server
+	 */
+	public synchronized void watch(String name, String loadedBody) {
+		this.scriptName = name;
+		this.loadedHash = hash(loadedBody);
+		this.state = State.UNCHANGED;
+		this.serverBody = null;
+		this.intervalMs = MIN_INTERVAL_MS;
+		this.lastActivity = clock.getAsLong();
+		reschedule();
+	}
+
+	/**
+	 * Stops watching; no further polls are made until {@link #watch} is called.
+	 */
+	public synchronized void stopWatching() {
+		scriptName = null;
+		loadedHash = null;
+		state = State.UNCHANGED;
+		serverBody = null;
+		cancelPending();
+	}
+
+	/**
+	 * Stops watching and releases the polling thread.
+	 */
+	public synchronized void shutdown() {
+		stopWatching();
+		if (ownsExecutor) {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Records user activity. If polling had backed off, it returns to the
+	 * minimum interval. Cheap enough to call on every keystroke.
+	 */
+	public synchronized void userActivity() {
+		lastActivity = clock.getAsLong();
+		if (intervalMs > MIN_INTERVAL_MS && scriptName != null) {
+			intervalMs = MIN_INTERVAL_MS;
+			reschedule();
+		}
+	}
+
+	/**
+	 * Checks the server copy now. Used by the scheduled task and before saving.
+	 *
+	 * @return the current state of the server copy
+	 * @throws IOException if the server cannot be queried
+	 * @throws ParseException if the server response is malformed
+	 */
+	public State poll() throws IOException, ParseException {
+		String name;
+		byte[] expected;
+		synchronized (this) {
+			name = scriptName;
+			expected = loadedHash;
+		}
+		if (name == null) {
+			return State.UNCHANGED;
+		}
+
+		// Network I/O happens outside the monitor so userActivity() never blocks the EDT
+		State found = State.DELETED;
+		String body = null;
+		for (SieveScript candidate : server.getListScripts()) {
+			if (candidate.getName().equals(name)) {
+				body = server.getScript(candidate);
+				found = Arrays.equals(hash(body), expected) ? State.UNCHANGED : State.CHANGED;
+				break;
+			}
+		}
+
+		Listener notify = null;
+		synchronized (this) {
+			if (!name.equals(scriptName) || expected != loadedHash) {
+				// Watched script was switched or saved while we were polling
+				return state;
+			}
+			if (found != State.UNCHANGED && found != state) {
+				notify = listener;
+			}
+			state = found;
+			serverBody = body;
+		}
+		if (notify != null) {
+			notify.serverCopyChanged(name, found);
+		}
+		return found;
+	}
+
+	/**
+	 * Gets the state found by the last poll.
+	 *
+	 * @return the last known state
+	 */
+	public synchronized State getState() {
+		return state;
+	}
+
+	/**
+	 * Gets the server body fetched by the last poll.
+	 *
+	 * @return the server body, or null if none was fetched or the script was deleted
+	 */
+	public synchronized String getServerBody() {
+		return serverBody;
+	}
+
+	public synchronized String getScriptName() {
+		return scriptName;
+	}
+
+	synchronized long getIntervalMs() {
+		return intervalMs;
+	}
+
+	private void scheduledPoll() {
+		try {
+			if (server.isConnected()) {
+				poll();
+			}
+		} catch (IOException | ParseException | RuntimeException e) {
+			LOGGER.log(Level.FINE, "Change detection poll failed: {0}", e.getMessage());
+		}
+
+		synchronized (this) {
+			if (scriptName == null) {
+				return;
+			}
+			if (clock.getAsLong() - lastActivity >= IDLE_THRESHOLD_MS) {
+				intervalMs = Math.min(intervalMs * 2, MAX_INTERVAL_MS);
+			} else {
+				intervalMs = MIN_INTERVAL_MS;
+			}
+			reschedule();
+		}
+	}
+
+	private void reschedule() {
+		cancelPending();
+		if (scriptName != null && !executor.isShutdown()) {
+			pending = executor.schedule(this::scheduledPoll, intervalMs, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void cancelPending() {
+		if (pending != null) {
+			pending.cancel(false);
+			pending = null;
+		}
+	}
+
+	private static byte[] hash(String body) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return digest.digest((body != null ? body : "").getBytes(StandardCharsets.UTF_8));
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-256 is mandatory on every Java platform
+			throw new IllegalStateException(e);
+		}
+	}
+}
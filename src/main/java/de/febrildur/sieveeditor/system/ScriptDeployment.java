@@ -0,0 +1,432 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.fluffypeople.managesieve.ParseException;
+import com.fluffypeople.managesieve.SieveScript;
+
+/**
+ * Deploys one or more scripts as a single transaction.
+ *
+ * <p>A plain PUTSCRIPT overwrites the live script immediately, and a failing
+ * SETACTIVE afterwards leaves filtering half-updated. A deployment instead
+ * runs in three phases:
+ * <ol>
+ * <li><b>Prepare</b> - every new version is CHECKSCRIPTed (unless the caller
+ * has done so already) and uploaded under a temporary name. The bodies of
+ * the scripts being replaced are read, so they can be restored later.
+ * Nothing live is touched; a failure only removes the temporary scripts.</li>
+ * <li><b>Commit</b> - in one tight sequence on the locked session, each live
+ * script is renamed to a temporary backup name, each temporary script is
+ * renamed to the live name, and the target script is activated.
+ * RENAMESCRIPT keeps an active script active (RFC 5804), so mail is
+ * filtered by the complete old set until the final SETACTIVE switches to
+ * the complete new set. If any step fails, the completed steps are undone.
+ * After the activation the backups are deleted again. Servers without
+ * RENAMESCRIPT get each script with a plain PUTSCRIPT instead, which
+ * replaces it in one step; a failure uploads the old bodies again.</li>
+ * <li><b>Rollback</b> (optional, later) - {@link #rollback()} uploads the old
+ * bodies again, reactivates the previously active script and removes the
+ * scripts that were new.</li>
+ * </ol>
+ */
+public class ScriptDeployment {
+
+	private static final Logger LOGGER = Logger.getLogger(ScriptDeployment.class.getName());
+
+	private static final String TEMP_INFIX = ".deploy-";
+	private static final String BACKUP_INFIX = ".previous-";
+
+	/**
+	 * What a committed deployment did to one script.
+	 *
+	 * @param name the live script name
+	 * @param replaced true if an existing script was replaced, false if the script was new
+	 */
+	public record Entry(String name, boolean replaced) {
+	}
+
+	private record Rename(String from, String to) {
+	}
+
+	private final ConnectAndListScripts server;
+	private final Map<String, String> scripts = new LinkedHashMap<>();
+	private String activate;
+	private boolean verify = true;
+
+	private List<Entry> deployed;
+	/** Bodies of the replaced scripts, by name. */
+	private final Map<String, String> previousBodies = new LinkedHashMap<>();
+	private String previouslyActive;
+
+	/** Rollback steps already done, so a failed rollback can be resumed. */
+	private final Set<String> restored = new HashSet<>();
+	private boolean activationRestored = false;
+	private boolean rolledBack = false;
+
+	public ScriptDeployment(ConnectAndListScripts server) {
+		this.server = server;
+	}
+
+	/**
+	 * Adds a script to deploy.
+	 *
+	 * @param name the live script name
+	 * @param body the new body
+	 * @return this deployment
+	 */
+	public ScriptDeployment add(String name, String body) {
+		if (deployed != null) {
+			throw new IllegalStateException("Deployment already committed");
+		}
+		scripts.put(name, body);
+		return this;
+	}
+
+	/**
+	 * Sets the script that should be active after the deployment. If not set,
+	 * the script that was active before stays active.
+	 *
+	 * @param name the script to activate
+	 * @return this deployment
+	 */
+	public ScriptDeployment activate(String name) {
+		this.activate = name;
+		return this;
+	}
+
+	/**
+	 * Skips the CHECKSCRIPT of each body, for callers that have already
+	 * checked the scripts with the server.
+	 *
+	 * @return this deployment
+	 */
+	public ScriptDeployment verified() {
+		this.verify = false;
+		return this;
+	}
+
+	/**
+	 * Runs the deployment.
+	 *
+	 * @throws IOException if validation, upload or commit fails; the server
+	 *         is left as it was before the call
+	 * @throws ParseException if a server response is malformed
+	 */
+	public void deploy() throws IOException, ParseException {
+		if (deployed != null) {
+			throw new IllegalStateException("Deployment already committed");
+		}
+		if (scripts.isEmpty()) {
+			throw new IllegalStateException("Nothing to deploy");
+		}
+
+		// Hold the session for the whole transaction: no keep-alive or
+		// background poll may slip in between the steps
+		synchronized (server) {
+			Map<String, SieveScript> existing = new LinkedHashMap<>();
+			String active = null;
+			for (SieveScript script : server.getListScripts()) {
+				existing.put(script.getName(), script);
+				if (script.isActive()) {
+					active = script.getName();
+				}
+			}
+
+			Map<String, String> previous = new LinkedHashMap<>();
+			for (String name : scripts.keySet()) {
+				SieveScript script = existing.get(name);
+				if (script != null) {
+					previous.put(name, server.getScript(script));
+				}
+			}
+
+			String token = Long.toString(System.currentTimeMillis(), 36);
+			if (server.supportsRenameScript()) {
+				commitByRename(prepare(token), previous.keySet(), active, token);
+			} else {
+				commitByUpload(previous, active);
+			}
+			previousBodies.putAll(previous);
+			previouslyActive = active;
+		}
+	}
+
+	private void checkScript(String name, String body) throws IOException, ParseException {
+		if (!verify) {
+			return;
+		}
+		try {
+			server.verifyScript(body);
+		} catch (IOException e) {
+			throw new IOException("Script [" + name + "] is invalid: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Phase 1: validate and upload every script under a temporary name.
+	 */
+	private Map<String, String> prepare(String token) throws IOException, ParseException {
+		Map<String, String> tempNames = new LinkedHashMap<>();
+		try {
+			for (Map.Entry<String, String> script : scripts.entrySet()) {
+				checkScript(script.getKey(), script.getValue());
+				String temp = script.getKey() + TEMP_INFIX + token;
+				server.uploadScript(temp, script.getValue());
+				tempNames.put(script.getKey(), temp);
+			}
+		} catch (IOException | ParseException e) {
+			discard(tempNames.values());
+			throw e;
+		}
+		return tempNames;
+	}
+
+	/**
+	 * Phase 2: swap the temporary scripts in, activate the target and drop
+	 * the backups.
+	 */
+	private void commitByRename(Map<String, String> tempNames, Set<String> existing, String active, String token)
+			throws IOException, ParseException {
+		Deque<Rename> done = new ArrayDeque<>();
+		List<Entry> entries = new ArrayList<>();
+		List<String> backups = new ArrayList<>();
+		String target = activate != null ? activate : active;
+		try {
+			for (Map.Entry<String, String> temp : tempNames.entrySet()) {
+				String name = temp.getKey();
+				boolean replaced = existing.contains(name);
+				if (replaced) {
+					String backup = name + BACKUP_INFIX + token;
+					rename(name, backup, done);
+					backups.add(backup);
+				}
+				rename(temp.getValue(), name, done);
+				entries.add(new Entry(name, replaced));
+			}
+			if (target != null) {
+				server.activateScript(target);
+			}
+		} catch (IOException | ParseException e) {
+			LOGGER.log(Level.WARNING, "Deployment failed, undoing {0} step(s): {1}",
+				new Object[]{done.size(), e.getMessage()});
+			undo(done, active);
+			discard(tempNames.values());
+			throw new IOException("Deployment failed and was reverted: " + e.getMessage(), e);
+		}
+		deployed = entries;
+
+		// The old bodies are kept in memory for rollback; a backup that
+		// can't be deleted only costs space on the server
+		for (String backup : backups) {
+			try {
+				server.deleteScript(backup);
+			} catch (IOException | ParseException e) {
+				LOGGER.log(Level.WARNING, "Could not remove backup script {0}: {1}",
+					new Object[]{backup, e.getMessage()});
+			}
+		}
+	}
+
+	/**
+	 * Phases 1 and 2 for servers without RENAMESCRIPT: validate everything,
+	 * then replace each script with one PUTSCRIPT and activate the target.
+	 */
+	private void commitByUpload(Map<String, String> previous, String active) throws IOException, ParseException {
+		for (Map.Entry<String, String> script : scripts.entrySet()) {
+			checkScript(script.getKey(), script.getValue());
+		}
+
+		List<Entry> entries = new ArrayList<>();
+		String target = activate != null ? activate : active;
+		try {
+			for (Map.Entry<String, String> script : scripts.entrySet()) {
+				server.uploadScript(script.getKey(), script.getValue());
+				entries.add(new Entry(script.getKey(), previous.containsKey(script.getKey())));
+			}
+			if (target != null) {
+				server.activateScript(target);
+			}
+		} catch (IOException | ParseException e) {
+			LOGGER.log(Level.WARNING, "Deployment failed, undoing {0} upload(s): {1}",
+				new Object[]{entries.size(), e.getMessage()});
+			restoreUploads(entries, previous, active);
+			throw new IOException("Deployment failed and was reverted: " + e.getMessage(), e);
+		}
+		deployed = entries;
+	}
+
+	private void rename(String from, String to, Deque<Rename> done) throws IOException, ParseException {
+		server.rename(from, to);
+		done.push(new Rename(from, to));
+	}
+
+	/**
+	 * Reverses completed renames (newest first) and restores the active script.
+	 * Keeps going on errors so as much as possible is restored.
+	 */
+	private void undo(Deque<Rename> done, String active) {
+		while (!done.isEmpty()) {
+			Rename step = done.pop();
+			try {
+				server.rename(step.to(), step.from());
+			} catch (IOException | ParseException e) {
+				LOGGER.log(Level.SEVERE, "Could not undo rename " + step.from() + " -> " + step.to(), e);
+			}
+		}
+		restoreActivation(active);
+	}
+
+	/**
+	 * Uploads the old bodies of completed uploads again, removes scripts that
+	 * were new and restores the active script. Keeps going on errors.
+	 */
+	private void restoreUploads(List<Entry> entries, Map<String, String> previous, String active) {
+		for (Entry entry : entries) {
+			if (entry.replaced()) {
+				try {
+					server.uploadScript(entry.name(), previous.get(entry.name()));
+				} catch (IOException | ParseException e) {
+					LOGGER.log(Level.SEVERE, "Could not restore script " + entry.name(), e);
+				}
+			}
+		}
+		restoreActivation(active);
+		for (Entry entry : entries) {
+			if (!entry.replaced()) {
+				discard(List.of(entry.name()));
+			}
+		}
+	}
+
+	private void restoreActivation(String active) {
+		try {
+			if (active != null) {
+				server.activateScript(active);
+			} else {
+				server.deactivateScript();
+			}
+		} catch (IOException | ParseException e) {
+			LOGGER.log(Level.SEVERE, "Could not restore active script " + active, e);
+		}
+	}
+
+	/**
+	 * Deletes temporary scripts that are still around, ignoring errors.
+	 */
+	private void discard(Iterable<String> names) {
+		for (String name : names) {
+			try {
+				server.deleteScript(name);
+			} catch (IOException | ParseException e) {
+				// Already renamed, or the session is gone - nothing more to do
+				LOGGER.log(Level.FINE, "Could not remove temporary script {0}: {1}",
+					new Object[]{name, e.getMessage()});
+			}
+		}
+	}
+
+	/**
+	 * Restores the state before this deployment: the replaced scripts get
+	 * their old bodies back, the previously active script is reactivated and
+	 * scripts that were new are removed.
+	 *
+	 * <p>Each step replaces a script in place, so no live script is ever
+	 * missing. If a step fails, the exception tells which scripts were
+	 * restored and which were not; calling this method again continues
+	 * with the remaining steps.
+	 *
+	 * @throws IOException if a step fails
+	 * @throws ParseException if a server response is malformed
+	 */
+	public void rollback() throws IOException, ParseException {
+		if (!canRollback()) {
+			throw new IllegalStateException("Nothing to roll back");
+		}
+
+		synchronized (server) {
+			String step = null;
+			try {
+				for (Entry entry : deployed) {
+					if (entry.replaced() && !restored.contains(entry.name())) {
+						step = "restore [" + entry.name() + "]";
+						server.uploadScript(entry.name(), previousBodies.get(entry.name()));
+						restored.add(entry.name());
+					}
+				}
+
+				// Switch activation before deleting: the active script can't be deleted
+				if (!activationRestored) {
+					step = previouslyActive != null ? "activate [" + previouslyActive + "]" : "deactivate";
+					if (previouslyActive != null) {
+						server.activateScript(previouslyActive);
+					} else {
+						server.deactivateScript();
+					}
+					activationRestored = true;
+				}
+
+				for (Entry entry : deployed) {
+					if (!entry.replaced() && !restored.contains(entry.name())) {
+						step = "remove [" + entry.name() + "]";
+						server.deleteScript(entry.name());
+						restored.add(entry.name());
+					}
+				}
+			} catch (IOException | ParseException e) {
+				throw new IOException("Rollback stopped at " + step + ": " + e.getMessage() + "\n"
+					+ describeRollbackState(), e);
+			}
+			rolledBack = true;
+		}
+	}
+
+	/**
+	 * Describes which rollback steps are done and which are still open.
+	 */
+	private String describeRollbackState() {
+		List<String> done = new ArrayList<>();
+		List<String> open = new ArrayList<>();
+		for (Entry entry : deployed) {
+			(restored.contains(entry.name()) ? done : open).add(entry.name());
+		}
+		return "Restored: " + (done.isEmpty() ? "none" : String.join(", ", done))
+			+ ". Still the new version: " + (open.isEmpty() ? "none" : String.join(", ", open))
+			+ ". Active script " + (activationRestored ? "restored" : "not restored") + ".";
+	}
+
+	/**
+	 * Checks whether this deployment was committed and not yet rolled back.
+	 *
+	 * @return true if {@link #rollback()} can be called
+	 */
+	public boolean canRollback() {
+		return deployed != null && !rolledBack;
+	}
+
+	/**
+	 * Gets what the committed deployment changed.
+	 *
+	 * @return the deployed entries, empty if not committed
+	 */
+	public List<Entry> getDeployed() {
+		return deployed != null ? List.copyOf(deployed) : List.of();
+	}
+
+	public String getPreviouslyActive() {
+		return previouslyActive;
+	}
+}
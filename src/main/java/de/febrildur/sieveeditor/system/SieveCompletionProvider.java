@@ -0,0 +1,314 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.awt.Point;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.JTextComponent;
+
+import org.fife.ui.autocomplete.BasicCompletion;
+import org.fife.ui.autocomplete.Completion;
+import org.fife.ui.autocomplete.CompletionProviderBase;
+import org.fife.ui.autocomplete.ParameterizedCompletion;
+import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
+import org.fife.ui.rsyntaxtextarea.Token;
+import org.fife.ui.rsyntaxtextarea.TokenTypes;
+
+import de.febrildur.sieveeditor.parser.ast.ArgumentNode;
+import de.febrildur.sieveeditor.parser.ast.CommandNode;
+import de.febrildur.sieveeditor.parser.ast.Node;
+import de.febrildur.sieveeditor.parser.ast.ScriptNode;
+import de.febrildur.sieveeditor.parser.ast.StringArgument;
+import de.febrildur.sieveeditor.parser.ast.StringListArgument;
+import de.febrildur.sieveeditor.parser.ast.TagArgument;
+import de.febrildur.sieveeditor.parser.ast.TestNode;
+import de.febrildur.sieveeditor.parser.lint.SieveExtensions;
+
+/**
+ * Completes Sieve commands, tests and tags, and inside strings extension
+ * names, comparators and the folders and headers the script already uses.
+ *
+ * <p>The words are kept in two {@link PrefixTrie}s, one for code and one
+ * for strings, so a keystroke costs a walk down the typed prefix instead of
+ * a scan of all words. The keywords are added once. The extensions follow
+ * the connected server and the folders and headers follow the script: on
+ * each change only the words that came or went are added to or removed
+ * from the trie.
+ *
+ * <p>Must only be used on the EDT.
+ */
+public class SieveCompletionProvider extends CompletionProviderBase {
+
+    /** Most completions offered at once. */
+    static final int MAX_COMPLETIONS = 200;
+
+    /** Commands and tests whose first string argument names a folder. */
+    private static final Set<String> FOLDER_ARGUMENT = Set.of("fileinto", "mailboxexists");
+    /** Commands and tests whose first string argument names headers. */
+    private static final Set<String> HEADER_ARGUMENT = Set.of("header", "exists", "address", "addheader",
+            "deleteheader");
+    /** Tags followed by a string argument of their own. */
+    private static final Set<String> TAGS_WITH_STRING = Set.of("comparator", "flags", "from", "subject",
+            "handle", "addresses");
+
+    private final PrefixTrie<Completion> codeWords = new PrefixTrie<>();
+    private final PrefixTrie<Completion> stringWords = new PrefixTrie<>();
+    private final Map<String, Completion> extensions = new HashMap<>();
+    private final Map<String, Completion> folders = new HashMap<>();
+    private final Map<String, Completion> headers = new HashMap<>();
+
+    /**
+     * Creates a provider offering all known extensions, as if no server
+     * were connected.
+     */
+    public SieveCompletionProvider() {
+        for (Map.Entry<String, Integer> keyword : SieveKeywords.all().entrySet()) {
+            String word = keyword.getKey();
+            codeWords.add(word, new BasicCompletion(this, word, describe(word, keyword.getValue())));
+        }
+        for (String comparator : SieveExtensions.comparators()) {
+            stringWords.add(comparator, new BasicCompletion(this, comparator, "comparator"));
+        }
+        setServerExtensions(null);
+        setAutoActivationRules(true, ":\"");
+    }
+
+    private static String describe(String word, int tokenType) {
+        String kind;
+        String extension;
+        switch (tokenType) {
+            case TokenTypes.RESERVED_WORD:
+                kind = "control";
+                extension = SieveExtensions.forCommand(word);
+                break;
+            case TokenTypes.RESERVED_WORD_2:
+                kind = "action";
+                extension = SieveExtensions.forCommand(word);
+                break;
+            case TokenTypes.FUNCTION:
+                kind = "test";
+                extension = SieveExtensions.forTest(word);
+                break;
+            default:
+                kind = "tag";
+                extension = SieveExtensions.forTag(word.substring(1));
+                break;
+        }
+        return extension == null ? kind : kind + " (" + extension + ")";
+    }
+
+    /**
+     * Offers the extensions of a server. ManageSieve only tells whether a
+     * name is supported, so the known extensions are offered that the
+     * server provides.
+     *
+     * @param serverExtensions the extensions the server announced, or null
+     *        to offer all known extensions
+     */
+    public void setServerExtensions(Predicate<String> serverExtensions) {
+        Set<String> wanted = new HashSet<>();
+        for (String extension : SieveExtensions.names()) {
+            if (serverExtensions == null || SieveExtensions.isProvided(extension, serverExtensions)) {
+                wanted.add(extension);
+            }
+        }
+        sync(extensions, wanted, "extension");
+    }
+
+    /**
+     * Offers the folders and headers a script uses, replacing those of the
+     * previous script.
+     *
+     * @param script the parsed script
+     */
+    public void updateScript(ScriptNode script) {
+        Set<String> usedFolders = new HashSet<>();
+        Set<String> usedHeaders = new HashSet<>();
+        script.walk(node -> {
+            String name;
+            List<ArgumentNode> arguments;
+            if (node instanceof CommandNode command) {
+                name = command.getName();
+                arguments = command.getArguments();
+            } else if (node instanceof TestNode test) {
+                name = test.getName();
+                arguments = test.getArguments();
+            } else {
+                return;
+            }
+            String lower = name.toLowerCase(Locale.ROOT);
+            if (FOLDER_ARGUMENT.contains(lower)) {
+                addWords(usedFolders, firstStringArgument(arguments));
+            } else if (HEADER_ARGUMENT.contains(lower)) {
+                addWords(usedHeaders, firstStringArgument(arguments));
+            }
+        });
+        sync(folders, usedFolders, "folder");
+        sync(headers, usedHeaders, "header");
+    }
+
+    /**
+     * Gets the first string argument that isn't the parameter of a tag like
+     * {@code :comparator}.
+     */
+    private static ArgumentNode firstStringArgument(List<ArgumentNode> arguments) {
+        Node previous = null;
+        for (ArgumentNode argument : arguments) {
+            boolean string = argument instanceof StringArgument || argument instanceof StringListArgument;
+            boolean tagParameter = previous instanceof TagArgument tag
+                    && TAGS_WITH_STRING.contains(tag.getName().toLowerCase(Locale.ROOT));
+            if (string && !tagParameter) {
+                return argument;
+            }
+            previous = argument;
+        }
+        return null;
+    }
+
+    private static void addWords(Set<String> words, ArgumentNode argument) {
+        if (argument == null) {
+            return;
+        }
+        for (String value : argument.getStringValues()) {
+            if (!value.isBlank() && value.indexOf('\n') < 0) {
+                words.add(value);
+            }
+        }
+    }
+
+    /**
+     * Brings the words of one kind in the string trie up to date, touching
+     * only the words that came or went.
+     */
+    private void sync(Map<String, Completion> current, Set<String> wanted, String description) {
+        for (Iterator<Map.Entry<String, Completion>> it = current.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<String, Completion> entry = it.next();
+            if (!wanted.contains(entry.getKey())) {
+                stringWords.remove(entry.getKey(), entry.getValue());
+                it.remove();
+            }
+        }
+        for (String word : wanted) {
+            if (!current.containsKey(word)) {
+                Completion completion = new BasicCompletion(this, word, description);
+                stringWords.add(word, completion);
+                current.put(word, completion);
+            }
+        }
+    }
+
+    /**
+     * Finds the completions of a prefix in one context.
+     *
+     * @param prefix the typed part of the word
+     * @param inString whether the word is inside a string
+     * @return the completions in alphabetical order
+     */
+    public List<Completion> find(String prefix, boolean inString) {
+        return (inString ? stringWords : codeWords).find(prefix, MAX_COMPLETIONS);
+    }
+
+    @Override
+    protected List<Completion> getCompletionsImpl(JTextComponent comp) {
+        Context context = contextAt(comp);
+        if (context == null) {
+            return Collections.emptyList();
+        }
+        return find(context.entered, context.inString);
+    }
+
+    @Override
+    public String getAlreadyEnteredText(JTextComponent comp) {
+        Context context = contextAt(comp);
+        return context == null ? EMPTY_STRING : context.entered;
+    }
+
+    @Override
+    public List<Completion> getCompletionsAt(JTextComponent comp, Point p) {
+        return null;
+    }
+
+    @Override
+    public List<ParameterizedCompletion> getParameterizedCompletions(JTextComponent comp) {
+        return null;
+    }
+
+    /**
+     * Finds out what is being typed at the caret.
+     *
+     * @return the context, or null where nothing is completed, e.g. in a
+     *         comment or after a closed string
+     */
+    private static Context contextAt(JTextComponent comp) {
+        int caret = comp.getCaretPosition();
+        Document document = comp.getDocument();
+        Element line = document.getDefaultRootElement().getElement(
+                document.getDefaultRootElement().getElementIndex(caret));
+        String before;
+        try {
+            before = document.getText(line.getStartOffset(), caret - line.getStartOffset());
+        } catch (BadLocationException e) {
+            return null;
+        }
+        if (comp instanceof RSyntaxTextArea textArea && caret > line.getStartOffset()) {
+            Token token = textArea.modelToToken(caret - 1);
+            if (token != null) {
+                if (token.isComment() || token.getType() == TokenTypes.LITERAL_NUMBER_DECIMAL_INT) {
+                    return null;
+                }
+                if (token.getType() == TokenTypes.LITERAL_STRING_DOUBLE_QUOTE) {
+                    return stringContext(before.substring(token.getOffset() - line.getStartOffset()));
+                }
+            }
+        }
+        int start = before.length();
+        while (start > 0 && isWordChar(before.charAt(start - 1))) {
+            start--;
+        }
+        if (start > 0 && before.charAt(start - 1) == ':') {
+            start--;
+        }
+        return new Context(before.substring(start), false);
+    }
+
+    /**
+     * Gets the context inside a string token, given its text up to the caret.
+     */
+    private static Context stringContext(String typed) {
+        if (!typed.startsWith("\"")) {
+            return new Context(typed, true); // A later line of a string spanning lines
+        }
+        String content = typed.substring(1);
+        int backslashes = 0;
+        for (int i = content.length() - 2; i >= 0 && content.charAt(i) == '\\'; i--) {
+            backslashes++;
+        }
+        if (content.endsWith("\"") && backslashes % 2 == 0) {
+            return null; // The caret is after the closing quote
+        }
+        return new Context(content, true);
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /**
+     * The typed part of a word and whether it is inside a string.
+     */
+    private record Context(String entered, boolean inString) {
+    }
+}
@@ -0,0 +1,309 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+
+import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
+import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
+import org.fife.ui.rsyntaxtextarea.Token;
+import org.fife.ui.rsyntaxtextarea.TokenTypes;
+import org.fife.ui.rsyntaxtextarea.folding.Fold;
+import org.fife.ui.rsyntaxtextarea.folding.FoldParser;
+import org.fife.ui.rsyntaxtextarea.folding.FoldType;
+
+import de.febrildur.sieveeditor.parser.RuleCommentMatcher;
+
+/**
+ * Finds the folds of a Sieve script: {@code { }} blocks, string lists
+ * spanning lines and the sections that start at a rule comment with a
+ * UniqueId. Folding all rules collapses a script to its rule comments.
+ *
+ * <p>RSyntaxTextArea asks for all folds after every pause in typing. The
+ * brackets and rule comments of each line are kept in a summary that is
+ * only recomputed when the line was edited or the token type it starts
+ * with changed, e.g. after a bracket comment was opened above it. The
+ * start types are kept by {@link RSyntaxDocument} anyway, so checking them
+ * is cheap and other lines are not tokenized again. The folds are then
+ * rebuilt from the summaries.
+ *
+ * <p>The summaries are stored as a property of the document, so one
+ * parser can serve several editors. Like the document, they must only be
+ * used on the EDT.
+ */
+public class SieveFoldParser implements FoldParser {
+
+    /** Fold type of a rule section. */
+    public static final int RULE = FoldType.FOLD_TYPE_USER_DEFINED_MIN;
+
+    private static final int OPEN_BLOCK = 0;
+    private static final int CLOSE_BLOCK = 1;
+    private static final int OPEN_LIST = 2;
+    private static final int CLOSE_LIST = 3;
+    private static final int KIND_BITS = 2;
+
+    @Override
+    public List<Fold> getFolds(RSyntaxTextArea textArea) {
+        RSyntaxDocument document = (RSyntaxDocument) textArea.getDocument();
+        LineSummaries summaries = summaries(document);
+        summaries.update();
+        try {
+            return buildFolds(textArea, summaries);
+        } catch (BadLocationException e) {
+            // Can't happen: all offsets come from the current lines
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Gets the line summaries of a document, listening to it on first use.
+     */
+    static LineSummaries summaries(RSyntaxDocument document) {
+        LineSummaries summaries = (LineSummaries) document.getProperty(LineSummaries.class);
+        if (summaries == null) {
+            summaries = new LineSummaries(document);
+            document.putProperty(LineSummaries.class, summaries);
+        }
+        return summaries;
+    }
+
+    private static List<Fold> buildFolds(RSyntaxTextArea textArea, LineSummaries summaries)
+            throws BadLocationException {
+        List<Fold> folds = new ArrayList<>();
+        List<Fold> open = new ArrayList<>(); // Open blocks and lists, innermost last
+        List<Integer> openKinds = new ArrayList<>();
+        Fold rule = null;
+        Element root = textArea.getDocument().getDefaultRootElement();
+
+        for (int line = 0; line < summaries.lines.size(); line++) {
+            LineSummary summary = summaries.lines.get(line);
+            int lineStart = root.getElement(line).getStartOffset();
+            if (summary.rule) {
+                // A rule comment starts a new section; whatever is still open was never closed
+                discard(folds, open, 0);
+                openKinds.clear();
+                if (rule != null) {
+                    close(folds, rule, lineStart - 1);
+                }
+                rule = new Fold(RULE, textArea, lineStart);
+                folds.add(rule);
+            }
+            for (int mark : summary.marks) {
+                int kind = mark & ((1 << KIND_BITS) - 1);
+                int offset = lineStart + (mark >>> KIND_BITS);
+                if (kind == OPEN_BLOCK || kind == OPEN_LIST) {
+                    Fold parent = !open.isEmpty() ? open.get(open.size() - 1) : rule;
+                    Fold fold = parent != null ? parent.createChild(FoldType.CODE, offset)
+                            : new Fold(FoldType.CODE, textArea, offset);
+                    if (parent == null) {
+                        folds.add(fold);
+                    }
+                    open.add(fold);
+                    openKinds.add(kind);
+                } else {
+                    int match = openKinds.lastIndexOf(kind == CLOSE_BLOCK ? OPEN_BLOCK : OPEN_LIST);
+                    if (match >= 0) {
+                        // Brackets opened inside the matched one and never closed are dropped
+                        discard(folds, open, match + 1);
+                        openKinds.subList(match, openKinds.size()).clear();
+                        close(folds, open.remove(match), offset);
+                    }
+                }
+            }
+        }
+
+        discard(folds, open, 0);
+        if (rule != null) {
+            int end = textArea.getDocument().getLength();
+            if (end > rule.getStartOffset() && textArea.getDocument().getText(end - 1, 1).charAt(0) == '\n') {
+                end--;
+            }
+            close(folds, rule, end);
+        }
+        return folds;
+    }
+
+    /**
+     * Ends a fold, removing it again if it doesn't span lines.
+     */
+    private static void close(List<Fold> folds, Fold fold, int endOffset) throws BadLocationException {
+        fold.setEndOffset(endOffset);
+        if (fold.isOnSingleLine()) {
+            remove(folds, fold);
+        }
+    }
+
+    /**
+     * Removes the unclosed folds from {@code open.get(from)} on.
+     */
+    private static void discard(List<Fold> folds, List<Fold> open, int from) {
+        for (int i = open.size() - 1; i >= from; i--) {
+            remove(folds, open.remove(i));
+        }
+    }
+
+    private static void remove(List<Fold> folds, Fold fold) {
+        if (!fold.removeFromParent()) {
+            folds.remove(fold);
+        }
+    }
+
+    /**
+     * The brackets of a line and whether it is a rule comment.
+     */
+    static final class LineSummary {
+
+        private static final int[] NO_MARKS = new int[0];
+
+        /** The token type the line was tokenized with. */
+        final int startType;
+        /** Offset in the line and kind of each bracket, see {@link SieveFoldParser#KIND_BITS}. */
+        final int[] marks;
+        final boolean rule;
+
+        LineSummary(int startType, int[] marks, boolean rule) {
+            this.startType = startType;
+            this.marks = marks.length == 0 ? NO_MARKS : marks;
+            this.rule = rule;
+        }
+    }
+
+    /**
+     * The summaries of all lines of a document, kept in step with its edits.
+     */
+    static final class LineSummaries implements DocumentListener {
+
+        private final RSyntaxDocument document;
+        /** One summary per line; null for lines edited since the last update. */
+        final List<LineSummary> lines = new ArrayList<>();
+        private final RuleCommentMatcher matcher = new RuleCommentMatcher();
+        private long recomputed = 0;
+
+        LineSummaries(RSyntaxDocument document) {
+            this.document = document;
+            document.addDocumentListener(this);
+        }
+
+        /**
+         * Recomputes the summaries of edited lines and of lines whose start
+         * type changed.
+         */
+        void update() {
+            Element root = document.getDefaultRootElement();
+            int count = root.getElementCount();
+            if (lines.size() != count) {
+                // Out of step, e.g. edits before the first update; start over
+                lines.clear();
+                lines.addAll(Collections.nCopies(count, null));
+            }
+            for (int line = 0; line < count; line++) {
+                int startType = line == 0 ? TokenTypes.NULL : document.getLastTokenTypeOnLine(line - 1);
+                LineSummary summary = lines.get(line);
+                if (summary == null || summary.startType != startType) {
+                    lines.set(line, summarize(line, startType, root.getElement(line).getStartOffset()));
+                    recomputed++;
+                }
+            }
+        }
+
+        private LineSummary summarize(int line, int startType, int lineStart) {
+            int[] marks = new int[4];
+            int size = 0;
+            boolean rule = false;
+            boolean first = true;
+            for (Token t = document.getTokenListForLine(line); t != null && t.isPaintable(); t = t.getNextToken()) {
+                if (t.isWhitespace()) {
+                    continue;
+                }
+                if (first && startType == TokenTypes.NULL && t.getType() == TokenTypes.COMMENT_EOL) {
+                    rule = matcher.matches(t.getLexeme()) && matcher.hasValidId();
+                }
+                first = false;
+                int kind = kindOf(t);
+                if (kind >= 0) {
+                    if (size == marks.length) {
+                        marks = Arrays.copyOf(marks, size * 2);
+                    }
+                    marks[size++] = (t.getOffset() - lineStart) << KIND_BITS | kind;
+                }
+            }
+            return new LineSummary(startType, Arrays.copyOf(marks, size), rule);
+        }
+
+        private static int kindOf(Token t) {
+            if (t.getType() != TokenTypes.SEPARATOR) {
+                return -1;
+            }
+            if (t.isSingleChar('{')) {
+                return OPEN_BLOCK;
+            } else if (t.isSingleChar('}')) {
+                return CLOSE_BLOCK;
+            } else if (t.isSingleChar('[')) {
+                return OPEN_LIST;
+            } else if (t.isSingleChar(']')) {
+                return CLOSE_LIST;
+            }
+            return -1;
+        }
+
+        /**
+         * Gets the number of line summaries computed so far.
+         */
+        long getRecomputed() {
+            return recomputed;
+        }
+
+        @Override
+        public void insertUpdate(DocumentEvent e) {
+            edited(e);
+        }
+
+        @Override
+        public void removeUpdate(DocumentEvent e) {
+            edited(e);
+        }
+
+        @Override
+        public void changedUpdate(DocumentEvent e) {
+            // Attribute changes don't affect the text
+        }
+
+        /**
+         * Drops the summaries of the lines an edit replaced.
+         */
+        private void edited(DocumentEvent e) {
+            Element root = document.getDefaultRootElement();
+            DocumentEvent.ElementChange change = e.getChange(root);
+            int first;
+            int removed;
+            int added;
+            if (change != null) {
+                // Lines were split or joined: the change names the replaced lines
+                first = change.getIndex();
+                removed = change.getChildrenRemoved().length;
+                added = change.getChildrenAdded().length;
+            } else {
+                // Edit within one line
+                first = root.getElementIndex(e.getOffset());
+                removed = 1;
+                added = 1;
+            }
+            if (first + removed > lines.size()) {
+                lines.clear(); // Out of step; the next update starts over
+                return;
+            }
+            List<LineSummary> replaced = lines.subList(first, first + removed);
+            replaced.clear();
+            replaced.addAll(Collections.nCopies(added, null));
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.fife.ui.rsyntaxtextarea.TokenTypes;
+
+import de.febrildur.sieveeditor.parser.lint.SieveExtensions;
+
+/**
+ * Token types of the Sieve keywords for one server.
+ *
+ * <p>Keywords of extensions the server doesn't announce are highlighted as
+ * {@link TokenTypes#ERROR_IDENTIFIER}. A set is immutable and only holds one
+ * token type per slot of the {@link SieveKeywords} table, so a
+ * {@link SieveTokenMaker} can switch sets by replacing one reference, and
+ * two sets can tell cheaply which keywords they disagree on.
+ */
+public final class SieveKeywordSet {
+
+    /** The set used while no server is connected: every keyword is valid. */
+    public static final SieveKeywordSet ALL_SUPPORTED = new SieveKeywordSet(null);
+
+    /**
+     * Mask bit of each slot. Only keywords of extensions can change their
+     * type, so only they get a bit, which keeps the masks exact while there
+     * are at most 64 of them. -1 for other slots.
+     */
+    private static final int[] BITS = new int[SieveKeywords.tableSize()];
+
+    static {
+        int next = 0;
+        for (int slot = 0; slot < BITS.length; slot++) {
+            String word = SieveKeywords.wordAt(slot);
+            BITS[slot] = word != null && extensionOf(word, SieveKeywords.typeAt(slot)) != null ? next++ : -1;
+        }
+    }
+
+    private final int[] types;
+
+    private SieveKeywordSet(Predicate<String> serverExtensions) {
+        types = new int[SieveKeywords.tableSize()];
+        for (int slot = 0; slot < types.length; slot++) {
+            String word = SieveKeywords.wordAt(slot);
+            if (word == null) {
+                continue;
+            }
+            int type = SieveKeywords.typeAt(slot);
+            String extension = extensionOf(word, type);
+            boolean supported = serverExtensions == null || extension == null
+                    || SieveExtensions.isProvided(extension, serverExtensions);
+            types[slot] = supported ? type : TokenTypes.ERROR_IDENTIFIER;
+        }
+    }
+
+    /**
+     * Creates the set for a server.
+     *
+     * @param serverExtensions the extensions the server announced, or null if
+     *                         they aren't known
+     * @return the set
+     */
+    public static SieveKeywordSet forServer(Predicate<String> serverExtensions) {
+        return serverExtensions == null ? ALL_SUPPORTED : new SieveKeywordSet(serverExtensions);
+    }
+
+    /**
+     * Creates the set for the SIEVE capability of a ManageSieve server.
+     *
+     * @param sieveCapability the space-separated extension names, e.g.
+     *                        {@code "fileinto vacation"}, or null if unknown
+     * @return the set
+     */
+    public static SieveKeywordSet fromCapability(String sieveCapability) {
+        if (sieveCapability == null) {
+            return ALL_SUPPORTED;
+        }
+        Set<String> extensions = Set.of(sieveCapability.trim().toLowerCase(Locale.ROOT).split("\\s+"));
+        return new SieveKeywordSet(extension -> extensions.contains(extension.toLowerCase(Locale.ROOT)));
+    }
+
+    private static String extensionOf(String word, int type) {
+        if (word.startsWith(":")) {
+            return SieveExtensions.forTag(word.substring(1));
+        }
+        if (type == TokenTypes.FUNCTION) {
+            return SieveExtensions.forTest(word);
+        }
+        return SieveExtensions.forCommand(word);
+    }
+
+    /**
+     * Gets the token type of the keyword in a {@link SieveKeywords} slot.
+     *
+     * @param slot the slot of a keyword
+     * @return the token type
+     */
+    int typeAt(int slot) {
+        return types[slot];
+    }
+
+    /**
+     * Gets the token type of a word.
+     *
+     * @param word the word; tags with their colon
+     * @return the token type, or -1 if the word isn't a keyword
+     */
+    public int typeOf(String word) {
+        char[] array = word.toCharArray();
+        int slot = SieveKeywords.find(array, 0, array.length);
+        return slot < 0 ? -1 : types[slot];
+    }
+
+    /**
+     * Marks the slots whose token type differs between two sets.
+     *
+     * @param other the other set
+     * @return the mask, 0 if the sets agree
+     */
+    long differenceMask(SieveKeywordSet other) {
+        long mask = 0;
+        for (int slot = 0; slot < types.length; slot++) {
+            if (types[slot] != other.types[slot]) {
+                mask |= maskOf(slot);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Gets the mask bit of a slot.
+     *
+     * @return the bit, or 0 for keywords that never change their type
+     */
+    static long maskOf(int slot) {
+        int bit = BITS[slot];
+        return bit < 0 ? 0 : 1L << (bit & 63);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof SieveKeywordSet other && Arrays.equals(types, other.types);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(types);
+    }
+}
@@ -0,0 +1,198 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.fife.ui.rsyntaxtextarea.TokenTypes;
+
+/**
+ * Perfect-hash table of the Sieve words that get their own highlighting.
+ *
+ * <p>Control commands, actions, tests and the tags for match types,
+ * comparators, address parts and sizes are mapped to token types. The table
+ * is built once: it looks for a multiplier that sends every keyword to its
+ * own slot, so a lookup hashes the word, reads one slot and compares one
+ * keyword. Lookups work on the characters of a line directly and don't
+ * allocate. Sieve identifiers are case-insensitive, and so is the lookup.
+ */
+final class SieveKeywords {
+
+    /** Multipliers tried per table size before the table is doubled. */
+    private static final int SEED_ATTEMPTS = 10_000;
+
+    private static final Map<String, Integer> KEYWORDS = new LinkedHashMap<>();
+
+    static {
+        for (String word : new String[]{"require", "if", "elsif", "else", "stop",
+                "include", "return", "global", "foreverypart", "break"}) {
+            KEYWORDS.put(word, TokenTypes.RESERVED_WORD);
+        }
+        for (String word : new String[]{"keep", "discard", "redirect", "fileinto", "reject", "ereject",
+                "vacation", "setflag", "addflag", "removeflag", "set", "notify", "addheader",
+                "deleteheader", "replace", "enclose", "extracttext", "convert"}) {
+            KEYWORDS.put(word, TokenTypes.RESERVED_WORD_2);
+        }
+        for (String word : new String[]{"address", "allof", "anyof", "exists", "false", "true", "header",
+                "not", "size", "envelope", "body", "hasflag", "string", "date", "currentdate", "spamtest",
+                "virustest", "mailboxexists", "metadata", "metadataexists", "servermetadata",
+                "servermetadataexists", "environment", "ihave", "duplicate", "valid_notify_method",
+                "notify_method_capability"}) {
+            KEYWORDS.put(word, TokenTypes.FUNCTION);
+        }
+        for (String word : new String[]{":is", ":contains", ":matches", ":regex", ":value", ":count",
+                ":comparator", ":all", ":localpart", ":domain", ":user", ":detail", ":over", ":under",
+                ":copy", ":create", ":flags", ":days", ":seconds", ":subject", ":from", ":addresses",
+                ":mime", ":handle", ":raw", ":content", ":text", ":percent", ":zone", ":originalzone",
+                ":index", ":last", ":specialuse", ":list"}) {
+            KEYWORDS.put(word, TokenTypes.DATA_TYPE);
+        }
+    }
+
+    private static final char[][] WORDS;
+    private static final int[] TYPES;
+    private static final int MULTIPLIER;
+    private static final int SHIFT;
+
+    static {
+        int bits = 32 - Integer.numberOfLeadingZeros(KEYWORDS.size()) + 1;
+        int multiplier = findMultiplier(bits);
+        while (multiplier == 0) {
+            bits++;
+            multiplier = findMultiplier(bits);
+        }
+        MULTIPLIER = multiplier;
+        SHIFT = 32 - bits;
+        WORDS = new char[1 << bits][];
+        TYPES = new int[1 << bits];
+        for (Map.Entry<String, Integer> entry : KEYWORDS.entrySet()) {
+            char[] word = entry.getKey().toCharArray();
+            int slot = slot(hash(word, 0, word.length), MULTIPLIER, SHIFT);
+            WORDS[slot] = word;
+            TYPES[slot] = entry.getValue();
+        }
+    }
+
+    private SieveKeywords() {
+    }
+
+    /**
+     * Finds a multiplier that maps all keywords to distinct slots of a table
+     * with {@code 2^bits} slots.
+     *
+     * @return the multiplier, or 0 if none was found
+     */
+    private static int findMultiplier(int bits) {
+        boolean[] used = new boolean[1 << bits];
+        int multiplier = 0x9E3779B1; // Fixed start, so the table is the same on every run
+        for (int attempt = 0; attempt < SEED_ATTEMPTS; attempt++, multiplier += 2) {
+            Arrays.fill(used, false);
+            boolean perfect = true;
+            for (String keyword : KEYWORDS.keySet()) {
+                char[] word = keyword.toCharArray();
+                int slot = slot(hash(word, 0, word.length), multiplier, 32 - bits);
+                if (used[slot]) {
+                    perfect = false;
+                    break;
+                }
+                used[slot] = true;
+            }
+            if (perfect) {
+                return multiplier;
+            }
+        }
+        return 0;
+    }
+
+    private static int slot(int hash, int multiplier, int shift) {
+        return (hash * multiplier) >>> shift;
+    }
+
+    /**
+     * Hashes ASCII-lowercased characters.
+     */
+    private static int hash(char[] array, int start, int end) {
+        int hash = end - start;
+        for (int i = start; i < end; i++) {
+            hash = hash * 31 + toLower(array[i]);
+        }
+        return hash;
+    }
+
+    private static char toLower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /**
+     * Looks up a word.
+     *
+     * @param array the characters
+     * @param start the start of the word
+     * @param end the end of the word, exclusive
+     * @return the token type, or -1 if the word isn't a keyword
+     */
+    static int lookup(char[] array, int start, int end) {
+        int slot = find(array, start, end);
+        return slot < 0 ? -1 : TYPES[slot];
+    }
+
+    /**
+     * Finds the slot of a word.
+     *
+     * @param array the characters
+     * @param start the start of the word
+     * @param end the end of the word, exclusive
+     * @return the slot, or -1 if the word isn't a keyword
+     */
+    static int find(char[] array, int start, int end) {
+        int slot = slot(hash(array, start, end), MULTIPLIER, SHIFT);
+        char[] word = WORDS[slot];
+        if (word == null || word.length != end - start) {
+            return -1;
+        }
+        for (int i = 0; i < word.length; i++) {
+            if (toLower(array[start + i]) != word[i]) {
+                return -1;
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * Gets the keyword in a slot.
+     *
+     * @return the keyword in lower case, or null for an empty slot
+     */
+    static String wordAt(int slot) {
+        return WORDS[slot] == null ? null : new String(WORDS[slot]);
+    }
+
+    /**
+     * Gets the token type of the keyword in a slot.
+     *
+     * @return the token type; undefined for an empty slot
+     */
+    static int typeAt(int slot) {
+        return TYPES[slot];
+    }
+
+    /**
+     * Gets all keywords.
+     *
+     * @return the keywords in lower case with their token types
+     */
+    static Map<String, Integer> all() {
+        return Collections.unmodifiableMap(KEYWORDS);
+    }
+
+    /**
+     * Gets the number of slots.
+     */
+    static int tableSize() {
+        return WORDS.length;
+    }
+}
@@ -0,0 +1,208 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.SwingWorker;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+
+import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
+import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
+import org.fife.ui.rsyntaxtextarea.parser.AbstractParser;
+import org.fife.ui.rsyntaxtextarea.parser.DefaultParseResult;
+import org.fife.ui.rsyntaxtextarea.parser.DefaultParserNotice;
+import org.fife.ui.rsyntaxtextarea.parser.ParseResult;
+
+import de.febrildur.sieveeditor.parser.SieveParser;
+import de.febrildur.sieveeditor.parser.SyntaxError;
+import de.febrildur.sieveeditor.parser.ast.ScriptNode;
+
+/**
+ * Reports the syntax errors of the script as parser notices, which the
+ * editor shows as squiggles.
+ *
+ * <p>RSyntaxTextArea calls {@link #parse} on the EDT after a pause in
+ * typing. The script is checked locally with {@link SieveParser}, without a
+ * round trip to the server, but not in that call: it only copies the text
+ * and hands it to a {@link SwingWorker}. When the check is done and the text
+ * hasn't changed since, the parser asks the text area to parse again, and
+ * that call returns the finished result. Until then the result is empty,
+ * so no notice is ever shown at an outdated offset.
+ *
+ * <p>The parsed script can be passed on to a listener, so other features
+ * don't have to parse it again. It is only passed on while the document
+ * still holds the checked text.
+ *
+ * <p>Must only be used on the EDT.
+ */
+public class SieveSyntaxParser extends AbstractParser {
+
+    private static final Logger LOGGER = Logger.getLogger(SieveSyntaxParser.class.getName());
+
+    private final RSyntaxTextArea textArea;
+
+    /** Text of {@link #result}, or null before the first check. */
+    private String checkedText;
+    private ParseResult result;
+    /** Text being checked, or null if no check is running. */
+    private String pendingText;
+    private SwingWorker<ScriptNode, Void> worker;
+    private Consumer<ScriptNode> scriptListener = script -> { };
+    /** Number of edits to the document, to tell whether a checked text is still current. */
+    private long edits = 0;
+    private final DocumentListener editCounter = new DocumentListener() {
+        @Override
+        public void insertUpdate(DocumentEvent e) {
+            edits++;
+        }
+
+        @Override
+        public void removeUpdate(DocumentEvent e) {
+            edits++;
+        }
+
+        @Override
+        public void changedUpdate(DocumentEvent e) {
+            // Attribute changes don't affect the text
+        }
+    };
+
+    /**
+     * Creates a parser. It still has to be added to the text area with
+     * {@link RSyntaxTextArea#addParser}.
+     *
+     * @param textArea the text area showing the notices
+     */
+    public SieveSyntaxParser(RSyntaxTextArea textArea) {
+        this.textArea = textArea;
+        this.result = emptyResult(1);
+        textArea.getDocument().addDocumentListener(editCounter);
+        textArea.addPropertyChangeListener("document", e -> {
+            ((Document) e.getOldValue()).removeDocumentListener(editCounter);
+            ((Document) e.getNewValue()).addDocumentListener(editCounter);
+            edits++;
+        });
+    }
+
+    @Override
+    public ParseResult parse(RSyntaxDocument doc, String style) {
+        int lineCount = doc.getDefaultRootElement().getElementCount();
+        String text;
+        try {
+            text = doc.getText(0, doc.getLength());
+        } catch (BadLocationException e) {
+            return emptyResult(lineCount);
+        }
+        if (text.equals(checkedText)) {
+            return result;
+        }
+        if (!text.equals(pendingText)) {
+            startCheck(text, lineCount);
+        }
+        return emptyResult(lineCount);
+    }
+
+    /**
+     * Creates a result without notices. It covers all lines, so the text
+     * area removes the notices of earlier results.
+     */
+    private DefaultParseResult emptyResult(int lineCount) {
+        DefaultParseResult empty = new DefaultParseResult(this);
+        empty.setParsedLines(0, lineCount - 1);
+        return empty;
+    }
+
+    /**
+     * Sets the listener that gets every checked script that is still
+     * current, on the EDT.
+     *
+     * @param scriptListener the listener
+     */
+    public void setScriptListener(Consumer<ScriptNode> scriptListener) {
+        this.scriptListener = scriptListener;
+    }
+
+    /**
+     * Checks whether a check is running.
+     *
+     * @return true until the check of the latest text is done
+     */
+    public boolean isChecking() {
+        return worker != null;
+    }
+
+    private void startCheck(String text, int lineCount) {
+        if (worker != null) {
+            worker.cancel(false);
+        }
+        pendingText = text;
+        long checkedEdits = edits;
+        worker = new SwingWorker<>() {
+            private long started;
+
+            @Override
+            protected ScriptNode doInBackground() {
+                started = System.nanoTime();
+                return SieveParser.parse(text);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || !text.equals(pendingText)) {
+                    return; // Superseded by a newer text
+                }
+                worker = null;
+                pendingText = null;
+                try {
+                    ScriptNode script = get();
+                    result = toResult(script, text, lineCount, System.nanoTime() - started);
+                    checkedText = text;
+                    textArea.forceReparsing(SieveSyntaxParser.this);
+                    if (checkedEdits == edits) {
+                        scriptListener.accept(script);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    LOGGER.log(Level.WARNING, "Syntax check failed", e.getCause());
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    private ParseResult toResult(ScriptNode script, String text, int lineCount, long nanos) {
+        DefaultParseResult parsed = emptyResult(lineCount);
+        parsed.setParseTime(nanos / 1_000_000);
+        int length = text.length();
+        for (SyntaxError error : script.getErrors()) {
+            int offset = Math.max(0, Math.min(error.getStart(), length - 1));
+            int end = Math.min(Math.max(error.getEnd(), offset + 1), length);
+            int line = error.getLine() - 1;
+            if (offset != error.getStart()) {
+                // Errors at the end of the script mark its last character
+                line = lineOf(text, offset);
+            }
+            parsed.addNotice(new DefaultParserNotice(this, error.getMessage(), line, offset, end - offset));
+        }
+        return parsed;
+    }
+
+    private static int lineOf(String text, int offset) {
+        int line = 0;
+        for (int i = 0; i < offset; i++) {
+            if (text.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        return line;
+    }
+}
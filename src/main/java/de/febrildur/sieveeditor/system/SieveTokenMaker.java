@@ -5,13 +5,59 @@ package de.febrildur.sieveeditor.system;
 //
 // SPDX-License-Identifier: LGPL-3.0-or-later
 
+import java.util.Map;
+
 import javax.swing.text.Segment;
 
 import org.fife.ui.rsyntaxtextarea.*;
 
-
+/**
+ * Splits Sieve scripts (RFC 5228) into tokens for highlighting.
+ *
+ * <p>Handles hash and bracket comments, quoted strings with escapes,
+ * multi-line {@code text:} literals, numbers with quantifiers, tagged
+ * arguments and the keywords of {@link SieveKeywords}. Bracket comments,
+ * unclosed strings and {@code text:} literals carry over to the next line:
+ * the last token of such a line has the type the next line starts with, so
+ * RSyntaxTextArea only re-tokenizes following lines whose start state changed.
+ */
 public class SieveTokenMaker extends AbstractTokenMaker {
 
+    /**
+     * Internal type ending a line inside a {@code text:} literal. Like all
+     * internal types it is negative and only seen as the last token of a line.
+     */
+    static final int INTERNAL_TEXT_LITERAL = -1;
+
+    /** Tokens of recently seen lines, or null if caching is off. */
+    private final TokenListCache cache;
+
+    /** Keyword set for new lines; replaced when the server changes. */
+    private volatile SieveKeywordSet keywords = SieveKeywordSet.ALL_SUPPORTED;
+
+    /** Keyword set the cached lines were tokenized with. */
+    private SieveKeywordSet cachedKeywords = SieveKeywordSet.ALL_SUPPORTED;
+
+    /** Keyword set of the line being tokenized. */
+    private SieveKeywordSet lineKeywords = SieveKeywordSet.ALL_SUPPORTED;
+
+    /** Mask of the keyword slots found in the line being tokenized. */
+    private long lineKeywordMask;
+
+    public SieveTokenMaker() {
+        this(TokenListCache.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a token maker.
+     *
+     * @param cacheCapacity the number of lines whose tokens are cached, or 0
+     *                      to tokenize every line again
+     */
+    SieveTokenMaker(int cacheCapacity) {
+        cache = cacheCapacity > 0 ? new TokenListCache(cacheCapacity) : null;
+    }
+
     /**
      * Returns a list of tokens representing the given text.
      *
@@ -24,11 +70,34 @@ public class SieveTokenMaker extends AbstractTokenMaker {
     public Token getTokenList(Segment text, int startTokenType, int startOffset) {
 
         resetTokenList();
+        lineKeywords = keywords;
+        lineKeywordMask = 0;
+
+        if (cache == null) {
+            return tokenize(text, startTokenType, startOffset);
+        }
+        if (lineKeywords != cachedKeywords) {
+            // Only lines with a keyword that changed its type are tokenized again
+            cache.invalidate(lineKeywords.differenceMask(cachedKeywords));
+            cachedKeywords = lineKeywords;
+        }
+        TokenListCache.Entry cached = cache.find(text.array, text.offset, text.count, startTokenType);
+        if (cached != null) {
+            return cached.tokens(startOffset);
+        }
+        Token first = tokenize(text, startTokenType, startOffset);
+        cache.put(text.array, text.offset, text.count, startTokenType, first, lineKeywordMask);
+        return first;
+    }
+
+    /**
+     * Tokenizes a line after the token list was reset.
+     */
+    private Token tokenize(Segment text, int startTokenType, int startOffset) {
 
         char[] array = text.array;
         int offset = text.offset;
-        int count = text.count;
-        int end = offset + count;
+        int end = offset + text.count;
 
         // Token starting offsets are always of the form:
         // 'startOffset + (currentTokenStart-offset)', but since startOffset and
@@ -36,202 +105,278 @@ public class SieveTokenMaker extends AbstractTokenMaker {
         // 'newStartOffset+currentTokenStart'.
         int newStartOffset = startOffset - offset;
 
-        int currentTokenStart = offset;
-        int currentTokenType = startTokenType;
-
-        for (int i = offset; i < end; i++) {
-
-            char c = array[i];
-
-            switch (currentTokenType) {
-
-                case TokenTypes.NULL:
-
-                    currentTokenStart = i; // Starting a new token here.
-
-                    switch (c) {
-
-                        case ' ':
-                        case '\t':
-                            currentTokenType = TokenTypes.WHITESPACE;
-                            break;
+        int i = offset;
 
-                        case '"':
-                            currentTokenType = TokenTypes.LITERAL_STRING_DOUBLE_QUOTE;
-                            break;
-
-                        case '#':
-                            currentTokenType = TokenTypes.COMMENT_EOL;
-                            break;
-
-                        default:
-                            if (RSyntaxUtilities.isDigit(c)) {
-                                currentTokenType = TokenTypes.LITERAL_NUMBER_DECIMAL_INT;
-                                break;
-                            } else if (RSyntaxUtilities.isLetter(c) || c == '/' || c == '_') {
-                                currentTokenType = TokenTypes.IDENTIFIER;
-                                break;
-                            }
-
-                            // Anything not currently handled - mark as an identifier
-                            currentTokenType = TokenTypes.IDENTIFIER;
-                            break;
+        // Finish what the previous line left open.
+        switch (startTokenType) {
 
+            case INTERNAL_TEXT_LITERAL:
+                if (end - offset == 1 && array[offset] == '.') {
+                    addToken(text, offset, offset, TokenTypes.LITERAL_STRING_DOUBLE_QUOTE, newStartOffset + offset);
+                    addNullToken();
+                } else {
+                    if (end > offset) {
+                        addToken(text, offset, end - 1, TokenTypes.LITERAL_STRING_DOUBLE_QUOTE, newStartOffset + offset);
                     }
+                    addEndToken(text, end, INTERNAL_TEXT_LITERAL, newStartOffset);
+                }
+                return firstToken;
 
-                    break;
-
-                case TokenTypes.WHITESPACE:
-
-                    switch (c) {
-
-                        case ' ':
-                        case '\t':
-                            break; // Still whitespace.
-
-                        case '"':
-                            addToken(text, currentTokenStart, i - 1, TokenTypes.WHITESPACE, newStartOffset + currentTokenStart);
-                            currentTokenStart = i;
-                            currentTokenType = TokenTypes.LITERAL_STRING_DOUBLE_QUOTE;
-                            break;
-
-                        case '#':
-                            addToken(text, currentTokenStart, i - 1, TokenTypes.WHITESPACE, newStartOffset + currentTokenStart);
-                            currentTokenStart = i;
-                            currentTokenType = TokenTypes.COMMENT_EOL;
-                            break;
-
-                        default: // Add the whitespace token and start anew.
-
-                            addToken(text, currentTokenStart, i - 1, TokenTypes.WHITESPACE, newStartOffset + currentTokenStart);
-                            currentTokenStart = i;
+            case TokenTypes.COMMENT_MULTILINE:
+                i = skipBracketComment(array, offset, end);
+                if (i < 0) {
+                    addOpenToken(text, offset, end, TokenTypes.COMMENT_MULTILINE, newStartOffset);
+                    return firstToken;
+                }
+                addToken(text, offset, i - 1, TokenTypes.COMMENT_MULTILINE, newStartOffset + offset);
+                break;
 
-                            if (RSyntaxUtilities.isDigit(c)) {
-                                currentTokenType = TokenTypes.LITERAL_NUMBER_DECIMAL_INT;
-                                break;
-                            } else if (RSyntaxUtilities.isLetter(c) || c == '/' || c == '_') {
-                                currentTokenType = TokenTypes.IDENTIFIER;
-                                break;
-                            }
+            case TokenTypes.LITERAL_STRING_DOUBLE_QUOTE:
+                i = skipString(array, offset, end);
+                if (i < 0) {
+                    addOpenToken(text, offset, end, TokenTypes.LITERAL_STRING_DOUBLE_QUOTE, newStartOffset);
+                    return firstToken;
+                }
+                addToken(text, offset, i - 1, TokenTypes.LITERAL_STRING_DOUBLE_QUOTE, newStartOffset + offset);
+                break;
 
-                            // Anything not currently handled - mark as identifier
-                            currentTokenType = TokenTypes.IDENTIFIER;
+            default:
+                break;
+        }
 
-                    }
+        while (i < end) {
 
-                    break;
+            int start = i;
+            char c = array[i];
 
-                case TokenTypes.IDENTIFIER:
+            if (c == ' ' || c == '\t') {
+                do {
+                    i++;
+                } while (i < end && (array[i] == ' ' || array[i] == '\t'));
+                addToken(text, start, i - 1, TokenTypes.WHITESPACE, newStartOffset + start);
+
+            } else if (c == '#') {
+                addToken(text, start, end - 1, TokenTypes.COMMENT_EOL, newStartOffset + start);
+                i = end;
+
+            } else if (c == '"') {
+                i = skipString(array, start + 1, end);
+                if (i < 0) {
+                    addOpenToken(text, start, end, TokenTypes.LITERAL_STRING_DOUBLE_QUOTE, newStartOffset);
+                    return firstToken;
+                }
+                addToken(text, start, i - 1, TokenTypes.LITERAL_STRING_DOUBLE_QUOTE, newStartOffset + start);
 
-                    switch (c) {
+            } else if (c == '/' && i + 1 < end && array[i + 1] == '*') {
+                i = skipBracketComment(array, start + 2, end);
+                if (i < 0) {
+                    addOpenToken(text, start, end, TokenTypes.COMMENT_MULTILINE, newStartOffset);
+                    return firstToken;
+                }
+                addToken(text, start, i - 1, TokenTypes.COMMENT_MULTILINE, newStartOffset + start);
+
+            } else if (RSyntaxUtilities.isDigit(c)) {
+                do {
+                    i++;
+                } while (i < end && RSyntaxUtilities.isDigit(array[i]));
+                // A quantifier (K, M or G) becomes an identifier of its own.
+                addToken(text, start, i - 1, TokenTypes.LITERAL_NUMBER_DECIMAL_INT, newStartOffset + start);
+
+            } else if (isIdentifierStart(c)) {
+                i = skipIdentifier(array, start + 1, end);
+                if (isTextLiteralStart(array, start, i, end)) {
+                    addToken(text, start, i, TokenTypes.LITERAL_STRING_DOUBLE_QUOTE, newStartOffset + start);
+                    i = addTextLiteralHead(text, i + 1, end, newStartOffset);
+                    addEndToken(text, end, INTERNAL_TEXT_LITERAL, newStartOffset);
+                    return firstToken;
+                }
+                addWord(text, start, i, newStartOffset);
 
-                        case ' ':
-                        case '\t':
-                            addToken(text, currentTokenStart, i - 1, TokenTypes.IDENTIFIER, newStartOffset + currentTokenStart);
-                            currentTokenStart = i;
-                            currentTokenType = TokenTypes.WHITESPACE;
-                            break;
+            } else if (c == ':' && i + 1 < end && isIdentifierStart(array[i + 1])) {
+                i = skipIdentifier(array, start + 2, end);
+                addWord(text, start, i, newStartOffset);
 
-                        case '"':
-                            addToken(text, currentTokenStart, i - 1, TokenTypes.IDENTIFIER, newStartOffset + currentTokenStart);
-                            currentTokenStart = i;
-                            currentTokenType = TokenTypes.LITERAL_STRING_DOUBLE_QUOTE;
-                            break;
+            } else {
+                i++;
+                int type = isSeparator(c) ? TokenTypes.SEPARATOR : TokenTypes.IDENTIFIER;
+                addToken(text, start, start, type, newStartOffset + start);
+            }
+        }
 
-                        default:
-                            if (RSyntaxUtilities.isLetterOrDigit(c) || c == '/' || c == '_') {
-                                break; // Still an identifier of some type.
-                            }
-                            // Otherwise, we're still an identifier (?).
+        addNullToken();
 
-                    }
+        // Return the first token in our linked list.
+        return firstToken;
 
-                    break;
+    }
 
-                case TokenTypes.LITERAL_NUMBER_DECIMAL_INT:
+    /**
+     * Adds an identifier or tag, highlighted if it is a keyword.
+     */
+    private void addWord(Segment text, int start, int end, int newStartOffset) {
+        int slot = SieveKeywords.find(text.array, start, end);
+        int type = TokenTypes.IDENTIFIER;
+        if (slot >= 0) {
+            type = lineKeywords.typeAt(slot);
+            lineKeywordMask |= SieveKeywordSet.maskOf(slot);
+        }
+        addToken(text, start, end - 1, type, newStartOffset + start);
+    }
 
-                    switch (c) {
+    /**
+     * Replaces the keyword set, e.g. after connecting to a server. Cached
+     * lines without an affected keyword are kept; repaint the editor to show
+     * the change.
+     *
+     * @param keywords the new set
+     */
+    public void setKeywordSet(SieveKeywordSet keywords) {
+        this.keywords = keywords;
+    }
 
-                        case ' ':
-                        case '\t':
-                            addToken(text, currentTokenStart, i - 1, TokenTypes.LITERAL_NUMBER_DECIMAL_INT,
-                                    newStartOffset + currentTokenStart);
-                            currentTokenStart = i;
-                            currentTokenType = TokenTypes.WHITESPACE;
-                            break;
+    public SieveKeywordSet getKeywordSet() {
+        return keywords;
+    }
 
-                        case '"':
-                            addToken(text, currentTokenStart, i - 1, TokenTypes.LITERAL_NUMBER_DECIMAL_INT,
-                                    newStartOffset + currentTokenStart);
-                            currentTokenStart = i;
-                            currentTokenType = TokenTypes.LITERAL_STRING_DOUBLE_QUOTE;
-                            break;
+    /**
+     * Gets the line cache, for tests.
+     */
+    TokenListCache getCache() {
+        return cache;
+    }
 
-                        default:
+    /**
+     * Adds the rest of a line that continues on the next one. Its type, even
+     * for an empty rest, is the type the next line starts with.
+     */
+    private void addOpenToken(Segment text, int start, int end, int type, int newStartOffset) {
+        addToken(text, start, end - 1, type, newStartOffset + start);
+    }
 
-                            if (RSyntaxUtilities.isDigit(c)) {
-                                break; // Still a literal number.
-                            }
+    /**
+     * Adds a zero-length token that only records the state for the next line.
+     */
+    private void addEndToken(Segment text, int end, int type, int newStartOffset) {
+        addToken(text, end, end - 1, type, newStartOffset + end);
+    }
 
-                            // Otherwise, remember this was a number and start over.
-                            addToken(text, currentTokenStart, i - 1, TokenTypes.LITERAL_NUMBER_DECIMAL_INT,
-                                    newStartOffset + currentTokenStart);
-                            i--;
-                            currentTokenType = TokenTypes.NULL;
+    /**
+     * Adds what may follow {@code text:} on its line: whitespace and a hash
+     * comment.
+     *
+     * @return the end of the line
+     */
+    private int addTextLiteralHead(Segment text, int i, int end, int newStartOffset) {
+        char[] array = text.array;
+        int start = i;
+        while (i < end && (array[i] == ' ' || array[i] == '\t')) {
+            i++;
+        }
+        if (i > start) {
+            addToken(text, start, i - 1, TokenTypes.WHITESPACE, newStartOffset + start);
+        }
+        if (i < end) {
+            addToken(text, i, end - 1, TokenTypes.COMMENT_EOL, newStartOffset + i);
+        }
+        return end;
+    }
 
-                    }
+    /**
+     * Checks whether a word is the {@code text:} that starts a multi-line
+     * literal, i.e. is followed by a colon and then only whitespace or a hash
+     * comment.
+     */
+    private static boolean isTextLiteralStart(char[] array, int start, int wordEnd, int end) {
+        if (wordEnd - start != 4 || wordEnd == end || array[wordEnd] != ':'
+                || (array[start] | 0x20) != 't' || (array[start + 1] | 0x20) != 'e'
+                || (array[start + 2] | 0x20) != 'x' || (array[start + 3] | 0x20) != 't') {
+            return false;
+        }
+        int i = wordEnd + 1;
+        while (i < end && (array[i] == ' ' || array[i] == '\t')) {
+            i++;
+        }
+        return i == end || array[i] == '#';
+    }
 
-                    break;
-
-                case TokenTypes.COMMENT_EOL:
-                    i = end - 1;
-                    addToken(text, currentTokenStart, i, currentTokenType, newStartOffset + currentTokenStart);
-                    // We need to set token type to null so at the bottom we don't add one more
-                    // TokenTypes.
-                    currentTokenType = TokenTypes.NULL;
-                    break;
-
-                case TokenTypes.LITERAL_STRING_DOUBLE_QUOTE:
-                    if (c == '"') {
-                        addToken(text, currentTokenStart, i, TokenTypes.LITERAL_STRING_DOUBLE_QUOTE,
-                                newStartOffset + currentTokenStart);
-                        currentTokenType = TokenTypes.NULL;
-                    }
-                    break;
+    /**
+     * Skips the rest of a quoted string, honoring backslash escapes.
+     *
+     * @return the position after the closing quote, or -1 if the string
+     *         doesn't end on this line
+     */
+    private static int skipString(char[] array, int i, int end) {
+        while (i < end) {
+            char c = array[i++];
+            if (c == '"') {
+                return i;
+            }
+            if (c == '\\') {
+                i++;
+            }
+        }
+        return -1;
+    }
 
-                default: // Should never happen
+    /**
+     * Skips the rest of a bracket comment.
+     *
+     * @return the position after the closing {@code *}{@code /}, or -1 if the
+     *         comment doesn't end on this line
+     */
+    private static int skipBracketComment(char[] array, int i, int end) {
+        for (; i + 1 < end; i++) {
+            if (array[i] == '*' && array[i + 1] == '/') {
+                return i + 2;
             }
-                }
+        }
+        return -1;
+    }
 
-        switch (currentTokenType) {
+    private static int skipIdentifier(char[] array, int i, int end) {
+        while (i < end && (isIdentifierStart(array[i]) || RSyntaxUtilities.isDigit(array[i]))) {
+            i++;
+        }
+        return i;
+    }
 
-            // Remember what token type to begin the next line with.
-            case TokenTypes.LITERAL_STRING_DOUBLE_QUOTE:
-                addToken(text, currentTokenStart, end - 1, currentTokenType, newStartOffset + currentTokenStart);
-                break;
+    private static boolean isIdentifierStart(char c) {
+        return RSyntaxUtilities.isLetter(c) || c == '_';
+    }
 
-            // Do nothing if everything was okay.
-            case TokenTypes.NULL:
-                addNullToken();
-                break;
+    private static boolean isSeparator(char c) {
+        return c == ';' || c == ',' || c == '(' || c == ')' || c == '[' || c == ']' || c == '{' || c == '}';
+    }
 
-            // All other token types don't continue to the next line...
-            default:
-                addToken(text, currentTokenStart, end - 1, currentTokenType, newStartOffset + currentTokenStart);
-                addNullToken();
+    @Override
+    public int getClosestStandardTokenTypeForInternalType(int type) {
+        if (type == INTERNAL_TEXT_LITERAL) {
+            return TokenTypes.LITERAL_STRING_DOUBLE_QUOTE;
         }
+        return type;
+    }
 
-        // Return the first token in our linked list.
-        return firstToken;
+    @Override
+    public String[] getLineCommentStartAndEnd(int languageIndex) {
+        return new String[]{"#", null};
+    }
 
+    @Override
+    public boolean getCurlyBracesDenoteCodeBlocks(int languageIndex) {
+        return true;
     }
 
+    /**
+     * Returns the keywords. The lexer itself looks them up in
+     * {@link SieveKeywords}; the map is kept for code using the
+     * {@link AbstractTokenMaker} API.
+     */
     @Override
     public TokenMap getWordsToHighlight() {
-        TokenMap tokenMap = new TokenMap();
-
-        tokenMap.put("if", TokenTypes.RESERVED_WORD);
-
+        TokenMap tokenMap = new TokenMap(true);
+        for (Map.Entry<String, Integer> entry : SieveKeywords.all().entrySet()) {
+            tokenMap.put(entry.getKey(), entry.getValue());
+        }
         return tokenMap;
     }
 
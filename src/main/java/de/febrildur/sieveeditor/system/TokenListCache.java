@@ -0,0 +1,221 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.Arrays;
+
+import org.fife.ui.rsyntaxtextarea.Token;
+import org.fife.ui.rsyntaxtextarea.TokenImpl;
+import org.fife.ui.rsyntaxtextarea.TokenTypes;
+
+/**
+ * Bounded cache of the tokens of single lines, keyed by the line content
+ * and the token type the line starts with.
+ *
+ * <p>RSyntaxTextArea asks for the tokens of every visible line on each
+ * repaint, and the tokens only depend on the text and the start type. The
+ * cache is a fixed-size direct-mapped table: the hash picks one slot, a
+ * lookup compares the stored copy of the line and a new line replaces what
+ * was in its slot. Hits neither allocate nor reorder entries, which matters
+ * on a path taken for every line painted.
+ *
+ * <p>An entry keeps its own token list over a copy of the line. Before a
+ * hit is returned, the tokens are reset from the stored lengths and types
+ * and moved to the offset of the current line, so changes a caller made to
+ * a returned list don't leak into the next hit. Like the token lists of a
+ * token maker, a returned list is only valid until the next call.
+ * Like a token maker, the cache is not thread-safe.
+ */
+final class TokenListCache {
+
+    /** Number of lines kept by default. */
+    static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Longest line cached. Copying and comparing longer lines costs about as
+     * much as tokenizing them again.
+     */
+    static final int MAX_LINE_LENGTH = 1024;
+
+    /**
+     * The tokens of a cached line.
+     */
+    static final class Entry {
+
+        private final char[] line;
+        private final int startType;
+        private final int hash;
+        /** Length and type of each token but a final null token, in pairs. */
+        private final int[] spans;
+        private final TokenImpl[] tokens;
+        /** Mask of the keyword slots in the line, see {@link SieveKeywordSet#maskOf}. */
+        private final long keywordMask;
+
+        private Entry(char[] line, int startType, int hash, int[] spans, TokenImpl[] tokens, long keywordMask) {
+            this.line = line;
+            this.startType = startType;
+            this.hash = hash;
+            this.spans = spans;
+            this.tokens = tokens;
+            this.keywordMask = keywordMask;
+        }
+
+        /**
+         * Gets the tokens for a line at an offset.
+         *
+         * @param startOffset the document offset of the line
+         * @return the first token
+         */
+        Token tokens(int startOffset) {
+            int start = 0;
+            for (int i = 0; i < tokens.length; i++) {
+                TokenImpl token = tokens[i];
+                if (2 * i < spans.length) {
+                    int end = start + spans[2 * i];
+                    token.set(line, start, end - 1, startOffset + start, spans[2 * i + 1]);
+                    start = end;
+                } else {
+                    token.setType(TokenTypes.NULL);
+                    token.setOffset(-1);
+                }
+                token.setHyperlink(false);
+                token.setLanguageIndex(0);
+                token.setNextToken(i + 1 < tokens.length ? tokens[i + 1] : null);
+            }
+            return tokens[0];
+        }
+    }
+
+    private final Entry[] slots;
+    private long hits = 0;
+    private long misses = 0;
+
+    TokenListCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param capacity the number of lines to keep, rounded up to a power of two
+     */
+    TokenListCache(int capacity) {
+        slots = new Entry[Integer.highestOneBit(Math.max(1, capacity - 1)) << 1];
+    }
+
+    /**
+     * Looks up a line.
+     *
+     * @param array the characters
+     * @param start the start of the line
+     * @param count the length of the line
+     * @param startType the token type the line starts with
+     * @return the entry, or null on a miss
+     */
+    Entry find(char[] array, int start, int count, int startType) {
+        if (count > MAX_LINE_LENGTH) {
+            return null;
+        }
+        int hash = hash(array, start, count, startType);
+        Entry entry = slots[hash & (slots.length - 1)];
+        if (entry != null && entry.hash == hash && entry.startType == startType
+                && Arrays.equals(entry.line, 0, entry.line.length, array, start, start + count)) {
+            hits++;
+            return entry;
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Remembers the tokens of a line.
+     *
+     * @param array the characters
+     * @param start the start of the line
+     * @param count the length of the line
+     * @param startType the token type the line starts with
+     * @param first the first token produced for the line
+     * @param keywordMask the mask of the keyword slots in the line
+     */
+    void put(char[] array, int start, int count, int startType, Token first, long keywordMask) {
+        if (count > MAX_LINE_LENGTH) {
+            return;
+        }
+        int size = 0;
+        boolean nullTerminated = false;
+        for (Token t = first; t != null; t = t.getNextToken()) {
+            if (t.getType() == TokenTypes.NULL) {
+                nullTerminated = true;
+                break;
+            }
+            size++;
+        }
+        int[] spans = new int[2 * size];
+        int i = 0;
+        for (Token t = first; i < spans.length; t = t.getNextToken()) {
+            spans[i++] = t.length();
+            spans[i++] = t.getType();
+        }
+        TokenImpl[] tokens = new TokenImpl[nullTerminated ? size + 1 : size];
+        for (int k = 0; k < tokens.length; k++) {
+            tokens[k] = new TokenImpl();
+        }
+        int hash = hash(array, start, count, startType);
+        slots[hash & (slots.length - 1)] = new Entry(Arrays.copyOfRange(array, start, start + count),
+                startType, hash, spans, tokens, keywordMask);
+    }
+
+    /**
+     * Removes the lines containing any of some keywords.
+     *
+     * @param keywordMask the mask of the keyword slots
+     */
+    void invalidate(long keywordMask) {
+        if (keywordMask == 0) {
+            return;
+        }
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != null && (slots[i].keywordMask & keywordMask) != 0) {
+                slots[i] = null;
+            }
+        }
+    }
+
+    private static int hash(char[] array, int start, int count, int startType) {
+        // Polynomial hash over four characters per step, which shortens the
+        // chain of dependent multiplications
+        int hash = startType;
+        int i = start;
+        int end = start + count;
+        for (; i + 3 < end; i += 4) {
+            hash = 923_521 * hash + 29_791 * array[i] + 961 * array[i + 1] + 31 * array[i + 2] + array[i + 3];
+        }
+        for (; i < end; i++) {
+            hash = 31 * hash + array[i];
+        }
+        // Spread the high bits into the slot index
+        return hash ^ (hash >>> 16);
+    }
+
+    long getHits() {
+        return hits;
+    }
+
+    long getMisses() {
+        return misses;
+    }
+
+    int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Removes all entries and resets the counters.
+     */
+    void clear() {
+        Arrays.fill(slots, null);
+        hits = 0;
+        misses = 0;
+    }
+}
@@ -0,0 +1,35 @@
+package de.febrildur.sieveeditor.ui;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+
+/**
+ * Copies the text of a document for work in the background. The copy is
+ * taken under the document's read lock, so it never sees half an edit.
+ */
+final class DocumentSnapshot {
+
+	private DocumentSnapshot() {
+	}
+
+	/**
+	 * Copies the whole text of a document.
+	 *
+	 * @param document the document
+	 * @return the text
+	 */
+	static String of(Document document) {
+		String[] text = new String[1];
+		document.render(() -> {
+			try {
+				text[0] = document.getText(0, document.getLength());
+			} catch (BadLocationException e) {
+				text[0] = ""; // Can't happen: the range is read under the lock
+			}
+		});
+		return text[0];
+	}
+}
@@ -0,0 +1,216 @@
+package de.febrildur.sieveeditor.ui;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.FlowLayout;
+import java.awt.Font;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.text.BadLocationException;
+
+import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
+import org.fife.ui.rtextarea.RTextScrollPane;
+
+import de.febrildur.sieveeditor.util.ThreeWayMerge;
+
+/**
+ * Shows the result of a three-way merge between the editor buffer and a
+ * changed server copy. Non-conflicting changes are already applied; each
+ * remaining conflict can be resolved with one click or edited by hand.
+ */
+public class MergeDialog extends JDialog {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final Color CONFLICT_HIGHLIGHT = new Color(255, 228, 225);
+
+	private final RSyntaxTextArea mergedArea = new RSyntaxTextArea(30, 90);
+	private final JLabel statusLabel = new JLabel();
+	private String result;
+
+	public MergeDialog(JFrame parent, ThreeWayMerge.MergeResult merge) {
+		super(parent, "Merge Server Changes", true);
+		initComponents(merge);
+	}
+
+	private void initComponents(ThreeWayMerge.MergeResult merge) {
+		setLayout(new BorderLayout(5, 5));
+
+		JLabel summary = new JLabel(merge.getAutoMergedCount() + " change(s) merged automatically, "
+			+ merge.getConflictCount() + " conflict(s) need a decision.");
+		summary.setBorder(BorderFactory.createEmptyBorder(8, 8, 0, 8));
+		add(summary, BorderLayout.NORTH);
+
+		mergedArea.setSyntaxEditingStyle("text/sieve");
+		mergedArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 13));
+		mergedArea.setText(merge.getMergedText());
+		mergedArea.setCaretPosition(0);
+		mergedArea.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+			@Override
+			public void insertUpdate(javax.swing.event.DocumentEvent e) {
+				SwingUtilities.invokeLater(MergeDialog.this::updateConflicts);
+			}
+
+			@Override
+			public void removeUpdate(javax.swing.event.DocumentEvent e) {
+				SwingUtilities.invokeLater(MergeDialog.this::updateConflicts);
+			}
+
+			@Override
+			public void changedUpdate(javax.swing.event.DocumentEvent e) {
+				// Attribute changes only
+			}
+		});
+		add(new RTextScrollPane(mergedArea), BorderLayout.CENTER);
+
+		JPanel resolvePanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 6, 6));
+		JButton nextButton = new JButton("Next Conflict");
+		nextButton.addActionListener(e -> selectNextConflict());
+		JButton oursButton = new JButton("Keep Mine");
+		oursButton.setToolTipText("Resolve the conflict at the caret with the editor version");
+		oursButton.addActionListener(e -> resolve(ThreeWayMerge.Side.OURS));
+		JButton theirsButton = new JButton("Keep Server");
+		theirsButton.setToolTipText("Resolve the conflict at the caret with the server version");
+		theirsButton.addActionListener(e -> resolve(ThreeWayMerge.Side.THEIRS));
+		JButton bothButton = new JButton("Keep Both");
+		bothButton.setToolTipText("Keep the editor version followed by the server version");
+		bothButton.addActionListener(e -> resolve(ThreeWayMerge.Side.BOTH));
+		resolvePanel.add(nextButton);
+		resolvePanel.add(oursButton);
+		resolvePanel.add(theirsButton);
+		resolvePanel.add(bothButton);
+		resolvePanel.add(statusLabel);
+
+		JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 6));
+		JButton applyButton = new JButton("Use Merged Script");
+		applyButton.addActionListener(e -> apply());
+		JButton cancelButton = new JButton("Cancel");
+		cancelButton.addActionListener(e -> {
+			result = null;
+			dispose();
+		});
+		buttonPanel.add(applyButton);
+		buttonPanel.add(cancelButton);
+
+		JPanel south = new JPanel(new BorderLayout());
+		south.add(resolvePanel, BorderLayout.CENTER);
+		south.add(buttonPanel, BorderLayout.SOUTH);
+		add(south, BorderLayout.SOUTH);
+
+		updateConflicts();
+		if (merge.hasConflicts()) {
+			selectNextConflict();
+		}
+
+		pack();
+		setLocationRelativeTo(getParent());
+	}
+
+	/**
+	 * Resolves the conflict at (or after) the caret.
+	 */
+	void resolve(ThreeWayMerge.Side side) {
+		int caret = mergedArea.getCaretPosition();
+		int[] block = ThreeWayMerge.findConflict(mergedArea.getText(), caret);
+		if (block == null) {
+			return;
+		}
+		// Replace only the block so the edit stays undoable in one step
+		String text = mergedArea.getText();
+		String replacement = ThreeWayMerge.resolveConflict(text.substring(block[0], block[4]), 0, side);
+		mergedArea.replaceRange(replacement, block[0], block[4]);
+		mergedArea.setCaretPosition(Math.min(block[0], mergedArea.getDocument().getLength()));
+		selectNextConflict();
+	}
+
+	private void selectNextConflict() {
+		String text = mergedArea.getText();
+		int[] block = ThreeWayMerge.findConflict(text, mergedArea.getCaretPosition());
+		if (block == null) {
+			block = ThreeWayMerge.findConflict(text, 0);
+		}
+		if (block != null) {
+			mergedArea.setCaretPosition(block[0]);
+			mergedArea.requestFocusInWindow();
+		}
+	}
+
+	private void updateConflicts() {
+		String text = mergedArea.getText();
+		int conflicts = ThreeWayMerge.countConflicts(text);
+		statusLabel.setText(conflicts == 0 ? "All conflicts resolved." : conflicts + " conflict(s) remaining");
+
+		mergedArea.removeAllLineHighlights();
+		int[] block = ThreeWayMerge.findConflict(text, 0);
+		while (block != null) {
+			try {
+				int first = mergedArea.getLineOfOffset(block[0]);
+				int last = mergedArea.getLineOfOffset(Math.max(block[0], block[4] - 1));
+				for (int line = first; line <= last; line++) {
+					mergedArea.addLineHighlight(line, CONFLICT_HIGHLIGHT);
+				}
+			} catch (BadLocationException e) {
+				// Text changed underneath us - next update repaints
+				break;
+			}
+			block = ThreeWayMerge.findConflict(text, block[4] + 1);
+		}
+	}
+
+	private void apply() {
+		String text = mergedArea.getText();
+		if (ThreeWayMerge.countConflicts(text) > 0) {
+			JOptionPane.showMessageDialog(this,
+				"Please resolve all conflicts first.",
+				"Unresolved Conflicts", JOptionPane.WARNING_MESSAGE);
+			selectNextConflict();
+			return;
+		}
+		result = text;
+		dispose();
+	}
+
+	String getMergedText() {
+		return mergedArea.getText();
+	}
+
+	/**
+	 * Gets the accepted merge result.
+	 *
+	 * @return the merged script, or null if the dialog was cancelled
+	 */
+	public String getResult() {
+		return result;
+	}
+
+	/**
+	 * Shows the merge dialog and waits for the user.
+	 *
+	 * @param parent parent component
+	 * @param merge the merge result to review
+	 * @return the merged script, or null if cancelled
+	 */
+	public static String showMergeDialog(Component parent, ThreeWayMerge.MergeResult merge) {
+		JFrame frame = null;
+		if (parent instanceof JFrame parentFrame) {
+			frame = parentFrame;
+		} else if (parent != null) {
+			frame = (JFrame) SwingUtilities.getWindowAncestor(parent);
+		}
+
+		MergeDialog dialog = new MergeDialog(frame, merge);
+		dialog.setVisible(true);
+		return dialog.getResult();
+	}
+}
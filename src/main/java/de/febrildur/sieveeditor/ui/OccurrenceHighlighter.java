@@ -0,0 +1,242 @@
+package de.febrildur.sieveeditor.ui;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import javax.swing.event.CaretEvent;
+import javax.swing.event.CaretListener;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Highlighter;
+
+import org.fife.ui.rsyntaxtextarea.DocumentRange;
+import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
+import org.fife.ui.rsyntaxtextarea.Token;
+import org.fife.ui.rtextarea.SmartHighlightPainter;
+
+import de.febrildur.sieveeditor.system.OccurrenceIndex;
+
+/**
+ * Highlights the other uses of the identifier or string at the caret.
+ *
+ * <p>RSyntaxTextArea's own mark occurrences scans every token of the
+ * document on each caret move, which is slow on long scripts. Here an
+ * {@link OccurrenceIndex} of the whole script is built by a
+ * {@link SwingWorker} after the edits settle, and a caret move only looks
+ * the token up in it. Until the index of the current text is ready nothing
+ * is marked; an edit bumps a generation counter and cancels the running
+ * build, so only an index of the latest text is ever adopted.
+ *
+ * <p>All methods must be called on the EDT.
+ */
+public class OccurrenceHighlighter implements CaretListener, DocumentListener {
+
+	private static final Logger LOGGER = Logger.getLogger(OccurrenceHighlighter.class.getName());
+
+	/** Delay after the last caret move or edit. */
+	public static final int DEFAULT_DELAY_MS = 300;
+
+	private final RSyntaxTextArea textArea;
+	private final Document document;
+	private final SmartHighlightPainter painter;
+	private final Timer timer;
+	private final List<Object> marks = new ArrayList<>();
+
+	private long generation = 0;
+	private OccurrenceIndex index; // null while stale
+	private SwingWorker<OccurrenceIndex, Void> worker;
+
+	/**
+	 * Creates a highlighter with the default delay and starts following the
+	 * caret and the document.
+	 *
+	 * @param textArea the editor
+	 */
+	public OccurrenceHighlighter(RSyntaxTextArea textArea) {
+		this(textArea, DEFAULT_DELAY_MS);
+	}
+
+	/**
+	 * Creates a highlighter and starts following the caret and the document.
+	 *
+	 * @param textArea the editor
+	 * @param delayMs delay after the last caret move or edit
+	 */
+	public OccurrenceHighlighter(RSyntaxTextArea textArea, int delayMs) {
+		this.textArea = textArea;
+		this.document = textArea.getDocument();
+		this.painter = new SmartHighlightPainter(textArea.getMarkOccurrencesColor());
+		this.timer = new Timer(delayMs, e -> update());
+		this.timer.setRepeats(false); // Only fire once after delay
+		textArea.addCaretListener(this);
+		document.addDocumentListener(this);
+		timer.start();
+	}
+
+	/**
+	 * Stops following the editor and removes the marks.
+	 */
+	public void dispose() {
+		textArea.removeCaretListener(this);
+		document.removeDocumentListener(this);
+		timer.stop();
+		cancelBuild();
+		clearMarks();
+	}
+
+	/**
+	 * Gets the index of the current text.
+	 *
+	 * @return the index, or null while it is being rebuilt
+	 */
+	public OccurrenceIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * Gets the marked occurrences.
+	 *
+	 * @return the marked ranges in document order
+	 */
+	public List<DocumentRange> getMarkedOccurrences() {
+		List<DocumentRange> ranges = new ArrayList<>(marks.size());
+		for (Object mark : marks) {
+			Highlighter.Highlight highlight = (Highlighter.Highlight) mark;
+			ranges.add(new DocumentRange(highlight.getStartOffset(), highlight.getEndOffset()));
+		}
+		return ranges;
+	}
+
+	@Override
+	public void caretUpdate(CaretEvent e) {
+		timer.restart();
+	}
+
+	@Override
+	public void insertUpdate(DocumentEvent e) {
+		edited();
+	}
+
+	@Override
+	public void removeUpdate(DocumentEvent e) {
+		edited();
+	}
+
+	@Override
+	public void changedUpdate(DocumentEvent e) {
+		// Attribute changes don't move any occurrence
+	}
+
+	private void edited() {
+		generation++;
+		index = null;
+		cancelBuild();
+		clearMarks();
+		timer.restart();
+	}
+
+	private void update() {
+		if (index != null) {
+			mark();
+		} else if (worker == null) {
+			startBuild();
+		}
+	}
+
+	private void startBuild() {
+		String snapshot = DocumentSnapshot.of(document);
+		long built = generation;
+
+		worker = new SwingWorker<>() {
+			@Override
+			protected OccurrenceIndex doInBackground() {
+				return OccurrenceIndex.build(snapshot, this::isCancelled);
+			}
+
+			@Override
+			protected void done() {
+				if (isCancelled() || built != generation) {
+					return; // Superseded by a newer edit
+				}
+				worker = null;
+				try {
+					index = get();
+					mark();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} catch (ExecutionException e) {
+					LOGGER.log(Level.WARNING, "Occurrence indexing failed", e.getCause());
+				}
+			}
+		};
+		worker.execute();
+	}
+
+	private void cancelBuild() {
+		if (worker != null) {
+			worker.cancel(false);
+			worker = null;
+		}
+	}
+
+	/**
+	 * Marks the uses of the token at the caret, looked up in the index.
+	 */
+	private void mark() {
+		clearMarks();
+		if (index == null || index.getLength() != document.getLength()) {
+			return;
+		}
+		Token token = tokenAtCaret();
+		if (token == null) {
+			return;
+		}
+		String lexeme = token.getLexeme();
+		int[] offsets = index.find(lexeme);
+		if (Arrays.binarySearch(offsets, token.getOffset()) < 0) {
+			return; // Not a use itself, e.g. a line of a text: literal
+		}
+		Highlighter highlighter = textArea.getHighlighter();
+		try {
+			for (int offset : offsets) {
+				marks.add(highlighter.addHighlight(offset, offset + lexeme.length(), painter));
+			}
+		} catch (BadLocationException e) {
+			// Can't happen: the index matches the document length and is dropped on edits
+			LOGGER.log(Level.FINE, "Stale occurrence index", e);
+			clearMarks();
+		}
+	}
+
+	/**
+	 * Gets the markable token at the caret or, like RSyntaxTextArea, the one
+	 * just before it.
+	 */
+	private Token tokenAtCaret() {
+		int dot = textArea.getCaretPosition();
+		Token token = textArea.modelToToken(dot);
+		if ((token == null || !OccurrenceIndex.isIndexed(token)) && dot > 0) {
+			token = textArea.modelToToken(dot - 1);
+		}
+		return token != null && OccurrenceIndex.isIndexed(token) ? token : null;
+	}
+
+	private void clearMarks() {
+		Highlighter highlighter = textArea.getHighlighter();
+		for (Object mark : marks) {
+			highlighter.removeHighlight(mark);
+		}
+		marks.clear();
+	}
+}
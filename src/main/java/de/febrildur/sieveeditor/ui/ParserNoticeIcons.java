@@ -0,0 +1,107 @@
+package de.febrildur.sieveeditor.ui;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.Icon;
+import javax.swing.text.BadLocationException;
+
+import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
+import org.fife.ui.rsyntaxtextarea.parser.ParserNotice;
+import org.fife.ui.rtextarea.Gutter;
+
+import com.formdev.flatlaf.util.UIScale;
+
+/**
+ * Shows an icon in the gutter next to every line with a parser notice,
+ * with the message as tool tip. The icons follow the notices: they are
+ * replaced whenever the text area reports new notices.
+ */
+public class ParserNoticeIcons implements PropertyChangeListener {
+
+	private static final Logger LOGGER = Logger.getLogger(ParserNoticeIcons.class.getName());
+
+	private final RSyntaxTextArea textArea;
+	private final Gutter gutter;
+
+	/**
+	 * Enables the icon row of the gutter and starts following the notices.
+	 *
+	 * @param textArea the text area whose notices are shown
+	 * @param gutter the gutter of the text area's scroll pane
+	 */
+	public ParserNoticeIcons(RSyntaxTextArea textArea, Gutter gutter) {
+		this.textArea = textArea;
+		this.gutter = gutter;
+		gutter.setIconRowHeaderEnabled(true);
+		textArea.addPropertyChangeListener(RSyntaxTextArea.PARSER_NOTICES_PROPERTY, this);
+	}
+
+	/**
+	 * Stops following the notices and removes the icons.
+	 */
+	public void dispose() {
+		textArea.removePropertyChangeListener(RSyntaxTextArea.PARSER_NOTICES_PROPERTY, this);
+		gutter.removeAllTrackingIcons();
+	}
+
+	@Override
+	public void propertyChange(PropertyChangeEvent evt) {
+		gutter.removeAllTrackingIcons();
+		for (ParserNotice notice : textArea.getParserNotices()) {
+			if (notice.getLine() < 0 || notice.getLine() >= textArea.getLineCount()) {
+				continue;
+			}
+			try {
+				gutter.addLineTrackingIcon(notice.getLine(), new NoticeIcon(notice.getColor()), notice.getMessage());
+			} catch (BadLocationException e) {
+				LOGGER.log(Level.FINE, "Notice for a removed line", e);
+			}
+		}
+	}
+
+	/**
+	 * A dot in the color of a notice.
+	 */
+	private static final class NoticeIcon implements Icon {
+
+		private final Color color;
+		private final int size = UIScale.scale(8);
+
+		NoticeIcon(Color color) {
+			this.color = color != null ? color : Color.RED;
+		}
+
+		@Override
+		public void paintIcon(Component c, Graphics g, int x, int y) {
+			Graphics2D g2 = (Graphics2D) g.create();
+			try {
+				g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+				g2.setColor(color);
+				g2.fillOval(x, y, size, size);
+			} finally {
+				g2.dispose();
+			}
+		}
+
+		@Override
+		public int getIconWidth() {
+			return size;
+		}
+
+		@Override
+		public int getIconHeight() {
+			return size;
+		}
+	}
+}
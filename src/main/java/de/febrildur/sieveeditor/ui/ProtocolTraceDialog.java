@@ -0,0 +1,104 @@
+package de.febrildur.sieveeditor.ui;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.Toolkit;
+import java.awt.datatransfer.StringSelection;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+
+import de.febrildur.sieveeditor.system.ProtocolTrace;
+
+/**
+ * Shows the recent ManageSieve exchanges recorded by {@link ProtocolTrace}.
+ * The text can be copied to the clipboard for bug reports.
+ */
+public class ProtocolTraceDialog extends JDialog {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient ProtocolTrace trace;
+    private final JTextArea traceArea = new JTextArea(24, 100);
+
+    public ProtocolTraceDialog(JFrame parent, ProtocolTrace trace) {
+        super(parent, "ManageSieve Protocol Trace", false);
+        this.trace = trace;
+        initComponents();
+    }
+
+    private void initComponents() {
+        setLayout(new BorderLayout(5, 5));
+
+        traceArea.setEditable(false);
+        traceArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        traceArea.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        add(new JScrollPane(traceArea), BorderLayout.CENTER);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 10));
+
+        JButton refreshButton = new JButton("Refresh");
+        refreshButton.addActionListener(e -> refresh());
+
+        JButton copyButton = new JButton("Copy");
+        copyButton.setToolTipText("Copy the trace to the clipboard");
+        copyButton.addActionListener(e -> Toolkit.getDefaultToolkit().getSystemClipboard()
+            .setContents(new StringSelection(traceArea.getText()), null));
+
+        JButton clearButton = new JButton("Clear");
+        clearButton.addActionListener(e -> {
+            trace.clear();
+            refresh();
+        });
+
+        JButton closeButton = new JButton("Close");
+        closeButton.addActionListener(e -> dispose());
+
+        buttonPanel.add(refreshButton);
+        buttonPanel.add(copyButton);
+        buttonPanel.add(clearButton);
+        buttonPanel.add(closeButton);
+        add(buttonPanel, BorderLayout.SOUTH);
+
+        getRootPane().setDefaultButton(closeButton);
+        refresh();
+
+        pack();
+        setLocationRelativeTo(getParent());
+    }
+
+    /**
+     * Reloads the dump from the trace buffer.
+     */
+    public void refresh() {
+        traceArea.setText(trace.dump());
+        // Newest exchanges are at the bottom
+        traceArea.setCaretPosition(traceArea.getDocument().getLength());
+    }
+
+    String getTraceText() {
+        return traceArea.getText();
+    }
+
+    public static void showTraceDialog(Component parent, ProtocolTrace trace) {
+        JFrame frame = null;
+        if (parent instanceof JFrame parentFrame) {
+            frame = parentFrame;
+        } else if (parent != null) {
+            frame = (JFrame) SwingUtilities.getWindowAncestor(parent);
+        }
+        ProtocolTraceDialog dialog = new ProtocolTraceDialog(frame, trace);
+        dialog.setVisible(true);
+    }
+}
@@ -10,6 +10,9 @@ import de.febrildur.sieveeditor.parser.SieveWarning;
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
 import java.awt.*;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiPredicate;
 import java.util.function.Consumer;
 
 /**
@@ -223,18 +226,30 @@ public class RuleNavigatorPanel extends JPanel {
 			return;
 		}
 
-		SieveRuleParser.ParseResult result = SieveRuleParser.parseRules(scriptText);
+		showResult(SieveRuleParser.parseRules(scriptText));
+	}
 
-		// Add rules to list
-		for (SieveRule rule : result.getRules()) {
-			listModel.addElement(rule);
-		}
+	/**
+	 * Updates the navigator with an already parsed result, e.g. from an
+	 * {@link de.febrildur.sieveeditor.parser.IncrementalRuleParser}.
+	 *
+	 * <p>Only rules and warnings that differ from the shown ones are replaced,
+	 * so the selection and a warning's cycling position survive the update
+	 * and the lists repaint just the changed rows.
+	 *
+	 * @param result the rules and warnings to show
+	 */
+	public void showRules(SieveRuleParser.ParseResult result) {
+		showResult(result);
+	}
+
+	private void showResult(SieveRuleParser.ParseResult result) {
+		// Update rules list
+		applyDiff(listModel, result.getRules(), RuleNavigatorPanel::sameRule);
 
 		// Show warnings if any
+		applyDiff(warningListModel, result.getWarnings(), RuleNavigatorPanel::sameWarning);
 		if (result.hasWarnings()) {
-			for (SieveWarning warning : result.getWarnings()) {
-				warningListModel.addElement(warning);
-			}
 			warningScrollPane.setVisible(true);
 
 			// Auto-size warning panel based on number of warnings
@@ -242,6 +257,7 @@ public class RuleNavigatorPanel extends JPanel {
 			SwingUtilities.invokeLater(() -> autoSizeWarningPanel(result.getWarnings().size()));
 		} else {
 			// Hide warnings panel by moving divider to bottom
+			warningScrollPane.setVisible(false);
 			splitPane.setDividerLocation(1.0);
 		}
 
@@ -249,6 +265,50 @@ public class RuleNavigatorPanel extends JPanel {
 		updateTitle(result.getRules().size());
 	}
 
+	/**
+	 * Makes a list model equal to a list by replacing only the part between
+	 * the common prefix and the common suffix.
+	 */
+	static <T> void applyDiff(DefaultListModel<T> model, List<T> items, BiPredicate<T, T> same) {
+		int oldSize = model.getSize();
+		int newSize = items.size();
+		int prefix = 0;
+		while (prefix < oldSize && prefix < newSize && same.test(model.getElementAt(prefix), items.get(prefix))) {
+			prefix++;
+		}
+		int suffix = 0;
+		while (suffix < oldSize - prefix && suffix < newSize - prefix
+				&& same.test(model.getElementAt(oldSize - 1 - suffix), items.get(newSize - 1 - suffix))) {
+			suffix++;
+		}
+
+		int oldEnd = oldSize - suffix;
+		int newEnd = newSize - suffix;
+		int common = Math.min(oldEnd, newEnd);
+		for (int i = prefix; i < common; i++) {
+			if (!same.test(model.getElementAt(i), items.get(i))) {
+				model.set(i, items.get(i));
+			}
+		}
+		if (oldEnd > newEnd) {
+			model.removeRange(newEnd, oldEnd - 1);
+		} else if (newEnd > oldEnd) {
+			model.addAll(oldEnd, items.subList(oldEnd, newEnd));
+		}
+	}
+
+	private static boolean sameRule(SieveRule a, SieveRule b) {
+		return a.getRuleNumber() == b.getRuleNumber()
+			&& a.getLineNumber() == b.getLineNumber()
+			&& Objects.equals(a.getComment(), b.getComment());
+	}
+
+	private static boolean sameWarning(SieveWarning a, SieveWarning b) {
+		return a.getSeverity() == b.getSeverity()
+			&& Objects.equals(a.getMessage(), b.getMessage())
+			&& a.getLineNumbers().equals(b.getLineNumbers());
+	}
+
 	/**
 	 * Updates the panel title with rule count.
 	 */
@@ -0,0 +1,404 @@
+package de.febrildur.sieveeditor.ui;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.Document;
+
+import de.febrildur.sieveeditor.parser.DocumentRuleScanner;
+import de.febrildur.sieveeditor.parser.IncrementalRuleParser;
+import de.febrildur.sieveeditor.parser.ParseResultCache;
+import de.febrildur.sieveeditor.parser.SieveRuleParser;
+import de.febrildur.sieveeditor.parser.ast.ScriptNode;
+import de.febrildur.sieveeditor.parser.lint.LintEngine;
+import de.febrildur.sieveeditor.parser.lint.LintReport;
+
+/**
+ * Refreshes the rule navigator after edits without parsing on the EDT.
+ *
+ * <p>Small edits are already handled by the {@link IncrementalRuleParser}, so
+ * after the debounce delay its result is simply published. After a large
+ * edit such as loading a script the parser is stale; the document text is
+ * then copied and scanned by a {@link SwingWorker}, unless the same text
+ * is still in the {@link ParseResultCache}. Every edit bumps a
+ * generation counter and cancels the running scan, so only a scan of the
+ * latest text is ever adopted and published.
+ *
+ * <p>The debounce delay adapts to the measured cost: each refresh records
+ * how long parsing took and how large the document was, and the next
+ * delay grows with both, between {@link #MIN_DELAY_MS} and
+ * {@link #MAX_DELAY_MS}. So that continuous typing can't hold the navigator
+ * back forever, a refresh is forced once the first unpublished edit is
+ * older than the maximum wait. The measurements are available through
+ * {@link #getMetrics()} and logged at FINE level.
+ *
+ * <p>With a {@link LintEngine} set, the scripts passed to {@link #lint}
+ * are linted in the background. They come from the syntax check, which
+ * parses the text anyway, so linting needs neither another copy of the
+ * document nor another parse. The findings are merged into the warnings
+ * of each published result until the next lint run replaces them.
+ *
+ * <p>All methods must be called on the EDT.
+ */
+public class RuleNavigatorUpdater implements DocumentListener {
+
+	private static final Logger LOGGER = Logger.getLogger(RuleNavigatorUpdater.class.getName());
+
+	/** Shortest debounce delay, used for small and cheap scripts. */
+	public static final int MIN_DELAY_MS = 100;
+
+	/** Longest debounce delay, used for huge or expensive scripts. */
+	public static final int MAX_DELAY_MS = 2000;
+
+	private static final int MIN_MAX_WAIT_MS = 1000;
+	private static final int MAX_MAX_WAIT_MS = 10_000;
+
+	/**
+	 * Measured refresh cost and the delays derived from it.
+	 *
+	 * @param refreshes number of measured refreshes
+	 * @param lastParseMicros duration of the last parse
+	 * @param averageParseMicros moving average of the parse duration
+	 * @param documentLength document length at the last refresh
+	 * @param delayMs current debounce delay
+	 * @param maxWaitMs current maximum time between an edit and a refresh
+	 * @param forcedRefreshes refreshes forced by the maximum wait
+	 * @param cacheHits background scans answered from the cache
+	 * @param cacheMisses background scans that had to parse
+	 */
+	public record Metrics(long refreshes, long lastParseMicros, long averageParseMicros, int documentLength,
+			int delayMs, int maxWaitMs, long forcedRefreshes, long cacheHits, long cacheMisses) {
+	}
+
+	private final Document document;
+	private final IncrementalRuleParser parser;
+	private final Consumer<SieveRuleParser.ParseResult> publisher;
+	private final Timer debounceTimer;
+	private final ParseResultCache cache = new ParseResultCache();
+	private final int minDelayMs;
+	private final int maxDelayMs;
+	private final LongSupplier clock;
+
+	private long generation = 0;
+	private long firstPendingEdit = 0; // Clock time in ns of the oldest unpublished edit, 0 if none
+	private long refreshes = 0;
+	private long forcedRefreshes = 0;
+	private long lastParseMicros = 0;
+	private long averageParseMicros = 0;
+	private int documentLength = 0;
+	private int delayMs;
+	private SwingWorker<SieveRuleParser.ParseResult, Void> worker;
+	private SieveRuleParser.ParseResult published;
+	private LintEngine lintEngine;
+	private Supplier<Predicate<String>> serverExtensions;
+	private SwingWorker<LintReport, Void> lintWorker;
+	private LintReport lintReport;
+
+	/**
+	 * Creates an updater with the default delay bounds and starts listening
+	 * to the document.
+	 *
+	 * @param document the editor document
+	 * @param parser the incremental parser following the same document
+	 * @param publisher receives each new result on the EDT
+	 */
+	public RuleNavigatorUpdater(Document document, IncrementalRuleParser parser,
+			Consumer<SieveRuleParser.ParseResult> publisher) {
+		this(document, parser, MIN_DELAY_MS, MAX_DELAY_MS, publisher);
+	}
+
+	/**
+	 * Creates an updater and starts listening to the document.
+	 *
+	 * @param document the editor document
+	 * @param parser the incremental parser following the same document
+	 * @param minDelayMs shortest debounce delay after the last edit
+	 * @param maxDelayMs longest debounce delay after the last edit
+	 * @param publisher receives each new result on the EDT
+	 */
+	public RuleNavigatorUpdater(Document document, IncrementalRuleParser parser, int minDelayMs, int maxDelayMs,
+			Consumer<SieveRuleParser.ParseResult> publisher) {
+		this(document, parser, minDelayMs, maxDelayMs, publisher, System::nanoTime);
+	}
+
+	RuleNavigatorUpdater(Document document, IncrementalRuleParser parser, int minDelayMs, int maxDelayMs,
+			Consumer<SieveRuleParser.ParseResult> publisher, LongSupplier clock) {
+		this.document = document;
+		this.parser = parser;
+		this.publisher = publisher;
+		this.minDelayMs = minDelayMs;
+		this.maxDelayMs = maxDelayMs;
+		this.clock = clock;
+		this.delayMs = minDelayMs;
+		this.debounceTimer = new Timer(minDelayMs, e -> debounceElapsed());
+		this.debounceTimer.setRepeats(false); // Only fire once after delay
+		document.addDocumentListener(this);
+	}
+
+	/**
+	 * Publishes the current rules right away, even if they were published before.
+	 */
+	public void refreshNow() {
+		refresh(true);
+	}
+
+	/**
+	 * Sets the engine that lints the scripts passed to {@link #lint}.
+	 *
+	 * @param engine the lint engine, or null to stop linting
+	 * @param serverExtensions supplies the server's extensions, or null if unknown
+	 */
+	public void setLintEngine(LintEngine engine, Supplier<Predicate<String>> serverExtensions) {
+		this.lintEngine = engine;
+		this.serverExtensions = serverExtensions;
+		this.lintReport = null;
+		cancelLint();
+	}
+
+	/**
+	 * Stops listening and cancels any pending work.
+	 */
+	public void dispose() {
+		document.removeDocumentListener(this);
+		debounceTimer.stop();
+		cancelScan();
+		cancelLint();
+	}
+
+	/**
+	 * Checks whether a background scan is running.
+	 *
+	 * @return true while a scan of a snapshot is in progress
+	 */
+	public boolean isScanning() {
+		return worker != null && !worker.isDone();
+	}
+
+	/**
+	 * Checks whether every edit has been handled: no refresh is waiting for
+	 * the debounce delay and no scan result is still to be delivered.
+	 */
+	boolean isIdle() {
+		return firstPendingEdit == 0 && worker == null;
+	}
+
+	/**
+	 * Gets the delay the debounce timer was last started with.
+	 */
+	int getDebounceDelayMs() {
+		return debounceTimer.getInitialDelay();
+	}
+
+	/**
+	 * Called by the debounce timer once the delay after the last edit, or
+	 * the maximum wait, has passed.
+	 */
+	void debounceElapsed() {
+		refresh(false);
+	}
+
+	@Override
+	public void insertUpdate(DocumentEvent e) {
+		edited();
+	}
+
+	@Override
+	public void removeUpdate(DocumentEvent e) {
+		edited();
+	}
+
+	@Override
+	public void changedUpdate(DocumentEvent e) {
+		// Attribute changes don't affect the rules
+	}
+
+	/**
+	 * Gets the current measurements.
+	 *
+	 * @return a snapshot of the metrics
+	 */
+	public Metrics getMetrics() {
+		return new Metrics(refreshes, lastParseMicros, averageParseMicros, documentLength,
+			delayMs, maxWait(delayMs), forcedRefreshes, cache.getHits(), cache.getMisses());
+	}
+
+	private void edited() {
+		generation++;
+		cancelScan();
+		cancelLint();
+
+		long now = clock.getAsLong();
+		if (firstPendingEdit == 0) {
+			firstPendingEdit = now;
+		}
+		long waitedMs = (now - firstPendingEdit) / 1_000_000;
+		long remainingMs = Math.max(0, maxWait(delayMs) - waitedMs);
+		debounceTimer.setInitialDelay((int) Math.min(delayMs, remainingMs));
+		debounceTimer.restart();
+	}
+
+	private void refresh(boolean force) {
+		debounceTimer.stop();
+		if (firstPendingEdit != 0 && (clock.getAsLong() - firstPendingEdit) / 1_000_000 >= maxWait(delayMs)) {
+			forcedRefreshes++;
+		}
+		firstPendingEdit = 0;
+		if (!parser.isStale()) {
+			long started = clock.getAsLong();
+			SieveRuleParser.ParseResult result = parser.getResult();
+			deliver(result, force);
+			measured(clock.getAsLong() - started);
+			return;
+		}
+		if (!isScanning()) {
+			startScan();
+		}
+	}
+
+	private void startScan() {
+		// Copying the text is a fast array copy; scanning it is the slow part
+		String snapshot = DocumentSnapshot.of(document);
+		long scanned = generation;
+
+		worker = new SwingWorker<>() {
+			private long parseNanos;
+
+			@Override
+			protected SieveRuleParser.ParseResult doInBackground() {
+				long started = clock.getAsLong();
+				SieveRuleParser.ParseResult result = cache.get(snapshot,
+					text -> DocumentRuleScanner.scan(text, this::isCancelled));
+				parseNanos = clock.getAsLong() - started;
+				return result;
+			}
+
+			@Override
+			protected void done() {
+				if (worker == this) {
+					worker = null;
+				}
+				if (isCancelled() || scanned != generation) {
+					return; // Superseded by a newer edit
+				}
+				try {
+					SieveRuleParser.ParseResult result = get();
+					if (result != null) {
+						parser.adopt(result);
+						deliver(parser.getResult(), true);
+						measured(parseNanos);
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} catch (ExecutionException e) {
+					LOGGER.log(Level.WARNING, "Rule scan failed", e.getCause());
+				}
+			}
+		};
+		worker.execute();
+	}
+
+	/**
+	 * Lints a script in the background and merges the findings into the
+	 * published rules.
+	 *
+	 * @param script the script parsed from the current document text
+	 */
+	public void lint(ScriptNode script) {
+		if (lintEngine == null) {
+			return;
+		}
+		cancelLint();
+		Predicate<String> extensions = serverExtensions != null ? serverExtensions.get() : null;
+		LintEngine engine = lintEngine;
+		long linted = generation;
+
+		lintWorker = new SwingWorker<>() {
+			@Override
+			protected LintReport doInBackground() {
+				return engine.lint(script, extensions);
+			}
+
+			@Override
+			protected void done() {
+				if (isCancelled() || linted != generation || engine != lintEngine) {
+					return; // Superseded by a newer edit
+				}
+				try {
+					lintReport = get();
+					if (published != null) {
+						publisher.accept(lintReport.mergeInto(published));
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} catch (ExecutionException e) {
+					LOGGER.log(Level.WARNING, "Lint failed", e.getCause());
+				}
+			}
+		};
+		lintWorker.execute();
+	}
+
+	private void cancelLint() {
+		if (lintWorker != null) {
+			lintWorker.cancel(false);
+			lintWorker = null;
+		}
+	}
+
+	private void cancelScan() {
+		if (worker != null) {
+			worker.cancel(false);
+			worker = null;
+		}
+	}
+
+	/**
+	 * Records a parse duration and derives the next delay from it.
+	 */
+	private void measured(long nanos) {
+		refreshes++;
+		lastParseMicros = nanos / 1000;
+		// Exponential moving average, weighting the newest sample by 1/4
+		averageParseMicros = refreshes == 1 ? lastParseMicros : (3 * averageParseMicros + lastParseMicros) / 4;
+		documentLength = document.getLength();
+		delayMs = computeDelay(averageParseMicros, documentLength, minDelayMs, maxDelayMs);
+		LOGGER.log(Level.FINE, "Navigator refresh: {0} us (avg {1} us), {2} chars, next delay {3} ms",
+			new Object[]{lastParseMicros, averageParseMicros, documentLength, delayMs});
+	}
+
+	/**
+	 * Computes the debounce delay: ten times the parse cost, so parsing takes
+	 * at most a tenth of the time while typing, plus 1 ms per 20k characters
+	 * to cover the cost of copying and repainting.
+	 */
+	static int computeDelay(long averageParseMicros, int documentLength, int minDelayMs, int maxDelayMs) {
+		long delay = minDelayMs + averageParseMicros / 100 + documentLength / 20_000;
+		return (int) Math.max(minDelayMs, Math.min(maxDelayMs, delay));
+	}
+
+	/**
+	 * Computes the longest time an edit may wait for a refresh.
+	 */
+	static int maxWait(int delayMs) {
+		return Math.max(MIN_MAX_WAIT_MS, Math.min(MAX_MAX_WAIT_MS, 5 * delayMs));
+	}
+
+	private void deliver(SieveRuleParser.ParseResult result, boolean force) {
+		if (force || result != published) {
+			published = result;
+			publisher.accept(lintReport != null ? lintReport.mergeInto(result) : result);
+		}
+	}
+}
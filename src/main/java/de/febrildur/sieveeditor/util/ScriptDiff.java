@@ -0,0 +1,540 @@
+package de.febrildur.sieveeditor.util;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import de.febrildur.sieveeditor.parser.RuleCommentMatcher;
+import de.febrildur.sieveeditor.parser.SieveFormatter;
+import de.febrildur.sieveeditor.parser.SieveParser;
+import de.febrildur.sieveeditor.parser.SyntaxError;
+import de.febrildur.sieveeditor.parser.ast.ArgumentNode;
+import de.febrildur.sieveeditor.parser.ast.CommandNode;
+import de.febrildur.sieveeditor.parser.ast.CommentNode;
+import de.febrildur.sieveeditor.parser.ast.NumberArgument;
+import de.febrildur.sieveeditor.parser.ast.ScriptNode;
+import de.febrildur.sieveeditor.parser.ast.StringArgument;
+import de.febrildur.sieveeditor.parser.ast.StringListArgument;
+import de.febrildur.sieveeditor.parser.ast.TagArgument;
+import de.febrildur.sieveeditor.parser.ast.TestNode;
+
+/**
+ * Semantic diff of two versions of a Sieve script, rule by rule.
+ *
+ * <p>Both versions are parsed and split into one section per rule comment
+ * ({@code ## Flag: |UniqueId:N |Rulename: ...}); the commands before the
+ * first rule comment form the script header. Each rule is printed in a
+ * canonical form, with names in lower case, tags in canonical order and
+ * strings and numbers by value, so layout, comments and spelling
+ * differences don't count as changes.
+ *
+ * <p>The diff works top down. Rules are matched by UniqueId in a hash map.
+ * Matched rules with the same canonical form are unchanged and not looked
+ * into further. For the others the conditions and actions are compared as
+ * multisets. Rules whose order changed are found with a longest increasing
+ * subsequence of their old positions in new order: the rules on it kept
+ * their order, the others moved. Everything runs in O(n log n) for n
+ * rules, plus parsing.
+ *
+ * <p>A UniqueId that appears more than once is matched by occurrence: the
+ * second rule with an ID in one version is matched with the second one in
+ * the other.
+ */
+public class ScriptDiff {
+
+	/** UniqueId given to the script header. */
+	public static final int HEADER_ID = -1;
+
+	/**
+	 * How a rule changed.
+	 */
+	public enum ChangeType {
+		/** Only in the new version. */
+		ADDED,
+		/** Only in the old version. */
+		REMOVED,
+		/** In both versions, with other name, conditions or actions. */
+		MODIFIED,
+		/** In both versions, in another order relative to the other rules. */
+		MOVED
+	}
+
+	/**
+	 * The change of one rule.
+	 */
+	public static class RuleChange {
+		private final Set<ChangeType> types;
+		private final int id;
+		private final String name;
+		private final String oldName;
+		private final int line;
+		private final int oldLine;
+		private final List<String> addedConditions;
+		private final List<String> removedConditions;
+		private final List<String> addedActions;
+		private final List<String> removedActions;
+
+		RuleChange(Set<ChangeType> types, Rule oldRule, Rule newRule) {
+			this.types = Collections.unmodifiableSet(types);
+			Rule rule = newRule != null ? newRule : oldRule;
+			this.id = rule.id;
+			this.name = rule.name;
+			this.oldName = oldRule != null ? oldRule.name : null;
+			this.line = newRule != null ? newRule.line : 0;
+			this.oldLine = oldRule != null ? oldRule.line : 0;
+			if (oldRule != null && newRule != null) {
+				this.addedConditions = subtract(newRule.conditions, oldRule.conditions);
+				this.removedConditions = subtract(oldRule.conditions, newRule.conditions);
+				this.addedActions = subtract(newRule.actions, oldRule.actions);
+				this.removedActions = subtract(oldRule.actions, newRule.actions);
+			} else {
+				this.addedConditions = List.of();
+				this.removedConditions = List.of();
+				this.addedActions = List.of();
+				this.removedActions = List.of();
+			}
+		}
+
+		public Set<ChangeType> getTypes() {
+			return types;
+		}
+
+		public boolean is(ChangeType type) {
+			return types.contains(type);
+		}
+
+		/** The UniqueId, or {@link ScriptDiff#HEADER_ID} for the script header. */
+		public int getId() {
+			return id;
+		}
+
+		/** The rule name, from the new version unless the rule was removed. */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Checks whether the rule comment names the rule differently.
+		 *
+		 * @return true if the rule is in both versions under other names
+		 */
+		public boolean isRenamed() {
+			return oldName != null && line > 0 && !oldName.equals(name);
+		}
+
+		/** The rule name in the old version, or null for added rules. */
+		public String getOldName() {
+			return oldName;
+		}
+
+		/** The 1-based line of the rule in the new version, or 0 if removed. */
+		public int getLine() {
+			return line;
+		}
+
+		/** The 1-based line of the rule in the old version, or 0 if added. */
+		public int getOldLine() {
+			return oldLine;
+		}
+
+		/** Conditions only the new version tests, in canonical form. */
+		public List<String> getAddedConditions() {
+			return addedConditions;
+		}
+
+		/** Conditions only the old version tests, in canonical form. */
+		public List<String> getRemovedConditions() {
+			return removedConditions;
+		}
+
+		/** Actions only the new version has, in canonical form. */
+		public List<String> getAddedActions() {
+			return addedActions;
+		}
+
+		/** Actions only the old version has, in canonical form. */
+		public List<String> getRemovedActions() {
+			return removedActions;
+		}
+
+		/**
+		 * Gets a readable description, one line per detail.
+		 *
+		 * @return the description
+		 */
+		public String describe() {
+			String title = id == HEADER_ID ? "Script header" : "Rule " + id + " \"" + name + "\"";
+			StringBuilder text = new StringBuilder();
+			if (is(ChangeType.ADDED)) {
+				text.append("+ ").append(title).append(" added at line ").append(line);
+			} else if (is(ChangeType.REMOVED)) {
+				text.append("- ").append(title).append(" removed from line ").append(oldLine);
+			} else {
+				text.append(is(ChangeType.MODIFIED) ? "~ " : "> ").append(title);
+				text.append(is(ChangeType.MODIFIED) ? " modified" : "");
+				text.append(is(ChangeType.MODIFIED) && is(ChangeType.MOVED) ? " and" : "");
+				text.append(is(ChangeType.MOVED) ? " moved from line " + oldLine + " to " + line : " at line " + line);
+			}
+			if (isRenamed()) {
+				text.append("\n    renamed from \"").append(oldName).append('"');
+			}
+			appendAll(text, "    - condition: ", removedConditions);
+			appendAll(text, "    + condition: ", addedConditions);
+			appendAll(text, "    - action: ", removedActions);
+			appendAll(text, "    + action: ", addedActions);
+			if (is(ChangeType.MODIFIED) && !isRenamed() && addedConditions.isEmpty() && removedConditions.isEmpty()
+					&& addedActions.isEmpty() && removedActions.isEmpty()) {
+				text.append("\n    same conditions and actions, arranged differently");
+			}
+			return text.toString();
+		}
+
+		private static void appendAll(StringBuilder text, String prefix, List<String> items) {
+			for (String item : items) {
+				text.append('\n').append(prefix).append(item);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return describe();
+		}
+	}
+
+	/**
+	 * A rule of one version in canonical form.
+	 */
+	private record Rule(int id, String name, int line, String canonical, List<String> conditions,
+			List<String> actions) {
+	}
+
+	private final List<RuleChange> changes;
+
+	private ScriptDiff(List<RuleChange> changes) {
+		this.changes = Collections.unmodifiableList(changes);
+	}
+
+	/**
+	 * Compares two versions of a script.
+	 *
+	 * @param oldScript the old version, e.g. the server copy
+	 * @param newScript the new version, e.g. the editor buffer
+	 * @return the differences
+	 * @throws IllegalArgumentException if either version has syntax errors
+	 */
+	public static ScriptDiff compare(String oldScript, String newScript) {
+		Map<Long, Rule> oldRules = new HashMap<>();
+		List<Long> oldOrder = new ArrayList<>();
+		rules(oldScript, "Old", oldRules, oldOrder);
+		Map<Long, Rule> newRules = new HashMap<>();
+		List<Long> newOrder = new ArrayList<>();
+		rules(newScript, "New", newRules, newOrder);
+
+		Map<Long, Integer> oldPositions = new HashMap<>();
+		for (int i = 0; i < oldOrder.size(); i++) {
+			oldPositions.put(oldOrder.get(i), i);
+		}
+		boolean[] kept = keptInOrder(newOrder, oldPositions);
+
+		List<RuleChange> changes = new ArrayList<>();
+		for (int i = 0; i < newOrder.size(); i++) {
+			Rule newRule = newRules.get(newOrder.get(i));
+			Rule oldRule = oldRules.get(newOrder.get(i));
+			if (oldRule == null) {
+				changes.add(new RuleChange(EnumSet.of(ChangeType.ADDED), null, newRule));
+				continue;
+			}
+			Set<ChangeType> types = EnumSet.noneOf(ChangeType.class);
+			if (!oldRule.canonical.equals(newRule.canonical) || !oldRule.name.equals(newRule.name)) {
+				types.add(ChangeType.MODIFIED);
+			}
+			if (!kept[i] && newRule.id != HEADER_ID) {
+				types.add(ChangeType.MOVED);
+			}
+			if (!types.isEmpty()) {
+				changes.add(new RuleChange(types, oldRule, newRule));
+			}
+		}
+		for (Long key : oldOrder) {
+			if (!newRules.containsKey(key)) {
+				changes.add(new RuleChange(EnumSet.of(ChangeType.REMOVED), oldRules.get(key), null));
+			}
+		}
+		return new ScriptDiff(changes);
+	}
+
+	/**
+	 * Finds the rules that kept their relative order: a longest increasing
+	 * subsequence of the old positions, in new order, by patience sorting.
+	 *
+	 * @return for each new rule whether it is on the subsequence; added
+	 *         rules are marked as kept
+	 */
+	private static boolean[] keptInOrder(List<Long> newOrder, Map<Long, Integer> oldPositions) {
+		int n = newOrder.size();
+		boolean[] kept = new boolean[n];
+		int[] tails = new int[n]; // Old position ending the best subsequence of each length
+		int[] tailIndex = new int[n];
+		int[] previous = new int[n];
+		int length = 0;
+		for (int i = 0; i < n; i++) {
+			Integer position = oldPositions.get(newOrder.get(i));
+			if (position == null) {
+				kept[i] = true;
+				continue;
+			}
+			int at = Arrays.binarySearch(tails, 0, length, position);
+			at = at < 0 ? -at - 1 : at;
+			tails[at] = position;
+			tailIndex[at] = i;
+			previous[i] = at > 0 ? tailIndex[at - 1] : -1;
+			if (at == length) {
+				length++;
+			}
+		}
+		for (int i = length > 0 ? tailIndex[length - 1] : -1; i >= 0; i = previous[i]) {
+			kept[i] = true;
+		}
+		return kept;
+	}
+
+	/**
+	 * Splits a script into rules, keyed by UniqueId and occurrence.
+	 *
+	 * @throws IllegalArgumentException if the script has syntax errors; the
+	 *         parser skips what it can't read, so the rules would be
+	 *         incomplete
+	 */
+	private static void rules(String script, String version, Map<Long, Rule> rules, List<Long> order) {
+		String text = script != null ? script : "";
+		ScriptNode tree = SieveParser.parse(text);
+		if (tree.hasErrors()) {
+			SyntaxError first = tree.getErrors().get(0);
+			throw new IllegalArgumentException(
+				version + " version, line " + first.getLine() + ": " + first.getMessage());
+		}
+		RuleCommentMatcher matcher = new RuleCommentMatcher();
+		Map<Integer, Integer> occurrences = new HashMap<>();
+
+		int id = HEADER_ID;
+		String name = "";
+		int line = 1;
+		List<CommandNode> commands = new ArrayList<>();
+		List<CommentNode> comments = tree.getComments();
+		int nextComment = 0;
+		int nextCommand = 0;
+		while (nextComment < comments.size() || nextCommand < tree.getCommands().size()) {
+			CommandNode command = nextCommand < tree.getCommands().size() ? tree.getCommands().get(nextCommand) : null;
+			CommentNode comment = nextComment < comments.size() ? comments.get(nextComment) : null;
+			if (comment != null && (command == null || comment.getStart() < command.getStart())) {
+				nextComment++;
+				if (!comment.isBracket() && startsLine(text, comment.getStart())
+						&& matcher.matches(text, comment.getStart(), comment.getEnd()) && matcher.hasValidId()) {
+					add(rules, order, occurrences, id, name, line, commands);
+					id = matcher.getId();
+					name = matcher.getRuleName().trim();
+					line = comment.getLine();
+					commands = new ArrayList<>();
+				}
+			} else {
+				nextCommand++;
+				commands.add(command);
+				// Comments inside the command don't start rules
+				while (nextComment < comments.size() && comments.get(nextComment).getStart() < command.getEnd()) {
+					nextComment++;
+				}
+			}
+		}
+		add(rules, order, occurrences, id, name, line, commands);
+	}
+
+	private static boolean startsLine(String text, int offset) {
+		for (int i = offset - 1; i >= 0 && text.charAt(i) != '\n'; i--) {
+			if (!Character.isWhitespace(text.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void add(Map<Long, Rule> rules, List<Long> order, Map<Integer, Integer> occurrences,
+			int id, String name, int line, List<CommandNode> commands) {
+		if (id == HEADER_ID && commands.isEmpty()) {
+			return; // No header
+		}
+		int occurrence = occurrences.merge(id, 1, Integer::sum);
+		long key = (long) id << 32 | occurrence;
+		StringBuilder canonical = new StringBuilder();
+		List<String> conditions = new ArrayList<>();
+		List<String> actions = new ArrayList<>();
+		commands(commands, canonical, conditions, actions);
+		rules.put(key, new Rule(id, name, line, canonical.toString(), conditions, actions));
+		order.add(key);
+	}
+
+	/**
+	 * Prints commands in canonical form and collects their conditions and
+	 * actions.
+	 */
+	private static void commands(List<CommandNode> commands, StringBuilder canonical, List<String> conditions,
+			List<String> actions) {
+		for (CommandNode command : commands) {
+			String head = head(command);
+			canonical.append(head);
+			if (command.is("if") || command.is("elsif")) {
+				conditions.add(head.substring(head.indexOf(' ') + 1));
+			} else if (!command.is("else")) {
+				actions.add(head);
+			}
+			if (command.getBlock() != null) {
+				canonical.append(" {");
+				commands(command.getBlock().getCommands(), canonical, conditions, actions);
+				canonical.append('}');
+			} else {
+				canonical.append(';');
+			}
+		}
+	}
+
+	private static String head(CommandNode command) {
+		StringBuilder text = new StringBuilder(command.getName().toLowerCase(Locale.ROOT));
+		arguments(command.getArguments(), text);
+		tests(command.getTests(), text);
+		return text.toString();
+	}
+
+	private static void tests(List<TestNode> tests, StringBuilder text) {
+		if (tests.isEmpty()) {
+			return;
+		}
+		// A test list of one test means the same as the test
+		text.append(tests.size() > 1 ? " (" : " ");
+		for (int i = 0; i < tests.size(); i++) {
+			if (i > 0) {
+				text.append(", ");
+			}
+			TestNode test = tests.get(i);
+			text.append(test.getName().toLowerCase(Locale.ROOT));
+			arguments(test.getArguments(), text);
+			tests(test.getTests(), text);
+		}
+		text.append(tests.size() > 1 ? ")" : "");
+	}
+
+	private static void arguments(List<ArgumentNode> arguments, StringBuilder text) {
+		for (ArgumentNode argument : SieveFormatter.canonicalOrder(arguments)) {
+			text.append(' ');
+			if (argument instanceof TagArgument tag) {
+				text.append(':').append(tag.getName().toLowerCase(Locale.ROOT));
+			} else if (argument instanceof NumberArgument number) {
+				text.append(number.getValue());
+			} else if (argument instanceof StringListArgument list && list.getStrings().size() != 1) {
+				text.append('[');
+				for (int i = 0; i < list.getStrings().size(); i++) {
+					text.append(i > 0 ? ", " : "");
+					quote(list.getStrings().get(i).getValue(), text);
+				}
+				text.append(']');
+			} else if (argument instanceof StringListArgument list) {
+				quote(list.getStrings().get(0).getValue(), text); // ["x"] means the same as "x"
+			} else if (argument instanceof StringArgument string) {
+				quote(string.getValue(), text);
+			}
+		}
+	}
+
+	private static void quote(String value, StringBuilder text) {
+		text.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				text.append('\\');
+			}
+			text.append(c);
+		}
+		text.append('"');
+	}
+
+	/**
+	 * Gets the items of {@code from} that {@code other} lacks, counting
+	 * repeated items.
+	 */
+	private static List<String> subtract(List<String> from, List<String> other) {
+		Map<String, Integer> counts = new HashMap<>();
+		for (String item : other) {
+			counts.merge(item, 1, Integer::sum);
+		}
+		List<String> left = new ArrayList<>();
+		for (String item : from) {
+			Integer count = counts.get(item);
+			if (count == null || count == 0) {
+				left.add(item);
+			} else {
+				counts.put(item, count - 1);
+			}
+		}
+		return left;
+	}
+
+	/**
+	 * Gets the changed rules: those of the new version in their order,
+	 * then the removed ones.
+	 *
+	 * @return the changes
+	 */
+	public List<RuleChange> getChanges() {
+		return changes;
+	}
+
+	public boolean isEmpty() {
+		return changes.isEmpty();
+	}
+
+	/**
+	 * Counts the rules with a type of change.
+	 *
+	 * @param type the type
+	 * @return the number of rules
+	 */
+	public int count(ChangeType type) {
+		return (int) changes.stream().filter(c -> c.is(type)).count();
+	}
+
+	/**
+	 * Gets a one-line summary such as "1 added, 2 modified".
+	 *
+	 * @return the summary, or "No changes"
+	 */
+	public String getSummary() {
+		List<String> parts = new ArrayList<>();
+		for (ChangeType type : ChangeType.values()) {
+			int count = count(type);
+			if (count > 0) {
+				parts.add(count + " " + type.name().toLowerCase(Locale.ROOT));
+			}
+		}
+		return parts.isEmpty() ? "No changes" : String.join(", ", parts);
+	}
+
+	/**
+	 * Gets the summary followed by the description of each change.
+	 *
+	 * @return the report
+	 */
+	public String getReport() {
+		StringBuilder report = new StringBuilder(getSummary());
+		for (RuleChange change : changes) {
+			report.append('\n').append(change.describe());
+		}
+		return report.toString();
+	}
+}
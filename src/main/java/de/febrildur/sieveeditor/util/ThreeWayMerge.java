@@ -0,0 +1,572 @@
+package de.febrildur.sieveeditor.util;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.febrildur.sieveeditor.parser.SieveRule;
+import de.febrildur.sieveeditor.parser.SieveRuleParser;
+
+/**
+ * Line-based three-way merge of Sieve scripts (diff3).
+ *
+ * <p>Merges the body as originally loaded (base), the editor buffer (ours)
+ * and the current server copy (theirs). Scripts that use rule comments
+ * ({@code ## Flag: |UniqueId:N |Rulename: ...}) are first split into one
+ * section per rule, keyed by UniqueId. Sections are matched by key rather
+ * than by position, so a rule added on one side and a rule edited on the
+ * other never end up in the same hunk. Lines inside matched sections are
+ * merged with a Myers diff against the base.
+ *
+ * <p>Changes on only one side, or identical changes on both sides, are
+ * applied automatically. Overlapping different changes become conflicts,
+ * rendered with diff3-style markers:
+ * <pre>
+ * &lt;&lt;&lt;&lt;&lt;&lt;&lt; editor
+ * ...
+ * ||||||| loaded
+ * ...
+ * =======
+ * ...
+ * &gt;&gt;&gt;&gt;&gt;&gt;&gt; server
+ * </pre>
+ */
+public class ThreeWayMerge {
+
+	public static final String MARKER_OURS = "<<<<<<< editor";
+	public static final String MARKER_BASE = "||||||| loaded";
+	public static final String MARKER_SEPARATOR = "=======";
+	public static final String MARKER_THEIRS = ">>>>>>> server";
+
+	/**
+	 * Bound for the Myers edit trace (about d * d ints). Beyond this the
+	 * remaining region is treated as replaced instead of searching further.
+	 */
+	private static final long MAX_TRACE_CELLS = 4_000_000L;
+
+	private static final String PREAMBLE_KEY = "";
+
+	/**
+	 * How a chunk of the merge result was produced.
+	 */
+	public enum ChunkType {
+		/** Same on all three sides. */
+		UNCHANGED,
+		/** Changed in the editor only. */
+		OURS,
+		/** Changed on the server only. */
+		THEIRS,
+		/** Changed identically on both sides. */
+		BOTH,
+		/** Changed differently on both sides. */
+		CONFLICT
+	}
+
+	/**
+	 * Which side to keep when resolving a conflict.
+	 */
+	public enum Side {
+		OURS,
+		THEIRS,
+		BOTH
+	}
+
+	/**
+	 * A contiguous part of the merge result.
+	 */
+	public static class Chunk {
+		private final ChunkType type;
+		private final List<String> base;
+		private final List<String> ours;
+		private final List<String> theirs;
+
+		Chunk(ChunkType type, List<String> base, List<String> ours, List<String> theirs) {
+			this.type = type;
+			this.base = base;
+			this.ours = ours;
+			this.theirs = theirs;
+		}
+
+		public ChunkType getType() {
+			return type;
+		}
+
+		public List<String> getBase() {
+			return base;
+		}
+
+		public List<String> getOurs() {
+			return ours;
+		}
+
+		public List<String> getTheirs() {
+			return theirs;
+		}
+
+		/**
+		 * Gets the lines this chunk contributes to the merged text.
+		 * Conflicts contribute the editor lines.
+		 *
+		 * @return the resolved lines
+		 */
+		public List<String> getResolvedLines() {
+			return switch (type) {
+				case UNCHANGED -> base;
+				case THEIRS -> theirs;
+				default -> ours;
+			};
+		}
+	}
+
+	/**
+	 * Result of a merge.
+	 */
+	public static class MergeResult {
+		private final List<Chunk> chunks;
+
+		MergeResult(List<Chunk> chunks) {
+			this.chunks = Collections.unmodifiableList(chunks);
+		}
+
+		public List<Chunk> getChunks() {
+			return chunks;
+		}
+
+		public boolean hasConflicts() {
+			return getConflictCount() > 0;
+		}
+
+		public int getConflictCount() {
+			return (int) chunks.stream().filter(c -> c.getType() == ChunkType.CONFLICT).count();
+		}
+
+		/**
+		 * Gets the number of changes that were merged without conflict.
+		 *
+		 * @return number of OURS, THEIRS and BOTH chunks
+		 */
+		public int getAutoMergedCount() {
+			return (int) chunks.stream()
+				.filter(c -> c.getType() != ChunkType.UNCHANGED && c.getType() != ChunkType.CONFLICT)
+				.count();
+		}
+
+		/**
+		 * Gets the merged script, with conflict markers around unresolved conflicts.
+		 *
+		 * @return the merged text
+		 */
+		public String getMergedText() {
+			List<String> lines = new ArrayList<>();
+			for (Chunk chunk : chunks) {
+				if (chunk.getType() == ChunkType.CONFLICT) {
+					lines.add(MARKER_OURS);
+					lines.addAll(chunk.getOurs());
+					lines.add(MARKER_BASE);
+					lines.addAll(chunk.getBase());
+					lines.add(MARKER_SEPARATOR);
+					lines.addAll(chunk.getTheirs());
+					lines.add(MARKER_THEIRS);
+				} else {
+					lines.addAll(chunk.getResolvedLines());
+				}
+			}
+			return String.join("\n", lines);
+		}
+	}
+
+	/**
+	 * Lines of one version, interned to ints so diffing compares integers.
+	 */
+	private record Version(String[] lines, int[] ids) {
+
+		List<String> lines(int from, int to) {
+			return Arrays.asList(Arrays.copyOfRange(lines, from, to));
+		}
+	}
+
+	/**
+	 * A rule section: lines [start, end) of a version.
+	 */
+	private record Section(int start, int end) {
+	}
+
+	private ThreeWayMerge() {
+	}
+
+	/**
+	 * Merges two independently edited versions of a script.
+	 *
+	 * @param base the script as originally loaded
+	 * @param ours the editor buffer
+	 * @param theirs the current server copy
+	 * @return the merge result
+	 */
+	public static MergeResult merge(String base, String ours, String theirs) {
+		Map<String, Integer> interned = new HashMap<>();
+		Version o = intern(base, interned);
+		Version a = intern(ours, interned);
+		Version b = intern(theirs, interned);
+
+		Map<String, Section> sectionsO = sections(base, o);
+		Map<String, Section> sectionsA = sections(ours, a);
+		Map<String, Section> sectionsB = sections(theirs, b);
+
+		List<Chunk> chunks = new ArrayList<>();
+		if (sectionsO == null || sectionsA == null || sectionsB == null) {
+			// Duplicate UniqueIds: keys are ambiguous, merge the scripts as plain text
+			mergeRange(o, 0, o.ids.length, a, 0, a.ids.length, b, 0, b.ids.length, chunks);
+			return new MergeResult(coalesce(chunks));
+		}
+
+		for (String key : sectionOrder(sectionsA, sectionsB)) {
+			Section so = sectionsO.get(key);
+			Section sa = sectionsA.get(key);
+			Section sb = sectionsB.get(key);
+
+			if (sa != null && sb != null) {
+				int oStart = so != null ? so.start : 0;
+				int oEnd = so != null ? so.end : 0;
+				mergeRange(o, oStart, oEnd, a, sa.start, sa.end, b, sb.start, sb.end, chunks);
+			} else if (sa != null) {
+				// Not on the server: added in the editor, or deleted on the server
+				if (so == null) {
+					chunks.add(new Chunk(ChunkType.OURS, List.of(), a.lines(sa.start, sa.end), List.of()));
+				} else if (!sameLines(o, so, a, sa)) {
+					chunks.add(new Chunk(ChunkType.CONFLICT, o.lines(so.start, so.end),
+						a.lines(sa.start, sa.end), List.of()));
+				}
+			} else {
+				// Not in the editor: added on the server, or deleted in the editor
+				if (so == null) {
+					chunks.add(new Chunk(ChunkType.THEIRS, List.of(), List.of(), b.lines(sb.start, sb.end)));
+				} else if (!sameLines(o, so, b, sb)) {
+					chunks.add(new Chunk(ChunkType.CONFLICT, o.lines(so.start, so.end),
+						List.of(), b.lines(sb.start, sb.end)));
+				}
+			}
+		}
+		return new MergeResult(coalesce(chunks));
+	}
+
+	private static Version intern(String text, Map<String, Integer> interned) {
+		String[] lines = (text != null ? text : "").split("\n", -1);
+		int[] ids = new int[lines.length];
+		for (int i = 0; i < lines.length; i++) {
+			ids[i] = interned.computeIfAbsent(lines[i], k -> interned.size());
+		}
+		return new Version(lines, ids);
+	}
+
+	/**
+	 * Splits a script at its rule comments.
+	 *
+	 * @return sections in script order keyed by UniqueId, or null if a UniqueId is used twice
+	 */
+	private static Map<String, Section> sections(String text, Version version) {
+		Map<String, Section> sections = new LinkedHashMap<>();
+		int start = 0;
+		String key = PREAMBLE_KEY;
+		for (SieveRule rule : SieveRuleParser.extractRules(text)) {
+			int line = rule.getLineNumber() - 1;
+			if (line > start || !key.equals(PREAMBLE_KEY)) {
+				sections.put(key, new Section(start, line));
+			}
+			key = Integer.toString(rule.getRuleNumber());
+			if (sections.containsKey(key)) {
+				return null;
+			}
+			start = line;
+		}
+		sections.put(key, new Section(start, version.ids.length));
+		return sections;
+	}
+
+	/**
+	 * Editor order wins; sections only present on the server are inserted
+	 * after the section that precedes them on the server.
+	 */
+	private static List<String> sectionOrder(Map<String, Section> ours, Map<String, Section> theirs) {
+		List<String> order = new ArrayList<>(ours.keySet());
+		String previous = null;
+		for (String key : theirs.keySet()) {
+			if (!ours.containsKey(key)) {
+				int at = previous != null ? order.indexOf(previous) + 1 : 0;
+				order.add(at, key);
+			}
+			previous = key;
+		}
+		return order;
+	}
+
+	private static boolean sameLines(Version x, Section sx, Version y, Section sy) {
+		return Arrays.equals(x.ids, sx.start, sx.end, y.ids, sy.start, sy.end);
+	}
+
+	/**
+	 * diff3 over the given ranges: walks the base, emitting stable runs (lines
+	 * matched on both sides) and resolving the unstable chunks between them.
+	 */
+	private static void mergeRange(Version o, int oStart, int oEnd, Version a, int aStart, int aEnd,
+			Version b, int bStart, int bEnd, List<Chunk> out) {
+		int[] toA = match(o.ids, oStart, oEnd, a.ids, aStart, aEnd);
+		int[] toB = match(o.ids, oStart, oEnd, b.ids, bStart, bEnd);
+
+		int io = oStart;
+		int ia = aStart;
+		int ib = bStart;
+		while (true) {
+			int stable = io;
+			while (io < oEnd && toA[io - oStart] == ia && toB[io - oStart] == ib) {
+				io++;
+				ia++;
+				ib++;
+			}
+			if (io > stable) {
+				List<String> lines = o.lines(stable, io);
+				out.add(new Chunk(ChunkType.UNCHANGED, lines, lines, lines));
+			}
+			if (io >= oEnd && ia >= aEnd && ib >= bEnd) {
+				return;
+			}
+
+			int next = io;
+			while (next < oEnd && (toA[next - oStart] < 0 || toB[next - oStart] < 0)) {
+				next++;
+			}
+			int nextA = next < oEnd ? toA[next - oStart] : aEnd;
+			int nextB = next < oEnd ? toB[next - oStart] : bEnd;
+			addUnstable(o, io, next, a, ia, nextA, b, ib, nextB, out);
+			io = next;
+			ia = nextA;
+			ib = nextB;
+		}
+	}
+
+	private static void addUnstable(Version o, int oStart, int oEnd, Version a, int aStart, int aEnd,
+			Version b, int bStart, int bEnd, List<Chunk> out) {
+		boolean oursUnchanged = Arrays.equals(o.ids, oStart, oEnd, a.ids, aStart, aEnd);
+		boolean theirsUnchanged = Arrays.equals(o.ids, oStart, oEnd, b.ids, bStart, bEnd);
+		if (oursUnchanged && theirsUnchanged) {
+			return;
+		}
+
+		ChunkType type;
+		if (oursUnchanged) {
+			type = ChunkType.THEIRS;
+		} else if (theirsUnchanged) {
+			type = ChunkType.OURS;
+		} else if (Arrays.equals(a.ids, aStart, aEnd, b.ids, bStart, bEnd)) {
+			type = ChunkType.BOTH;
+		} else {
+			type = ChunkType.CONFLICT;
+		}
+		out.add(new Chunk(type, o.lines(oStart, oEnd), a.lines(aStart, aEnd), b.lines(bStart, bEnd)));
+	}
+
+	/**
+	 * Merges adjacent unchanged chunks produced by consecutive sections.
+	 */
+	private static List<Chunk> coalesce(List<Chunk> chunks) {
+		List<Chunk> result = new ArrayList<>(chunks.size());
+		for (Chunk chunk : chunks) {
+			Chunk last = result.isEmpty() ? null : result.get(result.size() - 1);
+			if (last != null && last.getType() == ChunkType.UNCHANGED && chunk.getType() == ChunkType.UNCHANGED) {
+				List<String> lines = new ArrayList<>(last.getBase());
+				lines.addAll(chunk.getBase());
+				result.set(result.size() - 1, new Chunk(ChunkType.UNCHANGED, lines, lines, lines));
+			} else {
+				result.add(chunk);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Computes a longest common subsequence between two line ranges.
+	 *
+	 * @return for each line of x in [xStart, xEnd), the matching index in y, or -1
+	 */
+	static int[] match(int[] x, int xStart, int xEnd, int[] y, int yStart, int yEnd) {
+		int[] matches = new int[xEnd - xStart];
+		Arrays.fill(matches, -1);
+
+		// Common prefix and suffix need no search
+		int xs = xStart;
+		int ys = yStart;
+		while (xs < xEnd && ys < yEnd && x[xs] == y[ys]) {
+			matches[xs - xStart] = ys;
+			xs++;
+			ys++;
+		}
+		int xe = xEnd;
+		int ye = yEnd;
+		while (xe > xs && ye > ys && x[xe - 1] == y[ye - 1]) {
+			xe--;
+			ye--;
+			matches[xe - xStart] = ye;
+		}
+
+		myers(x, xs, xe, y, ys, ye, matches, xStart);
+		return matches;
+	}
+
+	/**
+	 * Myers' O(ND) greedy diff with a per-step trace for backtracking.
+	 */
+	private static void myers(int[] x, int xOff, int xEnd, int[] y, int yOff, int yEnd,
+			int[] matches, int matchBase) {
+		int n = xEnd - xOff;
+		int m = yEnd - yOff;
+		if (n == 0 || m == 0) {
+			return;
+		}
+
+		int max = n + m;
+		int off = max + 1;
+		int[] v = new int[2 * max + 3];
+		List<int[]> trace = new ArrayList<>();
+		int found = -1;
+
+		search:
+		for (int d = 0; d <= max; d++) {
+			if ((long) d * d > MAX_TRACE_CELLS) {
+				return;
+			}
+			// v before step d, diagonals -d-1 .. d+1
+			trace.add(Arrays.copyOfRange(v, off - d - 1, off + d + 2));
+			for (int k = -d; k <= d; k += 2) {
+				int px = (k == -d || (k != d && v[off + k - 1] < v[off + k + 1]))
+					? v[off + k + 1] : v[off + k - 1] + 1;
+				int py = px - k;
+				while (px < n && py < m && x[xOff + px] == y[yOff + py]) {
+					px++;
+					py++;
+				}
+				v[off + k] = px;
+				if (px >= n && py >= m) {
+					found = d;
+					break search;
+				}
+			}
+		}
+
+		int px = n;
+		int py = m;
+		for (int d = found; d > 0; d--) {
+			int[] prev = trace.get(d);
+			int k = px - py;
+			int prevK = (k == -d || (k != d && prev[k - 1 + d + 1] < prev[k + 1 + d + 1])) ? k + 1 : k - 1;
+			int prevX = prev[prevK + d + 1];
+			int prevY = prevX - prevK;
+			while (px > prevX && py > prevY) {
+				px--;
+				py--;
+				matches[xOff + px - matchBase] = yOff + py;
+			}
+			px = prevX;
+			py = prevY;
+		}
+		while (px > 0 && py > 0) {
+			px--;
+			py--;
+			matches[xOff + px - matchBase] = yOff + py;
+		}
+	}
+
+	/**
+	 * Resolves one conflict block in text containing merge markers: the block
+	 * around {@code offset}, or else the first block after it.
+	 *
+	 * @param text merged text with conflict markers
+	 * @param offset caret offset
+	 * @param side which side to keep
+	 * @return the text with that block replaced, or the unchanged text if there is no block
+	 */
+	public static String resolveConflict(String text, int offset, Side side) {
+		int[] block = findConflict(text, offset);
+		if (block == null) {
+			return text;
+		}
+		int start = block[0];
+		int baseMarker = block[1];
+		int separator = block[2];
+		int theirsMarker = block[3];
+		int end = block[4];
+
+		String ours = text.substring(lineEnd(text, start), baseMarker);
+		String theirs = text.substring(lineEnd(text, separator), theirsMarker);
+		String replacement = switch (side) {
+			case OURS -> ours;
+			case THEIRS -> theirs;
+			case BOTH -> ours + theirs;
+		};
+		return text.substring(0, start) + replacement + text.substring(end);
+	}
+
+	/**
+	 * Finds a conflict block.
+	 *
+	 * @return offsets {start, base marker, separator, theirs marker, end}, or null
+	 */
+	public static int[] findConflict(String text, int offset) {
+		int start = -1;
+		int baseMarker = -1;
+		int separator = -1;
+		int pos = 0;
+		while (pos < text.length()) {
+			int next = lineEnd(text, pos);
+			String line = text.substring(pos, next).stripTrailing();
+			if (line.equals(MARKER_OURS)) {
+				start = pos;
+				baseMarker = -1;
+				separator = -1;
+			} else if (start >= 0 && line.equals(MARKER_BASE)) {
+				baseMarker = pos;
+			} else if (start >= 0 && line.equals(MARKER_SEPARATOR)) {
+				separator = pos;
+			} else if (start >= 0 && separator >= 0 && line.equals(MARKER_THEIRS)) {
+				if (next >= offset) {
+					return new int[] {start, baseMarker >= 0 ? baseMarker : separator, separator, pos, next};
+				}
+				start = -1;
+			}
+			pos = next;
+		}
+		return null;
+	}
+
+	/**
+	 * Counts unresolved conflict blocks in text.
+	 *
+	 * @param text merged text
+	 * @return number of conflict start markers
+	 */
+	public static int countConflicts(String text) {
+		int count = 0;
+		int pos = 0;
+		while (pos < text.length()) {
+			int next = lineEnd(text, pos);
+			if (text.substring(pos, next).stripTrailing().equals(MARKER_OURS)) {
+				count++;
+			}
+			pos = next;
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the offset just past the line starting at pos, including its newline.
+	 */
+	private static int lineEnd(String text, int pos) {
+		int nl = text.indexOf('\n', pos);
+		return nl < 0 ? text.length() : nl + 1;
+	}
+}
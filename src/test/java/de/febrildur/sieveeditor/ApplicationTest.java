@@ -307,6 +307,7 @@ class ApplicationTest {
 	void shouldSaveWithMockServer() throws Exception {
 		app = new Application();
 		ConnectAndListScripts mockServer = mock(ConnectAndListScripts.class);
+		when(mockServer.supportsRenameScript()).thenReturn(true);
 
 		app.setServer(mockServer);
 
@@ -322,7 +323,11 @@ class ApplicationTest {
 		assertThatCode(() -> app.save())
 			.doesNotThrowAnyException();
 
-		verify(mockServer).putScript("testscript", "require \"fileinto\";");
+		// The save action has checked the script already
+		verify(mockServer, never()).verifyScript(anyString());
+		verify(mockServer).uploadScript(startsWith("testscript.deploy-"), eq("require \"fileinto\";"));
+		verify(mockServer).rename(startsWith("testscript.deploy-"), eq("testscript"));
+		verify(mockServer).activateScript("testscript");
 	}
 
 	@Test
@@ -331,7 +336,7 @@ class ApplicationTest {
 		app = new Application();
 		ConnectAndListScripts mockServer = mock(ConnectAndListScripts.class);
 		doThrow(new java.io.IOException("Test IO error"))
-			.when(mockServer).putScript(anyString(), anyString());
+			.when(mockServer).uploadScript(anyString(), anyString());
 
 		app.setServer(mockServer);
 
@@ -0,0 +1,63 @@
+package de.febrildur.sieveeditor.actions;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import org.fife.ui.rtextarea.RTextArea;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.Action;
+import javax.swing.KeyStroke;
+
+import java.awt.event.KeyEvent;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ActionFormatScriptTest {
+
+    @Test
+    void shouldSetNameOnConstruction() {
+        var action = new ActionFormatScript(null);
+        assertThat(action.getValue(Action.NAME))
+                .isEqualTo("Format Script");
+    }
+
+    @Test
+    void shouldSetAcceleratorKeyOnConstruction() {
+        var action = new ActionFormatScript(null);
+        assertThat(action.getValue(Action.ACCELERATOR_KEY))
+                .isEqualTo(KeyStroke.getKeyStroke(KeyEvent.VK_F, KeyEvent.CTRL_DOWN_MASK | KeyEvent.SHIFT_DOWN_MASK));
+    }
+
+    @Test
+    void shouldApplyFormattedTextAsOneUndoableEdit() {
+        // Given
+        String original = "keep;\nif true {\nstop;\n}\ndiscard;\n";
+        RTextArea textArea = new RTextArea(original);
+        textArea.discardAllEdits();
+        textArea.setCaretPosition(original.indexOf("discard"));
+
+        // When
+        ActionFormatScript.apply(textArea, "keep;\nif true {\n    stop;\n}\ndiscard;\n");
+
+        // Then
+        assertThat(textArea.getText()).isEqualTo("keep;\nif true {\n    stop;\n}\ndiscard;\n");
+        assertThat(textArea.getCaretLineNumber()).isEqualTo(4);
+        textArea.undoLastAction();
+        assertThat(textArea.getText()).isEqualTo(original);
+        assertThat(textArea.canUndo()).isFalse();
+    }
+
+    @Test
+    void shouldLeaveUnchangedTextAlone() {
+        // Given
+        RTextArea textArea = new RTextArea("keep;\n");
+        textArea.discardAllEdits();
+
+        // When
+        ActionFormatScript.apply(textArea, "keep;\n");
+
+        // Then
+        assertThat(textArea.canUndo()).isFalse();
+    }
+}
@@ -0,0 +1,26 @@
+package de.febrildur.sieveeditor.actions;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.Action;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ActionShowChangesTest {
+
+    @Test
+    void shouldSetNameOnConstruction() {
+        var action = new ActionShowChanges(null);
+        assertThat(action.getValue(Action.NAME))
+                .isEqualTo("Show Changes...");
+    }
+
+    @Test
+    void shouldHaveNoAccelerator() {
+        var action = new ActionShowChanges(null);
+        assertThat(action.getValue(Action.ACCELERATOR_KEY)).isNull();
+    }
+}
@@ -0,0 +1,173 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.text.PlainDocument;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DocumentRuleScannerTest {
+
+	private static final String SCRIPT = """
+		require "fileinto";
+		## Flag: |UniqueId:1 |Rulename: Spam
+		if header :contains "subject" "spam" { discard; }
+		   ## Flag: vacation|UniqueId:3|Rulename: Away|LastModified: 2025-12-18T13:54:27Z
+		# ## Flag: |UniqueId:9 |Rulename: Not a rule
+		## Flag: |UniqueId:1 |Rulename: Duplicate
+		""";
+
+	private static void assertSameResult(SieveRuleParser.ParseResult actual, SieveRuleParser.ParseResult expected) {
+		assertThat(actual.getRules()).extracting(SieveRule::getRuleNumber, SieveRule::getLabel, SieveRule::getLineNumber,
+				SieveRule::getComment, SieveRule::getLastModified)
+			.containsExactlyElementsOf(expected.getRules().stream()
+				.map(r -> tuple(r.getRuleNumber(), r.getLabel(), r.getLineNumber(), r.getComment(), r.getLastModified()))
+				.toList());
+		assertThat(actual.getWarnings()).extracting(SieveWarning::getMessage, SieveWarning::getLineNumbers)
+			.containsExactlyElementsOf(expected.getWarnings().stream()
+				.map(w -> tuple(w.getMessage(), w.getLineNumbers())).toList());
+	}
+
+	@Test
+	void shouldScanDocumentLikeFullTextParse() throws Exception {
+		// Given
+		PlainDocument document = new PlainDocument();
+		document.insertString(0, SCRIPT, null);
+
+		// When
+		SieveRuleParser.ParseResult result = DocumentRuleScanner.scan(document);
+
+		// Then
+		assertThat(result.getRules()).extracting(SieveRule::getLineNumber).containsExactly(2, 4, 6);
+		assertThat(result.getRules().get(1).getLastModified()).isEqualTo("2025-12-18T13:54:27Z");
+		assertThat(result.getWarnings()).extracting(SieveWarning::getMessage)
+			.containsExactly("Duplicate UniqueId 1", "Missing UniqueId 2");
+	}
+
+	@Test
+	void shouldReadLinesAcrossTheDocumentGap() throws Exception {
+		// Given - inserting in the middle moves the buffer gap inside a rule line
+		PlainDocument document = new PlainDocument();
+		document.insertString(0, "keep;\n## Flag: |UniqueId:1 |Rulename: Sp\nstop;\n", null);
+		document.insertString(document.getText(0, document.getLength()).indexOf("Sp") + 2, "am", null);
+
+		// When
+		SieveRuleParser.ParseResult result = DocumentRuleScanner.scan(document);
+
+		// Then
+		assertThat(result.getRules()).extracting(SieveRule::getLabel).containsExactly("Spam");
+	}
+
+	@Test
+	void shouldIndexRulesWithTheirOffsets() throws Exception {
+		// Given
+		PlainDocument document = new PlainDocument();
+		document.insertString(0, SCRIPT, null);
+
+		for (SieveRuleParser.ParseResult result : new SieveRuleParser.ParseResult[]{
+				DocumentRuleScanner.scan(SCRIPT), DocumentRuleScanner.scan(document)}) {
+			// When
+			RuleIndex index = result.getIndex();
+
+			// Then
+			assertThat(index.size()).isEqualTo(3);
+			assertThat(index.getId(1)).isEqualTo(3);
+			assertThat(index.getLine(1)).isEqualTo(4);
+			assertThat(SCRIPT.substring(index.getOffset(1))).startsWith("   ## Flag: vacation");
+		}
+	}
+
+	@Test
+	void shouldTreatCrLfLikeLf() {
+		String crlf = SCRIPT.replace("\n", "\r\n");
+
+		assertSameResult(DocumentRuleScanner.scan(crlf), DocumentRuleScanner.scan(SCRIPT));
+		assertThat(DocumentRuleScanner.scan(crlf).getRules().get(0).getComment())
+			.isEqualTo("## Flag: |UniqueId:1 |Rulename: Spam");
+	}
+
+	@Test
+	void shouldOnlyCopyTextOfRuleLines() {
+		// Given - counts every String created from the text
+		AtomicInteger copies = new AtomicInteger();
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			text.append("if header :contains \"subject\" \"x\" { keep; }\n");
+		}
+		text.append("## Flag: |UniqueId:1 |Rulename: Only\n");
+		CharSequence counting = new CharSequence() {
+			@Override
+			public int length() {
+				return text.length();
+			}
+
+			@Override
+			public char charAt(int index) {
+				return text.charAt(index);
+			}
+
+			@Override
+			public CharSequence subSequence(int start, int end) {
+				copies.incrementAndGet();
+				return text.subSequence(start, end);
+			}
+
+			@Override
+			public String toString() {
+				copies.incrementAndGet();
+				return text.toString();
+			}
+		};
+
+		// When
+		SieveRuleParser.ParseResult result = DocumentRuleScanner.scan(counting);
+
+		// Then - a handful of copies for the rule's groups, none for the 1000 other lines
+		assertThat(result.getRules()).hasSize(1);
+		assertThat(copies.get()).isLessThan(10);
+	}
+
+	@Test
+	void shouldScanInParallelWithIdenticalResult() {
+		// Given - duplicates, gaps and invalid IDs spread over many chunks
+		java.util.Random random = new java.util.Random(7);
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			switch (random.nextInt(6)) {
+				case 0 -> text.append("## Flag: |UniqueId:").append(random.nextInt(3000)).append(" |Rulename: R").append(i);
+				case 1 -> text.append("## Flag: |UniqueId:99999999999 |Rulename: Big");
+				case 2 -> text.append("if true { keep; }");
+				default -> { }
+			}
+			text.append(random.nextBoolean() ? "\n" : "\r\n");
+		}
+
+		for (int chunkSize : new int[]{1, 64, 1000, 100_000}) {
+			// When
+			SieveRuleParser.ParseResult parallel = DocumentRuleScanner.scanParallel(text, () -> false, chunkSize);
+
+			// Then
+			assertSameResult(parallel, DocumentRuleScanner.scanSequential(text, () -> false));
+		}
+	}
+
+	@Test
+	void shouldScanEdgeCasesInParallel() {
+		for (String text : new String[]{"", "\n", "## Flag: |UniqueId:1 |Rulename: A", "x\n## Flag: |UniqueId:1 |Rulename: A\n"}) {
+			assertSameResult(DocumentRuleScanner.scanParallel(text, () -> false, 1),
+				DocumentRuleScanner.scanSequential(text, () -> false));
+		}
+	}
+
+	@Test
+	void shouldReturnNullWhenParallelScanIsCancelled() {
+		String text = "keep;\n".repeat(10_000);
+
+		assertThat(DocumentRuleScanner.scanParallel(text, () -> true, 20_000)).isNull();
+	}
+}
@@ -0,0 +1,69 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Types one character into the middle of a 100k-line script with 20k rules,
+ * deletes it again and asks for the rules after each edit, as the rule
+ * navigator does.
+ *
+ * <p>Run with {@code mvn test-compile exec:exec -Pbenchmarks -Dbenchmark=IncrementalRuleParserBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IncrementalRuleParserBenchmark {
+
+	private static final int RULES = 20_000;
+
+	private PlainDocument document;
+	private IncrementalRuleParser parser;
+	private int middle;
+
+	@Setup
+	public void createDocument() throws BadLocationException {
+		StringBuilder text = new StringBuilder();
+		for (int i = 1; i <= RULES; i++) {
+			text.append("## Flag: |UniqueId:").append(i).append(" |Rulename: Rule ").append(i).append('\n')
+				.append("if true {\n\tkeep;\n}\n\n");
+		}
+		document = new PlainDocument();
+		document.insertString(0, text.toString(), null);
+		parser = new IncrementalRuleParser(document);
+		middle = document.getLength() / 2;
+	}
+
+	@TearDown
+	public void dispose() {
+		parser.dispose();
+	}
+
+	@Benchmark
+	public SieveRuleParser.ParseResult typeAndDelete() throws BadLocationException {
+		document.insertString(middle, "x", null);
+		parser.getResult();
+		document.remove(middle, 1);
+		return parser.getResult();
+	}
+}
@@ -0,0 +1,187 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.List;
+import java.util.Random;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class IncrementalRuleParserTest {
+
+	private static PlainDocument document(String text) throws BadLocationException {
+		PlainDocument document = new PlainDocument();
+		document.insertString(0, text, null);
+		return document;
+	}
+
+	private static String rule(int id, String name) {
+		return "## Flag: |UniqueId:" + id + " |Rulename: " + name + "\n";
+	}
+
+	/**
+	 * Checks the incremental result against a full parse of the same text.
+	 */
+	private static void assertMatchesFullParse(IncrementalRuleParser parser, PlainDocument document)
+			throws BadLocationException {
+		SieveRuleParser.ParseResult expected = SieveRuleParser.parseRules(document.getText(0, document.getLength()));
+		SieveRuleParser.ParseResult actual = parser.getResult();
+		assertThat(actual.getRules())
+			.extracting(SieveRule::getRuleNumber, SieveRule::getLabel, SieveRule::getLineNumber)
+			.containsExactlyElementsOf(expected.getRules().stream()
+				.map(r -> tuple(r.getRuleNumber(), r.getLabel(), r.getLineNumber())).toList());
+		assertThat(actual.getWarnings())
+			.extracting(SieveWarning::getMessage, SieveWarning::getLineNumbers)
+			.containsExactlyElementsOf(expected.getWarnings().stream()
+				.map(w -> tuple(w.getMessage(), w.getLineNumbers())).toList());
+	}
+
+	@Test
+	void shouldScanDocumentOnCreation() throws Exception {
+		// Given
+		PlainDocument document = document(rule(1, "Spam") + "discard;\n" + rule(2, "News") + "keep;\n");
+
+		// When
+		IncrementalRuleParser parser = new IncrementalRuleParser(document);
+
+		// Then
+		assertThat(parser.getResult().getRules()).extracting(SieveRule::getLineNumber).containsExactly(1, 3);
+	}
+
+	@Test
+	void shouldShiftRulesBelowInsertedLines() throws Exception {
+		// Given
+		PlainDocument document = document("require \"fileinto\";\n" + rule(1, "Spam") + "discard;\n");
+		IncrementalRuleParser parser = new IncrementalRuleParser(document);
+
+		// When
+		document.insertString(0, "# header\n# more\n", null);
+
+		// Then
+		assertThat(parser.getResult().getRules()).extracting(SieveRule::getLineNumber).containsExactly(4);
+		assertMatchesFullParse(parser, document);
+	}
+
+	@Test
+	void shouldPickUpRuleTypedIntoExistingLine() throws Exception {
+		// Given
+		PlainDocument document = document("keep;\n## Flag: |UniqueId:1 |Rulename: Spa\nstop;\n");
+		IncrementalRuleParser parser = new IncrementalRuleParser(document);
+
+		// When
+		document.insertString(document.getText(0, document.getLength()).indexOf("Spa") + 3, "m", null);
+
+		// Then
+		assertThat(parser.getResult().getRules()).extracting(SieveRule::getLabel).containsExactly("Spam");
+	}
+
+	@Test
+	void shouldDropRuleWhenItsLineIsRemoved() throws Exception {
+		// Given
+		String text = rule(1, "One") + rule(2, "Two") + rule(3, "Three");
+		PlainDocument document = document(text);
+		IncrementalRuleParser parser = new IncrementalRuleParser(document);
+
+		// When
+		document.remove(text.indexOf("## Flag: |UniqueId:2"), rule(2, "Two").length());
+
+		// Then
+		assertThat(parser.getResult().getRules()).extracting(SieveRule::getRuleNumber).containsExactly(1, 3);
+		assertThat(parser.getResult().getWarnings()).extracting(SieveWarning::getMessage)
+			.containsExactly("Missing UniqueId 2");
+		assertMatchesFullParse(parser, document);
+	}
+
+	@Test
+	void shouldKeepSameResultWhenEditDoesNotTouchRules() throws Exception {
+		// Given
+		PlainDocument document = document("keep;\n" + rule(1, "Spam") + "discard;\n");
+		IncrementalRuleParser parser = new IncrementalRuleParser(document);
+		SieveRuleParser.ParseResult before = parser.getResult();
+
+		// When - typing inside the last line
+		document.insertString(document.getLength() - 1, " ", null);
+
+		// Then
+		assertThat(parser.getResult()).isSameAs(before);
+	}
+
+	@Test
+	void shouldGoStaleOnLargeEditAndResumeAfterAdopt() throws Exception {
+		// Given
+		PlainDocument document = document(rule(1, "Start"));
+		IncrementalRuleParser parser = new IncrementalRuleParser(document);
+		String large = "keep;\n".repeat(IncrementalRuleParser.MAX_INCREMENTAL_LINES) + rule(2, "End")
+			+ "## Flag: |UniqueId:99999999999 |Rulename: Big\n";
+
+		// When
+		document.insertString(document.getLength(), large, null);
+
+		// Then
+		assertThat(parser.isStale()).isTrue();
+		assertThat(parser.getResult()).isNull();
+
+		// When - a background scan of the same text is handed back
+		parser.adopt(DocumentRuleScanner.scan(document.getText(0, document.getLength())));
+		document.insertString(0, "\n", null);
+
+		// Then - incremental updates resume
+		assertThat(parser.isStale()).isFalse();
+		assertMatchesFullParse(parser, document);
+	}
+
+	@Test
+	void shouldMatchFullParseAfterRandomEdits() throws Exception {
+		// Given
+		String[] fragments = {
+			rule(1, "Spam"), rule(2, "News"), rule(2, "Dup"), "## Flag: |UniqueId:99999999999 |Rulename: Big\n",
+			"keep;\n", "\n", "if true {\n", "}\n", "##", " Flag: |UniqueId:", "7", "x", "\n\n"
+		};
+		Random random = new Random(42);
+		PlainDocument document = document(rule(1, "Start") + "keep;\n");
+		IncrementalRuleParser parser = new IncrementalRuleParser(document);
+
+		// When / Then
+		for (int i = 0; i < 2000; i++) {
+			int length = document.getLength();
+			if (length > 0 && random.nextInt(3) == 0) {
+				int offset = random.nextInt(length);
+				document.remove(offset, Math.min(length - offset, 1 + random.nextInt(40)));
+			} else {
+				document.insertString(random.nextInt(length + 1), fragments[random.nextInt(fragments.length)], null);
+			}
+			assertMatchesFullParse(parser, document);
+		}
+	}
+
+	@Test
+	void shouldScanOnlyEditedLinesOfLargeDocument() throws Exception {
+		// Given - 100k lines, 20k rules
+		StringBuilder text = new StringBuilder();
+		for (int i = 1; i <= 20_000; i++) {
+			text.append(rule(i, "Rule " + i)).append("if true {\n\tkeep;\n}\n\n");
+		}
+		PlainDocument document = document(text.toString());
+		IncrementalRuleParser parser = new IncrementalRuleParser(document);
+		int middle = document.getLength() / 2;
+		long initialScan = parser.getScannedLineCount();
+
+		// When
+		for (int i = 0; i < 100; i++) {
+			document.insertString(middle, "x", null);
+			document.remove(middle, 1);
+		}
+
+		// Then - each edit within a line scans just that line
+		List<SieveRule> rules = parser.getResult().getRules();
+		assertThat(rules).hasSize(20_000);
+		assertThat(initialScan).isEqualTo(document.getDefaultRootElement().getElementCount());
+		assertThat(parser.getScannedLineCount() - initialScan).isEqualTo(200);
+	}
+}
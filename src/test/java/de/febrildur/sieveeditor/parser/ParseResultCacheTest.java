@@ -0,0 +1,84 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ParseResultCacheTest {
+
+	private final AtomicInteger parses = new AtomicInteger();
+	private final Function<CharSequence, SieveRuleParser.ParseResult> parser = text -> {
+		parses.incrementAndGet();
+		return DocumentRuleScanner.scan(text);
+	};
+
+	@Test
+	void shouldParseOnceForRepeatedContent() {
+		// Given
+		ParseResultCache cache = new ParseResultCache();
+		String script = "## Flag: |UniqueId:1 |Rulename: Spam\ndiscard;\n";
+
+		// When
+		SieveRuleParser.ParseResult first = cache.get(script, parser);
+		SieveRuleParser.ParseResult second = cache.get(new StringBuilder(script), parser);
+
+		// Then
+		assertThat(second).isSameAs(first);
+		assertThat(parses).hasValue(1);
+		assertThat(cache.getHits()).isEqualTo(1);
+		assertThat(cache.getMisses()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldEvictLeastRecentlyUsed() {
+		// Given
+		ParseResultCache cache = new ParseResultCache(2);
+		cache.get("a", parser);
+		cache.get("b", parser);
+		cache.get("a", parser); // a is now the most recent
+
+		// When
+		cache.get("c", parser);
+
+		// Then - b was evicted, a was kept
+		assertThat(cache.size()).isEqualTo(2);
+		cache.get("a", parser);
+		assertThat(parses).hasValue(3);
+		cache.get("b", parser);
+		assertThat(parses).hasValue(4);
+	}
+
+	@Test
+	void shouldNotCacheNullResults() {
+		ParseResultCache cache = new ParseResultCache();
+
+		assertThat(cache.get("cancelled", text -> null)).isNull();
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	void shouldHashDifferentTextsDifferently() {
+		assertThat(ParseResultCache.hash("keep;")).isNotEqualTo(ParseResultCache.hash("keep; "));
+		assertThat(ParseResultCache.hash("ab")).isNotEqualTo(ParseResultCache.hash("ba"));
+		assertThat(ParseResultCache.hash(new StringBuilder("x"))).isEqualTo(ParseResultCache.hash("x"));
+	}
+
+	@Test
+	void shouldResetOnClear() {
+		ParseResultCache cache = new ParseResultCache();
+		cache.get("a", parser);
+		cache.get("a", parser);
+
+		cache.clear();
+
+		assertThat(cache.size()).isZero();
+		assertThat(cache.getHits()).isZero();
+		assertThat(cache.getMisses()).isZero();
+	}
+}
@@ -0,0 +1,62 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Matches rule comments that make a backtracking regex try many ways to
+ * split their whitespace, at growing lengths. The time per line should grow
+ * linearly with the length.
+ *
+ * <p>Run with {@code mvn test-compile exec:exec -Pbenchmarks -Dbenchmark=RuleCommentMatcherBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleCommentMatcherBenchmark {
+
+	@Param({"1000", "10000", "100000"})
+	private int length;
+
+	private final RuleCommentMatcher matcher = new RuleCommentMatcher();
+	private String[] lines;
+
+	@Setup
+	public void createLines() {
+		String spaces = " ".repeat(length);
+		lines = new String[] {
+			"## Flag:" + spaces,
+			"## Flag: |UniqueId:1|Rulename: a|LastModified:" + spaces + "|ModifiedBy:" + spaces + "x|",
+			"## Flag: |UniqueId:1|Rulename: a|ModifiedBy: x" + spaces + "y",
+			"## Flag: " + "|".repeat(length),
+		};
+	}
+
+	@Benchmark
+	public int matchPathological() {
+		int matched = 0;
+		for (String line : lines) {
+			if (matcher.matches(line)) {
+				matched++;
+			}
+		}
+		return matched;
+	}
+}
@@ -0,0 +1,231 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RuleCommentMatcherTest {
+
+	/** The expression the matcher replaces, used as the oracle. */
+	private static final Pattern RULE_PATTERN = Pattern.compile(
+		"^\\s*##\\s*Flag:\\s*([^|]*)\\|\\s*UniqueId:\\s*(\\d+)\\s*\\|\\s*Rulename:\\s*([^|]*)(?:\\|\\s*LastModified:\\s*([^|]+))?(?:\\|\\s*ModifiedBy:\\s*([^|\\s]+))?\\s*$",
+		Pattern.CASE_INSENSITIVE
+	);
+
+	private static final String[] PIECES = {
+		"##", "#", " ", "  ", "\t", "\r", "\n", "\u000B", "\f", "|", "||", ":",
+		"Flag:", "flag:", "FLAG:", "Flag", "UniqueId:", "uniqueID:", "UniqueId",
+		"Rulename:", "RULENAME:", "LastModified:", "lastmodified:", "ModifiedBy:", "modifiedby:",
+		"0", "7", "42", "2147483647", "2147483648", "99999999999",
+		"x", "Spam", "2025-12-18T13:54:27Z", "1.2.3.4", "\u00E4", "\u017F", "\u212A",
+		"\u0085", "\u2028", "\u2029", "\u00A0"
+	};
+
+	private final RuleCommentMatcher matcher = new RuleCommentMatcher();
+
+	/**
+	 * Asserts that the matcher accepts the line exactly when the regex does,
+	 * with the same fields.
+	 */
+	private void assertLikeRegex(String line) {
+		Matcher expected = RULE_PATTERN.matcher(line);
+		boolean matches = matcher.matches(line);
+
+		assertThat(matches).as("matches %s", escape(line)).isEqualTo(expected.matches());
+		if (matches) {
+			assertThat(List.of(matcher.getFlag(), matcher.getRuleName(),
+					String.valueOf(matcher.getLastModified()), String.valueOf(matcher.getModifiedBy())))
+				.as("fields of %s", escape(line))
+				.containsExactly(expected.group(1), expected.group(3),
+					String.valueOf(expected.group(4)), String.valueOf(expected.group(5)));
+			boolean validId;
+			try {
+				assertThat(matcher.getId()).isEqualTo(Integer.parseInt(expected.group(2)));
+				validId = true;
+			} catch (NumberFormatException e) {
+				validId = false;
+			}
+			assertThat(matcher.hasValidId()).as("valid id of %s", escape(line)).isEqualTo(validId);
+		}
+	}
+
+	private static String escape(String line) {
+		StringBuilder escaped = new StringBuilder();
+		for (char c : line.toCharArray()) {
+			escaped.append(c < ' ' || c > '~' ? String.format("\\u%04X", (int) c) : String.valueOf(c));
+		}
+		return escaped.toString();
+	}
+
+	@Test
+	void shouldMatchTypicalRuleComments() {
+		// Given
+		String line = "  ## Flag: vacation|UniqueId:2|Rulename: Abwesenheit|LastModified: 2025-12-18T13:54:27Z|ModifiedBy: 111.111.111.111";
+
+		// When
+		boolean matches = matcher.matches(line);
+
+		// Then
+		assertThat(matches).isTrue();
+		assertThat(matcher.getFlag()).isEqualTo("vacation");
+		assertThat(matcher.getId()).isEqualTo(2);
+		assertThat(matcher.getRuleName()).isEqualTo("Abwesenheit");
+		assertThat(matcher.getLastModified()).isEqualTo("2025-12-18T13:54:27Z");
+		assertThat(matcher.getModifiedBy()).isEqualTo("111.111.111.111");
+	}
+
+	@Test
+	void shouldMatchLineWithinLargerText() {
+		// Given
+		String text = "keep;\n## Flag: |UniqueId:5 |Rulename: Inner\nstop;";
+		int start = text.indexOf('\n') + 1;
+
+		// When
+		boolean matches = matcher.matches(text, start, text.lastIndexOf('\n'));
+
+		// Then
+		assertThat(matches).isTrue();
+		assertThat(matcher.getId()).isEqualTo(5);
+		assertThat(matcher.getRuleName()).isEqualTo("Inner");
+	}
+
+	@Test
+	void shouldAgreeWithRegexOnEdgeCases() {
+		for (String line : new String[]{
+			"",
+			"#",
+			"##",
+			"## Flag: |UniqueId:1|Rulename:",
+			"## Flag: |UniqueId:1|Rulename: A |",
+			"## Flag: |UniqueId:1|Rulename: A|LastModified:",
+			"## Flag: |UniqueId:1|Rulename: A|LastModified:   ",
+			"## Flag: |UniqueId:1|Rulename: A|LastModified: \t|ModifiedBy: x",
+			"## Flag: |UniqueId:1|Rulename: A|LastModified: t  ",
+			"## Flag: |UniqueId:1|Rulename: A|LastModified: t|ModifiedBy:",
+			"## Flag: |UniqueId:1|Rulename: A|LastModified: t|ModifiedBy: a b",
+			"## Flag: |UniqueId:1|Rulename: A|ModifiedBy: x  \u2028",
+			"## Flag: |UniqueId:1|Rulename: A|ModifiedBy: x \u2028 ",
+			"## Flag: |UniqueId:1|Rulename: A|ModifiedBy: x|LastModified: t",
+			"## Flag: |UniqueId:1|Rulename: A|Other: x",
+			"## Flag: |UniqueId: 007 |Rulename: Leading zeros",
+			"## Flag: |UniqueId:2147483648|Rulename: Too big",
+			"## Flag: |UniqueId:|Rulename: No id",
+			"## fLaG: x|uNiQuEiD:3|rUlEnAmE: Mixed case",
+			"## Flag: |UniqueId:1|Rule\u017Fame: Long s",
+			"## Flag: |Uniqueid:1|Rulename: \u212A",
+			"\u00A0## Flag: |UniqueId:1|Rulename: No-break space"
+		}) {
+			assertLikeRegex(line);
+		}
+	}
+
+	@Test
+	void shouldAgreeWithRegexOnRandomLines() {
+		Random random = new Random(39);
+		for (int round = 0; round < 200_000; round++) {
+			// Given - random pieces, mostly in the order of a real rule comment
+			StringBuilder line = new StringBuilder();
+			int count = random.nextInt(16);
+			for (int i = 0; i < count; i++) {
+				line.append(PIECES[random.nextInt(PIECES.length)]);
+			}
+			if (random.nextBoolean()) {
+				line.insert(0, "## Flag: " + pick(random, "", "x", " ") + "|UniqueId:" + pick(random, "1", "12 ", "")
+					+ "|Rulename: " + pick(random, "R", "", " R "));
+			}
+
+			// Then
+			assertLikeRegex(line.toString());
+		}
+	}
+
+	private static String pick(Random random, String... choices) {
+		return choices[random.nextInt(choices.length)];
+	}
+
+	@Test
+	void shouldScanPathologicalLinesInLinearTime() {
+		// Given - lines that make the regex try many ways to split whitespace
+		int length = 200_000;
+		String spaces = " ".repeat(length);
+		List<String> lines = Arrays.asList(
+			"##" + spaces,
+			"## Flag:" + spaces,
+			"## Flag: |UniqueId:1|Rulename:" + spaces + "|",
+			"## Flag: |UniqueId:1|Rulename: a|LastModified:" + spaces + "|ModifiedBy:" + spaces + "x|",
+			"## Flag: |UniqueId:1|Rulename: a|ModifiedBy: x" + spaces + "y",
+			"## Flag: |UniqueId:" + "9".repeat(length) + "|Rulename: a",
+			"## Flag: " + "|".repeat(length),
+			"## Flag: |UniqueId:1|Rulename: a" + "|LastModified: t".repeat(length / 16)
+		);
+
+		for (String line : lines) {
+			// When
+			CountingLine counting = new CountingLine(line);
+			matcher.matches(counting);
+
+			// Then - a few reads per character; a backtracking scan needs millions
+			assertThat(counting.reads).as(line.substring(0, 20)).isLessThanOrEqualTo(4L * line.length());
+		}
+	}
+
+	@Test
+	void shouldReadEachCharacterAsOftenInLongLinesAsInShortOnes() {
+		// Given
+		String shortLine = "## Flag: |UniqueId:1|Rulename: a|LastModified:" + " ".repeat(1_000) + "|x";
+		String longLine = "## Flag: |UniqueId:1|Rulename: a|LastModified:" + " ".repeat(100_000) + "|x";
+		CountingLine shortCounting = new CountingLine(shortLine);
+		CountingLine longCounting = new CountingLine(longLine);
+
+		// When
+		assertThat(matcher.matches(shortCounting)).isFalse();
+		assertThat(matcher.matches(longCounting)).isFalse();
+
+		// Then - no superlinear growth; a quadratic scan would read 100x more per character
+		double shortRate = (double) shortCounting.reads / shortLine.length();
+		double longRate = (double) longCounting.reads / longLine.length();
+		assertThat(longRate).isLessThan(shortRate * 1.1);
+	}
+
+	/**
+	 * A line that counts how often its characters are read.
+	 */
+	private static final class CountingLine implements CharSequence {
+		private final String line;
+		long reads;
+
+		CountingLine(String line) {
+			this.line = line;
+		}
+
+		@Override
+		public int length() {
+			return line.length();
+		}
+
+		@Override
+		public char charAt(int index) {
+			reads++;
+			return line.charAt(index);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return line.subSequence(start, end);
+		}
+
+		@Override
+		public String toString() {
+			return line;
+		}
+	}
+}
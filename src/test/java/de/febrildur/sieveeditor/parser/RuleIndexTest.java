@@ -0,0 +1,158 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RuleIndexTest {
+
+	@Test
+	void shouldGrowBeyondInitialCapacity() {
+		// Given
+		RuleIndex index = new RuleIndex(1);
+
+		// When
+		for (int i = 1; i <= 1000; i++) {
+			index.add(i, i * 2, i * 40);
+		}
+
+		// Then
+		assertThat(index.size()).isEqualTo(1000);
+		assertThat(index.getId(999)).isEqualTo(1000);
+		assertThat(index.getLine(999)).isEqualTo(2000);
+		assertThat(index.getOffset(999)).isEqualTo(40_000);
+		assertThatThrownBy(() -> index.getId(1000)).isInstanceOf(IndexOutOfBoundsException.class);
+	}
+
+	@Test
+	void shouldReportDuplicatesByIdWithTheirLines() {
+		// Given
+		RuleIndex index = new RuleIndex();
+		index.add(3, 1, 0);
+		index.add(1, 4, 10);
+		index.add(3, 7, 20);
+		index.add(1, 9, 30);
+		index.add(3, 12, 40);
+		index.add(2, 15, 50);
+
+		// When
+		List<SieveWarning> warnings = index.validate();
+
+		// Then
+		assertThat(warnings).extracting(SieveWarning::getSeverity, SieveWarning::getMessage, SieveWarning::getLineNumbers)
+			.containsExactly(
+				tuple(SieveWarning.Severity.ERROR, "Duplicate UniqueId 1", List.of(4, 9)),
+				tuple(SieveWarning.Severity.ERROR, "Duplicate UniqueId 3", List.of(1, 7, 12)));
+	}
+
+	@Test
+	void shouldReportGapsOncePerRange() {
+		// Given
+		RuleIndex index = new RuleIndex();
+		for (int id : new int[]{7, 2, 2, 3, 10}) {
+			index.add(id, index.size() + 1, RuleIndex.UNKNOWN_OFFSET);
+		}
+
+		// When
+		List<String> messages = index.validate().stream().map(SieveWarning::getMessage).toList();
+
+		// Then
+		assertThat(messages).containsExactly("Duplicate UniqueId 2",
+			"Missing UniqueId 1", "Missing UniqueIds 4 to 6", "Missing UniqueIds 8 to 9");
+	}
+
+	@Test
+	void shouldReturnNoWarningsForEmptyIndex() {
+		assertThat(new RuleIndex().validate()).isEmpty();
+	}
+
+	@Test
+	void shouldNotOverflowAfterLargestId() {
+		// Given
+		RuleIndex index = new RuleIndex();
+		index.add(1, 1, 0);
+		index.add(Integer.MAX_VALUE, 2, 10);
+
+		// When
+		List<String> messages = index.validate().stream().map(SieveWarning::getMessage).toList();
+
+		// Then
+		assertThat(messages).containsExactly("Missing UniqueIds 2 to " + (Integer.MAX_VALUE - 1));
+	}
+
+	@Test
+	void shouldFindRuleByLine() {
+		// Given
+		RuleIndex index = new RuleIndex();
+		index.add(5, 3, 12);
+		index.add(6, 8, 50);
+
+		// Then
+		assertThat(index.indexOfLine(8)).isEqualTo(1);
+		assertThat(index.indexOfLine(4)).isEqualTo(-1);
+	}
+
+	@Test
+	void shouldShiftLinesAndKnownOffsetsWhenAppending() {
+		// Given
+		RuleIndex chunk = new RuleIndex();
+		chunk.add(1, 1, 0);
+		chunk.add(2, 2, RuleIndex.UNKNOWN_OFFSET);
+		RuleIndex index = new RuleIndex();
+
+		// When
+		index.addAll(chunk, 100, 5000);
+
+		// Then
+		assertThat(index.getLine(0)).isEqualTo(101);
+		assertThat(index.getOffset(0)).isEqualTo(5000);
+		assertThat(index.getOffset(1)).isEqualTo(RuleIndex.UNKNOWN_OFFSET);
+	}
+
+	@Test
+	void shouldMatchBoxedValidationOnRandomIds() {
+		Random random = new Random(38);
+		for (int round = 0; round < 50; round++) {
+			// Given
+			RuleIndex index = new RuleIndex();
+			Map<Integer, List<Integer>> linesById = new TreeMap<>();
+			int count = random.nextInt(300);
+			for (int line = 1; line <= count; line++) {
+				int id = random.nextInt(200);
+				index.add(id, line, RuleIndex.UNKNOWN_OFFSET);
+				linesById.computeIfAbsent(id, k -> new ArrayList<>()).add(line);
+			}
+
+			// When
+			List<String> actual = index.validate().stream()
+				.map(w -> w.getMessage() + w.getLineNumbers()).toList();
+
+			// Then - same warnings as counting with boxed collections
+			List<String> expected = new ArrayList<>();
+			linesById.forEach((id, lines) -> {
+				if (lines.size() > 1) {
+					expected.add("Duplicate UniqueId " + id + lines);
+				}
+			});
+			int expectedNext = 1;
+			for (int id : linesById.keySet()) {
+				if (id == expectedNext + 1) {
+					expected.add("Missing UniqueId " + expectedNext + "[]");
+				} else if (id > expectedNext) {
+					expected.add("Missing UniqueIds " + expectedNext + " to " + (id - 1) + "[]");
+				}
+				expectedNext = id + 1;
+			}
+			assertThat(actual).containsExactlyElementsOf(expected);
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares sequential and parallel rule scanning to find the script size
+ * where parallel scanning starts to pay off ({@link DocumentRuleScanner#PARALLEL_THRESHOLD}).
+ *
+ * <p>Run with {@code mvn test-compile exec:exec -Pbenchmarks}; see README-TESTS.md.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleScanBenchmark {
+
+	/** Script size in lines; about 30 characters per line. */
+	@Param({"1000", "10000", "30000", "100000", "1000000"})
+	public int lines;
+
+	private String script;
+
+	@Setup
+	public void createScript() {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < lines / 5; i++) {
+			text.append("## Flag: |UniqueId:").append(i + 1).append(" |Rulename: Rule ").append(i).append('\n')
+				.append("if header :contains \"subject\" \"x\" {\n")
+				.append("\tfileinto \"Folder\";\n")
+				.append("}\n")
+				.append('\n');
+		}
+		script = text.toString();
+	}
+
+	@Benchmark
+	public SieveRuleParser.ParseResult sequential() {
+		return DocumentRuleScanner.scanSequential(script, () -> false);
+	}
+
+	@Benchmark
+	public SieveRuleParser.ParseResult parallel() {
+		return DocumentRuleScanner.scanParallel(script, () -> false, 128 * 1024);
+	}
+}
@@ -0,0 +1,53 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parses and formats a badly indented 100k-line script.
+ *
+ * <p>Run with {@code mvn test-compile exec:exec -Pbenchmarks -Dbenchmark=SieveFormatterBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SieveFormatterBenchmark {
+
+	private static final int LINES = 100_000;
+
+	private String script;
+
+	@Setup
+	public void createScript() {
+		StringBuilder text = new StringBuilder("require [\"fileinto\", \"imap4flags\"];\n");
+		for (int i = 0; i < LINES / 5; i++) {
+			text.append("## Flag: |UniqueId:").append(i + 1).append(" |Rulename: Rule ").append(i).append('\n')
+				.append("IF header :CONTAINS :comparator \"i;octet\" [\"subject\",\"x-topic\"] \"x").append(i).append("\"{\n")
+				.append("  fileinto :flags \"\\\\Seen\" \"Folder/").append(i % 20).append("\"; # sorted\n")
+				.append("stop;}\n")
+				.append('\n');
+		}
+		script = text.toString();
+	}
+
+	@Benchmark
+	public String format() {
+		return SieveFormatter.format(script);
+	}
+}
@@ -0,0 +1,216 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SieveFormatterTest {
+
+	@Test
+	void shouldIndentBlocksAndPutCommandsOnOwnLines() {
+		// Given
+		String script = "require \"fileinto\";if header :contains \"subject\" \"spam\"{\n"
+			+ "\t\tfileinto \"Junk\"; stop;}\n"
+			+ "  elsif   true {\nkeep;\n}\n"
+			+ "else{discard;}";
+
+		// When
+		String formatted = SieveFormatter.format(script);
+
+		// Then
+		assertThat(formatted).isEqualTo("""
+			require "fileinto";
+			if header :contains "subject" "spam" {
+			    fileinto "Junk";
+			    stop;
+			} elsif true {
+			    keep;
+			} else {
+			    discard;
+			}
+			""");
+	}
+
+	@Test
+	void shouldOrderTagsAndLowerCaseNames() {
+		// Given
+		String script = "IF Address :Is :comparator \"i;octet\" :domain \"from\" \"example.com\" "
+			+ "{ FileInto :copy \"x\"; }\n";
+
+		// When
+		String formatted = SieveFormatter.format(script);
+
+		// Then
+		assertThat(formatted).isEqualTo("""
+			if address :comparator "i;octet" :domain :is "from" "example.com" {
+			    fileinto :copy "x";
+			}
+			""");
+	}
+
+	@Test
+	void shouldKeepOrderWithUnknownTag() {
+		// Given
+		String script = "foo :is :bar \"x\" :contains \"y\";\n";
+
+		// When
+		String formatted = SieveFormatter.format(script);
+
+		// Then
+		assertThat(formatted).isEqualTo(script);
+	}
+
+	@Test
+	void shouldWrapLongStringListAlignedAfterBracket() {
+		// Given
+		String script = "if header :is \"from\" [\"alice@example.com\", \"bob@example.com\", "
+			+ "\"carol@example.com\", \"dave@example.com\", \"erin@example.com\"] { keep; }\n";
+
+		// When
+		String formatted = SieveFormatter.format(script);
+
+		// Then
+		assertThat(formatted).isEqualTo("""
+			if header :is "from" ["alice@example.com", "bob@example.com", "carol@example.com",
+			                      "dave@example.com", "erin@example.com"] {
+			    keep;
+			}
+			""");
+		assertThat(formatted.lines()).allMatch(line -> line.length() <= SieveFormatter.MAX_WIDTH);
+	}
+
+	@Test
+	void shouldWrapLongTestListAlignedAfterParenthesis() {
+		// Given
+		String script = "if anyof(header :contains \"subject\" \"first topic\", header :contains \"subject\" "
+			+ "\"second topic\", not exists \"list-id\") { stop; }\n"
+			+ "if allof (true, false) { stop; }\n";
+
+		// When
+		String formatted = SieveFormatter.format(script);
+
+		// Then
+		assertThat(formatted).isEqualTo("""
+			if anyof (header :contains "subject" "first topic",
+			          header :contains "subject" "second topic",
+			          not exists "list-id") {
+			    stop;
+			}
+			if allof (true, false) {
+			    stop;
+			}
+			""");
+	}
+
+	@Test
+	void shouldKeepCommentsAndOneBlankLine() {
+		// Given
+		String script = """
+			## Flag: |UniqueId:0 |Rulename: Spam
+			if header :contains "subject" "spam" {   # tagged by the filter
+			  fileinto "Junk";
+
+
+			  /* no stop */
+			}
+
+
+
+			## Flag: |UniqueId:1 |Rulename: Rest
+			keep;
+			""";
+
+		// When
+		String formatted = SieveFormatter.format(script);
+
+		// Then
+		assertThat(formatted).isEqualTo("""
+			## Flag: |UniqueId:0 |Rulename: Spam
+			if header :contains "subject" "spam" { # tagged by the filter
+			    fileinto "Junk";
+
+			    /* no stop */
+			}
+
+			## Flag: |UniqueId:1 |Rulename: Rest
+			keep;
+			""");
+	}
+
+	@Test
+	void shouldCopyCommandWithCommentInsideAsWritten() {
+		// Given
+		String script = """
+			if anyof (true, # always
+			     false)
+			{ keep; }
+			""";
+
+		// When
+		String formatted = SieveFormatter.format(script);
+
+		// Then
+		assertThat(formatted).isEqualTo("""
+			if anyof (true, # always
+			     false) {
+			    keep;
+			}
+			""");
+	}
+
+	@Test
+	void shouldKeepStringsNumbersAndTextLiteralsAsWritten() {
+		// Given
+		String script = "if size :over 100K { vacation :days 7 :subject \"Re: \\\"away\\\"\" text:\n"
+			+ "I am away.\n"
+			+ "..\n"
+			+ ".\n"
+			+ "; }\n";
+
+		// When
+		String formatted = SieveFormatter.format(script);
+
+		// Then
+		assertThat(formatted).isEqualTo("if size :over 100K {\n"
+			+ "    vacation :days 7 :subject \"Re: \\\"away\\\"\" text:\n"
+			+ "I am away.\n"
+			+ "..\n"
+			+ ".\n"
+			+ "    ;\n"
+			+ "}\n");
+	}
+
+	@Test
+	void shouldBeStableWhenFormattedAgain() {
+		// Given
+		String script = """
+			require ["fileinto", "imap4flags"];
+			# keep an eye on lists
+			if   allof (  not address :all :is "to" "me@example.com",exists "list-id") {
+			addflag "\\\\Seen" ; fileinto :flags ["\\\\Seen", "$Label1"] :copy "Lists"; }
+			""";
+
+		// When
+		String once = SieveFormatter.format(script);
+		String twice = SieveFormatter.format(once);
+
+		// Then
+		assertThat(twice).isEqualTo(once);
+		assertThat(SieveParser.parse(once).hasErrors()).isFalse();
+		assertThat(once).contains("    fileinto :flags [\"\\\\Seen\", \"$Label1\"] :copy \"Lists\";");
+	}
+
+	@Test
+	void shouldRejectScriptWithSyntaxErrors() {
+		// Given
+		String script = "keep;\nif true {\n";
+
+		// When / Then
+		assertThatThrownBy(() -> SieveFormatter.format(script))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("Line 2");
+	}
+}
@@ -0,0 +1,115 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.febrildur.sieveeditor.parser.SieveToken.Type;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SieveLexerTest {
+
+	private static List<Type> types(String script) {
+		return SieveLexer.tokenize(script).stream().map(SieveToken::getType).toList();
+	}
+
+	@Test
+	void shouldTokenizeCommandWithTagsAndStringList() {
+		// Given
+		String script = "if header :contains [\"From\", \"Sender\"] \"boss\" { keep; }";
+
+		// When
+		List<Type> types = types(script);
+
+		// Then
+		assertThat(types).containsExactly(
+			Type.IDENTIFIER, Type.IDENTIFIER, Type.TAG,
+			Type.LEFT_BRACKET, Type.STRING, Type.COMMA, Type.STRING, Type.RIGHT_BRACKET,
+			Type.STRING, Type.LEFT_BRACE, Type.IDENTIFIER, Type.SEMICOLON, Type.RIGHT_BRACE, Type.EOF);
+	}
+
+	@Test
+	void shouldRecordOffsetsAndLines() {
+		// Given
+		String script = "keep;\n  stop;";
+
+		// When
+		List<SieveToken> tokens = SieveLexer.tokenize(script);
+
+		// Then
+		SieveToken stop = tokens.get(2);
+		assertThat(stop.getValue()).isEqualTo("stop");
+		assertThat(stop.getStart()).isEqualTo(8);
+		assertThat(stop.getEnd()).isEqualTo(12);
+		assertThat(stop.getLine()).isEqualTo(2);
+	}
+
+	@Test
+	void shouldResolveEscapesInQuotedStrings() {
+		List<SieveToken> tokens = SieveLexer.tokenize("\"say \\\"hi\\\" \\\\ \\q\"");
+
+		assertThat(tokens.get(0).getType()).isEqualTo(Type.STRING);
+		assertThat(tokens.get(0).getValue()).isEqualTo("say \"hi\" \\ q");
+	}
+
+	@Test
+	void shouldReadMultilineStringAndRemoveDotStuffing() {
+		// Given
+		String script = "vacation text: # reply\r\nI am away.\r\n..hidden\r\n.\r\n;";
+
+		// When
+		List<SieveToken> tokens = SieveLexer.tokenize(script);
+
+		// Then
+		SieveToken text = tokens.get(1);
+		assertThat(text.getType()).isEqualTo(Type.MULTILINE_STRING);
+		assertThat(text.getValue()).isEqualTo("I am away.\r\n.hidden\r\n");
+		assertThat(tokens.get(2).getType()).isEqualTo(Type.SEMICOLON);
+		assertThat(tokens.get(2).getLine()).isEqualTo(5);
+	}
+
+	@Test
+	void shouldReadNumbersWithQuantifier() {
+		List<SieveToken> tokens = SieveLexer.tokenize("size :over 100K");
+
+		assertThat(tokens.get(2).getType()).isEqualTo(Type.NUMBER);
+		assertThat(tokens.get(2).getValue()).isEqualTo("100K");
+	}
+
+	@Test
+	void shouldReadBothCommentKinds() {
+		// Given
+		String script = "# first\nkeep; /* multi\nline */ stop;";
+
+		// When
+		List<SieveToken> tokens = SieveLexer.tokenize(script);
+
+		// Then
+		assertThat(tokens.get(0).getType()).isEqualTo(Type.HASH_COMMENT);
+		assertThat(tokens.get(0).getValue()).isEqualTo(" first");
+		assertThat(tokens.get(3).getType()).isEqualTo(Type.BRACKET_COMMENT);
+		assertThat(tokens.get(3).getValue()).isEqualTo(" multi\nline ");
+		assertThat(tokens.get(4).getLine()).isEqualTo(3);
+	}
+
+	@Test
+	void shouldReportUnterminatedConstructsAsErrors() {
+		assertThat(types("\"open")).containsExactly(Type.ERROR, Type.EOF);
+		assertThat(types("/* open")).containsExactly(Type.ERROR, Type.EOF);
+		assertThat(types("text:\nno end\n")).containsExactly(Type.ERROR, Type.EOF);
+		assertThat(types("keep @;")).containsExactly(Type.IDENTIFIER, Type.ERROR, Type.SEMICOLON, Type.EOF);
+	}
+
+	@Test
+	void shouldNotTreatTextWithoutColonAsMultiline() {
+		List<SieveToken> tokens = SieveLexer.tokenize("texts: text");
+
+		assertThat(tokens.get(0).getType()).isEqualTo(Type.IDENTIFIER);
+		assertThat(tokens.get(1).getType()).isEqualTo(Type.ERROR);
+		assertThat(tokens.get(2).getValue()).isEqualTo("text");
+	}
+}
@@ -0,0 +1,55 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.febrildur.sieveeditor.parser.ast.ScriptNode;
+
+/**
+ * Parses a 100k-line script with 20k rules into its syntax tree.
+ *
+ * <p>Run with {@code mvn test-compile exec:exec -Pbenchmarks -Dbenchmark=SieveParserBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SieveParserBenchmark {
+
+	private static final int RULES = 20_000;
+
+	private String script;
+
+	@Setup
+	public void createScript() {
+		StringBuilder text = new StringBuilder("require [\"fileinto\"];\n");
+		for (int i = 0; i < RULES; i++) {
+			text.append("## Flag: |UniqueId:").append(i).append(" |Rulename: Rule ").append(i).append('\n')
+				.append("if header :contains \"subject\" \"topic").append(i).append("\" {\n")
+				.append("\tfileinto \"Folder").append(i).append("\";\n")
+				.append("\tstop;\n")
+				.append("}\n");
+		}
+		script = text.toString();
+	}
+
+	@Benchmark
+	public ScriptNode parse() {
+		return SieveParser.parse(script);
+	}
+}
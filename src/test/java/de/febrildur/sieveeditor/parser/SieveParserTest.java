@@ -0,0 +1,201 @@
+package de.febrildur.sieveeditor.parser;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.febrildur.sieveeditor.parser.ast.CommandNode;
+import de.febrildur.sieveeditor.parser.ast.NumberArgument;
+import de.febrildur.sieveeditor.parser.ast.ScriptNode;
+import de.febrildur.sieveeditor.parser.ast.StringArgument;
+import de.febrildur.sieveeditor.parser.ast.StringListArgument;
+import de.febrildur.sieveeditor.parser.ast.TagArgument;
+import de.febrildur.sieveeditor.parser.ast.TestNode;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SieveParserTest {
+
+	private static final String SCRIPT = """
+		require ["fileinto", "vacation"];
+		require "envelope";
+
+		## Flag: |UniqueId:1 |Rulename: Spam
+		if allof (header :contains "subject" "spam", size :over 2K) {
+			fileinto "Junk";
+			stop;
+		} elsif not exists "x-ok" {
+			/* nothing */
+			keep;
+		} else {
+			vacation :days 7 text:
+		Away.
+		.
+		;
+		}
+		""";
+
+	@Test
+	void shouldParseRequireAndRequiredExtensions() {
+		// When
+		ScriptNode script = SieveParser.parse(SCRIPT);
+
+		// Then
+		assertThat(script.getErrors()).isEmpty();
+		assertThat(script.getRequiredExtensions()).containsExactly("fileinto", "vacation", "envelope");
+	}
+
+	@Test
+	void shouldParseIfElsifElseChain() {
+		// When
+		List<CommandNode> commands = SieveParser.parse(SCRIPT).getCommands();
+
+		// Then
+		assertThat(commands).extracting(CommandNode::getName)
+			.containsExactly("require", "require", "if", "elsif", "else");
+		CommandNode ifCommand = commands.get(2);
+		assertThat(ifCommand.getBlock().getCommands()).extracting(CommandNode::getName)
+			.containsExactly("fileinto", "stop");
+		assertThat(commands.get(4).getTests()).isEmpty();
+		assertThat(commands.get(4).getBlock()).isNotNull();
+	}
+
+	@Test
+	void shouldParseNestedTestsAndArguments() {
+		// When
+		TestNode allof = SieveParser.parse(SCRIPT).getCommands().get(2).getTest();
+
+		// Then
+		assertThat(allof.is("ALLOF")).isTrue();
+		assertThat(allof.getTests()).hasSize(2);
+		TestNode header = allof.getTests().get(0);
+		assertThat(header.getArguments()).hasSize(3);
+		assertThat(((TagArgument) header.getArguments().get(0)).getName()).isEqualTo("contains");
+		assertThat(header.getArguments().get(1).getStringValues()).containsExactly("subject");
+		NumberArgument size = (NumberArgument) allof.getTests().get(1).getArguments().get(1);
+		assertThat(size.getValue()).isEqualTo(2048);
+		assertThat(size.getQuantifier()).isEqualTo('K');
+	}
+
+	@Test
+	void shouldParseStringListsAndMultilineStrings() {
+		// When
+		List<CommandNode> commands = SieveParser.parse(SCRIPT).getCommands();
+
+		// Then
+		StringListArgument list = (StringListArgument) commands.get(0).getArguments().get(0);
+		assertThat(list.getStrings()).extracting(StringArgument::getValue).containsExactly("fileinto", "vacation");
+		CommandNode vacation = commands.get(4).getBlock().getCommands().get(0);
+		StringArgument reason = (StringArgument) vacation.getArguments().get(2);
+		assertThat(reason.isMultiline()).isTrue();
+		assertThat(reason.getValue()).isEqualTo("Away.\n");
+	}
+
+	@Test
+	void shouldRecordSourceOffsets() {
+		// Given
+		String text = "keep;\nif true { stop; }";
+
+		// When
+		CommandNode ifCommand = SieveParser.parse(text).getCommands().get(1);
+
+		// Then
+		assertThat(ifCommand.getLine()).isEqualTo(2);
+		assertThat(text.substring(ifCommand.getStart(), ifCommand.getEnd())).isEqualTo("if true { stop; }");
+		assertThat(text.substring(ifCommand.getBlock().getStart(), ifCommand.getBlock().getEnd()))
+			.isEqualTo("{ stop; }");
+	}
+
+	@Test
+	void shouldCollectCommentsInSourceOrder() {
+		ScriptNode script = SieveParser.parse(SCRIPT);
+
+		assertThat(script.getComments()).hasSize(2);
+		assertThat(script.getComments().get(0).getText()).startsWith("# Flag:");
+		assertThat(script.getComments().get(0).isBracket()).isFalse();
+		assertThat(script.getComments().get(1).isBracket()).isTrue();
+	}
+
+	@Test
+	void shouldWalkAllNodesParentsFirst() {
+		// Given
+		ScriptNode script = SieveParser.parse("if header :is \"a\" \"b\" { discard; }");
+		List<String> visited = new ArrayList<>();
+
+		// When
+		script.walk(node -> visited.add(node.getClass().getSimpleName()));
+
+		// Then
+		assertThat(visited).containsExactly("ScriptNode", "CommandNode", "TestNode",
+			"TagArgument", "StringArgument", "StringArgument", "BlockNode", "CommandNode");
+	}
+
+	@Test
+	void shouldRecoverFromErrorsAndKeepParsing() {
+		// Given
+		String text = """
+			fileinto "a" "b" ]
+			keep;
+			if true { stop }
+			discard;
+			""";
+
+		// When
+		ScriptNode script = SieveParser.parse(text);
+
+		// Then
+		assertThat(script.getErrors()).hasSize(2);
+		assertThat(script.getErrors().get(0).getLine()).isEqualTo(1);
+		assertThat(script.getErrors().get(1).getLine()).isEqualTo(3);
+		assertThat(script.getCommands()).extracting(CommandNode::getName)
+			.containsExactly("fileinto", "if", "discard");
+	}
+
+	@Test
+	void shouldReportMisplacedRequireAndDanglingElse() {
+		ScriptNode script = SieveParser.parse("keep;\nrequire \"fileinto\";\nelse { stop; }");
+
+		assertThat(script.getErrors()).extracting(SyntaxError::getMessage)
+			.containsExactly("'require' must come before all other commands", "'else' must follow 'if' or 'elsif'");
+	}
+
+	@Test
+	void shouldReportUnbalancedBraces() {
+		assertThat(SieveParser.parse("if true { keep;").getErrors())
+			.extracting(SyntaxError::getMessage).containsExactly("Missing '}' for block opened on line 1");
+		assertThat(SieveParser.parse("keep; }").getErrors())
+			.extracting(SyntaxError::getMessage).containsExactly("Unexpected '}' without matching '{'");
+	}
+
+	@Test
+	void shouldReturnEmptyScriptForNullOrEmptyInput() {
+		assertThat(SieveParser.parse(null).getCommands()).isEmpty();
+		assertThat(SieveParser.parse("").hasErrors()).isFalse();
+	}
+
+	@Test
+	void shouldParseLargeScript() {
+		// Given - about 100k lines
+		StringBuilder text = new StringBuilder("require [\"fileinto\"];\n");
+		for (int i = 0; i < 20_000; i++) {
+			text.append("## Flag: |UniqueId:").append(i).append(" |Rulename: Rule ").append(i).append('\n')
+				.append("if header :contains \"subject\" \"topic").append(i).append("\" {\n")
+				.append("\tfileinto \"Folder").append(i).append("\";\n")
+				.append("\tstop;\n")
+				.append("}\n");
+		}
+
+		// When
+		ScriptNode script = SieveParser.parse(text);
+
+		// Then
+		assertThat(script.getCommands()).hasSize(20_001);
+		assertThat(script.getComments()).hasSize(20_000);
+		assertThat(script.getErrors()).isEmpty();
+		assertThat(script.getCommands().get(20_000).getLine()).isEqualTo(99_998);
+	}
+}
@@ -147,4 +147,18 @@ class SieveRuleTest {
 
         assertThat(rule.getFlag()).isNull();
     }
+
+    @Test
+    void shouldKeepCommentWhenMovedToAnotherLine() {
+        // Given
+        SieveRule rule = new SieveRule(4, "Moved", 2, "## Flag: |UniqueId:4 |Rulename: Moved", null, null, "");
+
+        // When
+        SieveRule moved = rule.withLineNumber(7);
+
+        // Then
+        assertThat(moved.getComment()).isEqualTo("## Flag: |UniqueId:4 |Rulename: Moved");
+        assertThat(moved.getLineNumber()).isEqualTo(7);
+        assertThat(rule.withLineNumber(2)).isSameAs(rule);
+    }
 }
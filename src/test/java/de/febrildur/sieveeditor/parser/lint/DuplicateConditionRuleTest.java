@@ -0,0 +1,84 @@
+package de.febrildur.sieveeditor.parser.lint;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.febrildur.sieveeditor.parser.SieveParser;
+import de.febrildur.sieveeditor.parser.SieveWarning;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DuplicateConditionRuleTest {
+
+	private static List<SieveWarning> check(String script) {
+		return new DuplicateConditionRule().check(new LintContext(SieveParser.parse(script), null));
+	}
+
+	@Test
+	void shouldReportElsifRepeatingEarlierCondition() {
+		// Given - same test, different spelling
+		String script = """
+			if header :contains "subject" "spam" {
+				discard;
+			} elsif size :over 100K {
+				keep;
+			} elsif HEADER :CONTAINS ["subject"] "spam" {
+				stop;
+			}
+			""";
+
+		// When
+		List<SieveWarning> warnings = check(script);
+
+		// Then
+		assertThat(warnings).extracting(SieveWarning::getMessage, SieveWarning::getLineNumbers)
+			.containsExactly(tuple("Condition repeats line 1, branch never runs", List.of(5)));
+	}
+
+	@Test
+	void shouldNotCompareSeparateIfChains() {
+		// Given
+		String script = """
+			if exists "x" { keep; }
+			if exists "x" { stop; }
+			""";
+
+		// Then
+		assertThat(check(script)).isEmpty();
+	}
+
+	@Test
+	void shouldReportDuplicateTestInAnyof() {
+		// Given
+		String script = """
+			if anyof (exists "x",
+				exists "y",
+				exists "x") {
+				keep;
+			}
+			""";
+
+		// When
+		List<SieveWarning> warnings = check(script);
+
+		// Then
+		assertThat(warnings).extracting(SieveWarning::getMessage, SieveWarning::getLineNumbers)
+			.containsExactly(tuple("Duplicate test in anyof", List.of(3)));
+	}
+
+	@Test
+	void shouldDistinguishStringValues() {
+		// Given
+		String script = """
+			if header :is "subject" "a,b" { keep; }
+			elsif header :is "subject" ["a", "b"] { stop; }
+			""";
+
+		// Then
+		assertThat(check(script)).isEmpty();
+	}
+}
@@ -0,0 +1,149 @@
+package de.febrildur.sieveeditor.parser.lint;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+
+import de.febrildur.sieveeditor.parser.SieveRule;
+import de.febrildur.sieveeditor.parser.SieveRuleParser;
+import de.febrildur.sieveeditor.parser.SieveWarning;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LintEngineTest {
+
+	private static LintRule rule(String id, List<SieveWarning> warnings) {
+		return new LintRule() {
+			@Override
+			public String getId() {
+				return id;
+			}
+
+			@Override
+			public List<SieveWarning> check(LintContext context) {
+				return warnings;
+			}
+		};
+	}
+
+	@Test
+	void shouldReportFindingsInRuleOrderWithTimings() {
+		// Given
+		SieveWarning first = new SieveWarning(SieveWarning.Severity.WARNING, "first", 3);
+		SieveWarning second = new SieveWarning(SieveWarning.Severity.ERROR, "second", 1);
+		LintEngine engine = new LintEngine(List.of(rule("a", List.of(first)), rule("b", List.of()),
+			rule("c", List.of(second))));
+
+		// When
+		LintReport report = engine.lint("keep;", null);
+
+		// Then
+		assertThat(report.getWarnings()).containsExactly(first, second);
+		assertThat(report.getTimings()).containsOnlyKeys("a", "b", "c");
+		assertThat(report.getTimings().keySet()).containsExactly("a", "b", "c");
+	}
+
+	@Test
+	void shouldShareOneSyntaxTreeBetweenRules() {
+		// Given
+		Set<Object> seen = ConcurrentHashMap.newKeySet();
+		List<LintRule> rules = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			rules.add(new LintRule() {
+				@Override
+				public String getId() {
+					return "tree";
+				}
+
+				@Override
+				public List<SieveWarning> check(LintContext context) {
+					seen.add(context.getScript());
+					return List.of();
+				}
+			});
+		}
+
+		// When
+		new LintEngine(rules).lint("if true { stop; }", null);
+
+		// Then
+		assertThat(seen).hasSize(1);
+	}
+
+	@Test
+	void shouldSkipRuleThatThrows() {
+		// Given
+		SieveWarning finding = new SieveWarning(SieveWarning.Severity.WARNING, "kept", 1);
+		LintRule broken = new LintRule() {
+			@Override
+			public String getId() {
+				return "broken";
+			}
+
+			@Override
+			public List<SieveWarning> check(LintContext context) {
+				throw new IllegalStateException("bug");
+			}
+		};
+		LintEngine engine = new LintEngine(List.of(broken, rule("ok", List.of(finding))));
+
+		// When
+		LintReport report = engine.lint("keep;", null);
+
+		// Then
+		assertThat(report.getWarnings()).containsExactly(finding);
+		assertThat(report.getTimings()).containsKeys("broken", "ok");
+	}
+
+	@Test
+	void shouldRunBuiltInRulesByDefault() {
+		// Given
+		String script = """
+			fileinto "Spam";
+			stop;
+			keep;
+			""";
+
+		// When
+		LintReport report = LintEngine.withDefaultRules().lint(script, null);
+
+		// Then
+		assertThat(report.getWarnings()).extracting(SieveWarning::getMessage)
+			.containsExactly("Missing require \"fileinto\"", "Unreachable code after stop");
+	}
+
+	@Test
+	void shouldMergeIntoParseResultBySeverity() {
+		// Given
+		SieveRule rule = new SieveRule(1, "Spam", 1, "## Flag: |UniqueId:1 |Rulename: Spam");
+		SieveWarning duplicate = new SieveWarning(SieveWarning.Severity.ERROR, "Duplicate UniqueId 1", List.of(1, 5));
+		SieveWarning gap = new SieveWarning(SieveWarning.Severity.WARNING, "Missing UniqueId 2");
+		SieveRuleParser.ParseResult parsed = new SieveRuleParser.ParseResult(List.of(rule), List.of(duplicate, gap));
+		SieveWarning lintError = new SieveWarning(SieveWarning.Severity.ERROR, "Missing require \"fileinto\"", 4);
+		SieveWarning lintWarning = new SieveWarning(SieveWarning.Severity.WARNING, "Unreachable code after stop", 9);
+		LintReport report = new LintReport(List.of(lintWarning, lintError), java.util.Map.of());
+
+		// When
+		SieveRuleParser.ParseResult merged = report.mergeInto(parsed);
+
+		// Then
+		assertThat(merged.getRules()).containsExactly(rule);
+		assertThat(merged.getWarnings()).containsExactly(duplicate, lintError, gap, lintWarning);
+		assertThat(parsed.getWarnings()).containsExactly(duplicate, gap);
+	}
+
+	@Test
+	void shouldReturnSameResultWhenNothingWasFound() {
+		// Given
+		SieveRuleParser.ParseResult parsed = new SieveRuleParser.ParseResult(List.of(), List.of());
+
+		// Then
+		assertThat(new LintReport(List.of(), java.util.Map.of()).mergeInto(parsed)).isSameAs(parsed);
+	}
+}
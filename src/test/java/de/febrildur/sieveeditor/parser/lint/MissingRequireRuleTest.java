@@ -0,0 +1,99 @@
+package de.febrildur.sieveeditor.parser.lint;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.febrildur.sieveeditor.parser.SieveParser;
+import de.febrildur.sieveeditor.parser.SieveWarning;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MissingRequireRuleTest {
+
+	private static List<SieveWarning> check(String script) {
+		return new MissingRequireRule().check(new LintContext(SieveParser.parse(script), null));
+	}
+
+	@Test
+	void shouldReportFileintoWithoutRequire() {
+		// Given
+		String script = """
+			if header :contains "subject" "spam" {
+				fileinto "Spam";
+			}
+			fileinto "Other";
+			""";
+
+		// When
+		List<SieveWarning> warnings = check(script);
+
+		// Then
+		assertThat(warnings).extracting(SieveWarning::getSeverity, SieveWarning::getMessage, SieveWarning::getLineNumbers)
+			.containsExactly(tuple(SieveWarning.Severity.ERROR, "Missing require \"fileinto\"", List.of(2, 4)));
+	}
+
+	@Test
+	void shouldAcceptRequiredExtensions() {
+		// Given
+		String script = """
+			require ["fileinto", "copy", "imap4flags", "relational", "comparator-i;ascii-numeric"];
+			if header :value "gt" :comparator "i;ascii-numeric" "x-spam-score" "5" {
+				fileinto :copy :flags "\\\\Seen" "Spam";
+			}
+			""";
+
+		// Then
+		assertThat(check(script)).isEmpty();
+	}
+
+	@Test
+	void shouldReportTestsTagsAndComparators() {
+		// Given
+		String script = """
+			if allof (envelope :regex "from" ".*", body :contains "x") {
+				keep;
+			}
+			if header :comparator "i;ascii-numeric" :contains "a" "1" { keep; }
+			""";
+
+		// When
+		List<String> messages = check(script).stream().map(SieveWarning::getMessage).toList();
+
+		// Then
+		assertThat(messages).containsExactly("Missing require \"envelope\"", "Missing require \"regex\"",
+			"Missing require \"body\"", "Missing require \"comparator-i;ascii-numeric\"");
+	}
+
+	@Test
+	void shouldAllowExtensionsGuardedByIhave() {
+		// Given
+		String script = """
+			require "ihave";
+			if ihave "fileinto" {
+				fileinto "Spam";
+			}
+			""";
+
+		// Then
+		assertThat(check(script)).isEmpty();
+	}
+
+	@Test
+	void shouldTreatImpliedExtensionsAsRequired() {
+		// Given
+		String script = """
+			require "spamtestplus";
+			if spamtest :percent :value "gt" "50" { discard; }
+			""";
+
+		// When
+		List<String> messages = check(script).stream().map(SieveWarning::getMessage).toList();
+
+		// Then - spamtest is covered, the relational :value is not
+		assertThat(messages).containsExactly("Missing require \"relational\"");
+	}
+}
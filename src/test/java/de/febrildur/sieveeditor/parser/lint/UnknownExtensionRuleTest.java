@@ -0,0 +1,44 @@
+package de.febrildur.sieveeditor.parser.lint;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import de.febrildur.sieveeditor.parser.SieveParser;
+import de.febrildur.sieveeditor.parser.SieveWarning;
+
+import static org.assertj.core.api.Assertions.*;
+
+class UnknownExtensionRuleTest {
+
+	private static final String SCRIPT = """
+		require ["fileinto", "vacation"];
+		require "comparator-i;octet";
+		""";
+
+	@Test
+	void shouldReportExtensionsTheServerLacks() {
+		// Given
+		LintContext context = new LintContext(SieveParser.parse(SCRIPT), Set.of("fileinto")::contains);
+
+		// When
+		List<SieveWarning> warnings = new UnknownExtensionRule().check(context);
+
+		// Then
+		assertThat(warnings).extracting(SieveWarning::getMessage, SieveWarning::getLineNumbers)
+			.containsExactly(tuple("Extension \"vacation\" is not supported by the server", List.of(1)));
+	}
+
+	@Test
+	void shouldStayQuietWithoutServerCapabilities() {
+		// Given
+		LintContext context = new LintContext(SieveParser.parse(SCRIPT), null);
+
+		// Then
+		assertThat(new UnknownExtensionRule().check(context)).isEmpty();
+	}
+}
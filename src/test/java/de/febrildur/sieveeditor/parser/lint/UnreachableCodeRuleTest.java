@@ -0,0 +1,56 @@
+package de.febrildur.sieveeditor.parser.lint;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.febrildur.sieveeditor.parser.SieveParser;
+import de.febrildur.sieveeditor.parser.SieveWarning;
+
+import static org.assertj.core.api.Assertions.*;
+
+class UnreachableCodeRuleTest {
+
+	private static List<SieveWarning> check(String script) {
+		return new UnreachableCodeRule().check(new LintContext(SieveParser.parse(script), null));
+	}
+
+	@Test
+	void shouldReportFirstCommandAfterStopPerBlock() {
+		// Given
+		String script = """
+			if true {
+				stop;
+				discard;
+				keep;
+			}
+			stop;
+			keep;
+			""";
+
+		// When
+		List<SieveWarning> warnings = check(script);
+
+		// Then
+		assertThat(warnings).extracting(SieveWarning::getSeverity, SieveWarning::getLineNumbers)
+			.containsExactly(
+				tuple(SieveWarning.Severity.WARNING, List.of(3)),
+				tuple(SieveWarning.Severity.WARNING, List.of(7)));
+	}
+
+	@Test
+	void shouldAcceptConditionalAndFinalStop() {
+		// Given
+		String script = """
+			if header :contains "subject" "x" { stop; }
+			keep;
+			stop;
+			""";
+
+		// Then
+		assertThat(check(script)).isEmpty();
+	}
+}
@@ -18,6 +18,10 @@ import javax.net.ssl.SSLSocketFactory;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -223,6 +227,31 @@ class ConnectAndListScriptsTest {
         verify(mockClient).setactive("myscript");
     }
 
+    @Test
+    void shouldUploadScriptWithoutActivating() throws Exception {
+        connectAndStubIsConnected();
+
+        when(mockClient.putscript("tmp", "keep;")).thenReturn(mockResponse);
+
+        diConnection.uploadScript("tmp", "keep;");
+
+        verify(mockClient).putscript("tmp", "keep;");
+        verify(mockClient, never()).setactive(anyString());
+    }
+
+    @Test
+    void shouldThrowWhenVerifyScriptRejected() throws Exception {
+        connectAndStubIsConnected();
+
+        when(mockClient.checkscript("broken")).thenReturn(mockResponse);
+        when(mockResponse.isOk()).thenReturn(false);
+        when(mockResponse.getMessage()).thenReturn("line 1: error");
+
+        assertThatThrownBy(() -> diConnection.verifyScript("broken"))
+                .isInstanceOf(IOException.class)
+                .hasMessage("line 1: error");
+    }
+
     @Test
     void shouldDownloadScriptFromServer() throws Exception {
         connectAndStubIsConnected();
@@ -715,4 +744,97 @@ class ConnectAndListScriptsTest {
         verify(mockClient).connect("props-server", 4190);
         verify(mockClient).authenticate("props-user", "props-pass");
     }
+
+    // ===== Protocol Trace Tests =====
+
+    @Test
+    void shouldRecordCommandsInProtocolTrace() throws Exception {
+        ProtocolTrace trace = new ProtocolTrace(16);
+        ConnectAndListScripts traced = new ConnectAndListScripts(mockFactory, trace);
+        traced.setKeepAliveEnabled(false);
+        setupSuccessfulConnect();
+        traced.connect("server", 4190, "user", "secret-pass");
+        when(mockClient.isConnected()).thenReturn(true);
+        when(mockClient.putscript("main", "keep;")).thenReturn(mockResponse);
+        when(mockClient.setactive("main")).thenReturn(mockResponse);
+
+        traced.putScript("main", "keep;");
+
+        String dump = trace.dump();
+        assertThat(traced.getProtocolTrace()).isSameAs(trace);
+        assertThat(dump).contains("CONNECT", "STARTTLS", "AUTHENTICATE", "PUTSCRIPT", "SETACTIVE");
+        assertThat(dump).contains("\"user\"").contains("req=5");
+        assertThat(dump).doesNotContain("secret-pass").doesNotContain("keep;");
+    }
+
+    @Test
+    void shouldRecordFailedCommandWithServerMessage() throws Exception {
+        ProtocolTrace trace = new ProtocolTrace(16);
+        ConnectAndListScripts traced = new ConnectAndListScripts(mockFactory, trace);
+        traced.setKeepAliveEnabled(false);
+        setupSuccessfulConnect();
+        traced.connect("server", 4190, "user", "pass");
+        when(mockClient.isConnected()).thenReturn(true);
+        when(mockClient.putscript(anyString(), anyString())).thenReturn(mockResponse);
+        when(mockResponse.isOk()).thenReturn(false);
+        when(mockResponse.getMessage()).thenReturn("Quota exceeded");
+
+        assertThatThrownBy(() -> traced.putScript("s", "body"))
+                .isInstanceOf(IOException.class);
+
+        assertThat(trace.dump()).contains("PUTSCRIPT").contains("NO").contains("Quota exceeded");
+    }
+
+    @Test
+    void shouldRecordExceptionInProtocolTrace() throws Exception {
+        ProtocolTrace trace = new ProtocolTrace(16);
+        ConnectAndListScripts traced = new ConnectAndListScripts(mockFactory, trace);
+        traced.setKeepAliveEnabled(false);
+        when(mockClient.connect(anyString(), anyInt())).thenThrow(new IOException("refused"));
+
+        assertThatThrownBy(() -> traced.connect("server", 4190, "user", "pass"))
+                .isInstanceOf(IOException.class);
+
+        assertThat(trace.dump()).contains("CONNECT").contains("IOException");
+    }
+
+    @Test
+    void shouldLogFailedCommandOnceWithoutTraceAtWarning() throws Exception {
+        // Given
+        Logger logger = Logger.getLogger(ConnectAndListScripts.class.getName());
+        List<LogRecord> records = new ArrayList<>();
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord logRecord) {
+                // Keep-alive timers of other tests may log at the same time
+                if (logRecord.getLongThreadID() == Thread.currentThread().threadId()) {
+                    records.add(logRecord);
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        handler.setLevel(Level.ALL);
+        logger.addHandler(handler);
+        when(mockClient.connect(anyString(), anyInt())).thenThrow(new IOException("refused"));
+
+        try {
+            // When
+            assertThatThrownBy(() -> diConnection.connect("server", 4190, "user", "pass"))
+                    .isInstanceOf(IOException.class);
+        } finally {
+            logger.removeHandler(handler);
+        }
+
+        // Then
+        assertThat(records).filteredOn(r -> r.getLevel().intValue() >= Level.WARNING.intValue())
+                .singleElement()
+                .satisfies(r -> assertThat(r.getMessage()).doesNotContain("exchanges"));
+    }
 }
@@ -0,0 +1,105 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OccurrenceIndexTest {
+
+    @Test
+    void shouldFindAllUsesOfString() {
+        // Given
+        String script = "if header :contains \"subject\" \"Spam\" {\n"
+                + "    fileinto \"Spam\";\n"
+                + "}\n";
+
+        // When
+        OccurrenceIndex index = OccurrenceIndex.build(script);
+
+        // Then
+        assertThat(index.find("\"Spam\"")).containsExactly(script.indexOf("\"Spam\""), script.lastIndexOf("\"Spam\""));
+        assertThat(index.find("\"subject\"")).containsExactly(script.indexOf("\"subject\""));
+        assertThat(index.getLength()).isEqualTo(script.length());
+    }
+
+    @Test
+    void shouldFindIdentifiersButNotKeywords() {
+        // Given
+        String script = "foo;\nkeep;\nfoo;\n";
+
+        // When
+        OccurrenceIndex index = OccurrenceIndex.build(script);
+
+        // Then
+        assertThat(index.find("foo")).containsExactly(0, 11);
+        assertThat(index.count("keep")).isZero();
+    }
+
+    @Test
+    void shouldNotIndexCommentsOrTextLiterals() {
+        // Given
+        String script = "# \"Spam\"\n/* \"Spam\"\n*/ reject text:\n\"Spam\"\n.\n;\nfileinto \"Spam\";\n";
+
+        // When
+        OccurrenceIndex index = OccurrenceIndex.build(script);
+
+        // Then
+        assertThat(index.find("\"Spam\"")).containsExactly(script.lastIndexOf("\"Spam\""));
+    }
+
+    @Test
+    void shouldNotIndexStringsSpanningLines() {
+        // Given
+        String script = "fileinto \"a\nb\";\nfileinto \"c\\\"\";\n";
+
+        // When
+        OccurrenceIndex index = OccurrenceIndex.build(script);
+
+        // Then
+        assertThat(index.count("\"a")).isZero();
+        assertThat(index.count("b\"")).isZero();
+        assertThat(index.find("\"c\\\"\"")).containsExactly(script.indexOf("\"c"));
+    }
+
+    @Test
+    void shouldReturnNullWhenCancelled() {
+        // When
+        OccurrenceIndex index = OccurrenceIndex.build("keep;\n", () -> true);
+
+        // Then
+        assertThat(index).isNull();
+    }
+
+    @Test
+    void shouldReturnEmptyArrayForUnknownLexeme() {
+        // When
+        OccurrenceIndex index = OccurrenceIndex.build("");
+
+        // Then
+        assertThat(index.find("\"nothing\"")).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void shouldIndexLargeScript() {
+        // Given
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            script.append("if header :is \"X-Folder\" \"f").append(i % 10).append("\" {\n")
+                    .append("    fileinto \"f").append(i % 10).append("\";\n")
+                    .append("}\n\n");
+        }
+
+        // When
+        OccurrenceIndex index = OccurrenceIndex.build(script.toString());
+
+        // Then
+        assertThat(index.count("\"X-Folder\"")).isEqualTo(5000);
+        int[] uses = index.find("\"f3\"");
+        assertThat(uses).hasSize(1000).isSorted();
+        assertThat(script.substring(uses[999], uses[999] + 4)).isEqualTo("\"f3\"");
+    }
+}
@@ -0,0 +1,82 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PrefixTrieTest {
+
+    private static PrefixTrie<String> trieOf(String... words) {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        for (String word : words) {
+            trie.add(word, word);
+        }
+        return trie;
+    }
+
+    @Test
+    void shouldFindWordsWithPrefixInAlphabeticalOrder() {
+        // Given
+        PrefixTrie<String> trie = trieOf("fileinto", "false", "foreverypart", "keep", "file");
+
+        // When / Then
+        assertThat(trie.find("f", 10)).containsExactly("false", "file", "fileinto", "foreverypart");
+        assertThat(trie.find("fil", 10)).containsExactly("file", "fileinto");
+        assertThat(trie.find("x", 10)).isEmpty();
+        assertThat(trie.find("", 10)).hasSize(5);
+    }
+
+    @Test
+    void shouldIgnoreCase() {
+        // Given
+        PrefixTrie<String> trie = trieOf("INBOX", "Inbox/Work");
+
+        // When / Then
+        assertThat(trie.find("inb", 10)).containsExactlyInAnyOrder("INBOX", "Inbox/Work");
+        assertThat(trie.find("INBOX/", 10)).containsExactly("Inbox/Work");
+    }
+
+    @Test
+    void shouldStopAtLimit() {
+        // Given
+        PrefixTrie<String> trie = trieOf("a1", "a2", "a3", "a4");
+
+        // When / Then
+        assertThat(trie.find("a", 2)).containsExactly("a1", "a2");
+    }
+
+    @Test
+    void shouldRemoveValueAndPruneEmptyNodes() {
+        // Given
+        PrefixTrie<String> trie = trieOf(":copy", ":count", ":create");
+
+        // When
+        boolean removed = trie.remove(":count", ":count");
+
+        // Then
+        assertThat(removed).isTrue();
+        assertThat(trie.find(":co", 10)).containsExactly(":copy");
+        assertThat(trie.find(":cou", 10)).isEmpty();
+        assertThat(trie.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeepOtherValuesOfSameWord() {
+        // Given
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.add("Spam", "folder");
+        trie.add("Spam", "header");
+
+        // When
+        boolean removed = trie.remove("spam", "folder");
+
+        // Then
+        assertThat(removed).isTrue();
+        assertThat(trie.find("sp", 10)).containsExactly("header");
+        assertThat(trie.remove("spam", "folder")).isFalse();
+        assertThat(trie.remove("missing", "folder")).isFalse();
+    }
+}
@@ -0,0 +1,82 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ProtocolTraceTest {
+
+    @Test
+    void shouldStartEmpty() {
+        ProtocolTrace trace = new ProtocolTrace(4);
+
+        assertThat(trace.size()).isZero();
+        assertThat(trace.dump()).contains("0 of 0 exchanges");
+    }
+
+    @Test
+    void shouldRejectNonPositiveCapacity() {
+        assertThatThrownBy(() -> new ProtocolTrace(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRecordCommandWithSizesAndStatus() {
+        ProtocolTrace trace = new ProtocolTrace(4);
+
+        trace.record("PUTSCRIPT", "main", 1832, 0, System.nanoTime(), "OK", null);
+
+        assertThat(trace.size()).isEqualTo(1);
+        assertThat(trace.dump())
+                .contains("PUTSCRIPT")
+                .contains("\"main\"")
+                .contains("req=1832")
+                .contains("OK")
+                .contains(" ms");
+    }
+
+    @Test
+    void shouldOverwriteOldestEntriesWhenFull() {
+        ProtocolTrace trace = new ProtocolTrace(3);
+
+        for (int i = 1; i <= 5; i++) {
+            trace.record("GETSCRIPT", "script" + i, 0, i * 10, System.nanoTime(), "OK", null);
+        }
+
+        String dump = trace.dump();
+        assertThat(trace.size()).isEqualTo(3);
+        assertThat(dump).contains("3 of 5 exchanges");
+        assertThat(dump).doesNotContain("script1").doesNotContain("script2");
+        assertThat(dump.indexOf("script3")).isLessThan(dump.indexOf("script4"));
+        assertThat(dump.indexOf("script4")).isLessThan(dump.indexOf("script5"));
+    }
+
+    @Test
+    void shouldTruncateLongServerMessages() {
+        ProtocolTrace trace = new ProtocolTrace(2);
+
+        trace.record("CHECKSCRIPT", null, 10, 0, System.nanoTime(), "NO", "x".repeat(500));
+
+        assertThat(trace.dump()).contains("x".repeat(120) + "...").doesNotContain("x".repeat(121));
+    }
+
+    @Test
+    void shouldClearEntries() {
+        ProtocolTrace trace = new ProtocolTrace(2);
+        trace.record("NOOP", null, 0, 0, System.nanoTime(), "OK", null);
+
+        trace.clear();
+
+        assertThat(trace.size()).isZero();
+        assertThat(trace.dump()).doesNotContain("NOOP");
+    }
+
+    @Test
+    void shouldProvideGlobalInstance() {
+        assertThat(ProtocolTrace.getGlobal()).isSameAs(ProtocolTrace.getGlobal());
+        assertThat(ProtocolTrace.getGlobal().getCapacity()).isEqualTo(ProtocolTrace.DEFAULT_CAPACITY);
+    }
+}
@@ -0,0 +1,147 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import com.fluffypeople.managesieve.SieveScript;
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ScriptCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path cacheFile;
+
+    @BeforeEach
+    void setUp() {
+        cacheFile = tempDir.resolve("default.cache");
+    }
+
+    private static StandardPBEStringEncryptor encryptor(String password) {
+        StandardPBEStringEncryptor enc = new StandardPBEStringEncryptor();
+        enc.setAlgorithm("PBEWithMD5AndDES");
+        enc.setPassword(password);
+        return enc;
+    }
+
+    @Test
+    void shouldReturnFalseWhenNoCacheFileExists() {
+        ScriptCache cache = new ScriptCache(cacheFile, encryptor("key"));
+
+        assertThat(cache.load()).isFalse();
+        assertThat(cache.getBody("main")).isNull();
+        assertThat(cache.getLastScriptName()).isNull();
+    }
+
+    @Test
+    void shouldRoundTripLastScript() throws Exception {
+        // Given
+        ScriptCache cache = new ScriptCache(cacheFile, encryptor("key"));
+        cache.putBody("main", "require \"fileinto\";\nkeep;\n");
+        cache.save();
+
+        // When
+        ScriptCache reloaded = new ScriptCache(cacheFile, encryptor("key"));
+        boolean loaded = reloaded.load();
+
+        // Then
+        assertThat(loaded).isTrue();
+        assertThat(reloaded.getBody("main")).isEqualTo("require \"fileinto\";\nkeep;\n");
+        assertThat(reloaded.getBody("vacation")).isNull();
+        assertThat(reloaded.getLastScriptName()).isEqualTo("main");
+    }
+
+    @Test
+    void shouldKeepOnlyLastOpenedScript() {
+        // Given
+        ScriptCache cache = new ScriptCache(cacheFile, encryptor("key"));
+        cache.putBody("main", "keep;");
+
+        // When
+        cache.putBody("vacation", "stop;");
+
+        // Then
+        assertThat(cache.getBody("main")).isNull();
+        assertThat(cache.getBody("vacation")).isEqualTo("stop;");
+        assertThat(cache.getLastScriptName()).isEqualTo("vacation");
+    }
+
+    @Test
+    void shouldNotStoreScriptContentInPlainText() throws Exception {
+        ScriptCache cache = new ScriptCache(cacheFile, encryptor("key"));
+        cache.putBody("secret-script", "fileinto \"Confidential\";");
+        cache.save();
+
+        String onDisk = Files.readString(cacheFile);
+        assertThat(onDisk).doesNotContain("Confidential").doesNotContain("secret-script");
+    }
+
+    @Test
+    void shouldIgnoreCacheEncryptedWithDifferentKey() throws Exception {
+        ScriptCache cache = new ScriptCache(cacheFile, encryptor("old-key"));
+        cache.putBody("main", "keep;");
+        cache.save();
+
+        ScriptCache reloaded = new ScriptCache(cacheFile, encryptor("new-key"));
+
+        assertThat(reloaded.load()).isFalse();
+        assertThat(reloaded.getBody("main")).isNull();
+    }
+
+    @Test
+    void shouldIgnoreCorruptCacheFile() throws Exception {
+        Files.writeString(cacheFile, "not encrypted at all");
+
+        ScriptCache cache = new ScriptCache(cacheFile, encryptor("key"));
+
+        assertThat(cache.load()).isFalse();
+    }
+
+    @Test
+    void shouldDropScriptRemovedFromServer() {
+        ScriptCache cache = new ScriptCache(cacheFile, encryptor("key"));
+        cache.putBody("old", "discard;");
+
+        cache.updateList(List.of(new SieveScript("new", null, true)));
+
+        assertThat(cache.getBody("old")).isNull();
+        assertThat(cache.getLastScriptName()).isNull();
+    }
+
+    @Test
+    void shouldKeepScriptStillOnServer() {
+        ScriptCache cache = new ScriptCache(cacheFile, encryptor("key"));
+        cache.putBody("main", "keep;");
+
+        cache.updateList(List.of(new SieveScript("other", null, false), new SieveScript("main", null, true)));
+
+        assertThat(cache.getBody("main")).isEqualTo("keep;");
+    }
+
+    @Test
+    void shouldReplaceExistingCacheWithoutLeavingTempFile() throws Exception {
+        ScriptCache cache = new ScriptCache(cacheFile, encryptor("key"));
+        cache.putBody("main", "v1");
+        cache.save();
+        cache.putBody("main", "v2");
+        cache.save();
+
+        ScriptCache reloaded = new ScriptCache(cacheFile, encryptor("key"));
+        reloaded.load();
+
+        assertThat(reloaded.getBody("main")).isEqualTo("v2");
+        try (var files = Files.list(tempDir)) {
+            assertThat(files).containsExactly(cacheFile);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import com.fluffypeople.managesieve.SieveScript;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScriptChangeWatcherTest {
+
+    @Mock
+    private ConnectAndListScripts server;
+
+    @Mock
+    private ScheduledExecutorService executor;
+
+    @Mock
+    private ScheduledFuture<Object> future;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private ScriptChangeWatcher watcher;
+
+    @BeforeEach
+    void setUp() {
+        lenient().doReturn(future).when(executor).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        watcher = new ScriptChangeWatcher(server, executor, now::get);
+    }
+
+    private void stubServerBody(String name, String body) throws Exception {
+        SieveScript listed = new SieveScript(name, null, true);
+        when(server.getListScripts()).thenReturn(new ArrayList<>(List.of(listed)));
+        when(server.getScript(listed)).thenReturn(body);
+    }
+
+    private Runnable lastScheduledTask() {
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor, atLeastOnce()).schedule(task.capture(), anyLong(), any(TimeUnit.class));
+        return task.getValue();
+    }
+
+    @Test
+    void shouldReportUnchangedWhenServerBodyMatches() throws Exception {
+        watcher.watch("main", "keep;");
+        stubServerBody("main", "keep;");
+
+        assertThat(watcher.poll()).isEqualTo(ScriptChangeWatcher.State.UNCHANGED);
+    }
+
+    @Test
+    void shouldDetectChangedServerCopyAndNotifyOnce() throws Exception {
+        // Given
+        List<ScriptChangeWatcher.State> notifications = new ArrayList<>();
+        watcher.setListener((name, state) -> notifications.add(state));
+        watcher.watch("main", "keep;");
+        stubServerBody("main", "discard;");
+
+        // When
+        ScriptChangeWatcher.State first = watcher.poll();
+        watcher.poll();
+
+        // Then
+        assertThat(first).isEqualTo(ScriptChangeWatcher.State.CHANGED);
+        assertThat(watcher.getServerBody()).isEqualTo("discard;");
+        assertThat(notifications).containsExactly(ScriptChangeWatcher.State.CHANGED);
+    }
+
+    @Test
+    void shouldDetectDeletedScript() throws Exception {
+        watcher.watch("main", "keep;");
+        when(server.getListScripts()).thenReturn(new ArrayList<>(List.of(new SieveScript("other", null, true))));
+
+        assertThat(watcher.poll()).isEqualTo(ScriptChangeWatcher.State.DELETED);
+        assertThat(watcher.getServerBody()).isNull();
+    }
+
+    @Test
+    void shouldResetStateWhenWatchingNewBody() throws Exception {
+        watcher.watch("main", "keep;");
+        stubServerBody("main", "discard;");
+        watcher.poll();
+
+        watcher.watch("main", "discard;");
+
+        assertThat(watcher.getState()).isEqualTo(ScriptChangeWatcher.State.UNCHANGED);
+        assertThat(watcher.poll()).isEqualTo(ScriptChangeWatcher.State.UNCHANGED);
+    }
+
+    @Test
+    void shouldNotQueryServerWhenNothingIsWatched() throws Exception {
+        assertThat(watcher.poll()).isEqualTo(ScriptChangeWatcher.State.UNCHANGED);
+
+        verifyNoInteractions(server);
+    }
+
+    @Test
+    void shouldBackOffWhileUserIsIdle() throws Exception {
+        // Given
+        watcher.watch("main", "keep;");
+        when(server.isConnected()).thenReturn(true);
+        stubServerBody("main", "keep;");
+
+        // When - the user stays idle across several polls
+        now.addAndGet(ScriptChangeWatcher.IDLE_THRESHOLD_MS);
+        lastScheduledTask().run();
+        long firstBackOff = watcher.getIntervalMs();
+        lastScheduledTask().run();
+
+        // Then
+        assertThat(firstBackOff).isEqualTo(2 * ScriptChangeWatcher.MIN_INTERVAL_MS);
+        assertThat(watcher.getIntervalMs()).isEqualTo(4 * ScriptChangeWatcher.MIN_INTERVAL_MS);
+    }
+
+    @Test
+    void shouldCapBackOffAtMaximumInterval() throws Exception {
+        watcher.watch("main", "keep;");
+        when(server.isConnected()).thenReturn(false);
+        now.addAndGet(ScriptChangeWatcher.IDLE_THRESHOLD_MS);
+
+        for (int i = 0; i < 20; i++) {
+            lastScheduledTask().run();
+        }
+
+        assertThat(watcher.getIntervalMs()).isEqualTo(ScriptChangeWatcher.MAX_INTERVAL_MS);
+    }
+
+    @Test
+    void shouldReturnToMinimumIntervalOnUserActivity() throws Exception {
+        watcher.watch("main", "keep;");
+        when(server.isConnected()).thenReturn(false);
+        now.addAndGet(ScriptChangeWatcher.IDLE_THRESHOLD_MS);
+        lastScheduledTask().run();
+
+        watcher.userActivity();
+
+        assertThat(watcher.getIntervalMs()).isEqualTo(ScriptChangeWatcher.MIN_INTERVAL_MS);
+        verify(executor, atLeastOnce()).schedule(any(Runnable.class),
+                eq(ScriptChangeWatcher.MIN_INTERVAL_MS), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void shouldSkipPollWhenSessionIsDown() throws Exception {
+        watcher.watch("main", "keep;");
+        when(server.isConnected()).thenReturn(false);
+
+        lastScheduledTask().run();
+
+        verify(server, never()).getListScripts();
+    }
+
+    @Test
+    void shouldKeepPollingAfterServerError() throws Exception {
+        watcher.watch("main", "keep;");
+        when(server.isConnected()).thenReturn(true);
+        when(server.getListScripts()).thenThrow(new IOException("timeout"));
+
+        lastScheduledTask().run();
+
+        verify(executor, times(2)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    void shouldStopSchedulingAfterStopWatching() {
+        watcher.watch("main", "keep;");
+
+        watcher.stopWatching();
+
+        verify(future).cancel(false);
+        assertThat(watcher.getScriptName()).isNull();
+    }
+}
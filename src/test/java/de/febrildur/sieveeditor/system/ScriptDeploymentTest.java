@@ -0,0 +1,256 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import com.fluffypeople.managesieve.SieveScript;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScriptDeploymentTest {
+
+    @Mock
+    private ConnectAndListScripts server;
+
+    private void stubScripts(SieveScript... scripts) throws Exception {
+        when(server.getListScripts()).thenReturn(new ArrayList<>(List.of(scripts)));
+        lenient().when(server.getScript(any())).thenAnswer(call -> "old " + call.<SieveScript>getArgument(0).getName());
+        lenient().when(server.supportsRenameScript()).thenReturn(true);
+    }
+
+    private String uploadedTempName() throws Exception {
+        ArgumentCaptor<String> temp = ArgumentCaptor.forClass(String.class);
+        verify(server, atLeastOnce()).uploadScript(temp.capture(), anyString());
+        return temp.getValue();
+    }
+
+    @Test
+    void shouldCheckUploadSwapActivateAndDropBackupInOrder() throws Exception {
+        // Given
+        stubScripts(new SieveScript("main", null, true));
+        ScriptDeployment deployment = new ScriptDeployment(server).add("main", "keep;").activate("main");
+
+        // When
+        deployment.deploy();
+
+        // Then
+        String temp = uploadedTempName();
+        assertThat(temp).startsWith("main.deploy-");
+        ArgumentCaptor<String> backup = ArgumentCaptor.forClass(String.class);
+        InOrder inOrder = inOrder(server);
+        inOrder.verify(server).verifyScript("keep;");
+        inOrder.verify(server).uploadScript(temp, "keep;");
+        inOrder.verify(server).rename(eq("main"), backup.capture());
+        inOrder.verify(server).rename(temp, "main");
+        inOrder.verify(server).activateScript("main");
+        inOrder.verify(server).deleteScript(backup.getValue());
+        assertThat(backup.getValue()).startsWith("main.previous-");
+        assertThat(deployment.canRollback()).isTrue();
+        assertThat(deployment.getDeployed()).containsExactly(new ScriptDeployment.Entry("main", true));
+    }
+
+    @Test
+    void shouldNotCheckAgainWhenVerified() throws Exception {
+        stubScripts(new SieveScript("main", null, true));
+
+        new ScriptDeployment(server).add("main", "keep;").activate("main").verified().deploy();
+
+        verify(server, never()).verifyScript(anyString());
+        verify(server).activateScript("main");
+    }
+
+    @Test
+    void shouldValidateAllScriptsBeforeTouchingLiveOnes() throws Exception {
+        // Given
+        stubScripts(new SieveScript("a", null, true), new SieveScript("b", null, false));
+        lenient().doThrow(new IOException("line 2: unknown command")).when(server).verifyScript("broken");
+        ScriptDeployment deployment = new ScriptDeployment(server).add("a", "keep;").add("b", "broken");
+
+        // When / Then
+        assertThatThrownBy(deployment::deploy)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("[b]")
+                .hasMessageContaining("line 2");
+        String temp = uploadedTempName();
+        verify(server).deleteScript(temp);
+        verify(server, never()).rename(anyString(), anyString());
+        verify(server, never()).activateScript(anyString());
+        assertThat(deployment.canRollback()).isFalse();
+    }
+
+    @Test
+    void shouldUndoRenamesWhenActivationFails() throws Exception {
+        // Given
+        stubScripts(new SieveScript("main", null, true));
+        doThrow(new IOException("SETACTIVE failed")).doNothing().when(server).activateScript("main");
+        ScriptDeployment deployment = new ScriptDeployment(server).add("main", "keep;").activate("main");
+
+        // When
+        assertThatThrownBy(deployment::deploy)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("reverted");
+
+        // Then - renames reversed newest first, original activation restored
+        String temp = uploadedTempName();
+        ArgumentCaptor<String> backup = ArgumentCaptor.forClass(String.class);
+        InOrder inOrder = inOrder(server);
+        inOrder.verify(server).rename(eq("main"), backup.capture());
+        inOrder.verify(server).rename(temp, "main");
+        inOrder.verify(server).rename("main", temp);
+        inOrder.verify(server).rename(backup.getValue(), "main");
+        inOrder.verify(server).activateScript("main");
+        inOrder.verify(server).deleteScript(temp);
+        verify(server, never()).deleteScript(backup.getValue());
+        assertThat(deployment.canRollback()).isFalse();
+    }
+
+    @Test
+    void shouldKeepPreviouslyActiveScriptWhenNoTargetGiven() throws Exception {
+        stubScripts(new SieveScript("main", null, true), new SieveScript("vacation", null, false));
+
+        new ScriptDeployment(server).add("vacation", "keep;").deploy();
+
+        verify(server).activateScript("main");
+    }
+
+    @Test
+    void shouldLeaveUnrelatedScriptsAlone() throws Exception {
+        stubScripts(new SieveScript("main", null, true), new SieveScript("main.previous", null, false));
+
+        new ScriptDeployment(server).add("main", "keep;").activate("main").deploy();
+
+        verify(server, never()).deleteScript("main.previous");
+        verify(server, never()).rename(eq("main.previous"), anyString());
+    }
+
+    @Test
+    void shouldNotCreateBackupForNewScript() throws Exception {
+        stubScripts();
+
+        ScriptDeployment deployment = new ScriptDeployment(server).add("new", "keep;").activate("new");
+        deployment.deploy();
+
+        verify(server, never()).rename(eq("new"), anyString());
+        verify(server, never()).getScript(any());
+        assertThat(deployment.getDeployed()).containsExactly(new ScriptDeployment.Entry("new", false));
+    }
+
+    @Test
+    void shouldUploadInPlaceWhenServerCannotRename() throws Exception {
+        // Given
+        stubScripts(new SieveScript("main", null, true));
+        when(server.supportsRenameScript()).thenReturn(false);
+        ScriptDeployment deployment = new ScriptDeployment(server).add("main", "keep;").activate("main");
+
+        // When
+        deployment.deploy();
+
+        // Then
+        InOrder inOrder = inOrder(server);
+        inOrder.verify(server).verifyScript("keep;");
+        inOrder.verify(server).uploadScript("main", "keep;");
+        inOrder.verify(server).activateScript("main");
+        verify(server, never()).rename(anyString(), anyString());
+        verify(server, never()).deleteScript(anyString());
+        assertThat(deployment.canRollback()).isTrue();
+    }
+
+    @Test
+    void shouldUploadOldBodiesAgainWhenInPlaceDeploymentFails() throws Exception {
+        // Given
+        stubScripts(new SieveScript("a", null, true));
+        when(server.supportsRenameScript()).thenReturn(false);
+        lenient().doThrow(new IOException("Quota exceeded")).when(server).uploadScript("b", "discard;");
+        ScriptDeployment deployment = new ScriptDeployment(server).add("a", "keep;").add("b", "discard;");
+
+        // When
+        assertThatThrownBy(deployment::deploy)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("reverted");
+
+        // Then
+        InOrder inOrder = inOrder(server);
+        inOrder.verify(server).uploadScript("a", "keep;");
+        inOrder.verify(server).uploadScript("a", "old a");
+        inOrder.verify(server).activateScript("a");
+        assertThat(deployment.canRollback()).isFalse();
+    }
+
+    @Test
+    void shouldRollBackToPreviousVersionAndActivation() throws Exception {
+        // Given
+        stubScripts(new SieveScript("main", null, true), new SieveScript("other", null, false));
+        ScriptDeployment deployment = new ScriptDeployment(server).add("main", "keep;").activate("other");
+        deployment.deploy();
+        clearInvocations(server);
+
+        // When
+        deployment.rollback();
+
+        // Then - the old body replaces the live script in place
+        InOrder inOrder = inOrder(server);
+        inOrder.verify(server).uploadScript("main", "old main");
+        inOrder.verify(server).activateScript("main");
+        verify(server, never()).rename(anyString(), anyString());
+        assertThat(deployment.canRollback()).isFalse();
+    }
+
+    @Test
+    void shouldDeactivateAndRemoveNewScriptOnRollbackWhenNothingWasActive() throws Exception {
+        stubScripts();
+        ScriptDeployment deployment = new ScriptDeployment(server).add("new", "keep;").activate("new");
+        deployment.deploy();
+
+        deployment.rollback();
+
+        InOrder inOrder = inOrder(server);
+        inOrder.verify(server).deactivateScript();
+        inOrder.verify(server).deleteScript("new");
+    }
+
+    @Test
+    void shouldReportWhatRollbackLeftBehindAndResume() throws Exception {
+        // Given
+        stubScripts(new SieveScript("a", null, true), new SieveScript("b", null, false));
+        ScriptDeployment deployment = new ScriptDeployment(server).add("a", "keep;").add("b", "stop;");
+        deployment.deploy();
+        lenient().doThrow(new IOException("connection lost")).doNothing().when(server).uploadScript("b", "old b");
+
+        // When
+        assertThatThrownBy(deployment::rollback)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("restore [b]")
+                .hasMessageContaining("Restored: a.")
+                .hasMessageContaining("Still the new version: b.")
+                .hasMessageContaining("Active script not restored");
+        assertThat(deployment.canRollback()).isTrue();
+        clearInvocations(server);
+        deployment.rollback();
+
+        // Then - the second call only does the remaining steps
+        verify(server, never()).uploadScript(eq("a"), anyString());
+        verify(server).uploadScript("b", "old b");
+        verify(server).activateScript("a");
+        assertThat(deployment.canRollback()).isFalse();
+    }
+
+    @Test
+    void shouldRejectRollbackBeforeDeploy() {
+        ScriptDeployment deployment = new ScriptDeployment(server).add("main", "keep;");
+
+        assertThatThrownBy(deployment::rollback).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,81 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.fife.ui.autocomplete.Completion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.febrildur.sieveeditor.parser.SieveParser;
+import de.febrildur.sieveeditor.parser.ast.ScriptNode;
+
+/**
+ * Completes a folder name letter by letter in a script that files into 10k
+ * folders, and measures the update after one rule was changed.
+ *
+ * <p>Run with {@code mvn test-compile exec:exec -Pbenchmarks -Dbenchmark=SieveCompletionProviderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SieveCompletionProviderBenchmark {
+
+    private static final int RULES = 10_000;
+    private static final String TYPED = "Archive/2024/";
+
+    private SieveCompletionProvider provider;
+    private ScriptNode script;
+    private ScriptNode edited;
+    private boolean toggle;
+
+    @Setup
+    public void createProvider() {
+        StringBuilder text = new StringBuilder("require \"fileinto\";\n");
+        for (int i = 0; i < RULES; i++) {
+            text.append("if header :contains \"x-list-").append(i % 100).append("\" \"list\" {\n")
+                .append("    fileinto \"Archive/").append(2000 + i % 25).append('/').append(i).append("\";\n")
+                .append("}\n");
+        }
+        script = SieveParser.parse(text.toString());
+        edited = SieveParser.parse(text.toString().replace("Archive/2024/24\"", "Archive/2024/changed\""));
+        provider = new SieveCompletionProvider();
+        provider.updateScript(script);
+    }
+
+    /**
+     * Looks up every prefix of a folder name, as typed one key at a time.
+     *
+     * @return the number of completions found
+     */
+    @Benchmark
+    public int typeFolderPrefix() {
+        int count = 0;
+        for (int i = 1; i <= TYPED.length(); i++) {
+            List<Completion> found = provider.find(TYPED.substring(0, i), true);
+            count += found.size();
+        }
+        return count;
+    }
+
+    @Benchmark
+    public SieveCompletionProvider updateAfterEdit() {
+        toggle = !toggle;
+        provider.updateScript(toggle ? edited : script);
+        return provider;
+    }
+}
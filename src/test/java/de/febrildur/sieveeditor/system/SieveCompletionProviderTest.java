@@ -0,0 +1,125 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import org.fife.ui.autocomplete.BasicCompletion;
+import org.fife.ui.autocomplete.Completion;
+import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
+import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
+import org.junit.jupiter.api.Test;
+
+import de.febrildur.sieveeditor.parser.SieveParser;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SieveCompletionProviderTest {
+
+    private static List<String> words(List<Completion> completions) {
+        return completions.stream().map(Completion::getReplacementText).toList();
+    }
+
+    private static RSyntaxTextArea editorWithCaretAtEnd(String text) {
+        RSyntaxTextArea textArea = new RSyntaxTextArea();
+        ((RSyntaxDocument) textArea.getDocument()).setSyntaxStyle(new SieveTokenMaker(0));
+        textArea.setText(text);
+        textArea.setCaretPosition(text.length());
+        return textArea;
+    }
+
+    @Test
+    void shouldCompleteCommandsTestsAndTags() {
+        // Given
+        SieveCompletionProvider provider = new SieveCompletionProvider();
+
+        // When / Then
+        assertThat(words(provider.find("file", false))).containsExactly("fileinto");
+        assertThat(words(provider.find(":ov", false))).containsExactly(":over");
+        assertThat(words(provider.find("EXI", false))).containsExactly("exists");
+        assertThat(((BasicCompletion) provider.find("addflag", false).get(0))
+            .getShortDescription()).isEqualTo("action (imap4flags)");
+    }
+
+    @Test
+    void shouldCompleteExtensionsAndComparatorsInStrings() {
+        // Given
+        SieveCompletionProvider provider = new SieveCompletionProvider();
+
+        // When / Then
+        assertThat(words(provider.find("imap", true))).containsExactly("imap4flags");
+        assertThat(words(provider.find("i;", true))).containsExactly("i;ascii-casemap", "i;ascii-numeric", "i;octet");
+        assertThat(provider.find("imap", false)).isEmpty();
+    }
+
+    @Test
+    void shouldOfferOnlyExtensionsOfServer() {
+        // Given
+        SieveCompletionProvider provider = new SieveCompletionProvider();
+        Set<String> server = Set.of("fileinto", "spamtestplus");
+
+        // When
+        provider.setServerExtensions(server::contains);
+
+        // Then
+        assertThat(words(provider.find("imap", true))).isEmpty();
+        assertThat(words(provider.find("spam", true))).containsExactly("spamtest", "spamtestplus");
+        assertThat(words(provider.find("file", true))).containsExactly("fileinto");
+    }
+
+    @Test
+    void shouldOfferFoldersAndHeadersOfScript() {
+        // Given
+        SieveCompletionProvider provider = new SieveCompletionProvider();
+        String script = "require [\"fileinto\", \"imap4flags\"];\n"
+                + "if header :comparator \"i;octet\" :contains [\"X-Spam-Flag\", \"X-Spam-Level\"] \"YES\" {\n"
+                + "    fileinto :flags \"\\\\Seen\" \"Junk/Spam\";\n"
+                + "}\n";
+
+        // When
+        provider.updateScript(SieveParser.parse(script));
+
+        // Then
+        assertThat(words(provider.find("x-spam", true))).containsExactly("X-Spam-Flag", "X-Spam-Level");
+        assertThat(words(provider.find("junk", true))).containsExactly("Junk/Spam");
+        assertThat(words(provider.find("\\", true))).isEmpty();
+        assertThat(words(provider.find("yes", true))).isEmpty();
+    }
+
+    @Test
+    void shouldReplaceWordsOfPreviousScript() {
+        // Given
+        SieveCompletionProvider provider = new SieveCompletionProvider();
+        provider.updateScript(SieveParser.parse("fileinto \"Old\";\nfileinto \"Kept\";\n"));
+
+        // When
+        provider.updateScript(SieveParser.parse("fileinto \"New\";\nfileinto \"Kept\";\n"));
+
+        // Then
+        assertThat(words(provider.find("old", true))).isEmpty();
+        assertThat(words(provider.find("new", true))).containsExactly("New");
+        assertThat(words(provider.find("kept", true))).containsExactly("Kept");
+    }
+
+    @Test
+    void shouldUseContextAtCaret() {
+        // Given
+        SieveCompletionProvider provider = new SieveCompletionProvider();
+
+        // When
+        RSyntaxTextArea tag = editorWithCaretAtEnd("if size :ov");
+        RSyntaxTextArea string = editorWithCaretAtEnd("require \"imap");
+        RSyntaxTextArea closed = editorWithCaretAtEnd("require \"imap\"");
+        RSyntaxTextArea comment = editorWithCaretAtEnd("# file");
+
+        // Then
+        assertThat(provider.getAlreadyEnteredText(tag)).isEqualTo(":ov");
+        assertThat(words(provider.getCompletions(tag))).containsExactly(":over");
+        assertThat(provider.getAlreadyEnteredText(string)).isEqualTo("imap");
+        assertThat(words(provider.getCompletions(string))).containsExactly("imap4flags");
+        assertThat(provider.getCompletions(closed)).isEmpty();
+        assertThat(provider.getCompletions(comment)).isEmpty();
+    }
+}
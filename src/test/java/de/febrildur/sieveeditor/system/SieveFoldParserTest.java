@@ -0,0 +1,171 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
+import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
+import org.fife.ui.rsyntaxtextarea.folding.Fold;
+import org.fife.ui.rsyntaxtextarea.folding.FoldType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SieveFoldParserTest {
+
+    private final SieveFoldParser parser = new SieveFoldParser();
+
+    private static RSyntaxTextArea textArea(String text) {
+        RSyntaxTextArea textArea = new RSyntaxTextArea(text);
+        ((RSyntaxDocument) textArea.getDocument()).setSyntaxStyle(new SieveTokenMaker());
+        return textArea;
+    }
+
+    private static String rules(int count) {
+        StringBuilder text = new StringBuilder("require [\"fileinto\"];\n");
+        for (int i = 1; i <= count; i++) {
+            text.append("## Flag: |UniqueId:").append(i).append(" |Rulename: Rule ").append(i).append('\n')
+                .append("if header :contains \"subject\" [\"a").append(i).append("\",\n")
+                .append("        \"b\"] {\n")
+                .append("    fileinto \"Folder").append(i).append("\";\n")
+                .append("}\n");
+        }
+        return text.toString();
+    }
+
+    @Test
+    void shouldFoldBlock() {
+        // Given
+        RSyntaxTextArea textArea = textArea("if true {\n    keep;\n}\n");
+
+        // When
+        List<Fold> folds = parser.getFolds(textArea);
+
+        // Then
+        assertThat(folds).hasSize(1);
+        assertThat(folds.get(0).getFoldType()).isEqualTo(FoldType.CODE);
+        assertThat(folds.get(0).getStartLine()).isZero();
+        assertThat(folds.get(0).getEndLine()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotFoldSingleLineBlockOrList() {
+        // Given
+        RSyntaxTextArea textArea = textArea("if header :is [\"a\", \"b\"] \"c\" { keep; }\n");
+
+        // When
+        List<Fold> folds = parser.getFolds(textArea);
+
+        // Then
+        assertThat(folds).isEmpty();
+    }
+
+    @Test
+    void shouldFoldRuleSectionsWithNestedFolds() {
+        // Given
+        RSyntaxTextArea textArea = textArea(rules(2));
+
+        // When
+        List<Fold> folds = parser.getFolds(textArea);
+
+        // Then - one section per rule, holding the list and the block
+        assertThat(folds).extracting(Fold::getFoldType).containsExactly(SieveFoldParser.RULE, SieveFoldParser.RULE);
+        assertThat(folds).extracting(Fold::getStartLine).containsExactly(1, 6);
+        assertThat(folds).extracting(Fold::getEndLine).containsExactly(5, 10);
+        Fold rule = folds.get(0);
+        assertThat(rule.getChildCount()).isEqualTo(2);
+        assertThat(rule.getChild(0).getStartLine()).isEqualTo(2);
+        assertThat(rule.getChild(0).getEndLine()).isEqualTo(3);
+        assertThat(rule.getChild(1).getStartLine()).isEqualTo(3);
+        assertThat(rule.getChild(1).getEndLine()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldIgnoreBracketsInStringsAndComments() {
+        // Given
+        RSyntaxTextArea textArea = textArea("# {\nif true { # }\n/* }\n*/ keep; \"}\n\"\n}\n");
+
+        // When
+        List<Fold> folds = parser.getFolds(textArea);
+
+        // Then
+        assertThat(folds).hasSize(1);
+        assertThat(folds.get(0).getStartLine()).isEqualTo(1);
+        assertThat(folds.get(0).getEndLine()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldDropUnclosedBlockAtNextRule() {
+        // Given
+        RSyntaxTextArea textArea = textArea("## Flag: |UniqueId:1 |Rulename: A\nif true {\nkeep;\n"
+            + "## Flag: |UniqueId:2 |Rulename: B\nif true {\nkeep;\n}\n");
+
+        // When
+        List<Fold> folds = parser.getFolds(textArea);
+
+        // Then
+        assertThat(folds).hasSize(2);
+        assertThat(folds.get(0).getChildCount()).isZero();
+        assertThat(folds.get(1).getChildCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldOnlyRecomputeEditedLines() throws Exception {
+        // Given
+        RSyntaxTextArea textArea = textArea(rules(1000));
+        parser.getFolds(textArea);
+        SieveFoldParser.LineSummaries summaries =
+            SieveFoldParser.summaries((RSyntaxDocument) textArea.getDocument());
+        long before = summaries.getRecomputed();
+
+        // When - typing inside a line
+        textArea.getDocument().insertString(textArea.getLineStartOffset(2499) + 4, "x", null);
+        List<Fold> folds = parser.getFolds(textArea);
+
+        // Then
+        assertThat(summaries.getRecomputed() - before).isEqualTo(1);
+        assertThat(folds).hasSize(1000);
+    }
+
+    @Test
+    void shouldRecomputeLinesWhoseStartStateChanged() throws Exception {
+        // Given
+        RSyntaxTextArea textArea = textArea(rules(10));
+        assertThat(parser.getFolds(textArea)).hasSize(10);
+
+        // When - a bracket comment swallows the rest of the script
+        textArea.getDocument().insertString(textArea.getLineStartOffset(6), "/*", null);
+        List<Fold> folds = parser.getFolds(textArea);
+
+        // Then - the first rule now runs to the end
+        assertThat(folds).hasSize(1);
+        assertThat(folds.get(0).getEndLine()).isEqualTo(50);
+
+        // When - closed again
+        textArea.getDocument().remove(textArea.getLineStartOffset(6), 2);
+
+        // Then
+        assertThat(parser.getFolds(textArea)).hasSize(10);
+    }
+
+    @Test
+    void shouldFollowInsertedAndRemovedLines() throws Exception {
+        // Given
+        RSyntaxTextArea textArea = textArea(rules(3));
+        parser.getFolds(textArea);
+
+        // When
+        textArea.getDocument().insertString(0, "# header\n# more\n", null);
+
+        // Then
+        assertThat(parser.getFolds(textArea)).extracting(Fold::getStartLine).containsExactly(3, 8, 13);
+
+        // When
+        textArea.getDocument().remove(0, textArea.getLineStartOffset(8));
+
+        // Then
+        assertThat(parser.getFolds(textArea)).extracting(Fold::getStartLine).containsExactly(0, 5);
+    }
+}
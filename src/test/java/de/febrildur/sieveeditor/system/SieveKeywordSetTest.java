@@ -0,0 +1,85 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import org.fife.ui.rsyntaxtextarea.TokenTypes;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SieveKeywordSetTest {
+
+    @Test
+    void shouldAcceptEverythingWithoutServer() {
+        // Given
+        SieveKeywordSet keywords = SieveKeywordSet.forServer(null);
+
+        // Then
+        assertThat(keywords).isSameAs(SieveKeywordSet.ALL_SUPPORTED);
+        assertThat(keywords.typeOf("vacation")).isEqualTo(TokenTypes.RESERVED_WORD_2);
+        assertThat(keywords.typeOf(":regex")).isEqualTo(TokenTypes.DATA_TYPE);
+    }
+
+    @Test
+    void shouldMarkKeywordsOfMissingExtensions() {
+        // Given
+        SieveKeywordSet keywords = SieveKeywordSet.fromCapability("fileinto reject envelope");
+
+        // Then
+        assertThat(keywords.typeOf("fileinto")).isEqualTo(TokenTypes.RESERVED_WORD_2);
+        assertThat(keywords.typeOf("envelope")).isEqualTo(TokenTypes.FUNCTION);
+        assertThat(keywords.typeOf("vacation")).isEqualTo(TokenTypes.ERROR_IDENTIFIER);
+        assertThat(keywords.typeOf("hasflag")).isEqualTo(TokenTypes.ERROR_IDENTIFIER);
+        assertThat(keywords.typeOf(":copy")).isEqualTo(TokenTypes.ERROR_IDENTIFIER);
+        assertThat(keywords.typeOf("foreverypart")).isEqualTo(TokenTypes.ERROR_IDENTIFIER);
+    }
+
+    @Test
+    void shouldKeepBaseLanguageValid() {
+        // Given - a server with no extensions at all
+        SieveKeywordSet keywords = SieveKeywordSet.fromCapability("");
+
+        // Then
+        for (String word : new String[]{"if", "require", "keep", "discard", "redirect", "header", "address",
+                "size", "allof", ":is", ":contains", ":comparator", ":over", ":all"}) {
+            assertThat(keywords.typeOf(word)).as(word).isNotEqualTo(TokenTypes.ERROR_IDENTIFIER);
+        }
+    }
+
+    @Test
+    void shouldAcceptExtensionsProvidedByOthers() {
+        // Given
+        SieveKeywordSet keywords = SieveKeywordSet.forServer(Set.of("spamtestplus", "ereject")::contains);
+
+        // Then
+        assertThat(keywords.typeOf("spamtest")).isEqualTo(TokenTypes.FUNCTION);
+        assertThat(keywords.typeOf("reject")).isEqualTo(TokenTypes.RESERVED_WORD_2);
+    }
+
+    @Test
+    void shouldIgnoreCaseOfCapability() {
+        assertThat(SieveKeywordSet.fromCapability(" FileInto  Vacation ").typeOf("vacation"))
+            .isEqualTo(TokenTypes.RESERVED_WORD_2);
+    }
+
+    @Test
+    void shouldReportOnlyChangedKeywords() {
+        // Given
+        SieveKeywordSet withVacation = SieveKeywordSet.fromCapability("fileinto vacation");
+        SieveKeywordSet withoutVacation = SieveKeywordSet.fromCapability("fileinto");
+        char[] vacation = "vacation".toCharArray();
+        char[] fileinto = "fileinto".toCharArray();
+
+        // When
+        long mask = withVacation.differenceMask(withoutVacation);
+
+        // Then
+        assertThat(mask & SieveKeywordSet.maskOf(SieveKeywords.find(vacation, 0, vacation.length))).isNotZero();
+        assertThat(withVacation.differenceMask(SieveKeywordSet.fromCapability("vacation fileinto"))).isZero();
+        assertThat(withVacation).isEqualTo(SieveKeywordSet.fromCapability("vacation fileinto"));
+        assertThat(SieveKeywords.find(fileinto, 0, fileinto.length)).isNotNegative();
+    }
+}
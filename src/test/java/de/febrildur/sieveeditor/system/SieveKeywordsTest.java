@@ -0,0 +1,65 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import org.fife.ui.rsyntaxtextarea.TokenTypes;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SieveKeywordsTest {
+
+    @Test
+    void shouldFindEveryKeywordInAnyCase() {
+        for (Map.Entry<String, Integer> entry : SieveKeywords.all().entrySet()) {
+            // Given
+            String keyword = entry.getKey();
+
+            // Then
+            assertThat(lookup(keyword)).as(keyword).isEqualTo(entry.getValue());
+            assertThat(lookup(keyword.toUpperCase(Locale.ROOT))).as(keyword).isEqualTo(entry.getValue());
+        }
+    }
+
+    @Test
+    void shouldMapWordsToTheirKind() {
+        assertThat(lookup("elsif")).isEqualTo(TokenTypes.RESERVED_WORD);
+        assertThat(lookup("redirect")).isEqualTo(TokenTypes.RESERVED_WORD_2);
+        assertThat(lookup("anyof")).isEqualTo(TokenTypes.FUNCTION);
+        assertThat(lookup(":comparator")).isEqualTo(TokenTypes.DATA_TYPE);
+        assertThat(lookup(":matches")).isEqualTo(TokenTypes.DATA_TYPE);
+    }
+
+    @Test
+    void shouldRejectNonKeywords() {
+        for (String word : new String[]{"", "i", "iff", "headers", "contains", ":", ":foo", "keep;", "\u0130F"}) {
+            assertThat(lookup(word)).as(word).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void shouldLookUpWithinLargerArray() {
+        // Given
+        char[] line = "  fileinto :copy".toCharArray();
+
+        // Then
+        assertThat(SieveKeywords.lookup(line, 2, 10)).isEqualTo(TokenTypes.RESERVED_WORD_2);
+        assertThat(SieveKeywords.lookup(line, 11, 16)).isEqualTo(TokenTypes.DATA_TYPE);
+        assertThat(SieveKeywords.lookup(line, 2, 9)).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldKeepTableSmall() {
+        // Then - one slot per keyword at most eight times over
+        assertThat(SieveKeywords.tableSize()).isLessThanOrEqualTo(Integer.highestOneBit(SieveKeywords.all().size()) * 8);
+    }
+
+    private static int lookup(String word) {
+        char[] array = word.toCharArray();
+        return SieveKeywords.lookup(array, 0, array.length);
+    }
+}
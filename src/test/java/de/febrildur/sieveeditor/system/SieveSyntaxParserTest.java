@@ -0,0 +1,169 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
+import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
+import org.fife.ui.rsyntaxtextarea.parser.ParseResult;
+import org.fife.ui.rsyntaxtextarea.parser.ParserNotice;
+import de.febrildur.sieveeditor.parser.ast.ScriptNode;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SieveSyntaxParserTest {
+
+    private RSyntaxTextArea textArea;
+    private SieveSyntaxParser parser;
+
+    private void createParser(String text) throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            textArea = new RSyntaxTextArea(text);
+            textArea.setParserDelay(10);
+            parser = new SieveSyntaxParser(textArea);
+            textArea.addParser(parser);
+            // Text set before the parser was added is only parsed on request
+            textArea.forceReparsing(parser);
+        });
+    }
+
+    private <T> T onEdt(Supplier<T> supplier) throws Exception {
+        AtomicReference<T> result = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> result.set(supplier.get()));
+        return result.get();
+    }
+
+    private List<ParserNotice> awaitNotices(int count) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        List<ParserNotice> notices = onEdt(() -> textArea.getParserNotices());
+        while (notices.size() != count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            notices = onEdt(() -> textArea.getParserNotices());
+        }
+        return notices;
+    }
+
+    @Test
+    void shouldReportSyntaxErrorAsNotice() throws Exception {
+        // Given
+        String script = "require \"fileinto\";\n}\nkeep;\n";
+
+        // When
+        createParser(script);
+
+        // Then
+        List<ParserNotice> notices = awaitNotices(1);
+        assertThat(notices).hasSize(1);
+        ParserNotice notice = notices.get(0);
+        assertThat(notice.getMessage()).contains("Unexpected '}'");
+        assertThat(notice.getLine()).isEqualTo(1);
+        assertThat(notice.getOffset()).isEqualTo(script.indexOf('}'));
+        assertThat(notice.getLength()).isEqualTo(1);
+        assertThat(notice.getLevel()).isEqualTo(ParserNotice.Level.ERROR);
+    }
+
+    @Test
+    void shouldClearNoticesWhenFixed() throws Exception {
+        // Given
+        createParser("keep\n");
+        assertThat(awaitNotices(1)).hasSize(1);
+
+        // When
+        SwingUtilities.invokeAndWait(() -> {
+            textArea.insert(";", 4);
+            // The delayed reparse only runs once the text area is shown
+            textArea.forceReparsing(parser);
+        });
+
+        // Then
+        assertThat(awaitNotices(0)).isEmpty();
+    }
+
+    @Test
+    void shouldMarkLastCharacterForErrorAtEnd() throws Exception {
+        // Given
+        String script = "if true {\n    keep;\n";
+
+        // When
+        createParser(script);
+
+        // Then
+        List<ParserNotice> notices = awaitNotices(1);
+        assertThat(notices).hasSize(1);
+        assertThat(notices.get(0).getOffset() + notices.get(0).getLength()).isLessThanOrEqualTo(script.length());
+    }
+
+    @Test
+    void shouldCheckOffEdtAndReturnEmptyResultUntilDone() throws Exception {
+        // Given
+        createParser("keep;\n");
+        assertThat(awaitNotices(0)).isEmpty();
+
+        // When - a new text is parsed directly
+        ParseResult pending = onEdt(() -> {
+            textArea.append("stop\n");
+            return parser.parse((RSyntaxDocument) textArea.getDocument(), "text/sieve");
+        });
+
+        // Then - the check result arrives later
+        assertThat(pending.getNotices()).isEmpty();
+        assertThat(awaitNotices(1)).singleElement()
+            .satisfies(notice -> assertThat(notice.getMessage()).contains("'stop'"));
+        assertThat(onEdt(() -> parser.isChecking())).isFalse();
+    }
+
+    @Test
+    void shouldPassCheckedScriptToListener() throws Exception {
+        // Given
+        createParser("keep;\n");
+        assertThat(awaitNotices(0)).isEmpty();
+        List<ScriptNode> scripts = new CopyOnWriteArrayList<>();
+        SwingUtilities.invokeAndWait(() -> parser.setScriptListener(scripts::add));
+
+        // When
+        SwingUtilities.invokeAndWait(() -> {
+            textArea.append("fileinto \"Archive\";\n");
+            textArea.forceReparsing(parser);
+        });
+
+        // Then
+        long deadline = System.currentTimeMillis() + 5000;
+        while (scripts.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(scripts).singleElement()
+            .satisfies(script -> assertThat(script.getCommands()).hasSize(2));
+    }
+
+    @Test
+    void shouldNotPassScriptOfOutdatedText() throws Exception {
+        // Given
+        createParser("keep;\n");
+        assertThat(awaitNotices(0)).isEmpty();
+        List<ScriptNode> scripts = new CopyOnWriteArrayList<>();
+        SwingUtilities.invokeAndWait(() -> parser.setScriptListener(scripts::add));
+
+        // When - the text changes again while the check runs
+        SwingUtilities.invokeAndWait(() -> {
+            textArea.append("fileinto \"Archive\";\n");
+            textArea.forceReparsing(parser);
+            textArea.append("stop;\n");
+        });
+
+        // Then - only the script of the current text is passed on
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((scripts.isEmpty() || onEdt(() -> parser.isChecking())) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        SwingUtilities.invokeAndWait(() -> { });
+        assertThat(scripts).singleElement()
+            .satisfies(script -> assertThat(script.getCommands()).hasSize(3));
+    }
+}
@@ -6,11 +6,15 @@ package de.febrildur.sieveeditor.system;
 
 import org.fife.ui.rsyntaxtextarea.Token;
 import org.fife.ui.rsyntaxtextarea.TokenTypes;
+import org.assertj.core.groups.Tuple;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import javax.swing.text.Segment;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.*;
 
 /**
@@ -39,9 +43,7 @@ class SieveTokenMakerTest {
         // Then
         assertThat(token).isNotNull();
         assertThat(token.getLexeme()).isEqualTo("if");
-        // Current implementation returns IDENTIFIER (type 20), not RESERVED_WORD (type 6)
-        // The tokenizer doesn't apply keyword highlighting from getWordsToHighlight()
-        assertThat(token.getType()).isEqualTo(TokenTypes.IDENTIFIER);
+        assertThat(token.getType()).isEqualTo(TokenTypes.RESERVED_WORD);
     }
 
     @Test
@@ -334,8 +336,260 @@ class SieveTokenMakerTest {
         assertThat(foundNumber).isTrue();
     }
 
+    // ===== Keywords and Tags =====
+
+    @Test
+    void shouldHighlightKeywordsByKind() {
+        // Given
+        Segment segment = createSegment("if header :contains \"x\" { fileinto \"y\"; }");
+
+        // When
+        List<Token> tokens = tokens(tokenMaker.getTokenList(segment, TokenTypes.NULL, 0));
+
+        // Then
+        assertThat(tokens).extracting(Token::getLexeme, Token::getType).containsExactly(
+            tuple("if", TokenTypes.RESERVED_WORD),
+            tuple(" ", TokenTypes.WHITESPACE),
+            tuple("header", TokenTypes.FUNCTION),
+            tuple(" ", TokenTypes.WHITESPACE),
+            tuple(":contains", TokenTypes.DATA_TYPE),
+            tuple(" ", TokenTypes.WHITESPACE),
+            tuple("\"x\"", TokenTypes.LITERAL_STRING_DOUBLE_QUOTE),
+            tuple(" ", TokenTypes.WHITESPACE),
+            tuple("{", TokenTypes.SEPARATOR),
+            tuple(" ", TokenTypes.WHITESPACE),
+            tuple("fileinto", TokenTypes.RESERVED_WORD_2),
+            tuple(" ", TokenTypes.WHITESPACE),
+            tuple("\"y\"", TokenTypes.LITERAL_STRING_DOUBLE_QUOTE),
+            tuple(";", TokenTypes.SEPARATOR),
+            tuple(" ", TokenTypes.WHITESPACE),
+            tuple("}", TokenTypes.SEPARATOR));
+    }
+
+    @Test
+    void shouldIgnoreCaseOfKeywords() {
+        // Given
+        Segment segment = createSegment("IF Header :CONTAINS");
+
+        // When
+        List<Token> tokens = tokens(tokenMaker.getTokenList(segment, TokenTypes.NULL, 0));
+
+        // Then
+        assertThat(tokens).extracting(Token::getType).containsExactly(TokenTypes.RESERVED_WORD,
+            TokenTypes.WHITESPACE, TokenTypes.FUNCTION, TokenTypes.WHITESPACE, TokenTypes.DATA_TYPE);
+    }
+
+    @Test
+    void shouldKeepUnknownTagsAndWordsAsIdentifiers() {
+        // Given
+        Segment segment = createSegment(":unknown ifx");
+
+        // When
+        List<Token> tokens = tokens(tokenMaker.getTokenList(segment, TokenTypes.NULL, 0));
+
+        // Then
+        assertThat(tokens).extracting(Token::getLexeme, Token::getType).containsExactly(
+            tuple(":unknown", TokenTypes.IDENTIFIER),
+            tuple(" ", TokenTypes.WHITESPACE),
+            tuple("ifx", TokenTypes.IDENTIFIER));
+    }
+
+    // ===== Strings and Comments =====
+
+    @Test
+    void shouldNotEndStringAtEscapedQuote() {
+        // Given
+        Segment segment = createSegment("\"a \\\" b\\\\\" keep");
+
+        // When
+        List<Token> tokens = tokens(tokenMaker.getTokenList(segment, TokenTypes.NULL, 0));
+
+        // Then
+        assertThat(tokens.get(0).getLexeme()).isEqualTo("\"a \\\" b\\\\\"");
+        assertThat(tokens.get(0).getType()).isEqualTo(TokenTypes.LITERAL_STRING_DOUBLE_QUOTE);
+        assertThat(tokens.get(2).getType()).isEqualTo(TokenTypes.RESERVED_WORD_2);
+    }
+
+    @Test
+    void shouldContinueStringOnNextLine() {
+        // Given
+        Token first = tokenMaker.getTokenList(createSegment("\"first"), TokenTypes.NULL, 0);
+        int state = lastType(first);
+
+        // When
+        List<Token> tokens = tokens(tokenMaker.getTokenList(createSegment("second\"; stop;"), state, 7));
+
+        // Then
+        assertThat(state).isEqualTo(TokenTypes.LITERAL_STRING_DOUBLE_QUOTE);
+        assertThat(tokens.get(0).getLexeme()).isEqualTo("second\"");
+        assertThat(tokens.get(0).getType()).isEqualTo(TokenTypes.LITERAL_STRING_DOUBLE_QUOTE);
+        assertThat(tokens.get(3).getLexeme()).isEqualTo("stop");
+    }
+
+    @Test
+    void shouldTokenizeBracketCommentWithinLine() {
+        // Given
+        Segment segment = createSegment("keep /* # not eol */ ;");
+
+        // When
+        List<Token> tokens = tokens(tokenMaker.getTokenList(segment, TokenTypes.NULL, 0));
+
+        // Then
+        assertThat(tokens).extracting(Token::getLexeme, Token::getType).containsExactly(
+            tuple("keep", TokenTypes.RESERVED_WORD_2),
+            tuple(" ", TokenTypes.WHITESPACE),
+            tuple("/* # not eol */", TokenTypes.COMMENT_MULTILINE),
+            tuple(" ", TokenTypes.WHITESPACE),
+            tuple(";", TokenTypes.SEPARATOR));
+    }
+
+    @Test
+    void shouldCarryBracketCommentAcrossLines() {
+        // Given
+        int state = lastType(tokenMaker.getTokenList(createSegment("keep; /* starts"), TokenTypes.NULL, 0));
+        int emptyLineState = lastType(tokenMaker.getTokenList(createSegment(""), state, 16));
+
+        // When
+        List<Token> tokens = tokens(tokenMaker.getTokenList(createSegment("ends */ stop;"), emptyLineState, 17));
+
+        // Then
+        assertThat(state).isEqualTo(TokenTypes.COMMENT_MULTILINE);
+        assertThat(emptyLineState).isEqualTo(TokenTypes.COMMENT_MULTILINE);
+        assertThat(tokens.get(0).getLexeme()).isEqualTo("ends */");
+        assertThat(tokens.get(0).getType()).isEqualTo(TokenTypes.COMMENT_MULTILINE);
+        assertThat(tokens.get(2).getType()).isEqualTo(TokenTypes.RESERVED_WORD);
+        assertThat(tokens.get(2).getOffset()).isEqualTo(25);
+    }
+
+    @Test
+    void shouldTokenizeMultiLineTextLiteral() {
+        // Given
+        String[] lines = {"vacation text: # reply", "if stop; /* not code", "..dot-stuffed", ".", "stop;"};
+
+        // When
+        // Tokens are reused by the next call, so copy what is checked
+        List<List<Tuple>> tokenized = new ArrayList<>();
+        int[] states = new int[lines.length];
+        int state = TokenTypes.NULL;
+        for (int i = 0; i < lines.length; i++) {
+            Token first = tokenMaker.getTokenList(createSegment(lines[i]), state, 0);
+            tokenized.add(tokens(first).stream().map(t -> tuple(t.getLexeme(), t.getType())).toList());
+            state = lastType(first);
+            states[i] = state;
+        }
+
+        // Then
+        assertThat(tokenized.get(0)).containsExactly(
+            tuple("vacation", TokenTypes.RESERVED_WORD_2),
+            tuple(" ", TokenTypes.WHITESPACE),
+            tuple("text:", TokenTypes.LITERAL_STRING_DOUBLE_QUOTE),
+            tuple(" ", TokenTypes.WHITESPACE),
+            tuple("# reply", TokenTypes.COMMENT_EOL));
+        assertThat(tokenized.get(1)).containsExactly(tuple("if stop; /* not code", TokenTypes.LITERAL_STRING_DOUBLE_QUOTE));
+        assertThat(tokenized.get(2)).containsExactly(tuple("..dot-stuffed", TokenTypes.LITERAL_STRING_DOUBLE_QUOTE));
+        assertThat(tokenized.get(3)).containsExactly(tuple(".", TokenTypes.LITERAL_STRING_DOUBLE_QUOTE));
+        assertThat(tokenized.get(4)).containsExactly(tuple("stop", TokenTypes.RESERVED_WORD), tuple(";", TokenTypes.SEPARATOR));
+        assertThat(states).containsExactly(SieveTokenMaker.INTERNAL_TEXT_LITERAL, SieveTokenMaker.INTERNAL_TEXT_LITERAL,
+            SieveTokenMaker.INTERNAL_TEXT_LITERAL, TokenTypes.NULL, TokenTypes.NULL);
+        assertThat(tokenMaker.getClosestStandardTokenTypeForInternalType(SieveTokenMaker.INTERNAL_TEXT_LITERAL))
+            .isEqualTo(TokenTypes.LITERAL_STRING_DOUBLE_QUOTE);
+    }
+
+    @Test
+    void shouldNotStartTextLiteralWhenCodeFollows() {
+        // Given
+        Segment segment = createSegment("text: stop");
+
+        // When
+        Token first = tokenMaker.getTokenList(segment, TokenTypes.NULL, 0);
+
+        // Then
+        assertThat(first.getLexeme()).isEqualTo("text");
+        assertThat(first.getType()).isEqualTo(TokenTypes.IDENTIFIER);
+        assertThat(lastType(first)).isEqualTo(TokenTypes.NULL);
+    }
+
+    @Test
+    void shouldOfferHashAsLineComment() {
+        assertThat(tokenMaker.getLineCommentStartAndEnd(0)).containsExactly("#", null);
+        assertThat(tokenMaker.getCurlyBracesDenoteCodeBlocks(0)).isTrue();
+    }
+
+    @Test
+    void shouldReuseCachedTokensForRepeatedLine() {
+        // Given - the same line painted at two places of the document
+        char[] line = "fileinto :copy \"Spam\";".toCharArray();
+        Token first = tokenMaker.getTokenList(new Segment(line, 0, line.length), TokenTypes.NULL, 0);
+        List<Tuple> atStart = tokens(first).stream().map(t -> tuple(t.getOffset(), t.getLexeme(), t.getType())).toList();
+
+        // When
+        Token again = tokenMaker.getTokenList(new Segment(line.clone(), 0, line.length), TokenTypes.NULL, 1000);
+
+        // Then - the same tokens, moved to the new offset
+        assertThat(tokens(again)).extracting(t -> tuple(t.getOffset() - 1000, t.getLexeme(), t.getType()))
+            .containsExactlyElementsOf(atStart);
+        assertThat(lastType(again)).isEqualTo(TokenTypes.NULL);
+    }
+
+    // ===== Server Keywords =====
+
+    @Test
+    void shouldMarkKeywordsOfUnsupportedExtensions() {
+        // Given
+        tokenMaker.setKeywordSet(SieveKeywordSet.fromCapability("fileinto"));
+
+        // When
+        List<Token> tokens = tokens(tokenMaker.getTokenList(createSegment("fileinto :copy \"a\"; vacation"), TokenTypes.NULL, 0));
+
+        // Then
+        assertThat(tokens).extracting(Token::getLexeme, Token::getType).contains(
+            tuple("fileinto", TokenTypes.RESERVED_WORD_2),
+            tuple(":copy", TokenTypes.ERROR_IDENTIFIER),
+            tuple("vacation", TokenTypes.ERROR_IDENTIFIER));
+    }
+
+    @Test
+    void shouldOnlyRetokenizeLinesWithAffectedKeywords() {
+        // Given - both lines cached with every keyword valid
+        Segment plain = createSegment("if header :contains \"a\" \"b\" { keep; }");
+        Segment vacation = createSegment("vacation \"Away\";");
+        tokenMaker.getTokenList(plain, TokenTypes.NULL, 0);
+        tokenMaker.getTokenList(vacation, TokenTypes.NULL, 0);
+        long misses = tokenMaker.getCache().getMisses();
+
+        // When - a server without vacation
+        tokenMaker.setKeywordSet(SieveKeywordSet.fromCapability("fileinto"));
+        tokenMaker.getTokenList(plain, TokenTypes.NULL, 0);
+        Token first = tokenMaker.getTokenList(vacation, TokenTypes.NULL, 0);
+
+        // Then - the plain line came from the cache, the vacation line was tokenized again
+        assertThat(first.getType()).isEqualTo(TokenTypes.ERROR_IDENTIFIER);
+        assertThat(tokenMaker.getCache().getMisses()).isEqualTo(misses + 1);
+    }
+
     // ===== Helper Methods =====
 
+    /**
+     * Collects the tokens of a line, without zero-length and null tokens.
+     */
+    private static List<Token> tokens(Token token) {
+        List<Token> tokens = new ArrayList<>();
+        while (token != null && token.getType() != TokenTypes.NULL) {
+            if (token.length() > 0) {
+                tokens.add(token);
+            }
+            token = token.getNextToken();
+        }
+        return tokens;
+    }
+
+    private static int lastType(Token token) {
+        while (token.getNextToken() != null) {
+            token = token.getNextToken();
+        }
+        return token.getType();
+    }
+
     private Segment createSegment(String text) {
         char[] array = text.toCharArray();
         return new Segment(array, 0, array.length);
@@ -0,0 +1,97 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.text.Segment;
+
+import org.fife.ui.rsyntaxtextarea.Token;
+import org.fife.ui.rsyntaxtextarea.TokenTypes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scrolls through a 50k-line script the way the editor repaints it: every
+ * scroll step tokenizes all visible lines again. Compares
+ * {@link SieveTokenMaker} with and without its {@link TokenListCache}.
+ *
+ * <p>Run with {@code mvn test-compile exec:exec -Pbenchmarks -Dbenchmark=TokenListCacheBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenListCacheBenchmark {
+
+    private static final int LINES = 50_000;
+    private static final int VISIBLE_LINES = 60;
+    private static final int SCROLL_STEP = 3;
+
+    private Segment[] script;
+    private int[] startTypes;
+
+    @Setup
+    public void createScript() {
+        script = new Segment[LINES];
+        for (int i = 0; i < LINES; i++) {
+            int rule = i / 6;
+            String line = switch (i % 6) {
+                case 0 -> "## Flag: |UniqueId:" + rule + " |Rulename: Rule " + rule;
+                case 1 -> "if header :contains \"subject\" \"Topic " + (rule % 50) + "\" {";
+                case 2 -> "\tfileinto :copy \"Folder/" + (rule % 20) + "\";";
+                case 3 -> "\tstop;";
+                case 4 -> "}";
+                default -> "";
+            };
+            char[] array = line.toCharArray();
+            script[i] = new Segment(array, 0, array.length);
+        }
+        // The document remembers the start type of each line; compute it once
+        startTypes = new int[LINES];
+        SieveTokenMaker tokenMaker = new SieveTokenMaker(0);
+        int state = TokenTypes.NULL;
+        for (int i = 0; i < LINES; i++) {
+            startTypes[i] = state;
+            state = tokenMaker.getLastTokenTypeOnLine(script[i], state);
+        }
+    }
+
+    @Benchmark
+    public int scrollUncached() {
+        return scroll(new SieveTokenMaker(0));
+    }
+
+    @Benchmark
+    public int scrollCached() {
+        return scroll(new SieveTokenMaker());
+    }
+
+    /**
+     * Scrolls from top to bottom, tokenizing the visible lines at each step.
+     *
+     * @return the number of tokens painted
+     */
+    private int scroll(SieveTokenMaker tokenMaker) {
+        int count = 0;
+        for (int top = 0; top + VISIBLE_LINES <= LINES; top += SCROLL_STEP) {
+            for (int line = top; line < top + VISIBLE_LINES; line++) {
+                for (Token t = tokenMaker.getTokenList(script[line], startTypes[line], 0); t != null; t = t.getNextToken()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,144 @@
+package de.febrildur.sieveeditor.system;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import org.fife.ui.rsyntaxtextarea.Token;
+import org.fife.ui.rsyntaxtextarea.TokenImpl;
+import org.fife.ui.rsyntaxtextarea.TokenTypes;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.text.Segment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TokenListCacheTest {
+
+    private final SieveTokenMaker tokenMaker = new SieveTokenMaker(0);
+    private final TokenListCache cache = new TokenListCache(64);
+
+    @Test
+    void shouldRoundCapacityUpToPowerOfTwo() {
+        assertThat(new TokenListCache(1000).getCapacity()).isEqualTo(1024);
+        assertThat(new TokenListCache(1024).getCapacity()).isEqualTo(1024);
+        assertThat(new TokenListCache(1).getCapacity()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReturnSameTokensForSameLineElsewhere() {
+        // Given - the line once at the start of an array and once inside another one
+        String line = "if header :is \"a\" \"b\" { keep; }";
+        put(line.toCharArray(), 0, line.length(), TokenTypes.NULL);
+        char[] other = ("xx" + line + "yy").toCharArray();
+
+        // When
+        TokenListCache.Entry entry = cache.find(other, 2, line.length(), TokenTypes.NULL);
+
+        // Then - same tokens as tokenizing the line at its new offset
+        assertThat(entry).isNotNull();
+        assertThat(describe(entry.tokens(500)))
+            .containsExactlyElementsOf(describe(tokenMaker.getTokenList(new Segment(other, 2, line.length()), TokenTypes.NULL, 500)));
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepStateCarriedToNextLine() {
+        // Given
+        char[] line = "keep; /* open".toCharArray();
+        put(line, 0, line.length, TokenTypes.NULL);
+
+        // When
+        Token token = cache.find(line, 0, line.length, TokenTypes.NULL).tokens(0);
+
+        // Then - no null token, the last token type starts the next line
+        while (token.getNextToken() != null) {
+            token = token.getNextToken();
+        }
+        assertThat(token.getType()).isEqualTo(TokenTypes.COMMENT_MULTILINE);
+    }
+
+    @Test
+    void shouldMissForOtherStartTypeOrText() {
+        // Given
+        char[] line = "stop;".toCharArray();
+        put(line, 0, line.length, TokenTypes.NULL);
+
+        // Then
+        assertThat(cache.find(line, 0, line.length, TokenTypes.COMMENT_MULTILINE)).isNull();
+        assertThat(cache.find("stop,".toCharArray(), 0, 5, TokenTypes.NULL)).isNull();
+        assertThat(cache.find(line, 0, 4, TokenTypes.NULL)).isNull();
+        assertThat(cache.getMisses()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldNotCacheVeryLongLines() {
+        // Given
+        char[] line = "keep; ".repeat(TokenListCache.MAX_LINE_LENGTH).toCharArray();
+        put(line, 0, line.length, TokenTypes.NULL);
+
+        // Then
+        assertThat(cache.find(line, 0, line.length, TokenTypes.NULL)).isNull();
+    }
+
+    @Test
+    void shouldUndoChangesCallersMadeToReturnedTokens() {
+        // Given
+        char[] line = "fileinto \"a\";".toCharArray();
+        put(line, 0, line.length, TokenTypes.NULL);
+        List<String> expected = describe(cache.find(line, 0, line.length, TokenTypes.NULL).tokens(0));
+
+        // When - a caller moves the start of a token, as line wrapping does
+        Token first = cache.find(line, 0, line.length, TokenTypes.NULL).tokens(0);
+        ((TokenImpl) first).makeStartAt(3);
+        ((TokenImpl) first.getNextToken()).setNextToken(null);
+
+        // Then
+        assertThat(describe(cache.find(line, 0, line.length, TokenTypes.NULL).tokens(0))).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldInvalidateOnlyLinesWithGivenKeywords() {
+        // Given
+        char[] first = "vacation \"a\";".toCharArray();
+        char[] second = "keep;".toCharArray();
+        cache.put(first, 0, first.length, TokenTypes.NULL, tokenMaker.getTokenList(new Segment(first, 0, first.length), TokenTypes.NULL, 0), 1L << 3);
+        cache.put(second, 0, second.length, TokenTypes.NULL, tokenMaker.getTokenList(new Segment(second, 0, second.length), TokenTypes.NULL, 0), 1L << 5);
+
+        // When
+        cache.invalidate(1L << 3 | 1L << 7);
+
+        // Then
+        assertThat(cache.find(first, 0, first.length, TokenTypes.NULL)).isNull();
+        assertThat(cache.find(second, 0, second.length, TokenTypes.NULL)).isNotNull();
+    }
+
+    @Test
+    void shouldForgetEntriesWhenCleared() {
+        // Given
+        char[] line = "stop;".toCharArray();
+        put(line, 0, line.length, TokenTypes.NULL);
+
+        // When
+        cache.clear();
+
+        // Then
+        assertThat(cache.find(line, 0, line.length, TokenTypes.NULL)).isNull();
+        assertThat(cache.getHits()).isZero();
+    }
+
+    private void put(char[] array, int start, int count, int startType) {
+        Token first = tokenMaker.getTokenList(new Segment(array, start, count), startType, 0);
+        cache.put(array, start, count, startType, first, 0);
+    }
+
+    private static List<String> describe(Token token) {
+        List<String> tokens = new ArrayList<>();
+        for (; token != null; token = token.getNextToken()) {
+            tokens.add(token.getOffset() + ":" + token.getType() + ":" + (token.length() > 0 ? token.getLexeme() : ""));
+        }
+        return tokens;
+    }
+}
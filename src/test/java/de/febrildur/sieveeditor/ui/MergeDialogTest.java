@@ -0,0 +1,37 @@
+package de.febrildur.sieveeditor.ui;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import de.febrildur.sieveeditor.util.ThreeWayMerge;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+@Tag("gui")
+class MergeDialogTest {
+
+    private static ThreeWayMerge.MergeResult conflictingMerge() {
+        return ThreeWayMerge.merge("a\nb\nc\n", "a\nmine\nc\n", "a\nserver\nc\n");
+    }
+
+    @Test
+    void shouldShowMergedTextWithConflictMarkers() {
+        MergeDialog dialog = new MergeDialog(null, conflictingMerge());
+
+        assertThat(dialog.getMergedText()).contains(ThreeWayMerge.MARKER_OURS);
+        assertThat(dialog.getResult()).isNull();
+        dialog.dispose();
+    }
+
+    @Test
+    void shouldResolveConflictAtCaret() {
+        MergeDialog dialog = new MergeDialog(null, conflictingMerge());
+
+        dialog.resolve(ThreeWayMerge.Side.THEIRS);
+
+        assertThat(dialog.getMergedText()).isEqualTo("a\nserver\nc\n");
+        dialog.dispose();
+    }
+}
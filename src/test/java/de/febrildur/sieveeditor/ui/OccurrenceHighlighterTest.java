@@ -0,0 +1,120 @@
+package de.febrildur.sieveeditor.ui;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import de.febrildur.sieveeditor.system.SieveTokenMaker;
+import org.fife.ui.rsyntaxtextarea.DocumentRange;
+import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
+import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OccurrenceHighlighterTest {
+
+    private static final String SCRIPT = "if header :contains \"subject\" \"Spam\" {\n"
+        + "    fileinto \"Spam\";\n"
+        + "}\n";
+
+    private RSyntaxTextArea textArea;
+    private OccurrenceHighlighter highlighter;
+
+    private void createHighlighter(String text) throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            textArea = new RSyntaxTextArea(text);
+            ((RSyntaxDocument) textArea.getDocument()).setSyntaxStyle(new SieveTokenMaker());
+            highlighter = new OccurrenceHighlighter(textArea, 10);
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (highlighter != null) {
+            SwingUtilities.invokeAndWait(() -> highlighter.dispose());
+        }
+    }
+
+    private <T> T onEdt(Supplier<T> supplier) throws Exception {
+        AtomicReference<T> result = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> result.set(supplier.get()));
+        return result.get();
+    }
+
+    private List<DocumentRange> awaitMarks(int count) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        List<DocumentRange> marks = onEdt(() -> highlighter.getMarkedOccurrences());
+        while (marks.size() != count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            marks = onEdt(() -> highlighter.getMarkedOccurrences());
+        }
+        return marks;
+    }
+
+    @Test
+    void shouldMarkAllUsesOfStringAtCaret() throws Exception {
+        // Given
+        createHighlighter(SCRIPT);
+
+        // When
+        SwingUtilities.invokeAndWait(() -> textArea.setCaretPosition(SCRIPT.indexOf("Spam")));
+
+        // Then
+        List<DocumentRange> marks = awaitMarks(2);
+        assertThat(marks).extracting(DocumentRange::getStartOffset)
+            .containsExactly(SCRIPT.indexOf("\"Spam\""), SCRIPT.lastIndexOf("\"Spam\""));
+        assertThat(marks).allSatisfy(range -> assertThat(range.getEndOffset() - range.getStartOffset()).isEqualTo(6));
+    }
+
+    @Test
+    void shouldMarkTokenJustBeforeCaret() throws Exception {
+        // Given
+        createHighlighter(SCRIPT);
+
+        // When - caret right after the closing quote
+        SwingUtilities.invokeAndWait(() -> textArea.setCaretPosition(SCRIPT.lastIndexOf("\";") + 1));
+
+        // Then
+        assertThat(awaitMarks(2)).hasSize(2);
+    }
+
+    @Test
+    void shouldNotMarkKeywords() throws Exception {
+        // Given
+        createHighlighter(SCRIPT);
+        SwingUtilities.invokeAndWait(() -> textArea.setCaretPosition(SCRIPT.indexOf("Spam")));
+        awaitMarks(2);
+
+        // When
+        SwingUtilities.invokeAndWait(() -> textArea.setCaretPosition(SCRIPT.indexOf("ileinto")));
+
+        // Then
+        assertThat(awaitMarks(0)).isEmpty();
+    }
+
+    @Test
+    void shouldClearMarksOnEditAndRebuildIndex() throws Exception {
+        // Given
+        createHighlighter(SCRIPT);
+        SwingUtilities.invokeAndWait(() -> textArea.setCaretPosition(SCRIPT.indexOf("Spam")));
+        awaitMarks(2);
+
+        // When
+        SwingUtilities.invokeAndWait(() -> {
+            textArea.append("fileinto \"Spam\";\n");
+            assertThat(highlighter.getMarkedOccurrences()).isEmpty();
+            assertThat(highlighter.getIndex()).isNull();
+            textArea.setCaretPosition(SCRIPT.indexOf("Spam"));
+        });
+
+        // Then
+        assertThat(awaitMarks(3)).hasSize(3);
+        assertThat(onEdt(() -> highlighter.getIndex().count("\"Spam\""))).isEqualTo(3);
+    }
+}
@@ -4,6 +4,7 @@ package de.febrildur.sieveeditor.ui;
 // SPDX-License-Identifier: LGPL-3.0-or-later
 
 import de.febrildur.sieveeditor.parser.SieveRule;
+import de.febrildur.sieveeditor.parser.SieveRuleParser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -60,6 +61,50 @@ class RuleNavigatorPanelTest {
         navigator.updateRules("   \n  \n  ");
     }
 
+    @Test
+    void shouldShowPreParsedRules() {
+        navigator.showRules(SieveRuleParser.parseRules("## Flag: |UniqueId:1|Rulename: Spam Filter\n"));
+
+        TitledBorder border = (TitledBorder) navigator.getBorder();
+        assertThat(border.getTitle()).isEqualTo("Script Rules (1)");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldKeepUnchangedRulesWhenShowingNewResult() throws Exception {
+        // Given
+        String before = "## Flag: |UniqueId:1|Rulename: A\n## Flag: |UniqueId:2|Rulename: B\n## Flag: |UniqueId:3|Rulename: C\n";
+        navigator.showRules(SieveRuleParser.parseRules(before));
+        java.lang.reflect.Field field = RuleNavigatorPanel.class.getDeclaredField("listModel");
+        field.setAccessible(true);
+        DefaultListModel<SieveRule> model = (DefaultListModel<SieveRule>) field.get(navigator);
+        SieveRule first = model.get(0);
+        SieveRule last = model.get(2);
+
+        // When - only the middle rule changes
+        navigator.showRules(SieveRuleParser.parseRules(before.replace("Rulename: B", "Rulename: Bee")));
+
+        // Then
+        assertThat(model.get(0)).isSameAs(first);
+        assertThat(model.get(1).getLabel()).isEqualTo("Bee");
+        assertThat(model.get(2)).isSameAs(last);
+    }
+
+    @Test
+    void shouldApplyDiffForInsertionsAndRemovals() {
+        DefaultListModel<String> model = new DefaultListModel<>();
+        model.addAll(java.util.List.of("a", "b", "c", "d"));
+
+        RuleNavigatorPanel.applyDiff(model, java.util.List.of("a", "x", "y", "d"), String::equals);
+        assertThat(java.util.Collections.list(model.elements())).containsExactly("a", "x", "y", "d");
+
+        RuleNavigatorPanel.applyDiff(model, java.util.List.of("a", "d"), String::equals);
+        assertThat(java.util.Collections.list(model.elements())).containsExactly("a", "d");
+
+        RuleNavigatorPanel.applyDiff(model, java.util.List.of("z", "a", "b", "d", "e"), String::equals);
+        assertThat(java.util.Collections.list(model.elements())).containsExactly("z", "a", "b", "d", "e");
+    }
+
     @Test
     void shouldClearAllData() {
         navigator.updateRules("# test");
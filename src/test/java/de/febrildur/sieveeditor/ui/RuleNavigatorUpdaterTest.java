@@ -0,0 +1,290 @@
+package de.febrildur.sieveeditor.ui;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import de.febrildur.sieveeditor.parser.IncrementalRuleParser;
+import de.febrildur.sieveeditor.parser.SieveParser;
+import de.febrildur.sieveeditor.parser.SieveRule;
+import de.febrildur.sieveeditor.parser.SieveRuleParser;
+import de.febrildur.sieveeditor.parser.SieveWarning;
+import de.febrildur.sieveeditor.parser.lint.LintEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import javax.swing.text.PlainDocument;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RuleNavigatorUpdaterTest {
+
+    private final PlainDocument document = new PlainDocument();
+    private final List<SieveRuleParser.ParseResult> published = new CopyOnWriteArrayList<>();
+    private RuleNavigatorUpdater updater;
+    private IncrementalRuleParser parser;
+
+    private void createUpdater() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            parser = new IncrementalRuleParser(document);
+            updater = new RuleNavigatorUpdater(document, parser, 20, 20, published::add);
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (updater != null) {
+            SwingUtilities.invokeAndWait(() -> updater.dispose());
+        }
+    }
+
+    private void edit(ThrowingRunnable edit) throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                edit.run();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+    private void awaitPublished(int count) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (published.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // Let any queued EDT work run so late publications would show up
+        SwingUtilities.invokeAndWait(() -> { });
+        assertThat(published).hasSizeGreaterThanOrEqualTo(count);
+    }
+
+    private void awaitIdle() throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!isIdle() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(isIdle()).as("updater idle").isTrue();
+    }
+
+    private boolean isIdle() throws Exception {
+        boolean[] idle = new boolean[1];
+        SwingUtilities.invokeAndWait(() -> idle[0] = updater.isIdle());
+        return idle[0];
+    }
+
+    private static String script(int rules) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 1; i <= rules; i++) {
+            text.append("## Flag: |UniqueId:").append(i).append(" |Rulename: Rule ").append(i).append("\nkeep;\n");
+        }
+        return text.toString();
+    }
+
+    @Test
+    void shouldPublishIncrementalResultAfterDebounce() throws Exception {
+        // Given
+        createUpdater();
+
+        // When
+        edit(() -> document.insertString(0, script(3), null));
+
+        // Then
+        awaitPublished(1);
+        assertThat(published.get(0).getRules()).extracting(SieveRule::getRuleNumber).containsExactly(1, 2, 3);
+        assertThat(parser.isStale()).isFalse();
+    }
+
+    @Test
+    void shouldScanLargeEditInBackground() throws Exception {
+        // Given
+        createUpdater();
+        int rules = IncrementalRuleParser.MAX_INCREMENTAL_LINES;
+
+        // When - more lines than the listener scans directly
+        edit(() -> document.insertString(0, script(rules), null));
+
+        // Then
+        assertThat(parser.isStale()).isTrue();
+        awaitPublished(1);
+        assertThat(published.get(0).getRules()).hasSize(rules);
+        assertThat(parser.isStale()).isFalse();
+    }
+
+    @Test
+    void shouldOnlyPublishScanOfLatestText() throws Exception {
+        // Given
+        createUpdater();
+        int rules = IncrementalRuleParser.MAX_INCREMENTAL_LINES;
+        edit(() -> {
+            document.insertString(0, script(rules), null);
+            updater.refreshNow(); // starts a scan of this text
+        });
+
+        // When - an edit arrives while the scan runs
+        edit(() -> document.insertString(0, "## Flag: |UniqueId:0 |Rulename: Newest\n", null));
+
+        // Then - the first scan is dropped, the result matches the final text
+        awaitPublished(1);
+        awaitIdle();
+        SieveRuleParser.ParseResult last = published.get(published.size() - 1);
+        assertThat(last.getRules()).hasSize(rules + 1);
+        assertThat(last.getRules().get(0).getLabel()).isEqualTo("Newest");
+        assertThat(published).allSatisfy(result -> assertThat(result.getRules()).hasSize(rules + 1));
+    }
+
+    @Test
+    void shouldSkipPublishingWhenRulesAreUnchanged() throws Exception {
+        // Given
+        createUpdater();
+        edit(() -> document.insertString(0, script(2), null));
+        awaitPublished(1);
+
+        // When - an edit that touches no rule
+        edit(() -> document.insertString(document.getLength(), "stop;\n", null));
+        awaitIdle();
+
+        // Then
+        assertThat(published).hasSize(1);
+    }
+
+    @Test
+    void shouldRepublishOnRefreshNow() throws Exception {
+        createUpdater();
+        edit(() -> document.insertString(0, script(1), null));
+        awaitPublished(1);
+
+        edit(() -> updater.refreshNow());
+
+        assertThat(published).hasSize(2);
+        assertThat(published.get(1)).isSameAs(published.get(0));
+    }
+
+    @Test
+    void shouldRecordMetricsForEachRefresh() throws Exception {
+        // Given
+        createUpdater();
+
+        // When
+        edit(() -> document.insertString(0, script(5), null));
+        awaitPublished(1);
+
+        // Then
+        RuleNavigatorUpdater.Metrics metrics = updater.getMetrics();
+        assertThat(metrics.refreshes()).isEqualTo(1);
+        assertThat(metrics.documentLength()).isEqualTo(document.getLength());
+        assertThat(metrics.delayMs()).isEqualTo(20);
+        assertThat(metrics.maxWaitMs()).isEqualTo(1000);
+    }
+
+    @Test
+    void shouldGrowDelayWithParseCostAndSize() {
+        assertThat(RuleNavigatorUpdater.computeDelay(0, 100, 100, 2000)).isEqualTo(100);
+        assertThat(RuleNavigatorUpdater.computeDelay(20_000, 100, 100, 2000)).isEqualTo(300);
+        assertThat(RuleNavigatorUpdater.computeDelay(0, 2_000_000, 100, 2000)).isEqualTo(200);
+        assertThat(RuleNavigatorUpdater.computeDelay(10_000_000, 0, 100, 2000)).isEqualTo(2000);
+    }
+
+    @Test
+    void shouldBoundMaximumWait() {
+        assertThat(RuleNavigatorUpdater.maxWait(100)).isEqualTo(1000);
+        assertThat(RuleNavigatorUpdater.maxWait(600)).isEqualTo(3000);
+        assertThat(RuleNavigatorUpdater.maxWait(5000)).isEqualTo(10_000);
+    }
+
+    @Test
+    void shouldForceRefreshDuringContinuousTyping() throws Exception {
+        // Given - a delay longer than the pause between keystrokes, on a fake clock
+        long[] now = {1_000_000_000L};
+        SwingUtilities.invokeAndWait(() -> {
+            parser = new IncrementalRuleParser(document);
+            updater = new RuleNavigatorUpdater(document, parser, 2000, 2000, published::add, () -> now[0]);
+        });
+        int maxWait = RuleNavigatorUpdater.maxWait(2000);
+
+        // When - a keystroke every 500 ms until the first one is the maximum wait old
+        List<Integer> delays = new ArrayList<>();
+        for (int waited = 0; waited <= maxWait; waited += 500) {
+            int next = waited;
+            edit(() -> {
+                document.insertString(document.getLength(), "## Flag: |UniqueId:" + next + " |Rulename: R\n", null);
+                delays.add(updater.getDebounceDelayMs());
+            });
+            now[0] += 500_000_000L;
+        }
+
+        // Then - the debounce delay shrinks so the last keystroke refreshes at once
+        assertThat(delays.subList(0, delays.size() - 4)).containsOnly(2000);
+        assertThat(delays.subList(delays.size() - 4, delays.size())).containsExactly(1500, 1000, 500, 0);
+
+        // When - the timer fires
+        edit(() -> updater.debounceElapsed());
+
+        // Then - the refresh counts as forced by the maximum wait
+        assertThat(published).hasSize(1);
+        assertThat(published.get(0).getRules()).hasSize(delays.size());
+        assertThat(updater.getMetrics().forcedRefreshes()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAnswerRepeatedLargeTextFromCache() throws Exception {
+        // Given
+        createUpdater();
+        String large = script(IncrementalRuleParser.MAX_INCREMENTAL_LINES);
+        edit(() -> document.insertString(0, large, null));
+        awaitPublished(1);
+
+        // When - the same script is loaded again
+        edit(() -> {
+            document.remove(0, document.getLength());
+            document.insertString(0, large, null);
+        });
+        awaitPublished(2);
+
+        // Then
+        assertThat(updater.getMetrics().cacheHits()).isEqualTo(1);
+        assertThat(published.get(published.size() - 1).getRules()).hasSize(IncrementalRuleParser.MAX_INCREMENTAL_LINES);
+    }
+
+    @Test
+    void shouldMergeLintFindingsIntoPublishedWarnings() throws Exception {
+        // Given
+        createUpdater();
+        edit(() -> updater.setLintEngine(LintEngine.withDefaultRules(), () -> null));
+
+        String text = script(1) + "fileinto \"Spam\";\n";
+
+        // When - the syntax check passes on the script it parsed
+        edit(() -> document.insertString(0, text, null));
+        edit(() -> updater.lint(SieveParser.parse(text)));
+
+        // Then - the rules first, then again with the lint findings
+        awaitPublished(2);
+        SieveRuleParser.ParseResult last = published.get(published.size() - 1);
+        assertThat(last.getRules()).extracting(SieveRule::getRuleNumber).containsExactly(1);
+        assertThat(last.getWarnings()).extracting(SieveWarning::getMessage)
+            .containsExactly("Missing require \"fileinto\"");
+    }
+
+    @Test
+    void shouldNotLintWithoutEngine() throws Exception {
+        // Given
+        createUpdater();
+        edit(() -> document.insertString(0, script(1) + "fileinto \"Spam\";\n", null));
+        awaitPublished(1);
+
+        // When
+        edit(() -> updater.lint(SieveParser.parse(script(1) + "fileinto \"Spam\";\n")));
+
+        // Then
+        awaitPublished(1);
+        assertThat(published).hasSize(1);
+        assertThat(published.get(0).getWarnings()).isEmpty();
+    }
+}
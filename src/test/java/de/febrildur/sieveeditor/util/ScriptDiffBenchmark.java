@@ -0,0 +1,67 @@
+package de.febrildur.sieveeditor.util;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares two versions of a 10k-rule script in which every tenth rule was
+ * edited, every hundredth removed and a block of rules moved.
+ *
+ * <p>Run with {@code mvn test-compile exec:exec -Pbenchmarks -Dbenchmark=ScriptDiffBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScriptDiffBenchmark {
+
+    private static final int RULES = 10_000;
+
+    private String oldScript;
+    private String newScript;
+
+    @Setup
+    public void createScripts() {
+        StringBuilder before = new StringBuilder("require [\"fileinto\"];\n");
+        StringBuilder moved = new StringBuilder();
+        StringBuilder after = new StringBuilder("require [\"fileinto\"];\n");
+        for (int i = 0; i < RULES; i++) {
+            before.append(rule(i, "Folder/" + i));
+            if (i % 100 == 99) {
+                continue;
+            }
+            String rule = rule(i, i % 10 == 0 ? "Changed/" + i : "Folder/" + i);
+            (i >= 5000 && i < 5100 ? moved : after).append(rule);
+        }
+        after.append(moved);
+        oldScript = before.toString();
+        newScript = after.toString();
+    }
+
+    private static String rule(int id, String folder) {
+        return "## Flag: |UniqueId:" + id + " |Rulename: Rule " + id + "\n"
+            + "if header :contains \"subject\" \"topic " + id + "\" {\n"
+            + "\tfileinto \"" + folder + "\";\n"
+            + "}\n";
+    }
+
+    @Benchmark
+    public ScriptDiff compare() {
+        return ScriptDiff.compare(oldScript, newScript);
+    }
+}
@@ -0,0 +1,211 @@
+package de.febrildur.sieveeditor.util;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import org.junit.jupiter.api.Test;
+
+import de.febrildur.sieveeditor.util.ScriptDiff.ChangeType;
+import de.febrildur.sieveeditor.util.ScriptDiff.RuleChange;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ScriptDiffTest {
+
+    private static final String HEADER = "require [\"fileinto\"];\n";
+
+    private static String rule(int id, String name, String action) {
+        return "## Flag: |UniqueId:" + id + " |Rulename: " + name + "\n"
+                + "if header :contains \"subject\" \"" + name + "\" {\n"
+                + "    " + action + ";\n"
+                + "}\n";
+    }
+
+    @Test
+    void shouldFindNoChangesInLayoutAndSpelling() {
+        // Given
+        String oldScript = HEADER + rule(1, "Spam", "fileinto \"Junk\"");
+        String newScript = "require \"fileinto\";\n"
+                + "## Flag: |UniqueId:1 |Rulename: Spam\n"
+                + "IF Header :Contains [\"subject\"] \"Spam\" { # spam filter\n"
+                + "\tFileinto \"Junk\" ;}\n";
+
+        // When
+        ScriptDiff diff = ScriptDiff.compare(oldScript, newScript);
+
+        // Then
+        assertThat(diff.isEmpty()).isTrue();
+        assertThat(diff.getSummary()).isEqualTo("No changes");
+    }
+
+    @Test
+    void shouldReportAddedAndRemovedRules() {
+        // Given
+        String oldScript = HEADER + rule(1, "Spam", "discard") + rule(2, "Lists", "stop");
+        String newScript = HEADER + rule(1, "Spam", "discard") + rule(3, "News", "keep");
+
+        // When
+        ScriptDiff diff = ScriptDiff.compare(oldScript, newScript);
+
+        // Then
+        assertThat(diff.getChanges()).extracting(RuleChange::getId, RuleChange::getTypes)
+                .containsExactly(
+                        tuple(3, Set.of(ChangeType.ADDED)),
+                        tuple(2, Set.of(ChangeType.REMOVED)));
+        assertThat(diff.getChanges().get(0).getLine()).isEqualTo(6);
+        assertThat(diff.getChanges().get(1).getOldLine()).isEqualTo(6);
+        assertThat(diff.getSummary()).isEqualTo("1 added, 1 removed");
+    }
+
+    @Test
+    void shouldReportChangedConditionsAndActions() {
+        // Given
+        String oldScript = HEADER + rule(1, "Spam", "fileinto \"Junk\"");
+        String newScript = HEADER
+                + "## Flag: |UniqueId:1 |Rulename: Spam\n"
+                + "if header :contains \"subject\" \"SPAM\" {\n"
+                + "    fileinto \"Junk\";\n"
+                + "    stop;\n"
+                + "}\n";
+
+        // When
+        ScriptDiff diff = ScriptDiff.compare(oldScript, newScript);
+
+        // Then
+        RuleChange change = diff.getChanges().get(0);
+        assertThat(change.getTypes()).containsExactly(ChangeType.MODIFIED);
+        assertThat(change.getRemovedConditions()).containsExactly("header :contains \"subject\" \"Spam\"");
+        assertThat(change.getAddedConditions()).containsExactly("header :contains \"subject\" \"SPAM\"");
+        assertThat(change.getAddedActions()).containsExactly("stop");
+        assertThat(change.getRemovedActions()).isEmpty();
+        assertThat(change.describe()).isEqualTo("""
+                ~ Rule 1 "Spam" modified at line 2
+                    - condition: header :contains "subject" "Spam"
+                    + condition: header :contains "subject" "SPAM"
+                    + action: stop""");
+    }
+
+    @Test
+    void shouldReportRenamedRule() {
+        // Given
+        String oldScript = rule(1, "Spam", "discard");
+        String newScript = oldScript.replace("Rulename: Spam", "Rulename: Junk mail");
+
+        // When
+        ScriptDiff diff = ScriptDiff.compare(oldScript, newScript);
+
+        // Then
+        assertThat(diff.getChanges()).singleElement().satisfies(change -> {
+            assertThat(change.is(ChangeType.MODIFIED)).isTrue();
+            assertThat(change.isRenamed()).isTrue();
+            assertThat(change.getOldName()).isEqualTo("Spam");
+            assertThat(change.getName()).isEqualTo("Junk mail");
+        });
+    }
+
+    @Test
+    void shouldReportOnlyRulesThatLeftTheirOrderAsMoved() {
+        // Given - rule 4 moved to the front, the others kept their order
+        String oldScript = rule(1, "a", "keep") + rule(2, "b", "keep") + rule(3, "c", "keep") + rule(4, "d", "keep");
+        String newScript = rule(4, "d", "keep") + rule(1, "a", "keep") + rule(2, "b", "keep") + rule(3, "c", "keep");
+
+        // When
+        ScriptDiff diff = ScriptDiff.compare(oldScript, newScript);
+
+        // Then
+        assertThat(diff.getChanges()).singleElement().satisfies(change -> {
+            assertThat(change.getId()).isEqualTo(4);
+            assertThat(change.getTypes()).containsExactly(ChangeType.MOVED);
+            assertThat(change.getOldLine()).isEqualTo(13);
+            assertThat(change.getLine()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void shouldReportModifiedAndMovedTogether() {
+        // Given
+        String oldScript = rule(1, "a", "keep") + rule(2, "b", "keep");
+        String newScript = rule(2, "b", "discard") + rule(1, "a", "keep");
+
+        // When
+        ScriptDiff diff = ScriptDiff.compare(oldScript, newScript);
+
+        // Then
+        assertThat(diff.getChanges()).extracting(RuleChange::getId).containsExactly(2);
+        assertThat(diff.getChanges().get(0).getTypes()).containsExactlyInAnyOrder(ChangeType.MODIFIED, ChangeType.MOVED);
+        assertThat(diff.getReport()).startsWith("1 modified, 1 moved\n~ Rule 2 \"b\" modified and moved from line 5 to 1");
+    }
+
+    @Test
+    void shouldReportRearrangedActionsAsModified() {
+        // Given - same actions, but one moved into the else branch
+        String oldScript = "## Flag: |UniqueId:1 |Rulename: a\nif true { keep; stop; }\n";
+        String newScript = "## Flag: |UniqueId:1 |Rulename: a\nif true { keep; } else { stop; }\n";
+
+        // When
+        ScriptDiff diff = ScriptDiff.compare(oldScript, newScript);
+
+        // Then
+        RuleChange change = diff.getChanges().get(0);
+        assertThat(change.is(ChangeType.MODIFIED)).isTrue();
+        assertThat(change.describe()).endsWith("same conditions and actions, arranged differently");
+    }
+
+    @Test
+    void shouldCompareScriptHeader() {
+        // Given
+        String oldScript = HEADER + rule(1, "a", "keep");
+        String newScript = "require [\"fileinto\", \"imap4flags\"];\n" + rule(1, "a", "keep");
+
+        // When
+        List<RuleChange> changes = ScriptDiff.compare(oldScript, newScript).getChanges();
+
+        // Then
+        assertThat(changes).singleElement().satisfies(change -> {
+            assertThat(change.getId()).isEqualTo(ScriptDiff.HEADER_ID);
+            assertThat(change.getAddedActions()).containsExactly("require [\"fileinto\", \"imap4flags\"]");
+            assertThat(change.describe()).startsWith("~ Script header modified at line 1");
+        });
+    }
+
+    @Test
+    void shouldMatchDuplicateIdsByOccurrence() {
+        // Given
+        String oldScript = rule(1, "a", "keep") + rule(1, "b", "keep");
+        String newScript = rule(1, "a", "keep") + rule(1, "b", "discard");
+
+        // When
+        ScriptDiff diff = ScriptDiff.compare(oldScript, newScript);
+
+        // Then
+        assertThat(diff.getChanges()).singleElement()
+                .satisfies(change -> assertThat(change.getName()).isEqualTo("b"));
+    }
+
+    @Test
+    void shouldRefuseNewVersionWithSyntaxErrors() {
+        // Given - an action the parser would skip
+        String oldScript = HEADER + rule(1, "Spam", "keep");
+        String newScript = HEADER + rule(1, "Spam", "keep;\n    fileinto \"Junk\" @@");
+
+        // When / Then
+        assertThatThrownBy(() -> ScriptDiff.compare(oldScript, newScript))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("New version, line 5: ");
+    }
+
+    @Test
+    void shouldRefuseOldVersionWithSyntaxErrors() {
+        // Given
+        String oldScript = HEADER + rule(1, "Spam", "keep {");
+        String newScript = HEADER + rule(1, "Spam", "keep");
+
+        // When / Then
+        assertThatThrownBy(() -> ScriptDiff.compare(oldScript, newScript))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Old version, line ");
+    }
+}
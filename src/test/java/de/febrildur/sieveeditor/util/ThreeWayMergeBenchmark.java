@@ -0,0 +1,71 @@
+package de.febrildur.sieveeditor.util;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Merges a 200-rule script (about 4000 lines) with 50 scattered edits on
+ * each side.
+ *
+ * <p>Run with {@code mvn test-compile exec:exec -Pbenchmarks -Dbenchmark=ThreeWayMergeBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThreeWayMergeBenchmark {
+
+    private String base;
+    private String ours;
+    private String theirs;
+
+    @Setup
+    public void createScripts() {
+        StringBuilder text = new StringBuilder("require [\"fileinto\"];\n");
+        for (int i = 1; i <= 200; i++) {
+            text.append("## Flag: |UniqueId:").append(i).append(" |Rulename: Rule ").append(i).append('\n')
+                    .append("if header :contains \"subject\" \"Rule ").append(i).append("\" {\n")
+                    .append("    fileinto \"Folder").append(i).append("\";\n")
+                    .append("}\n");
+            for (int j = 0; j < 16; j++) {
+                text.append("# filler ").append(i).append(' ').append(j).append('\n');
+            }
+        }
+        base = text.toString();
+        String[] lines = base.split("\n", -1);
+        String[] mine = lines.clone();
+        String[] server = lines.clone();
+        Random random = new Random(42);
+        for (int i = 0; i < 100; i++) {
+            int line = random.nextInt(lines.length - 1);
+            if (i % 2 == 0) {
+                mine[line] = mine[line] + " # mine";
+            } else {
+                server[line] = server[line] + " # server";
+            }
+        }
+        ours = String.join("\n", mine);
+        theirs = String.join("\n", server);
+    }
+
+    @Benchmark
+    public ThreeWayMerge.MergeResult merge() {
+        return ThreeWayMerge.merge(base, ours, theirs);
+    }
+}
@@ -0,0 +1,235 @@
+package de.febrildur.sieveeditor.util;
+// SPDX-FileCopyrightText: 2026 Lenucksi
+//
+// SPDX-License-Identifier: LGPL-3.0-or-later
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ThreeWayMergeTest {
+
+    private static String lines(String... lines) {
+        return String.join("\n", lines) + "\n";
+    }
+
+    private static String rule(int id, String name, String action) {
+        return "## Flag: |UniqueId:" + id + " |Rulename: " + name + "\n"
+                + "if header :contains \"subject\" \"" + name + "\" {\n"
+                + "    " + action + ";\n"
+                + "}\n";
+    }
+
+    @Test
+    void shouldReturnOursWhenServerUnchanged() {
+        String base = lines("a", "b", "c");
+        String ours = lines("a", "B", "c");
+
+        ThreeWayMerge.MergeResult result = ThreeWayMerge.merge(base, ours, base);
+
+        assertThat(result.hasConflicts()).isFalse();
+        assertThat(result.getMergedText()).isEqualTo(ours);
+    }
+
+    @Test
+    void shouldReturnTheirsWhenEditorUnchanged() {
+        String base = lines("a", "b", "c");
+        String theirs = lines("a", "b", "c", "d");
+
+        ThreeWayMerge.MergeResult result = ThreeWayMerge.merge(base, base, theirs);
+
+        assertThat(result.getMergedText()).isEqualTo(theirs);
+    }
+
+    @Test
+    void shouldMergeNonOverlappingLineChanges() {
+        // Given
+        String base = lines("require \"fileinto\";", "a", "b", "c", "d", "e");
+        String ours = lines("require \"fileinto\";", "A", "b", "c", "d", "e");
+        String theirs = lines("require \"fileinto\";", "a", "b", "c", "d", "E");
+
+        // When
+        ThreeWayMerge.MergeResult result = ThreeWayMerge.merge(base, ours, theirs);
+
+        // Then
+        assertThat(result.hasConflicts()).isFalse();
+        assertThat(result.getAutoMergedCount()).isEqualTo(2);
+        assertThat(result.getMergedText()).isEqualTo(lines("require \"fileinto\";", "A", "b", "c", "d", "E"));
+    }
+
+    @Test
+    void shouldAcceptIdenticalChangesOnBothSides() {
+        String base = lines("a", "b", "c");
+        String both = lines("a", "x", "c");
+
+        ThreeWayMerge.MergeResult result = ThreeWayMerge.merge(base, both, both);
+
+        assertThat(result.hasConflicts()).isFalse();
+        assertThat(result.getChunks()).extracting(ThreeWayMerge.Chunk::getType)
+                .contains(ThreeWayMerge.ChunkType.BOTH);
+        assertThat(result.getMergedText()).isEqualTo(both);
+    }
+
+    @Test
+    void shouldReportConflictWithMarkers() {
+        // Given
+        String base = lines("a", "b", "c");
+        String ours = lines("a", "mine", "c");
+        String theirs = lines("a", "server", "c");
+
+        // When
+        ThreeWayMerge.MergeResult result = ThreeWayMerge.merge(base, ours, theirs);
+
+        // Then
+        assertThat(result.getConflictCount()).isEqualTo(1);
+        assertThat(result.getMergedText()).isEqualTo(lines("a",
+                ThreeWayMerge.MARKER_OURS, "mine",
+                ThreeWayMerge.MARKER_BASE, "b",
+                ThreeWayMerge.MARKER_SEPARATOR, "server",
+                ThreeWayMerge.MARKER_THEIRS, "c"));
+    }
+
+    @Test
+    void shouldKeepRuleAddedOnServerAndRuleEditedLocallyApart() {
+        // Given - both sides append at the same place, but to different rules
+        String base = rule(1, "Spam", "discard") + rule(2, "Lists", "keep");
+        String ours = rule(1, "Spam", "discard") + rule(2, "Lists", "fileinto \"Lists\"");
+        String theirs = base + rule(3, "Invoices", "fileinto \"Invoices\"");
+
+        // When
+        ThreeWayMerge.MergeResult result = ThreeWayMerge.merge(base, ours, theirs);
+
+        // Then
+        assertThat(result.hasConflicts()).isFalse();
+        assertThat(result.getMergedText()).isEqualTo(ours + rule(3, "Invoices", "fileinto \"Invoices\""));
+    }
+
+    @Test
+    void shouldMatchRuleSectionsByUniqueIdWhenReordered() {
+        // Given - editor moved rule 2 to the top, server edited rule 2
+        String base = rule(1, "Spam", "discard") + rule(2, "Lists", "keep");
+        String ours = rule(2, "Lists", "keep") + rule(1, "Spam", "discard");
+        String theirs = rule(1, "Spam", "discard") + rule(2, "Lists", "stop");
+
+        // When
+        ThreeWayMerge.MergeResult result = ThreeWayMerge.merge(base, ours, theirs);
+
+        // Then
+        assertThat(result.hasConflicts()).isFalse();
+        assertThat(result.getMergedText()).isEqualTo(rule(2, "Lists", "stop") + rule(1, "Spam", "discard"));
+    }
+
+    @Test
+    void shouldDropRuleDeletedOnServerWhenUnchangedLocally() {
+        String base = rule(1, "Spam", "discard") + rule(2, "Lists", "keep");
+        String ours = rule(1, "Spam", "stop") + rule(2, "Lists", "keep");
+        String theirs = rule(1, "Spam", "discard");
+
+        ThreeWayMerge.MergeResult result = ThreeWayMerge.merge(base, ours, theirs);
+
+        assertThat(result.hasConflicts()).isFalse();
+        assertThat(result.getMergedText()).isEqualTo(rule(1, "Spam", "stop"));
+    }
+
+    @Test
+    void shouldConflictWhenRuleDeletedOnServerButEditedLocally() {
+        String base = rule(1, "Spam", "discard") + rule(2, "Lists", "keep");
+        String ours = rule(1, "Spam", "discard") + rule(2, "Lists", "stop");
+        String theirs = rule(1, "Spam", "discard");
+
+        ThreeWayMerge.MergeResult result = ThreeWayMerge.merge(base, ours, theirs);
+
+        assertThat(result.getConflictCount()).isEqualTo(1);
+        assertThat(result.getMergedText()).contains(ThreeWayMerge.MARKER_OURS).contains("stop;");
+    }
+
+    @Test
+    void shouldFallBackToPlainMergeOnDuplicateUniqueIds() {
+        String base = rule(1, "A", "keep") + rule(1, "B", "keep");
+        String ours = rule(1, "A", "stop") + rule(1, "B", "keep");
+
+        ThreeWayMerge.MergeResult result = ThreeWayMerge.merge(base, ours, base);
+
+        assertThat(result.getMergedText()).isEqualTo(ours);
+    }
+
+    @Test
+    void shouldResolveConflictWithChosenSide() {
+        String merged = ThreeWayMerge.merge(lines("a", "b", "c"), lines("a", "mine", "c"),
+                lines("a", "server", "c")).getMergedText();
+
+        assertThat(ThreeWayMerge.resolveConflict(merged, 0, ThreeWayMerge.Side.OURS))
+                .isEqualTo(lines("a", "mine", "c"));
+        assertThat(ThreeWayMerge.resolveConflict(merged, 0, ThreeWayMerge.Side.THEIRS))
+                .isEqualTo(lines("a", "server", "c"));
+        assertThat(ThreeWayMerge.resolveConflict(merged, 0, ThreeWayMerge.Side.BOTH))
+                .isEqualTo(lines("a", "mine", "server", "c"));
+    }
+
+    @Test
+    void shouldCountConflicts() {
+        String merged = ThreeWayMerge.merge(lines("a", "b", "c", "d", "e"),
+                lines("A", "b", "c", "d", "E"), lines("1", "b", "c", "d", "5")).getMergedText();
+
+        assertThat(ThreeWayMerge.countConflicts(merged)).isEqualTo(2);
+        assertThat(ThreeWayMerge.countConflicts(lines("a", "b"))).isZero();
+    }
+
+    @Test
+    void shouldLeaveTextWithoutConflictsUnchanged() {
+        assertThat(ThreeWayMerge.resolveConflict("keep;\n", 0, ThreeWayMerge.Side.OURS)).isEqualTo("keep;\n");
+    }
+
+    @Test
+    void shouldComputeLongestCommonSubsequence() {
+        int[] x = {1, 2, 3, 4, 5, 6};
+        int[] y = {1, 3, 4, 7, 6};
+
+        int[] matches = ThreeWayMerge.match(x, 0, x.length, y, 0, y.length);
+
+        assertThat(matches).containsExactly(0, -1, 1, 2, -1, 4);
+    }
+
+    @Test
+    void shouldMergeLargeScriptsWithoutLosingEdits() {
+        // Given - 200 rules (~4000 lines) with scattered edits on both sides
+        StringBuilder base = new StringBuilder("require [\"fileinto\"];\n");
+        for (int i = 1; i <= 200; i++) {
+            base.append(rule(i, "Rule " + i, "fileinto \"Folder" + i + "\""));
+            for (int j = 0; j < 16; j++) {
+                base.append("# filler ").append(i).append(' ').append(j).append('\n');
+            }
+        }
+        String[] lines = base.toString().split("\n", -1);
+        String[] ours = lines.clone();
+        String[] theirs = lines.clone();
+        Random random = new Random(42);
+        for (int i = 0; i < 100; i++) {
+            int line = random.nextInt(lines.length - 1);
+            if (i % 2 == 0) {
+                ours[line] = ours[line] + " # mine";
+            } else {
+                theirs[line] = theirs[line] + " # server";
+            }
+        }
+
+        // When
+        ThreeWayMerge.MergeResult result = ThreeWayMerge.merge(base.toString(),
+                String.join("\n", ours), String.join("\n", theirs));
+
+        // Then - every edit survives, merged or inside a conflict
+        assertThat(lines.length).isGreaterThan(4000);
+        assertThat(result.getAutoMergedCount()).isPositive();
+        String merged = result.getMergedText();
+        for (int i = 0; i < lines.length; i++) {
+            if (!ours[i].equals(lines[i])) {
+                assertThat(merged).contains(ours[i]);
+            }
+            if (!theirs[i].equals(lines[i])) {
+                assertThat(merged).contains(theirs[i]);
+            }
+        }
+    }
+}